@@ -1,17 +1,48 @@
 package com.kymatic.shared.multitenancy;
 
 public class TenantContext {
-    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+    private static final ThreadLocal<Current> CURRENT_TENANT = new ThreadLocal<>();
 
     public static void setTenantId(String tenantId) {
-        CURRENT_TENANT.set(tenantId);
+        CURRENT_TENANT.set(new Current(tenantId, null));
     }
 
     public static String getTenantId() {
-        return CURRENT_TENANT.get();
+        Current current = CURRENT_TENANT.get();
+        return current != null ? current.tenantId : null;
+    }
+
+    /**
+     * Set the tenant together with its pre-resolved routing handle, so data access in the
+     * same request does not have to resolve the tenant again.
+     */
+    public static void setTenant(String tenantId, Object routingHandle) {
+        CURRENT_TENANT.set(new Current(tenantId, routingHandle));
+    }
+
+    /**
+     * Attach a routing handle to the current tenant. Ignored when no tenant is set.
+     */
+    public static void setRoutingHandle(Object routingHandle) {
+        Current current = CURRENT_TENANT.get();
+        if (current != null) {
+            CURRENT_TENANT.set(new Current(current.tenantId, routingHandle));
+        }
+    }
+
+    /**
+     * Routing handle resolved for the current tenant, or null if none has been resolved yet.
+     * Changing the tenant via {@link #setTenantId(String)} drops the handle.
+     */
+    public static Object getRoutingHandle() {
+        Current current = CURRENT_TENANT.get();
+        return current != null ? current.routingHandle : null;
     }
 
     public static void clear() {
         CURRENT_TENANT.remove();
     }
+
+    private record Current(String tenantId, Object routingHandle) {
+    }
 }
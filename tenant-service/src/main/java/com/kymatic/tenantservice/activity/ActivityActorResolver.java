@@ -0,0 +1,85 @@
+package com.kymatic.tenantservice.activity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maps the authenticated principal to the current tenant's users.user_id, for the user_id of
+ * activity_log rows and for the request rules of PermissionAuthorization.
+ *
+ * The JWT subject is a Keycloak or platform account id, not a tenant user id, so the principal
+ * is matched by its email claim (or an email-shaped name) against users.email. Lookups are cached
+ * per tenant, including misses such as platform administrators without a tenant user, so a
+ * request logging several events reads the users table at most once.
+ */
+@Component
+public class ActivityActorResolver {
+
+    private static final String EMAIL_CLAIM = "email";
+
+    private final UserRepository userRepository;
+    private final Cache<ActorKey, Optional<UUID>> userIds;
+
+    public ActivityActorResolver(
+        UserRepository userRepository,
+        @Value("${tenant.activity-log.actor-cache.maximum-size:10000}") long maximumSize,
+        @Value("${tenant.activity-log.actor-cache.ttl:5m}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.userIds = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Tenant user id of the authenticated principal, or null when there is no principal, no
+     * tenant bound, or no tenant user with the principal's email.
+     */
+    public UUID currentUserId() {
+        return userId(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * Tenant user id of the given principal in the current tenant, or null as for
+     * {@link #currentUserId()}.
+     */
+    public UUID userId(Authentication authentication) {
+        String tenantId = TenantContext.getTenantId();
+        String email = email(authentication);
+        if (tenantId == null || email == null) {
+            return null;
+        }
+        return userIds.get(new ActorKey(tenantId, email), key ->
+            userRepository.findByEmail(key.email()).map(UserEntity::getUserId)).orElse(null);
+    }
+
+    private static String email(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof Jwt jwt) {
+            String email = jwt.getClaimAsString(EMAIL_CLAIM);
+            if (email != null && !email.isBlank()) {
+                return email;
+            }
+        }
+        String name = authentication.getName();
+        return name != null && name.indexOf('@') > 0 ? name : null;
+    }
+
+    private record ActorKey(String tenantId, String email) {
+    }
+}
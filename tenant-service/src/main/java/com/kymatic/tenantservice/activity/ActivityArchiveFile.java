@@ -0,0 +1,639 @@
+package com.kymatic.tenantservice.activity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed columnar file of archived activity_log rows.
+ *
+ * Rows are stored in (created_at, log_id) order, in row groups of up to groupSize rows. Within
+ * a group every column is one deflate-compressed chunk: log_id and created_at (epoch
+ * microseconds) as delta varints, tenant_id, action and entity_type dictionary-encoded, UUIDs as
+ * 16 bytes behind a null flag, other text as length-prefixed UTF-8. The footer holds the row
+ * count, the created_at range and the chunk offsets of each group:
+ *
+ * <pre>
+ * magic | chunks of group 0 | chunks of group 1 | ... | footer | footer offset (long) | magic
+ * </pre>
+ *
+ * A reader maps the file read-only and inflates chunks straight from the mapping. A scan skips
+ * groups outside the created_at range, decodes the filtered columns first and the remaining
+ * columns only for groups with a match. Besides the full scan, rows can be read newest first up
+ * to a limit, or streamed one group at a time.
+ */
+public final class ActivityArchiveFile implements AutoCloseable {
+
+    private static final byte[] MAGIC = {'K', 'A', 'C', '1'};
+    private static final int TRAILER_SIZE = Long.BYTES + 4;
+
+    private static final int LOG_ID = 0;
+    private static final int CREATED_AT = 1;
+    private static final int TENANT_ID = 2;
+    private static final int SITE_ID = 3;
+    private static final int USER_ID = 4;
+    private static final int ACTION = 5;
+    private static final int ENTITY_TYPE = 6;
+    private static final int ENTITY_ID = 7;
+    private static final int ENTITY_NAME = 8;
+    private static final int CHANGES = 9;
+    private static final int IP_ADDRESS = 10;
+    private static final int USER_AGENT = 11;
+    private static final int COLUMNS = 12;
+
+    private final Path file;
+    private final FileChannel channel;
+    // The whole file when it fits one mapping, else null and each chunk is mapped on its own
+    private final MappedByteBuffer mapped;
+    private final List<Group> groups;
+
+    private ActivityArchiveFile(Path file, FileChannel channel, MappedByteBuffer mapped, List<Group> groups) {
+        this.file = file;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.groups = groups;
+    }
+
+    /**
+     * Write the rows, which must be in (created_at, log_id) order, to a new file.
+     *
+     * @return number of rows written
+     */
+    public static long write(Path target, Iterator<ArchivedActivity> rows, int groupSize) throws IOException {
+        try (Writer writer = create(target, groupSize)) {
+            while (rows.hasNext()) {
+                writer.append(rows.next());
+            }
+            writer.finish();
+            return writer.count;
+        }
+    }
+
+    /**
+     * Start a new file; append the rows in (created_at, log_id) order, then call
+     * {@link Writer#finish()}. A writer closed without finish leaves an incomplete file.
+     */
+    public static Writer create(Path target, int groupSize) throws IOException {
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("Row group size must be positive: " + groupSize);
+        }
+        return new Writer(target, groupSize);
+    }
+
+    /**
+     * Open an archive file for reading.
+     *
+     * @throws IOException when the file is not a complete activity archive
+     */
+    public static ActivityArchiveFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < MAGIC.length + TRAILER_SIZE) {
+                throw new IOException("Not an activity archive: " + file);
+            }
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if (!hasMagic(trailer) || footerOffset < MAGIC.length || footerOffset > size - TRAILER_SIZE) {
+                throw new IOException("Not an activity archive: " + file);
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, footerOffset, size - TRAILER_SIZE - footerOffset);
+            int groupCount = footer.getInt();
+            List<Group> groups = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                int rows = footer.getInt();
+                long minCreatedAt = footer.getLong();
+                long maxCreatedAt = footer.getLong();
+                Chunk[] chunks = new Chunk[COLUMNS];
+                for (int c = 0; c < COLUMNS; c++) {
+                    chunks[c] = new Chunk(footer.getLong(), footer.getInt(), footer.getInt());
+                }
+                groups.add(new Group(rows, minCreatedAt, maxCreatedAt, chunks));
+            }
+            MappedByteBuffer mapped = size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            return new ActivityArchiveFile(file, channel, mapped, groups);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException io ? io : new IOException("Corrupt activity archive: " + file, e);
+        }
+    }
+
+    public long rowCount() {
+        return groups.stream().mapToLong(group -> group.rows).sum();
+    }
+
+    /**
+     * Rows matching the query, in (created_at, log_id) order.
+     */
+    public List<ArchivedActivity> scan(ActivityArchiveQuery query) throws IOException {
+        long from = from(query);
+        long to = to(query);
+        List<ArchivedActivity> result = new ArrayList<>();
+        Inflater inflater = new Inflater();
+        try {
+            for (Group group : groups) {
+                if (overlaps(group, from, to)) {
+                    scanGroup(group, query, from, to, inflater, result);
+                }
+            }
+        } catch (DataFormatException | RuntimeException e) {
+            throw corrupt(e);
+        } finally {
+            inflater.end();
+        }
+        return result;
+    }
+
+    /**
+     * Up to limit rows matching the query, newest first: in descending (created_at, log_id)
+     * order and before the given position, if any. Groups are read from the newest, and the
+     * scan stops at the group that completes the limit.
+     */
+    public List<ArchivedActivity> scanNewest(ActivityArchiveQuery query, ActivityArchiveQuery.Position before, int limit)
+        throws IOException {
+        long from = from(query);
+        long to = before != null ? Math.min(to(query), micros(before.createdAt()) + 1) : to(query);
+        List<ArchivedActivity> result = new ArrayList<>();
+        List<ArchivedActivity> groupRows = new ArrayList<>();
+        Inflater inflater = new Inflater();
+        try {
+            for (int g = groups.size() - 1; g >= 0 && result.size() < limit; g--) {
+                Group group = groups.get(g);
+                if (!overlaps(group, from, to)) {
+                    continue;
+                }
+                groupRows.clear();
+                scanGroup(group, query, from, to, inflater, groupRows);
+                for (int i = groupRows.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    ArchivedActivity row = groupRows.get(i);
+                    if (before == null || before.isAfter(row)) {
+                        result.add(row);
+                    }
+                }
+            }
+        } catch (DataFormatException | RuntimeException e) {
+            throw corrupt(e);
+        } finally {
+            inflater.end();
+        }
+        return result;
+    }
+
+    /**
+     * Rows matching the query, in (created_at, log_id) order, decoded one group at a time as the
+     * stream is consumed. Close the stream, and consume it before closing the file.
+     *
+     * @throws UncheckedIOException from the stream when a group is corrupt
+     */
+    public Stream<ArchivedActivity> stream(ActivityArchiveQuery query) {
+        long from = from(query);
+        long to = to(query);
+        Inflater inflater = new Inflater();
+        return groups.stream()
+            .filter(group -> overlaps(group, from, to))
+            .flatMap(group -> {
+                List<ArchivedActivity> rows = new ArrayList<>();
+                try {
+                    scanGroup(group, query, from, to, inflater, rows);
+                } catch (IOException | DataFormatException | RuntimeException e) {
+                    throw new UncheckedIOException(corrupt(e));
+                }
+                return rows.stream();
+            })
+            .onClose(inflater::end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long from(ActivityArchiveQuery query) {
+        return query.from() != null ? micros(query.from()) : Long.MIN_VALUE;
+    }
+
+    private static long to(ActivityArchiveQuery query) {
+        return query.to() != null ? micros(query.to()) : Long.MAX_VALUE;
+    }
+
+    private static boolean overlaps(Group group, long from, long to) {
+        return group.rows > 0 && group.maxCreatedAt >= from && group.minCreatedAt < to;
+    }
+
+    private IOException corrupt(Exception cause) {
+        return new IOException("Corrupt activity archive: " + file, cause);
+    }
+
+    private void scanGroup(Group group, ActivityArchiveQuery query, long from, long to, Inflater inflater,
+                           List<ArchivedActivity> result) throws IOException, DataFormatException {
+        int rows = group.rows;
+        long[] createdAt = readDeltas(inflate(group, CREATED_AT, inflater), rows);
+        BitSet selected = new BitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            if (createdAt[i] >= from && createdAt[i] < to) {
+                selected.set(i);
+            }
+        }
+        long[] logId = null;
+        if (!selected.isEmpty() && query.logId() != null) {
+            logId = readDeltas(inflate(group, LOG_ID, inflater), rows);
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                if (logId[i] != query.logId()) {
+                    selected.clear(i);
+                }
+            }
+        }
+        if (!selected.isEmpty() && query.userId() != null) {
+            retainEqual(selected, readUuids(inflate(group, USER_ID, inflater), rows), query.userId());
+        }
+        if (!selected.isEmpty() && query.action() != null) {
+            retainEqual(selected, readDictionary(inflate(group, ACTION, inflater), rows), query.action());
+        }
+        if (!selected.isEmpty() && query.entityType() != null) {
+            retainEqual(selected, readDictionary(inflate(group, ENTITY_TYPE, inflater), rows), query.entityType());
+        }
+        if (!selected.isEmpty() && query.entityId() != null) {
+            retainEqual(selected, readUuids(inflate(group, ENTITY_ID, inflater), rows), query.entityId());
+        }
+        if (selected.isEmpty()) {
+            return;
+        }
+        if (logId == null) {
+            logId = readDeltas(inflate(group, LOG_ID, inflater), rows);
+        }
+        String[] tenantId = readDictionary(inflate(group, TENANT_ID, inflater), rows);
+        UUID[] siteId = readUuids(inflate(group, SITE_ID, inflater), rows);
+        UUID[] userId = readUuids(inflate(group, USER_ID, inflater), rows);
+        String[] action = readDictionary(inflate(group, ACTION, inflater), rows);
+        String[] entityType = readDictionary(inflate(group, ENTITY_TYPE, inflater), rows);
+        UUID[] entityId = readUuids(inflate(group, ENTITY_ID, inflater), rows);
+        String[] entityName = readStrings(inflate(group, ENTITY_NAME, inflater), rows);
+        String[] changes = readStrings(inflate(group, CHANGES, inflater), rows);
+        String[] ipAddress = readStrings(inflate(group, IP_ADDRESS, inflater), rows);
+        String[] userAgent = readStrings(inflate(group, USER_AGENT, inflater), rows);
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(new ArchivedActivity(logId[i], tenantId[i], siteId[i], userId[i], action[i], entityType[i],
+                entityId[i], entityName[i], changes[i], ipAddress[i], userAgent[i], instant(createdAt[i])));
+        }
+    }
+
+    private ByteBuffer inflate(Group group, int column, Inflater inflater) throws IOException, DataFormatException {
+        Chunk chunk = group.chunks[column];
+        ByteBuffer compressed = mapped != null
+            ? mapped.slice((int) chunk.offset, chunk.compressedLength)
+            : channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset, chunk.compressedLength);
+        byte[] raw = new byte[chunk.rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        int length = 0;
+        while (length < raw.length) {
+            int inflated = inflater.inflate(raw, length, raw.length - length);
+            if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("Truncated column chunk");
+            }
+            length += inflated;
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private static Group writeGroup(CountingOutputStream out, List<ArchivedActivity> rows, Deflater deflater) throws IOException {
+        Chunk[] chunks = new Chunk[COLUMNS];
+        Encoder encoder = new Encoder();
+        byte[] compressed = new byte[8192];
+        for (int column = 0; column < COLUMNS; column++) {
+            encoder.reset();
+            encode(encoder, column, rows);
+            long offset = out.position;
+            deflater.reset();
+            deflater.setInput(encoder.buffer, 0, encoder.length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int length = deflater.deflate(compressed);
+                out.write(compressed, 0, length);
+            }
+            chunks[column] = new Chunk(offset, (int) (out.position - offset), encoder.length);
+        }
+        return new Group(rows.size(), micros(rows.get(0).createdAt()), micros(rows.get(rows.size() - 1).createdAt()), chunks);
+    }
+
+    private static void encode(Encoder encoder, int column, List<ArchivedActivity> rows) {
+        switch (column) {
+            case LOG_ID -> encoder.writeDeltas(rows.stream().mapToLong(ArchivedActivity::logId).toArray());
+            case CREATED_AT -> encoder.writeDeltas(rows.stream().mapToLong(row -> micros(row.createdAt())).toArray());
+            case TENANT_ID -> encoder.writeDictionary(rows.stream().map(ArchivedActivity::tenantId).toList());
+            case SITE_ID -> rows.forEach(row -> encoder.writeUuid(row.siteId()));
+            case USER_ID -> rows.forEach(row -> encoder.writeUuid(row.userId()));
+            case ACTION -> encoder.writeDictionary(rows.stream().map(ArchivedActivity::action).toList());
+            case ENTITY_TYPE -> encoder.writeDictionary(rows.stream().map(ArchivedActivity::entityType).toList());
+            case ENTITY_ID -> rows.forEach(row -> encoder.writeUuid(row.entityId()));
+            case ENTITY_NAME -> rows.forEach(row -> encoder.writeString(row.entityName()));
+            case CHANGES -> rows.forEach(row -> encoder.writeString(row.changes()));
+            case IP_ADDRESS -> rows.forEach(row -> encoder.writeString(row.ipAddress()));
+            case USER_AGENT -> rows.forEach(row -> encoder.writeString(row.userAgent()));
+            default -> throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    private static long[] readDeltas(ByteBuffer in, int rows) {
+        long[] values = new long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += zigZagDecode(readVarLong(in));
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static String[] readDictionary(ByteBuffer in, int rows) {
+        String[] dictionary = new String[(int) readVarLong(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            int code = (int) readVarLong(in);
+            values[i] = code == 0 ? null : dictionary[code - 1];
+        }
+        return values;
+    }
+
+    private static UUID[] readUuids(ByteBuffer in, int rows) {
+        UUID[] values = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            if (in.get() != 0) {
+                values[i] = new UUID(in.getLong(), in.getLong());
+            }
+        }
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer in, int rows) {
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static void retainEqual(BitSet selected, Object[] values, Object expected) {
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            if (!expected.equals(values[i])) {
+                selected.clear(i);
+            }
+        }
+    }
+
+    private static int compare(ArchivedActivity left, ArchivedActivity right) {
+        int byTime = left.createdAt().compareTo(right.createdAt());
+        return byTime != 0 ? byTime : Long.compare(left.logId(), right.logId());
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        return Arrays.equals(magic, MAGIC);
+    }
+
+    static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Objects.requireNonNull(instant, "createdAt"));
+    }
+
+    private static Instant instant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private record Chunk(long offset, int compressedLength, int rawLength) {
+    }
+
+    private record Group(int rows, long minCreatedAt, long maxCreatedAt, Chunk[] chunks) {
+    }
+
+    public static final class Writer implements AutoCloseable {
+
+        private final CountingOutputStream out;
+        private final int groupSize;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final List<Group> groups = new ArrayList<>();
+        private final List<ArchivedActivity> group;
+        private long count;
+        private boolean finished;
+
+        private Writer(Path target, int groupSize) throws IOException {
+            this.out = new CountingOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+            this.groupSize = groupSize;
+            this.group = new ArrayList<>(Math.min(groupSize, 4096));
+            out.write(MAGIC);
+        }
+
+        public void append(ArchivedActivity row) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Archive already finished");
+            }
+            if (!group.isEmpty() && compare(row, group.get(group.size() - 1)) < 0) {
+                throw new IllegalArgumentException("Archived rows must be in (created_at, log_id) order");
+            }
+            group.add(row);
+            if (group.size() == groupSize) {
+                flushGroup();
+            }
+        }
+
+        /**
+         * Write the last group and the footer.
+         *
+         * @return number of rows written
+         */
+        public long finish() throws IOException {
+            if (!group.isEmpty()) {
+                flushGroup();
+            }
+            long footerOffset = out.position;
+            DataOutputStream footer = new DataOutputStream(out);
+            footer.writeInt(groups.size());
+            for (Group written : groups) {
+                footer.writeInt(written.rows);
+                footer.writeLong(written.minCreatedAt);
+                footer.writeLong(written.maxCreatedAt);
+                for (Chunk chunk : written.chunks) {
+                    footer.writeLong(chunk.offset);
+                    footer.writeInt(chunk.compressedLength);
+                    footer.writeInt(chunk.rawLength);
+                }
+            }
+            footer.writeLong(footerOffset);
+            footer.write(MAGIC);
+            footer.flush();
+            finished = true;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            groups.add(writeGroup(out, group, deflater));
+            count += group.size();
+            group.clear();
+        }
+    }
+
+    /**
+     * Growable byte buffer for encoding one column chunk.
+     */
+    private static final class Encoder {
+
+        private byte[] buffer = new byte[8192];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void writeDeltas(long[] values) {
+            long previous = 0;
+            for (long value : values) {
+                long delta = value - previous;
+                writeVarLong((delta << 1) ^ (delta >> 63));
+                previous = value;
+            }
+        }
+
+        void writeDictionary(List<String> values) {
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            for (String value : values) {
+                if (value != null && codes.putIfAbsent(value, codes.size() + 1) == null) {
+                    dictionary.add(value);
+                }
+            }
+            writeVarLong(dictionary.size());
+            dictionary.forEach(this::writeString);
+            for (String value : values) {
+                writeVarLong(value == null ? 0 : codes.get(value));
+            }
+        }
+
+        void writeUuid(UUID value) {
+            ensure(17);
+            if (value == null) {
+                buffer[length++] = 0;
+                return;
+            }
+            buffer[length++] = 1;
+            writeLong(value.getMostSignificantBits());
+            writeLong(value.getLeastSignificantBits());
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7fL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long position;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.kymatic.tenantservice.activity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Rows to read from activity archives: created_at in [from, to) and the given column values.
+ * Any field may be null for no restriction.
+ */
+public record ActivityArchiveQuery(
+    Instant from,
+    Instant to,
+    UUID userId,
+    String action,
+    String entityType,
+    UUID entityId,
+    Long logId
+) {
+
+    public ActivityArchiveQuery(Instant from, Instant to, UUID userId, String action, String entityType, UUID entityId) {
+        this(from, to, userId, action, entityType, entityId, null);
+    }
+
+    /**
+     * A keyset position in (created_at, log_id) order, e.g. the last row of a page.
+     */
+    public record Position(Instant createdAt, long logId) {
+
+        /**
+         * Whether the row comes before this position in (created_at, log_id) order.
+         */
+        public boolean isAfter(ArchivedActivity row) {
+            int byTime = row.createdAt().compareTo(createdAt);
+            return byTime < 0 || (byTime == 0 && row.logId() < logId);
+        }
+    }
+}
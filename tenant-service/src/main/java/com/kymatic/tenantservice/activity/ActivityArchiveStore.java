@@ -0,0 +1,261 @@
+package com.kymatic.tenantservice.activity;
+
+import com.kymatic.tenantservice.config.LogPartitionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local cold storage of activity_log partitions, one {@link ActivityArchiveFile} per tenant and
+ * month under tenant.log-partitions.archive.directory:
+ *
+ * <pre>
+ * &lt;directory&gt;/&lt;tenant id&gt;/activity_log_YYYY_MM.kac
+ * </pre>
+ *
+ * A file is written under a temporary name, forced to disk and renamed into place, so a file
+ * with the final name is always complete. The month of a file is the month of its partition,
+ * taken in the JVM zone like the created_at values Hibernate writes.
+ */
+@Component
+public class ActivityArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityArchiveStore.class);
+
+    private static final String PREFIX = "activity_log_";
+    private static final String SUFFIX = ".kac";
+    private static final Pattern FILE_NAME = Pattern.compile(Pattern.quote(PREFIX) + "(\\d{4})_(\\d{2})" + Pattern.quote(SUFFIX));
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int groupSize;
+
+    public ActivityArchiveStore(LogPartitionProperties properties) {
+        LogPartitionProperties.Archive archive = properties.getArchive();
+        this.enabled = archive.isEnabled();
+        this.directory = Path.of(archive.getDirectory());
+        this.groupSize = archive.getGroupSize();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean contains(String tenantId, YearMonth month) {
+        return Files.exists(file(tenantId, month));
+    }
+
+    /**
+     * Start the archive file of one tenant month. Append the rows in (created_at, log_id) order
+     * and call {@link Archiving#commit()}; closing without commit discards the file.
+     */
+    public Archiving begin(String tenantId, YearMonth month) throws IOException {
+        Path target = file(tenantId, month);
+        Files.createDirectories(target.getParent());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        // Left by a run that failed half way
+        Files.deleteIfExists(temporary);
+        return new Archiving(target, temporary, ActivityArchiveFile.create(temporary, groupSize));
+    }
+
+    /**
+     * Archived rows of the tenant matching the query, in (created_at, log_id) order. Only the
+     * files whose month overlaps the created_at range are opened.
+     */
+    public List<ArchivedActivity> scan(String tenantId, ActivityArchiveQuery query) throws IOException {
+        List<ArchivedActivity> rows = new ArrayList<>();
+        for (Path path : overlapping(tenantId, query).values()) {
+            try (ActivityArchiveFile file = ActivityArchiveFile.open(path)) {
+                rows.addAll(file.scan(query));
+            } catch (NoSuchFileException e) {
+                // Expired while listing
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Up to limit archived rows of the tenant matching the query, newest first and before the
+     * given position, if any (see {@link ActivityArchiveFile#scanNewest}). Files are read from the
+     * newest month, and reading stops once the limit is reached.
+     */
+    public List<ArchivedActivity> scanNewest(String tenantId, ActivityArchiveQuery query,
+                                             ActivityArchiveQuery.Position before, int limit) throws IOException {
+        List<ArchivedActivity> rows = new ArrayList<>();
+        NavigableMap<YearMonth, Path> files = overlapping(tenantId, query);
+        if (before != null) {
+            files = files.headMap(YearMonth.from(before.createdAt().atZone(ZoneId.systemDefault())), true);
+        }
+        for (Path path : files.descendingMap().values()) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            try (ActivityArchiveFile file = ActivityArchiveFile.open(path)) {
+                rows.addAll(file.scanNewest(query, before, limit - rows.size()));
+            } catch (NoSuchFileException e) {
+                // Expired while listing
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Archived rows of the tenant matching the query, in (created_at, log_id) order, read one
+     * file and one row group at a time as the stream is consumed. Close the stream.
+     *
+     * @throws UncheckedIOException from the stream when a file cannot be read
+     */
+    public Stream<ArchivedActivity> stream(String tenantId, ActivityArchiveQuery query) throws IOException {
+        return overlapping(tenantId, query).values().stream().flatMap(path -> {
+            ActivityArchiveFile file;
+            try {
+                file = ActivityArchiveFile.open(path);
+            } catch (NoSuchFileException e) {
+                // Expired while listing
+                return Stream.empty();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return file.stream(query).onClose(() -> {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Delete the tenant's files of months before oldestKept.
+     *
+     * @return number of files deleted
+     */
+    public int deleteBefore(String tenantId, YearMonth oldestKept) throws IOException {
+        int deleted = 0;
+        for (Map.Entry<YearMonth, Path> entry : files(tenantId).entrySet()) {
+            if (entry.getKey().isBefore(oldestKept) && Files.deleteIfExists(entry.getValue())) {
+                logger.info("Deleted expired activity archive {}", entry.getValue());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * The tenant's files whose month overlaps the created_at range of the query; none when the
+     * archive is disabled.
+     */
+    private NavigableMap<YearMonth, Path> overlapping(String tenantId, ActivityArchiveQuery query) throws IOException {
+        NavigableMap<YearMonth, Path> files = new TreeMap<>();
+        if (!enabled) {
+            return files;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        for (Map.Entry<YearMonth, Path> entry : files(tenantId).entrySet()) {
+            Instant monthStart = entry.getKey().atDay(1).atStartOfDay(zone).toInstant();
+            Instant monthEnd = entry.getKey().plusMonths(1).atDay(1).atStartOfDay(zone).toInstant();
+            if ((query.to() == null || monthStart.isBefore(query.to()))
+                && (query.from() == null || monthEnd.isAfter(query.from()))) {
+                files.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return files;
+    }
+
+    private NavigableMap<YearMonth, Path> files(String tenantId) throws IOException {
+        NavigableMap<YearMonth, Path> files = new TreeMap<>();
+        Path tenantDirectory = directory.resolve(tenantDirectory(tenantId));
+        if (!Files.isDirectory(tenantDirectory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tenantDirectory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path file(String tenantId, YearMonth month) {
+        return directory.resolve(tenantDirectory(tenantId)).resolve(PREFIX + month.format(MONTH) + SUFFIX);
+    }
+
+    private static String tenantDirectory(String tenantId) {
+        if (tenantId == null || !tenantId.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Invalid tenant id for the activity archive: " + tenantId);
+        }
+        return tenantId;
+    }
+
+    /**
+     * An archive file being written.
+     */
+    public static final class Archiving implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final ActivityArchiveFile.Writer writer;
+        private boolean committed;
+
+        private Archiving(Path target, Path temporary, ActivityArchiveFile.Writer writer) {
+            this.target = target;
+            this.temporary = temporary;
+            this.writer = writer;
+        }
+
+        public void append(ArchivedActivity row) throws IOException {
+            writer.append(row);
+        }
+
+        /**
+         * Complete the file and move it into place.
+         *
+         * @return number of rows archived
+         */
+        public long commit() throws IOException {
+            long rows = writer.finish();
+            writer.close();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                writer.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
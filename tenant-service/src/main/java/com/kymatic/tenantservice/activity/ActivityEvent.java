@@ -0,0 +1,24 @@
+package com.kymatic.tenantservice.activity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One activity_log row to be written to a tenant database.
+ *
+ * @param userId  tenant user who acted, resolved when the event was queued; null when unknown
+ * @param siteId  site the activity happened at, or null
+ * @param changes JSON object with the changed fields and the acting principal, or null
+ */
+public record ActivityEvent(
+    String tenantId,
+    UUID userId,
+    UUID siteId,
+    String action,
+    String entityType,
+    UUID entityId,
+    String entityName,
+    String changes,
+    OffsetDateTime createdAt
+) {
+}
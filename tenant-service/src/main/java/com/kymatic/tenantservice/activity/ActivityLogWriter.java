@@ -0,0 +1,237 @@
+package com.kymatic.tenantservice.activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Writes activity_log rows off the request path.
+ *
+ * This writer:
+ * - Takes events from the mutating services after their transaction commits and queues them on
+ *   a {@link BatchingWriter}; the caller does no database I/O beyond resolving the acting tenant
+ *   user ({@link ActivityActorResolver}, cached)
+ * - Writes each tenant's events with one multi-row insert on that tenant's database
+ *   ({@link ActivityLogBatchRepository}), in the order they were queued
+ * - Applies backpressure when the queue is full, retries failed tenant batches and publishes
+ *   tenant.activity.* metrics as configured under tenant.activity-log
+ * - With durability: spool, also appends every accepted event to a local write-ahead spool
+ *   ({@link ActivitySpool}) and replays what was not written on the next start; the spool is
+ *   recovered before the writer thread starts and before the bean can take its first event, and
+ *   the replayed events are written before any new one
+ *
+ * Events are written at most once without the spool (events queued at shutdown that cannot be
+ * written within the drain timeout are lost) or at least once with it.
+ */
+@Component
+public class ActivityLogWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityLogWriter.class);
+
+    private static final int MAX_ACTION_LENGTH = 100;
+    private static final int MAX_ENTITY_TYPE_LENGTH = 50;
+    private static final int MAX_ENTITY_NAME_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final ActivityActorResolver actorResolver;
+    private final boolean enabled;
+    private final ActivitySpool spool;
+    private final BatchingWriter<Queued> writer;
+    private final Counter spoolFailures;
+
+    public ActivityLogWriter(
+        ActivityLogBatchRepository repository,
+        ObjectMapper objectMapper,
+        ActivityActorResolver actorResolver,
+        MeterRegistry meterRegistry,
+        @Value("${tenant.activity-log.enabled:true}") boolean enabled,
+        @Value("${tenant.activity-log.queue-capacity:65536}") int queueCapacity,
+        @Value("${tenant.activity-log.flush-interval:5ms}") Duration flushInterval,
+        @Value("${tenant.activity-log.offer-timeout:20ms}") Duration offerTimeout,
+        @Value("${tenant.activity-log.max-batch-size:5000}") int maxBatchSize,
+        @Value("${tenant.activity-log.max-attempts:5}") int maxAttempts,
+        @Value("${tenant.activity-log.retry-delay:1s}") Duration retryDelay,
+        @Value("${tenant.activity-log.durability:memory}") String durability,
+        @Value("${tenant.activity-log.spool.directory:${java.io.tmpdir}/tenant-service/activity-spool}") String spoolDirectory,
+        @Value("${tenant.activity-log.spool.segment-size:16777216}") long spoolSegmentSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.actorResolver = actorResolver;
+        this.enabled = enabled;
+        ActivitySpool activitySpool = switch (durability.toLowerCase(Locale.ROOT)) {
+            case "memory" -> null;
+            case "spool" -> new ActivitySpool(Path.of(spoolDirectory), spoolSegmentSize, objectMapper);
+            default -> throw new IllegalArgumentException(
+                "Unsupported tenant.activity-log.durability: " + durability + " (expected memory or spool)");
+        };
+        this.spool = activitySpool;
+        this.writer = new BatchingWriter<>("activity", "tenant.activity", meterRegistry,
+            new BatchingWriter.Settings(queueCapacity, flushInterval, offerTimeout, maxBatchSize, maxAttempts, retryDelay),
+            queued -> queued.event().tenantId(),
+            events -> writeTenant(repository, events),
+            queued -> {
+                if (queued.segment() != null) {
+                    activitySpool.acknowledge(queued.segment());
+                }
+            });
+        this.spoolFailures = Counter.builder("tenant.activity.spool.failures").register(meterRegistry);
+    }
+
+    /**
+     * Recover the events spooled but not written by the previous run, then start the writer
+     * thread. Runs before the bean is handed to the services, so no event is appended to the
+     * spool before it is recovered.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (spool != null) {
+            try {
+                List<ActivitySpool.Spooled> spooled = spool.recover();
+                if (!spooled.isEmpty()) {
+                    logger.info("Replaying {} spooled activity event(s)", spooled.size());
+                }
+                writer.replay(spooled.stream().map(entry -> new Queued(entry.event(), null, entry.segment())).toList());
+            } catch (IOException e) {
+                logger.error("Failed to replay the activity spool", e);
+            }
+        }
+        writer.start();
+    }
+
+    /**
+     * Log an activity of the current tenant. Inside a transaction the event is queued after
+     * commit, so rolled-back changes are not logged.
+     *
+     * @param changes object serialized as the changes JSON, e.g. the request; may be null
+     */
+    public void record(String action, String entityType, UUID entityId, String entityName, Object changes) {
+        record(action, entityType, entityId, entityName, null, changes);
+    }
+
+    /**
+     * Log an activity of the current tenant at a site.
+     *
+     * @param siteId  site the activity happened at; null when it is not site-scoped
+     * @param changes object serialized as the changes JSON, e.g. the request; may be null
+     */
+    public void record(String action, String entityType, UUID entityId, String entityName, UUID siteId, Object changes) {
+        String tenantId = TenantContext.getTenantId();
+        if (!enabled || tenantId == null) {
+            return;
+        }
+        Object routingHandle = TenantContext.getRoutingHandle();
+        ActivityEvent event = new ActivityEvent(
+            tenantId,
+            actorResolver.currentUserId(),
+            siteId,
+            truncate(action, MAX_ACTION_LENGTH),
+            truncate(entityType, MAX_ENTITY_TYPE_LENGTH),
+            entityId,
+            truncate(entityName, MAX_ENTITY_NAME_LENGTH),
+            changesJson(changes),
+            OffsetDateTime.now());
+        BatchingWriter.afterCommit(() -> writer.enqueue(() -> offer(event, routingHandle)));
+    }
+
+    /**
+     * Events queued, being replayed from the spool or waiting for a retry.
+     */
+    public int queueDepth() {
+        return writer.depth();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        int unwritten = writer.stop();
+        if (spool != null) {
+            spool.close();
+        }
+        if (unwritten > 0) {
+            logger.warn("{} activity event(s) were not written before shutdown{}", unwritten,
+                spool != null ? "; they stay in the spool" : "");
+        }
+    }
+
+    private boolean offer(ActivityEvent event, Object routingHandle) {
+        if (spool == null) {
+            return writer.offer(new Queued(event, routingHandle, null));
+        }
+        try {
+            return spool.append(event, segment -> writer.offer(new Queued(event, routingHandle, segment)));
+        } catch (IOException e) {
+            // The event is queued; only its spool copy is missing
+            spoolFailures.increment();
+            logger.warn("Failed to spool activity event: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private static int writeTenant(ActivityLogBatchRepository repository, List<Queued> events) {
+        String tenantId = events.get(0).event().tenantId();
+        Object routingHandle = events.get(0).routingHandle();
+        if (routingHandle != null) {
+            TenantContext.setTenant(tenantId, routingHandle);
+        } else {
+            TenantContext.setTenantId(tenantId);
+        }
+        try {
+            return repository.insert(tenantId, events.stream().map(Queued::event).toList());
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * The changes as a JSON object, with the acting principal under "actor" when known.
+     */
+    private String changesJson(Object changes) {
+        String actor = currentActor();
+        if (changes == null && actor == null) {
+            return null;
+        }
+        ObjectNode node = changes != null && objectMapper.valueToTree(changes) instanceof ObjectNode object
+            ? object
+            : objectMapper.createObjectNode();
+        if (actor != null) {
+            node.put("actor", actor);
+        }
+        return node.toString();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * A queued event with the routing handle of the request that logged it and its spool segment.
+     */
+    private record Queued(ActivityEvent event, Object routingHandle, ActivitySpool.Segment segment) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.kymatic.tenantservice.activity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer.
+ *
+ * Producers claim a slot by advancing the tail with a CAS and then publish the element into it;
+ * the single consumer takes published elements in claim order and frees their slots. Neither
+ * side takes a lock. A slot that is claimed but not yet published stops the drain until its
+ * producer stores the element, so elements are never reordered.
+ */
+final class ActivityRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    ActivityRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Add the element unless the buffer is full. Safe to call from any thread.
+     */
+    boolean offer(E element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head.get() >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) claimed & mask, element);
+        return true;
+    }
+
+    /**
+     * Move up to max published elements into the target, oldest first. Consumer thread only.
+     *
+     * @return number of elements moved
+     */
+    int drainTo(List<E> target, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            position++;
+            drained++;
+        }
+        if (drained > 0) {
+            head.lazySet(position);
+        }
+        return drained;
+    }
+
+    /**
+     * Claimed slots not yet drained; approximate while producers are active.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,218 @@
+package com.kymatic.tenantservice.activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Local write-ahead spool of activity events, so events accepted but not yet written to the
+ * tenant database survive a crash or restart.
+ *
+ * Events are appended as NDJSON lines to the current segment file before the caller returns.
+ * Each segment counts its events that are not yet written; a segment is deleted once it has been
+ * rolled (at tenant.activity-log.spool.segment-size) and all its events are written or given up.
+ * Segments left by a previous run are read back on startup and their events replayed, so
+ * delivery is at least once: an event written just before a crash is written again.
+ *
+ * Appends are not fsynced one by one: a process crash loses nothing, an operating system crash
+ * can lose the tail of the current segment. Segments are forced to disk when rolled.
+ */
+final class ActivitySpool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivitySpool.class);
+
+    private static final String PREFIX = "activity-";
+    private static final String SUFFIX = ".spool";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ObjectMapper objectMapper;
+    private Segment current;
+    private long sequence;
+    private boolean recovered;
+
+    ActivitySpool(Path directory, long segmentSize, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create activity spool directory " + directory, e);
+        }
+    }
+
+    /**
+     * Events of the segments left by a previous run, oldest first; each is acknowledged against
+     * its recovered segment like a new event. Call once, before the first append: a segment
+     * opened earlier would be taken for one of the previous run.
+     */
+    synchronized List<Spooled> recover() throws IOException {
+        if (recovered) {
+            throw new IllegalStateException("Activity spool " + directory + " is already recovered");
+        }
+        recovered = true;
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        List<Spooled> recovered = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = new Segment(file, null);
+            segment.closed = true;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        ActivityEvent event = objectMapper.readValue(line, ActivityEvent.class);
+                        segment.pending.incrementAndGet();
+                        recovered.add(new Spooled(event, segment));
+                    } catch (IOException e) {
+                        // A line cut short by a crash during the append
+                        logger.warn("Skipping unreadable activity spool line in {}: {}", file.getFileName(), e.getMessage());
+                    }
+                }
+            }
+            if (segment.pending.get() == 0) {
+                Files.deleteIfExists(file);
+            }
+            sequence = Math.max(sequence, sequenceOf(file) + 1);
+        }
+        return recovered;
+    }
+
+    /**
+     * Reserve the event in the current segment and hand it to the queue; the line is written
+     * only when the queue accepts it.
+     *
+     * @param enqueue offers the event, tagged with its segment, to the writer queue
+     * @return whether the queue accepted the event
+     */
+    synchronized boolean append(ActivityEvent event, Predicate<Segment> enqueue) throws IOException {
+        if (!recovered) {
+            throw new IllegalStateException("Activity spool " + directory + " must be recovered before the first append");
+        }
+        byte[] line = serialize(event);
+        if (current == null || current.size >= segmentSize) {
+            roll();
+        }
+        Segment segment = current;
+        segment.pending.incrementAndGet();
+        if (!enqueue.test(segment)) {
+            segment.pending.decrementAndGet();
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            segment.channel.write(buffer);
+        }
+        segment.size += line.length;
+        return true;
+    }
+
+    /**
+     * The event of the segment is written to its tenant database, or given up.
+     */
+    void acknowledge(Segment segment) {
+        if (segment.pending.decrementAndGet() == 0 && segment.closed) {
+            delete(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (current != null) {
+            closeSegment(current);
+            current = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            closeSegment(current);
+        }
+        Path file = directory.resolve(String.format("%s%019d%s", PREFIX, sequence++, SUFFIX));
+        while (Files.exists(file)) {
+            // Left behind by a recovery that failed part way
+            file = directory.resolve(String.format("%s%019d%s", PREFIX, sequence++, SUFFIX));
+        }
+        current = new Segment(file, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    private void closeSegment(Segment segment) {
+        try {
+            segment.channel.force(false);
+            segment.channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close activity spool segment {}: {}", segment.file.getFileName(), e.getMessage());
+        }
+        segment.closed = true;
+        if (segment.pending.get() == 0) {
+            delete(segment);
+        }
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete activity spool segment {}: {}", segment.file.getFileName(), e.getMessage());
+        }
+    }
+
+    private byte[] serialize(ActivityEvent event) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(event);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * One spool file. pending counts its events not yet acknowledged.
+     */
+    static final class Segment {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean closed;
+        private long size;
+
+        private Segment(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+
+    record Spooled(ActivityEvent event, Segment segment) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.kymatic.tenantservice.activity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One activity_log row moved to an archive file ({@link ActivityArchiveFile}).
+ *
+ * @param changes JSON text of the changes column, or null
+ */
+public record ArchivedActivity(
+    long logId,
+    String tenantId,
+    UUID siteId,
+    UUID userId,
+    String action,
+    String entityType,
+    UUID entityId,
+    String entityName,
+    String changes,
+    String ipAddress,
+    String userAgent,
+    Instant createdAt
+) {
+}
@@ -0,0 +1,19 @@
+package com.kymatic.tenantservice.activity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One tenant_audit_log row to be written to the master database.
+ *
+ * @param details object serialized as the details JSON on the writer thread, or null; it must not
+ *                be changed after it is handed over
+ */
+public record AuditEvent(
+    UUID tenantId,
+    String action,
+    UUID performedBy,
+    Object details,
+    OffsetDateTime createdAt
+) {
+}
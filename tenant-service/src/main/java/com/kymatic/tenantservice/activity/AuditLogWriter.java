@@ -0,0 +1,123 @@
+package com.kymatic.tenantservice.activity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kymatic.tenantservice.persistence.repository.TenantAuditLogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Writes tenant_audit_log rows off the request path.
+ *
+ * This writer:
+ * - Takes audit events after the caller's transaction commits and queues them on a
+ *   {@link BatchingWriter}; the caller neither serializes the details nor does database I/O
+ * - Serializes the details on the writer thread with one shared {@link ObjectWriter} and writes
+ *   each batch with one multi-row insert on the master database ({@link TenantAuditLogBatchRepository})
+ * - Applies backpressure when the queue is full, retries failed batches in order and publishes
+ *   tenant.audit.* metrics as configured under tenant.audit-log
+ *
+ * Serializing on the writer thread keeps Jackson's per-thread buffer recycling on one thread, so
+ * the same buffers are reused for every event. Events are written at most once: those queued at
+ * shutdown that cannot be written within the drain timeout are lost.
+ */
+@Component
+public class AuditLogWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final boolean enabled;
+    private final BatchingWriter<AuditEvent> writer;
+
+    public AuditLogWriter(
+        TenantAuditLogBatchRepository repository,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${tenant.audit-log.enabled:true}") boolean enabled,
+        @Value("${tenant.audit-log.queue-capacity:8192}") int queueCapacity,
+        @Value("${tenant.audit-log.flush-interval:10ms}") Duration flushInterval,
+        @Value("${tenant.audit-log.offer-timeout:50ms}") Duration offerTimeout,
+        @Value("${tenant.audit-log.max-batch-size:1000}") int maxBatchSize,
+        @Value("${tenant.audit-log.max-attempts:10}") int maxAttempts,
+        @Value("${tenant.audit-log.retry-delay:1s}") Duration retryDelay
+    ) {
+        this.enabled = enabled;
+        ObjectWriter detailsWriter = objectMapper.writer();
+        Counter serializationFailures = Counter.builder("tenant.audit.serialization.failures").register(meterRegistry);
+        this.writer = new BatchingWriter<>("audit", "tenant.audit", meterRegistry,
+            new BatchingWriter.Settings(queueCapacity, flushInterval, offerTimeout, maxBatchSize, maxAttempts, retryDelay),
+            null,
+            events -> repository.insert(events.stream()
+                .map(event -> toRow(event, serialize(event, detailsWriter, serializationFailures)))
+                .toList()),
+            event -> {
+            });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Whether events are written asynchronously; when disabled, callers write them themselves.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue an audit event. Inside a transaction the event is queued after commit, so rolled-back
+     * changes are not audited.
+     */
+    public void record(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        BatchingWriter.afterCommit(() -> writer.enqueue(event));
+    }
+
+    public int queueDepth() {
+        return writer.depth();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        int unwritten = writer.stop();
+        if (unwritten > 0) {
+            logger.warn("{} audit event(s) were not written before shutdown", unwritten);
+        }
+    }
+
+    private static TenantAuditLogBatchRepository.Row toRow(AuditEvent event, String details) {
+        return new TenantAuditLogBatchRepository.Row(
+            event.tenantId(), event.action(), event.performedBy(), details, event.createdAt());
+    }
+
+    private static String serialize(AuditEvent event, ObjectWriter detailsWriter, Counter serializationFailures) {
+        if (event.details() == null) {
+            return null;
+        }
+        try {
+            return detailsWriter.writeValueAsString(event.details());
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The row is still written, without its details
+            serializationFailures.increment();
+            logger.warn("Failed to serialize the details of audit event {} for tenant {}: {}",
+                event.action(), event.tenantId(), e.getMessage());
+            return null;
+        }
+    }
+}
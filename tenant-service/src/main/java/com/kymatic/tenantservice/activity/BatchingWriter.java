@@ -0,0 +1,446 @@
+package com.kymatic.tenantservice.activity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Queue and writer thread shared by the asynchronous log writers; the owner supplies the sink.
+ *
+ * This writer:
+ * - Queues items in a bounded lock-free ring buffer ({@link ActivityRingBuffer}); producers do no
+ *   I/O, and wake the writer thread only when it is parked on an empty queue
+ * - Drains the queue on one writer thread, groups the batch by tenant and hands each group to the
+ *   sink; an idle writer parks until the next item instead of polling
+ * - Lets more items accumulate for flush-interval after a batch, so a busy queue is written with
+ *   fewer, larger statements
+ * - Applies backpressure when the queue is full: the producer waits up to offer-timeout for
+ *   space, then the item is dropped and counted
+ * - Retries a failed group after retry-delay, up to max-attempts; newer items of the same tenant
+ *   wait behind it, so each tenant's items are written in queue order, and while retries are
+ *   pending the queue is not drained past its capacity
+ * - Publishes queue depth, flush latency and written/dropped counts under the owner's metric prefix
+ *
+ * Items handed to {@link #replay} before {@link #start} are written before any queued item.
+ */
+final class BatchingWriter<E> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingWriter.class);
+
+    private static final long OVERFLOW_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long OFFER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Duration SHUTDOWN_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Writes one tenant's group of items; an exception fails the whole group.
+     */
+    @FunctionalInterface
+    interface Sink<E> {
+
+        /**
+         * @return number of rows written
+         */
+        int write(List<E> items);
+    }
+
+    /**
+     * @param queueCapacity ring buffer size, a power of two
+     * @param flushInterval time items accumulate after a batch before the next drain
+     * @param offerTimeout  longest a producer waits for space in a full queue
+     * @param maxBatchSize  most items taken per drain
+     * @param maxAttempts   writes of a group before its items are dropped
+     * @param retryDelay    wait before a failed group is written again
+     */
+    record Settings(
+        int queueCapacity,
+        Duration flushInterval,
+        Duration offerTimeout,
+        int maxBatchSize,
+        int maxAttempts,
+        Duration retryDelay
+    ) {
+    }
+
+    private final String name;
+    private final Function<E, String> tenantOf;
+    private final Sink<E> sink;
+    private final Consumer<E> completed;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final long retryDelayNanos;
+    private final ActivityRingBuffer<E> queue;
+    private final Deque<Pending<E>> replay = new ArrayDeque<>();
+    private final AtomicInteger replayCount = new AtomicInteger();
+    private final List<Pending<E>> retries = new ArrayList<>();
+    private final AtomicInteger retryCount = new AtomicInteger();
+    private final AtomicLong lastOverflowWarning = new AtomicLong(System.nanoTime() - OVERFLOW_WARNING_INTERVAL_NANOS);
+    private final Counter written;
+    private final Counter droppedOverflow;
+    private final Counter droppedFailed;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+    private volatile Thread writerThread;
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * @param name         what is written, e.g. activity; names the thread and the log lines
+     * @param metricPrefix prefix of the events.written, events.dropped, flush, flush.failures and
+     *                     queue.depth meters
+     * @param tenantOf     tenant to group an item by, or null to write all items together
+     * @param sink         writes one group
+     * @param completed    called once per item when it is written or given up
+     */
+    BatchingWriter(
+        String name,
+        String metricPrefix,
+        MeterRegistry meterRegistry,
+        Settings settings,
+        Function<E, String> tenantOf,
+        Sink<E> sink,
+        Consumer<E> completed
+    ) {
+        this.name = name;
+        this.tenantOf = tenantOf;
+        this.sink = sink;
+        this.completed = completed;
+        this.flushIntervalNanos = settings.flushInterval().toNanos();
+        this.offerTimeoutNanos = settings.offerTimeout().toNanos();
+        this.maxBatchSize = settings.maxBatchSize();
+        this.maxAttempts = Math.max(1, settings.maxAttempts());
+        this.retryDelayNanos = settings.retryDelay().toNanos();
+        this.queue = new ActivityRingBuffer<>(settings.queueCapacity());
+
+        this.written = Counter.builder(metricPrefix + ".events.written").register(meterRegistry);
+        this.droppedOverflow = Counter.builder(metricPrefix + ".events.dropped").tag("reason", "overflow").register(meterRegistry);
+        this.droppedFailed = Counter.builder(metricPrefix + ".events.dropped").tag("reason", "failed").register(meterRegistry);
+        this.flushFailures = Counter.builder(metricPrefix + ".flush.failures").register(meterRegistry);
+        this.flushTimer = Timer.builder(metricPrefix + ".flush").register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queue.depth", this, BatchingWriter::depth).register(meterRegistry);
+    }
+
+    /**
+     * Run the action after the current transaction commits, or now outside a transaction.
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Items to write before anything queued, e.g. recovered from a spool. Before start only.
+     */
+    void replay(List<E> items) {
+        if (writerThread != null) {
+            throw new IllegalStateException("The " + name + " log writer is already started");
+        }
+        for (E item : items) {
+            replay.add(new Pending<>(item));
+        }
+        replayCount.set(replay.size());
+    }
+
+    void start() {
+        if (writerThread != null) {
+            return;
+        }
+        Thread thread = new Thread(this::run, name + "-log-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop taking items and wait up to the drain timeout for the writer thread to write the rest.
+     *
+     * @return items left unwritten
+     */
+    int stop() throws InterruptedException {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(SHUTDOWN_DRAIN_TIMEOUT.toMillis());
+        }
+        return depth();
+    }
+
+    /**
+     * Queue the item unless the queue is full. Safe to call from any thread.
+     */
+    boolean offer(E item) {
+        if (!queue.offer(item)) {
+            return false;
+        }
+        // Pairs with the writer setting idle before it re-checks the queue: either it sees the
+        // item, or this sees it idle and wakes it
+        if (idle) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Queue the item, waiting up to the offer timeout for space; dropped and counted after that.
+     */
+    void enqueue(E item) {
+        enqueue(() -> offer(item));
+    }
+
+    /**
+     * Retry the offer until it succeeds or the offer timeout passes; for owners that queue
+     * through their own step, like a spool append.
+     *
+     * @param offer queues the item with {@link #offer}, returning its result
+     */
+    void enqueue(BooleanSupplier offer) {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (!offer.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) {
+                droppedOverflow.increment();
+                warnOverflow();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(Math.min(flushIntervalNanos, OFFER_BACKOFF_NANOS));
+        }
+    }
+
+    /**
+     * Items queued, being replayed or waiting for a retry.
+     */
+    int depth() {
+        return queue.size() + replayCount.get() + retryCount.get();
+    }
+
+    private void run() {
+        List<Pending<E>> batch = new ArrayList<>();
+        List<E> drained = new ArrayList<>();
+        long drainDeadline = 0;
+        while (true) {
+            if (!running) {
+                // Shutting down: write what is left, within the drain timeout
+                if (drainDeadline == 0) {
+                    drainDeadline = System.nanoTime() + SHUTDOWN_DRAIN_TIMEOUT.toNanos();
+                }
+                if ((queue.size() == 0 && replay.isEmpty() && !retryDueBefore(drainDeadline))
+                    || System.nanoTime() - drainDeadline >= 0) {
+                    return;
+                }
+            }
+            batch.clear();
+            takeDueRetries(batch);
+            if (retries.size() < queue.capacity()) {
+                if (replay.isEmpty()) {
+                    drained.clear();
+                    queue.drainTo(drained, maxBatchSize);
+                    for (E item : drained) {
+                        batch.add(new Pending<>(item));
+                    }
+                } else {
+                    // Replayed items first; queued ones wait so each tenant's stay in order
+                    takeReplay(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Unexpected {} log writer failure", name, e);
+                }
+            }
+            if (batch.size() >= maxBatchSize) {
+                continue;
+            }
+            if (!batch.isEmpty() || !running) {
+                // Let more items accumulate so each tenant gets fewer, larger inserts
+                LockSupport.parkNanos(flushIntervalNanos);
+            } else {
+                awaitWork();
+            }
+        }
+    }
+
+    /**
+     * Park until an item is queued, the next retry is due or the writer is stopped.
+     */
+    private void awaitWork() {
+        idle = true;
+        try {
+            if (hasDrainableWork() || !running) {
+                return;
+            }
+            long nextRetry = nextRetryAt();
+            if (nextRetry == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                long delay = nextRetry - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(this, delay);
+                }
+            }
+        } finally {
+            idle = false;
+        }
+    }
+
+    private boolean hasDrainableWork() {
+        return retries.size() < queue.capacity() && (queue.size() > 0 || !replay.isEmpty());
+    }
+
+    private void flush(List<Pending<E>> batch) {
+        Map<String, List<Pending<E>>> byTenant = new LinkedHashMap<>();
+        for (Pending<E> pending : batch) {
+            String tenant = tenantOf != null ? tenantOf.apply(pending.item) : null;
+            byTenant.computeIfAbsent(tenant, key -> new ArrayList<>()).add(pending);
+        }
+        byTenant.forEach(this::flushTenant);
+    }
+
+    private void flushTenant(String tenant, List<Pending<E>> group) {
+        Pending<E> waiting = waitingRetry(tenant);
+        if (waiting != null) {
+            // Keep the tenant's items in order: newer items wait behind its failed group
+            for (Pending<E> pending : group) {
+                pending.retryAt = waiting.retryAt;
+                retries.add(pending);
+            }
+            retryCount.set(retries.size());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int rows = sink.write(group.stream().map(pending -> pending.item).toList());
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            written.increment(rows);
+            group.forEach(pending -> completed.accept(pending.item));
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            logger.warn("Failed to write {} {} event(s){}: {}", group.size(), name,
+                tenant != null ? " for tenant " + tenant : "", e.getMessage());
+            long retryAt = System.nanoTime() + retryDelayNanos;
+            int dropped = 0;
+            for (Pending<E> pending : group) {
+                if (++pending.attempts >= maxAttempts) {
+                    dropped++;
+                    completed.accept(pending.item);
+                } else {
+                    pending.retryAt = retryAt;
+                    retries.add(pending);
+                }
+            }
+            if (dropped > 0) {
+                droppedFailed.increment(dropped);
+                logger.error("Dropping {} {} event(s) after {} attempts", dropped, name, maxAttempts);
+            }
+            retryCount.set(retries.size());
+        }
+    }
+
+    private void takeReplay(List<Pending<E>> batch) {
+        for (int i = 0; i < maxBatchSize && !replay.isEmpty(); i++) {
+            batch.add(replay.poll());
+        }
+        replayCount.set(replay.size());
+    }
+
+    private void takeDueRetries(List<Pending<E>> batch) {
+        if (retries.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Iterator<Pending<E>> it = retries.iterator(); it.hasNext(); ) {
+            Pending<E> pending = it.next();
+            if (now - pending.retryAt >= 0) {
+                batch.add(pending);
+                it.remove();
+            }
+        }
+        retryCount.set(retries.size());
+    }
+
+    private Pending<E> waitingRetry(String tenant) {
+        for (Pending<E> pending : retries) {
+            if (Objects.equals(tenantOf != null ? tenantOf.apply(pending.item) : null, tenant)) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    private long nextRetryAt() {
+        if (retries.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long next = retries.get(0).retryAt;
+        for (Pending<E> pending : retries) {
+            if (pending.retryAt - next < 0) {
+                next = pending.retryAt;
+            }
+        }
+        return next;
+    }
+
+    private boolean retryDueBefore(long deadline) {
+        for (Pending<E> pending : retries) {
+            if (deadline - pending.retryAt > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void warnOverflow() {
+        long now = System.nanoTime();
+        long last = lastOverflowWarning.get();
+        if (now - last >= OVERFLOW_WARNING_INTERVAL_NANOS && lastOverflowWarning.compareAndSet(last, now)) {
+            logger.warn("The {} log queue is full ({} events); dropping events", name, queue.capacity());
+        }
+    }
+
+    /**
+     * A queued item with its retry state; the retry state is only touched by the writer thread.
+     */
+    private static final class Pending<E> {
+
+        private final E item;
+        private int attempts;
+        private long retryAt;
+
+        private Pending(E item) {
+            this.item = item;
+        }
+    }
+}
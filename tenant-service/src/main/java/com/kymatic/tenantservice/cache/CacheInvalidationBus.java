@@ -0,0 +1,382 @@
+package com.kymatic.tenantservice.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-replica cache invalidation over Postgres LISTEN/NOTIFY on the master database.
+ *
+ * This bus:
+ * - Applies invalidations locally right away and publishes them to the other replicas after
+ *   the surrounding transaction commits
+ * - Coalesces events for tenant.cache.bus.coalesce-window and packs them into as few NOTIFY
+ *   payloads as possible (Postgres limits a payload to 8000 bytes)
+ * - Listens on a dedicated connection outside the pool and hands received events to every
+ *   {@link CacheInvalidationHandler}; events published by this replica are skipped
+ * - Clears all local caches after a listener reconnect, since notifications sent while
+ *   disconnected are lost
+ * - Publishes published/received/coalesced/dropped counters and delivery lag to Micrometer
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Duration RECONNECT_BACKOFF = Duration.ofSeconds(2);
+
+    private final DataSource masterDataSource;
+    private final ObjectProvider<CacheInvalidationHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String channel;
+    private final long coalesceWindowMs;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String originId = UUID.randomUUID().toString();
+
+    private final Set<CacheInvalidationEvent> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService publisher;
+    private volatile Thread listener;
+    private volatile boolean running;
+    private volatile boolean listenerConnected;
+
+    private final Counter publishedEvents;
+    private final Counter coalescedEvents;
+    private final Counter notifications;
+    private final Counter receivedEvents;
+    private final Counter droppedOversized;
+    private final Counter droppedPublishFailed;
+    private final Counter droppedReconnect;
+    private final Timer lag;
+
+    public CacheInvalidationBus(
+            @Qualifier("masterDataSource") DataSource masterDataSource,
+            ObjectProvider<CacheInvalidationHandler> handlers,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${tenant.cache.bus.enabled:true}") boolean enabled,
+            @Value("${tenant.cache.bus.channel:tenant_cache_invalidation}") String channel,
+            @Value("${tenant.cache.bus.coalesce-window:20ms}") Duration coalesceWindow,
+            @Value("${spring.datasource.url}") String jdbcUrl,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel name: " + channel);
+        }
+        this.masterDataSource = masterDataSource;
+        this.handlers = handlers;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.coalesceWindowMs = coalesceWindow.toMillis();
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+
+        this.publishedEvents = Counter.builder("tenant.cache.invalidation.published").register(meterRegistry);
+        this.coalescedEvents = Counter.builder("tenant.cache.invalidation.coalesced").register(meterRegistry);
+        this.notifications = Counter.builder("tenant.cache.invalidation.notifications").register(meterRegistry);
+        this.receivedEvents = Counter.builder("tenant.cache.invalidation.received").register(meterRegistry);
+        this.droppedOversized = Counter.builder("tenant.cache.invalidation.dropped").tag("reason", "oversized").register(meterRegistry);
+        this.droppedPublishFailed = Counter.builder("tenant.cache.invalidation.dropped").tag("reason", "publish_failed").register(meterRegistry);
+        this.droppedReconnect = Counter.builder("tenant.cache.invalidation.dropped").tag("reason", "listener_reconnect").register(meterRegistry);
+        this.lag = Timer.builder("tenant.cache.invalidation.lag")
+            .description("Time from publish on one replica to receipt on another")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("tenant.cache.invalidation.pending", pending, Set::size).register(meterRegistry);
+        Gauge.builder("tenant.cache.invalidation.listener.connected", this, bus -> bus.listenerConnected ? 1 : 0)
+            .register(meterRegistry);
+
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Evict locally and publish to the other replicas.
+     */
+    public void invalidate(CacheInvalidationEvent event) {
+        applyLocally(event);
+        publish(event);
+    }
+
+    /**
+     * Publish to the other replicas only; the caller has already evicted its local copy.
+     * Inside a transaction the event is sent after commit, and dropped on rollback.
+     */
+    public void publish(CacheInvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(CacheInvalidationEvent event) {
+        if (!pending.add(event)) {
+            coalescedEvents.increment();
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            publisher.schedule(this::flush, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<CacheInvalidationEvent> batch = new ArrayList<>(pending.size());
+        for (CacheInvalidationEvent event : pending) {
+            if (pending.remove(event)) {
+                batch.add(event);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> payloads = encode(batch, System.currentTimeMillis());
+        try (Connection connection = masterDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : payloads) {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+            notifications.increment(payloads.size());
+            publishedEvents.increment(batch.size());
+        } catch (Exception e) {
+            droppedPublishFailed.increment(batch.size());
+            logger.warn("Failed to publish {} cache invalidation event(s): {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Pack events into payloads under the NOTIFY size limit. An event that does not fit on
+     * its own is widened to its tenant scope, or dropped if that still does not fit.
+     */
+    List<String> encode(List<CacheInvalidationEvent> events, long publishedAtMillis) {
+        String prefix = "{\"o\":\"" + originId + "\",\"t\":" + publishedAtMillis + ",\"e\":[";
+        String suffix = "]}";
+        int overhead = prefix.length() + suffix.length();
+
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(prefix);
+        int currentBytes = overhead;
+        boolean empty = true;
+        for (CacheInvalidationEvent event : events) {
+            String encoded = encodeEvent(event);
+            int bytes = encoded.getBytes(StandardCharsets.UTF_8).length;
+            if (overhead + bytes > MAX_PAYLOAD_BYTES && event.key() != null) {
+                encoded = encodeEvent(event.widen());
+                bytes = encoded.getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (overhead + bytes > MAX_PAYLOAD_BYTES) {
+                droppedOversized.increment();
+                logger.warn("Dropping oversized cache invalidation event for cache {}", event.cache());
+                continue;
+            }
+            if (!empty && currentBytes + 1 + bytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(current.append(suffix).toString());
+                current = new StringBuilder(prefix);
+                currentBytes = overhead;
+                empty = true;
+            }
+            if (!empty) {
+                current.append(',');
+                currentBytes++;
+            }
+            current.append(encoded);
+            currentBytes += bytes;
+            empty = false;
+        }
+        if (!empty) {
+            payloads.add(current.append(suffix).toString());
+        }
+        return payloads;
+    }
+
+    private String encodeEvent(CacheInvalidationEvent event) {
+        ArrayNode node = objectMapper.createArrayNode();
+        node.add(event.cache());
+        node.add(event.tenant());
+        node.add(event.key());
+        return node.toString();
+    }
+
+    /**
+     * Apply a received payload. Returns the number of events applied.
+     */
+    int receive(String payload) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed cache invalidation payload: {}", e.getMessage());
+            return 0;
+        }
+        if (originId.equals(root.path("o").asText())) {
+            return 0;
+        }
+        long publishedAt = root.path("t").asLong(0);
+        if (publishedAt > 0) {
+            lag.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+        }
+
+        int applied = 0;
+        for (JsonNode node : root.path("e")) {
+            CacheInvalidationEvent event = new CacheInvalidationEvent(
+                node.path(0).asText(null),
+                textOrNull(node.path(1)),
+                textOrNull(node.path(2)));
+            if (event.cache() == null) {
+                continue;
+            }
+            applyLocally(event);
+            applied++;
+        }
+        receivedEvents.increment(applied);
+        return applied;
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isNull() || node.isMissingNode() ? null : node.asText();
+    }
+
+    private void applyLocally(CacheInvalidationEvent event) {
+        handlers.orderedStream().forEach(handler -> {
+            try {
+                handler.evict(event);
+            } catch (Exception e) {
+                logger.warn("Cache invalidation handler {} failed for {}: {}",
+                    handler.getClass().getSimpleName(), event, e.getMessage());
+            }
+        });
+    }
+
+    private void evictAllLocally() {
+        handlers.orderedStream().forEach(CacheInvalidationHandler::evictAll);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+        logger.info("Cache invalidation bus listening on channel {} (replica {})", channel, originId);
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                listenerConnected = true;
+                if (reconnecting) {
+                    // Notifications sent while we were disconnected are gone
+                    droppedReconnect.increment();
+                    evictAllLocally();
+                    logger.info("Cache invalidation listener reconnected; cleared local caches");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = pgConnection.getNotifications(500);
+                    if (received == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Cache invalidation listener disconnected: {}", e.getMessage());
+                }
+            } finally {
+                listenerConnected = false;
+            }
+            reconnecting = true;
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_BACKOFF.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
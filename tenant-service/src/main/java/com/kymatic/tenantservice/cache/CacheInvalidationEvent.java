@@ -0,0 +1,22 @@
+package com.kymatic.tenantservice.cache;
+
+/**
+ * Invalidation of cached data, shared between tenant-service replicas by {@link CacheInvalidationBus}.
+ *
+ * @param cache  cache name (e.g. "users", "tenant-resolver")
+ * @param tenant tenant the entry belongs to; null for entries that are not tenant-scoped
+ * @param key    cache key; null to invalidate everything the tenant has in the cache
+ */
+public record CacheInvalidationEvent(String cache, String tenant, String key) {
+
+    public static CacheInvalidationEvent of(String cache, String tenant, Object key) {
+        return new CacheInvalidationEvent(cache, tenant, key != null ? key.toString() : null);
+    }
+
+    /**
+     * The same invalidation widened to the whole tenant scope of the cache.
+     */
+    public CacheInvalidationEvent widen() {
+        return new CacheInvalidationEvent(cache, tenant, null);
+    }
+}
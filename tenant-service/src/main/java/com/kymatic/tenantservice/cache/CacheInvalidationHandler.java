@@ -0,0 +1,16 @@
+package com.kymatic.tenantservice.cache;
+
+/**
+ * Local cache that can apply invalidations received from other replicas.
+ *
+ * Implementations ignore events for caches they do not own.
+ */
+public interface CacheInvalidationHandler {
+
+    void evict(CacheInvalidationEvent event);
+
+    /**
+     * Drop everything. Used when invalidations may have been missed (listener reconnect).
+     */
+    void evictAll();
+}
@@ -0,0 +1,59 @@
+package com.kymatic.tenantservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies invalidation events to the Spring caches managed by the application CacheManager.
+ *
+ * For a {@link TenantScopedCache} an event with a key evicts that key in the event's tenant
+ * scope, and an event without a key clears only that tenant's entries. Other caches have no
+ * notion of tenants: a key is evicted as is, and an event without a key clears the cache.
+ */
+@Component
+public class SpringCacheInvalidationHandler implements CacheInvalidationHandler {
+
+    private final CacheManager cacheManager;
+
+    public SpringCacheInvalidationHandler(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void evict(CacheInvalidationEvent event) {
+        Cache cache = cacheManager.getCache(event.cache());
+        if (cache == null) {
+            return;
+        }
+        if (cache instanceof TenantScopedCache scoped) {
+            evictScoped(scoped, event);
+        } else if (event.key() != null) {
+            cache.evict(event.key());
+        } else {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TenantScopedCache scoped) {
+                scoped.clearLocally();
+            } else if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static void evictScoped(TenantScopedCache cache, CacheInvalidationEvent event) {
+        if (event.tenant() == null) {
+            cache.clearLocally();
+        } else if (event.key() != null) {
+            cache.evictLocally(event.tenant(), event.key());
+        } else {
+            cache.clearLocally(event.tenant());
+        }
+    }
+}
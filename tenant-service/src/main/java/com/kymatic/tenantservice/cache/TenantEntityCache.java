@@ -0,0 +1,217 @@
+package com.kymatic.tenantservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.service.TenantRoutingHandle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of tenant entities by primary key.
+ *
+ * This cache:
+ * - Keys entries by (tenant database, entity type, id), so the same id in two tenant
+ *   databases never collides
+ * - Is populated from JPA loads on a miss; {@link #getAll} loads only the missing ids,
+ *   in one findAllById (WHERE id IN (...)) query
+ * - Must be evicted by every update or delete of a cached entity type. Evictions repeat
+ *   after commit and are published to the other replicas through the {@link CacheInvalidationBus}
+ *
+ * Cached entities are detached snapshots shared between requests: use them for reads only,
+ * and load through the repository when the entity is going to be modified.
+ */
+@Component
+public class TenantEntityCache implements CacheInvalidationHandler {
+
+    public static final String CACHE_NAME = "tenant-entity";
+
+    private final Cache<EntityKey, Object> entities;
+    private final CacheInvalidationBus invalidationBus;
+    private final Supplier<String> databaseSupplier;
+
+    @Autowired
+    public TenantEntityCache(
+        CacheInvalidationBus invalidationBus,
+        MeterRegistry meterRegistry,
+        @Value("${tenant.cache.entities.maximum-size:50000}") long maximumSize,
+        @Value("${tenant.cache.entities.ttl:10m}") Duration ttl
+    ) {
+        this(invalidationBus, meterRegistry, maximumSize, ttl, TenantEntityCache::currentTenantDatabase);
+    }
+
+    TenantEntityCache(
+        CacheInvalidationBus invalidationBus,
+        MeterRegistry meterRegistry,
+        long maximumSize,
+        Duration ttl,
+        Supplier<String> databaseSupplier
+    ) {
+        this.invalidationBus = invalidationBus;
+        this.databaseSupplier = databaseSupplier;
+        this.entities = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, entities, CACHE_NAME);
+        }
+    }
+
+    /**
+     * Cached entity, or the loader's result (cached when present).
+     */
+    public <T> Optional<T> get(Class<T> type, UUID id, Function<UUID, Optional<T>> loader) {
+        String database = databaseSupplier.get();
+        if (database == null || id == null) {
+            return loader.apply(id);
+        }
+        EntityKey key = new EntityKey(database, type.getSimpleName(), id);
+        Object cached = entities.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(type.cast(cached));
+        }
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(entity -> entities.put(key, entity));
+        return loaded;
+    }
+
+    /**
+     * Cached entities for the given ids; the misses are loaded together in one call to the
+     * loader (typically {@code repository::findAllById}). Ids that do not exist are absent
+     * from the result. The result keeps the order of {@code ids}.
+     */
+    public <T> Map<UUID, T> getAll(
+        Class<T> type,
+        Collection<UUID> ids,
+        Function<Collection<UUID>, ? extends Iterable<T>> loader,
+        Function<T, UUID> idOf
+    ) {
+        Map<UUID, T> result = new LinkedHashMap<>();
+        String database = databaseSupplier.get();
+        Set<UUID> misses = new LinkedHashSet<>();
+        for (UUID id : ids) {
+            Object cached = database != null ? entities.getIfPresent(new EntityKey(database, type.getSimpleName(), id)) : null;
+            if (cached != null) {
+                result.put(id, type.cast(cached));
+            } else {
+                result.put(id, null);
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (T entity : loader.apply(misses)) {
+                UUID id = idOf.apply(entity);
+                result.put(id, entity);
+                if (database != null) {
+                    entities.put(new EntityKey(database, type.getSimpleName(), id), entity);
+                }
+            }
+        }
+        result.values().removeIf(entity -> entity == null);
+        return result;
+    }
+
+    /**
+     * Drop one entity of the current tenant after it was updated or deleted.
+     */
+    public void evict(Class<?> type, UUID id) {
+        evictAfterWrite(type, id);
+    }
+
+    /**
+     * Drop every cached entity of a type for the current tenant, e.g. after a cascading delete.
+     */
+    public void evictAll(Class<?> type) {
+        evictAfterWrite(type, null);
+    }
+
+    /**
+     * Apply an eviction published by another replica.
+     */
+    @Override
+    public void evict(CacheInvalidationEvent event) {
+        if (!CACHE_NAME.equals(event.cache())) {
+            return;
+        }
+        if (event.tenant() == null) {
+            entities.invalidateAll();
+        } else if (event.key() == null) {
+            evictLocally(event.tenant(), null, null);
+        } else {
+            int separator = event.key().indexOf(':');
+            if (separator < 0) {
+                evictLocally(event.tenant(), event.key(), null);
+            } else {
+                evictLocally(event.tenant(), event.key().substring(0, separator),
+                    UUID.fromString(event.key().substring(separator + 1)));
+            }
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        entities.invalidateAll();
+    }
+
+    private void evictAfterWrite(Class<?> type, UUID id) {
+        String database = databaseSupplier.get();
+        if (database == null) {
+            return;
+        }
+        String typeName = type.getSimpleName();
+        evictLocally(database, typeName, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocally(database, typeName, id);
+                }
+            });
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publish(new CacheInvalidationEvent(
+                CACHE_NAME, database, id != null ? typeName + ":" + id : typeName));
+        }
+    }
+
+    private void evictLocally(String database, String typeName, UUID id) {
+        if (id != null) {
+            entities.invalidate(new EntityKey(database, typeName, id));
+            return;
+        }
+        entities.asMap().keySet().removeIf(key ->
+            key.database().equals(database) && (typeName == null || key.type().equals(typeName)));
+    }
+
+    /**
+     * Database of the tenant bound to the request; falls back to the tenant identifier when no
+     * routing handle is bound. Null outside of a tenant request, which disables caching.
+     */
+    private static String currentTenantDatabase() {
+        if (TenantContext.getRoutingHandle() instanceof TenantRoutingHandle handle) {
+            return handle.databaseName();
+        }
+        return TenantContext.getTenantId();
+    }
+
+    private record EntityKey(String database, String type, UUID id) {
+    }
+}
@@ -0,0 +1,291 @@
+package com.kymatic.tenantservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Spring Cache whose entries are partitioned by tenant.
+ *
+ * This cache:
+ * - Scopes every key to the tenant bound to the current request, so callers use plain keys
+ *   such as "all" instead of mixing the tenant into the key
+ * - Is backed by one bounded Caffeine cache per cache name (maxWeight across all tenants,
+ *   expireAfterWrite ttl)
+ * - Enforces a per-tenant weight quota: a tenant over quota evicts its own oldest entries,
+ *   so one large tenant cannot push everyone else out of the shared bound
+ * - Evicts again after commit when evicted inside a transaction, and publishes evictions
+ *   to the other replicas through the {@link CacheInvalidationBus}
+ *
+ * {@link #clear()} only clears the current tenant's entries when a tenant is bound;
+ * without a tenant it clears the whole cache.
+ */
+public class TenantScopedCache extends AbstractValueAdaptingCache {
+
+    /**
+     * Scope used for entries cached outside of a tenant request.
+     */
+    static final String GLOBAL_SCOPE = "_global";
+
+    private final String name;
+    private final long tenantQuota;
+    private final Supplier<String> tenantSupplier;
+    private final CacheInvalidationBus invalidationBus;
+    private final com.github.benmanes.caffeine.cache.Cache<TenantKey, Object> store;
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>();
+    private final Counter quotaEvictions;
+    private final Counter quotaRejections;
+
+    public TenantScopedCache(
+        String name,
+        long maxWeight,
+        long tenantQuota,
+        Duration ttl,
+        Supplier<String> tenantSupplier,
+        CacheInvalidationBus invalidationBus,
+        MeterRegistry meterRegistry
+    ) {
+        super(false);
+        this.name = name;
+        this.tenantQuota = tenantQuota;
+        this.tenantSupplier = tenantSupplier;
+        this.invalidationBus = invalidationBus;
+        this.store = Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher((TenantKey key, Object value) -> weigh(value))
+            .expireAfterWrite(ttl)
+            // Run removal callbacks inline so the per-tenant accounting never lags behind
+            .executor(Runnable::run)
+            .removalListener((TenantKey key, Object value, RemovalCause cause) -> onRemoval(key, value, cause))
+            .recordStats()
+            .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, store, name);
+            this.quotaEvictions = Counter.builder("tenant.cache.quota.evictions")
+                .description("Entries evicted because their tenant exceeded its quota")
+                .tag("cache", name)
+                .register(meterRegistry);
+            this.quotaRejections = Counter.builder("tenant.cache.quota.rejections")
+                .description("Values not cached because they alone exceed the tenant quota")
+                .tag("cache", name)
+                .register(meterRegistry);
+        } else {
+            this.quotaEvictions = null;
+            this.quotaRejections = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return store.getIfPresent(TenantKey.of(currentTenant(), key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        String tenant = currentTenant();
+        long weight = weigh(value);
+        if (weight > tenantQuota) {
+            increment(quotaRejections);
+            store.invalidate(TenantKey.of(tenant, key));
+            return;
+        }
+        Scope scope = scopes.computeIfAbsent(tenant, t -> new Scope());
+        // Make room inside the tenant's own quota, oldest entries first. No lock is held while
+        // calling into Caffeine, so the quota is approximate under concurrent writes.
+        while (scope.weight.get() + weight > tenantQuota) {
+            String victim = scope.oldestExcept(key.toString());
+            if (victim == null) {
+                break;
+            }
+            scope.keys.remove(victim);
+            store.invalidate(TenantKey.of(tenant, victim));
+            increment(quotaEvictions);
+        }
+        scope.keys.put(key.toString(), scope.sequence.incrementAndGet());
+        scope.weight.addAndGet(weight);
+        store.put(TenantKey.of(tenant, key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String tenant = currentTenant();
+        evictLocally(tenant, key);
+        afterCommit(() -> evictLocally(tenant, key));
+        publish(CacheInvalidationEvent.of(name, tenant, key));
+    }
+
+    @Override
+    public void clear() {
+        String tenant = currentTenant();
+        if (GLOBAL_SCOPE.equals(tenant)) {
+            clearLocally();
+            publish(new CacheInvalidationEvent(name, null, null));
+            return;
+        }
+        clearLocally(tenant);
+        afterCommit(() -> clearLocally(tenant));
+        publish(new CacheInvalidationEvent(name, tenant, null));
+    }
+
+    /**
+     * Evict one tenant's entry without publishing; used to apply events from other replicas.
+     */
+    public void evictLocally(String tenant, Object key) {
+        store.invalidate(TenantKey.of(tenant, key));
+    }
+
+    /**
+     * Evict everything one tenant holds in this cache, without publishing.
+     */
+    public void clearLocally(String tenant) {
+        Scope scope = scopes.get(tenant);
+        if (scope == null) {
+            return;
+        }
+        for (String key : new ArrayList<>(scope.keys.keySet())) {
+            store.invalidate(TenantKey.of(tenant, key));
+        }
+    }
+
+    /**
+     * Evict all tenants' entries without publishing.
+     */
+    public void clearLocally() {
+        store.invalidateAll();
+    }
+
+    /**
+     * Weight currently held by a tenant in this cache.
+     */
+    long tenantWeight(String tenant) {
+        Scope scope = scopes.get(tenant);
+        return scope != null ? scope.weight.get() : 0;
+    }
+
+    private void onRemoval(TenantKey key, Object value, RemovalCause cause) {
+        Scope scope = scopes.get(key.tenant());
+        if (scope == null || value == null) {
+            return;
+        }
+        scope.weight.addAndGet(-weigh(value));
+        if (cause != RemovalCause.REPLACED) {
+            scope.keys.remove(key.key());
+        }
+    }
+
+    private String currentTenant() {
+        String tenant = tenantSupplier.get();
+        return tenant != null ? tenant : GLOBAL_SCOPE;
+    }
+
+    private void publish(CacheInvalidationEvent event) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(event);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Weight in rows: a collection or map weighs its size plus one, anything else weighs one.
+     */
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        return 1;
+    }
+
+    /**
+     * Keys are held in their string form, the form they travel in over the invalidation bus,
+     * so an eviction from another replica matches exactly.
+     */
+    private record TenantKey(String tenant, String key) {
+        private static TenantKey of(String tenant, Object key) {
+            return new TenantKey(tenant, key.toString());
+        }
+    }
+
+    /**
+     * Keys a tenant holds in this cache with their insertion sequence, and their total weight.
+     */
+    private static final class Scope {
+        private final Map<String, Long> keys = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong weight = new AtomicLong();
+
+        private String oldestExcept(String excluded) {
+            String oldest = null;
+            long oldestSequence = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : keys.entrySet()) {
+                if (entry.getValue() < oldestSequence && !entry.getKey().equals(excluded)) {
+                    oldest = entry.getKey();
+                    oldestSequence = entry.getValue();
+                }
+            }
+            return oldest;
+        }
+    }
+}
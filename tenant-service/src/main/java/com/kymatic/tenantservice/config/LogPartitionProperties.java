@@ -0,0 +1,258 @@
+package com.kymatic.tenantservice.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the monthly partitions of activity_log (tenant databases) and tenant_audit_log
+ * (master database), maintained by {@link com.kymatic.tenantservice.service.LogPartitionMaintenance}.
+ *
+ * Bound from the {@code tenant.log-partitions} prefix in application.yml. Retentions are counted
+ * in whole months; a partition expires once its last day is older than the retention. A
+ * retention of 0 or less keeps partitions forever.
+ */
+@ConfigurationProperties(prefix = "tenant.log-partitions")
+public class LogPartitionProperties {
+
+    /**
+     * Tenant metadata key holding a per-tenant activity_log retention in months, overriding the tier.
+     */
+    public static final String RETENTION_METADATA_KEY = "activityLogRetentionMonths";
+
+    private boolean enabled = true;
+
+    /**
+     * Delay between two maintenance runs; the first run starts shortly after startup.
+     */
+    private Duration interval = Duration.ofHours(6);
+
+    /**
+     * Months after the current one that always have a partition. Rows with no partition are rejected,
+     * so this must cover the time maintenance could be down.
+     */
+    private int createAhead = 3;
+
+    /**
+     * Upper bound on waiting for a lock when attaching or detaching a partition; the statement fails
+     * instead of queueing behind a long transaction (and blocking the writers queued behind it), and
+     * is retried on the next run.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(2);
+
+    /**
+     * What happens to an expired partition once detached: drop, or keep as a standalone table.
+     */
+    private Expiry expiry = Expiry.DROP;
+
+    /**
+     * Active tenants checked per run, most recently active first.
+     */
+    private int maxTenants = 10_000;
+
+    private ActivityLog activityLog = new ActivityLog();
+
+    private AuditLog auditLog = new AuditLog();
+
+    private Archive archive = new Archive();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getCreateAhead() {
+        return createAhead;
+    }
+
+    public void setCreateAhead(int createAhead) {
+        this.createAhead = createAhead;
+    }
+
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    public void setLockTimeout(Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(Expiry expiry) {
+        this.expiry = expiry;
+    }
+
+    public int getMaxTenants() {
+        return maxTenants;
+    }
+
+    public void setMaxTenants(int maxTenants) {
+        this.maxTenants = maxTenants;
+    }
+
+    public ActivityLog getActivityLog() {
+        return activityLog;
+    }
+
+    public void setActivityLog(ActivityLog activityLog) {
+        this.activityLog = activityLog;
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public void setArchive(Archive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * activity_log retention of one tenant: the months in its metadata under
+     * {@link #RETENTION_METADATA_KEY}, else those of its subscription tier, else the default.
+     */
+    public int activityLogRetentionMonths(String subscriptionTier, JsonNode metadata) {
+        if (metadata != null && metadata.path(RETENTION_METADATA_KEY).canConvertToInt()) {
+            return metadata.path(RETENTION_METADATA_KEY).asInt();
+        }
+        if (subscriptionTier != null) {
+            for (Map.Entry<String, Integer> entry : activityLog.getTiers().entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(subscriptionTier)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return activityLog.getRetentionMonths();
+    }
+
+    public enum Expiry {
+        DROP,
+        DETACH
+    }
+
+    public static class ActivityLog {
+
+        /**
+         * Retention of tenants whose tier has no entry in {@link #tiers}.
+         */
+        private int retentionMonths = 12;
+
+        /**
+         * Retention per subscription tier (keys are compared case-insensitively).
+         */
+        private Map<String, Integer> tiers = new LinkedHashMap<>();
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public Map<String, Integer> getTiers() {
+            return tiers;
+        }
+
+        public void setTiers(Map<String, Integer> tiers) {
+            this.tiers = tiers;
+        }
+    }
+
+    public static class AuditLog {
+
+        /**
+         * Retention of tenant_audit_log; one partition holds the rows of every tenant, so there is
+         * no per-tenant retention.
+         */
+        private int retentionMonths = 24;
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+    }
+
+    /**
+     * Cold storage of activity_log: partitions older than {@link #afterMonths} are moved to
+     * compressed columnar files on local disk, which stay readable until the retention expires.
+     */
+    public static class Archive {
+
+        private boolean enabled = false;
+
+        /**
+         * Months before the current one kept in Postgres.
+         */
+        private int afterMonths = 6;
+
+        /**
+         * Root directory of the archive files, one subdirectory per tenant.
+         */
+        private String directory = "activity-archive";
+
+        /**
+         * Rows per row group; a scan skips whole groups outside its created_at range.
+         */
+        private int groupSize = 65_536;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getAfterMonths() {
+            return afterMonths;
+        }
+
+        public void setAfterMonths(int afterMonths) {
+            this.afterMonths = afterMonths;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getGroupSize() {
+            return groupSize;
+        }
+
+        public void setGroupSize(int groupSize) {
+            this.groupSize = groupSize;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.tenantservice.activity.ActivityActorResolver;
+import com.kymatic.tenantservice.service.PermissionEvaluator;
+import com.kymatic.tenantservice.service.RoleAssignmentService;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Spring Security authorization rules backed by the configured {@link PermissionEvaluator}, by
+ * default the in-memory effective-permission index.
+ *
+ * This component:
+ * - Builds AuthorizationManagers for request rules, e.g.
+ *   {@code .requestMatchers(HttpMethod.DELETE, "/api/tasks/**").access(permissions.require("tasks.delete"))};
+ *   SecurityConfig wires the rules enabled by tenant.permissions.request-rules.enabled
+ * - Reads the site of site-scoped rules from a path variable or request parameter
+ * - Maps the principal to the tenant's users.user_id by its email claim with {@link ActivityActorResolver}
+ *   (the JWT subject is an account id, not a tenant user id); anonymous callers, principals
+ *   without a tenant user and requests without a tenant are denied
+ *
+ * With the index evaluator decisions are answered from memory; the database is read when a
+ * tenant's index is built and, once per principal and cache period, to look up the user.
+ */
+@Component
+public class PermissionAuthorization {
+
+    private final RoleAssignmentService roleAssignmentService;
+    private final ActivityActorResolver actorResolver;
+
+    public PermissionAuthorization(RoleAssignmentService roleAssignmentService, ActivityActorResolver actorResolver) {
+        this.roleAssignmentService = roleAssignmentService;
+        this.actorResolver = actorResolver;
+    }
+
+    /**
+     * Rule granting requests whose user holds the permission through a global role.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> require(String permissionKey) {
+        return (authentication, context) -> check(authentication, permissionKey, null);
+    }
+
+    /**
+     * Rule granting requests whose user holds the permission at the site named by the path
+     * variable or request parameter, and has access to that site. Requests without the site are denied.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> requireAtSite(String permissionKey, String siteVariable) {
+        return (authentication, context) -> {
+            String site = context.getVariables().get(siteVariable);
+            if (site == null) {
+                site = context.getRequest().getParameter(siteVariable);
+            }
+            UUID siteId = parseUuid(site);
+            if (siteId == null) {
+                return new AuthorizationDecision(false);
+            }
+            return check(authentication, permissionKey, siteId);
+        };
+    }
+
+    /**
+     * Decision for the authenticated user in the current tenant; siteId null for a global check.
+     */
+    public AuthorizationDecision check(Supplier<Authentication> authentication, String permissionKey, UUID siteId) {
+        try {
+            UUID userId = actorResolver.userId(authentication.get());
+            if (userId == null) {
+                return new AuthorizationDecision(false);
+            }
+            return new AuthorizationDecision(roleAssignmentService.isAllowed(userId, permissionKey, siteId));
+        } catch (IllegalStateException e) {
+            return new AuthorizationDecision(false);
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
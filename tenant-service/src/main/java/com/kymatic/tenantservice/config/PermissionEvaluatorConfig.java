@@ -0,0 +1,49 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import com.kymatic.tenantservice.service.DatabaseFunctionPermissionEvaluator;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex;
+import com.kymatic.tenantservice.service.IndexPermissionEvaluator;
+import com.kymatic.tenantservice.service.JpaPermissionEvaluator;
+import com.kymatic.tenantservice.service.PermissionEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Selects how permission checks are evaluated (tenant.permissions.evaluator):
+ * - index (default): in-memory effective-permission bitsets
+ * - database-function: has_permission / can_access_site / get_user_permissions in the tenant database
+ * - jpa: one JPQL query per check
+ *
+ * All three resolve role-level and department-site inheritance alike. The effective-permission
+ * index is maintained in every mode, so switching needs no migration.
+ */
+@Configuration
+public class PermissionEvaluatorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionEvaluatorConfig.class);
+
+    @Bean
+    public PermissionEvaluator permissionEvaluator(
+            @Value("${tenant.permissions.evaluator:index}") String evaluator,
+            EffectivePermissionIndex permissionIndex,
+            DataSource dataSource,
+            UserRoleRepository userRoleRepository,
+            UserSiteAccessRepository userSiteAccessRepository,
+            SiteRepository siteRepository) {
+        PermissionEvaluator.Mode mode = PermissionEvaluator.Mode.of(evaluator);
+        logger.info("Permission evaluation mode: {}", mode);
+        return switch (mode) {
+            case INDEX -> new IndexPermissionEvaluator(permissionIndex);
+            case DATABASE_FUNCTION -> new DatabaseFunctionPermissionEvaluator(dataSource);
+            case JPA -> new JpaPermissionEvaluator(userRoleRepository, userSiteAccessRepository, siteRepository);
+        };
+    }
+}
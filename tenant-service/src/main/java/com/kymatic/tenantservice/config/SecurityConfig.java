@@ -37,14 +37,19 @@ import java.util.List;
  * - Configures OAuth2 Resource Server
  * - Integrates TenantResolver filter to extract tenant_id from JWT
  * - Sets up endpoint authorization rules
+ * - With tenant.permissions.request-rules.enabled, requires the {@value #ASSIGN_ROLES_PERMISSION}
+ *   permission of the tenant's RBAC model (see {@link PermissionAuthorization}) to assign roles
  */
 @Configuration
 @EnableWebSecurity
 @Profile("!dev") // Only active when NOT in dev profile
 public class SecurityConfig {
 
+    static final String ASSIGN_ROLES_PERMISSION = "roles.assign";
+
     private final JwtTenantResolver jwtTenantResolver;
     private final JwtTokenUtil jwtTokenUtil;
+    private final PermissionAuthorization permissions;
 
     @Value("${app.jwt.issuer:http://localhost:8083}")
     private String localJwtIssuer;
@@ -55,9 +60,14 @@ public class SecurityConfig {
     @Value("${keycloak.admin.realm:kymatic}")
     private String keycloakRealm;
 
-    public SecurityConfig(JwtTenantResolver jwtTenantResolver, JwtTokenUtil jwtTokenUtil) {
+    // Off by default: a new tenant has no permissions until an administrator assigns the first roles
+    @Value("${tenant.permissions.request-rules.enabled:false}")
+    private boolean permissionRulesEnabled;
+
+    public SecurityConfig(JwtTenantResolver jwtTenantResolver, JwtTokenUtil jwtTokenUtil, PermissionAuthorization permissions) {
         this.jwtTenantResolver = jwtTenantResolver;
         this.jwtTokenUtil = jwtTokenUtil;
+        this.permissions = permissions;
     }
 
     @Bean
@@ -80,28 +90,35 @@ public class SecurityConfig {
             )
             
             // Configure authorization rules
-            .authorizeHttpRequests(authz -> authz
-                // Public endpoints (no authentication required)
-                .requestMatchers(
-                    "/actuator/health",
-                    "/actuator/info",
-                    "/swagger-ui.html",
-                    "/swagger-ui/**",
-                    "/swagger-ui/index.html",
-                    "/v3/api-docs",
-                    "/v3/api-docs/**",
-                    "/swagger-ui.html",
-                    "/api/auth/login",
-                    "/api/auth/refresh"
-                ).permitAll()
-                // Allow tenant creation without authentication (signup/onboarding)
-                .requestMatchers(HttpMethod.POST, "/api/tenants").permitAll()
-                // Allow listing tenants without authentication (for tenant selection)
-                .requestMatchers(HttpMethod.GET, "/api/tenants").permitAll()
-                
+            .authorizeHttpRequests(authz -> {
+                authz
+                    // Public endpoints (no authentication required)
+                    .requestMatchers(
+                        "/actuator/health",
+                        "/actuator/info",
+                        "/swagger-ui.html",
+                        "/swagger-ui/**",
+                        "/swagger-ui/index.html",
+                        "/v3/api-docs",
+                        "/v3/api-docs/**",
+                        "/swagger-ui.html",
+                        "/api/auth/login",
+                        "/api/auth/refresh"
+                    ).permitAll()
+                    // Allow tenant creation without authentication (signup/onboarding)
+                    .requestMatchers(HttpMethod.POST, "/api/tenants").permitAll()
+                    // Allow listing tenants without authentication (for tenant selection)
+                    .requestMatchers(HttpMethod.GET, "/api/tenants").permitAll();
+
+                // Role assignment needs the tenant permission, evaluated in process
+                if (permissionRulesEnabled) {
+                    authz.requestMatchers(HttpMethod.POST, "/api/rbac/roles/assignments", "/api/rbac/roles/assignments/**")
+                        .access(permissions.require(ASSIGN_ROLES_PERMISSION));
+                }
+
                 // All other endpoints require authentication
-                .anyRequest().authenticated()
-            )
+                authz.anyRequest().authenticated();
+            })
             
             // Add TenantResolver filter after JWT authentication
             // This extracts tenant_id from the JWT and stores it in TenantContext
@@ -201,7 +218,7 @@ public class SecurityConfig {
                 HttpMethod.OPTIONS.name()
         ));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(List.of("Authorization", "Location"));
+        configuration.setExposedHeaders(List.of("Authorization", "Location", "X-Next-Cursor"));
         configuration.setAllowCredentials(false);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,133 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.tenantservice.service.TenantDatabaseManager;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single connection pool shared by all tenants (tenant.datasource.mode=shared-pool).
+ *
+ * Each tenant lives in its own schema inside the shared tenant database. On checkout the
+ * connection's search_path is pointed at the tenant schema. The schema currently selected on
+ * each physical connection is remembered, so consecutive checkouts for the same tenant skip
+ * the extra round trip.
+ *
+ * Total connections stay at shared.maximum-pool-size regardless of tenant count, instead of
+ * growing with one pool per tenant database.
+ */
+public class SharedTenantDataSourcePool implements TenantDataSourceProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedTenantDataSourcePool.class);
+
+    private final HikariDataSource pool;
+    private final Map<String, SchemaBoundDataSource> schemaDataSources = new ConcurrentHashMap<>();
+    // Keyed by the physical (unwrapped) connection so entries disappear when Hikari retires it
+    private final Map<Connection, String> selectedSchemas = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Counter schemaSwitches;
+    private final Counter schemaReuses;
+
+    public SharedTenantDataSourcePool(
+            TenantDatabaseManager tenantDatabaseManager,
+            TenantDataSourceProperties properties,
+            String username,
+            String password,
+            String driverClassName,
+            MeterRegistry meterRegistry) {
+        TenantDataSourceProperties.Shared shared = properties.getShared();
+        TenantDataSourceProperties.Pool poolProperties = properties.getPool();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tenant-shared");
+        config.setJdbcUrl(tenantDatabaseManager.buildDatabaseJdbcUrl(shared.getDatabase()));
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(shared.getMaximumPoolSize());
+        config.setMinimumIdle(shared.getMinimumIdle());
+        config.setConnectionTimeout(poolProperties.getConnectionTimeout().toMillis());
+        config.setMaxLifetime(poolProperties.getMaxLifetime().toMillis());
+        config.setKeepaliveTime(30000);
+        config.setInitializationFailTimeout(-1);
+        config.setConnectionTestQuery("SELECT 1");
+        config.setValidationTimeout(3000);
+        config.setMetricRegistry(meterRegistry);
+        this.pool = new HikariDataSource(config);
+
+        this.schemaSwitches = Counter.builder("tenant.datasource.shared.search_path").tag("result", "switched").register(meterRegistry);
+        this.schemaReuses = Counter.builder("tenant.datasource.shared.search_path").tag("result", "reused").register(meterRegistry);
+
+        logger.info("Shared tenant pool created for database {} (maxPoolSize: {})", shared.getDatabase(), shared.getMaximumPoolSize());
+    }
+
+    @Override
+    public DataSource getDataSource(String databaseName, String subscriptionTier) {
+        SchemaBoundDataSource dataSource = schemaDataSources.get(databaseName);
+        if (dataSource == null) {
+            dataSource = schemaDataSources.computeIfAbsent(databaseName, SchemaBoundDataSource::new);
+        }
+        return dataSource;
+    }
+
+    private Connection getConnection(SchemaBoundDataSource target) throws SQLException {
+        Connection connection = pool.getConnection();
+        try {
+            Connection physical = connection.unwrap(Connection.class);
+            if (target.schema.equals(selectedSchemas.get(physical))) {
+                schemaReuses.increment();
+                return connection;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(target.setSearchPathSql);
+            }
+            selectedSchemas.put(physical, target.schema);
+            schemaSwitches.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * DataSource view of the shared pool bound to one tenant schema.
+     */
+    private final class SchemaBoundDataSource extends AbstractDataSource {
+        private final String schema;
+        private final String setSearchPathSql;
+
+        private SchemaBoundDataSource(String schema) {
+            this.schema = schema;
+            this.setSearchPathSql = "SET search_path TO " + TenantDatabaseManager.quoteIdentifier(schema) + ", public";
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return SharedTenantDataSourcePool.this.getConnection(this);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kymatic.tenantservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records which tenants are being routed to and persists it to the master tenant_activity table.
+ *
+ * This tracker:
+ * - Counts routed connection checkouts per tenant in memory (no I/O on the request path)
+ * - Flushes the counters in one batched upsert every warmup.activity-flush-interval
+ * - Provides the ordering used by {@link TenantDataSourceWarmer} to warm active tenants first
+ */
+public class TenantActivityTracker implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantActivityTracker.class);
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO tenant_activity (tenant_id, last_active_at, request_count)
+        VALUES (?, ?, ?)
+        ON CONFLICT (tenant_id) DO UPDATE
+        SET last_active_at = GREATEST(tenant_activity.last_active_at, EXCLUDED.last_active_at),
+            request_count = tenant_activity.request_count + EXCLUDED.request_count
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, Activity> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public TenantActivityTracker(DataSource masterDataSource, TenantDataSourceProperties.Warmup warmup) {
+        this(new JdbcTemplate(masterDataSource), warmup.getActivityFlushInterval());
+    }
+
+    TenantActivityTracker(JdbcTemplate jdbcTemplate, Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-activity-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record that a connection was routed to the given tenant.
+     */
+    public void recordAccess(UUID tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        Activity activity = pending.get(tenantId);
+        if (activity == null) {
+            activity = pending.computeIfAbsent(tenantId, id -> new Activity());
+        }
+        activity.record();
+        if (activity.retired) {
+            // A flush swapped this counter out meanwhile; move what it did not take to the live one
+            long missed = activity.count.getAndSet(0);
+            if (missed > 0) {
+                merge(tenantId, missed, activity.lastAccessMillis);
+            }
+        }
+    }
+
+    /**
+     * Write pending activity to tenant_activity. Each counter is removed from the map and
+     * drained in one atomic swap, so accesses recorded during the flush are kept for the next
+     * one; if the write fails, the drained counts are merged back.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (UUID tenantId : new ArrayList<>(pending.keySet())) {
+            Activity activity = pending.remove(tenantId);
+            if (activity == null) {
+                continue;
+            }
+            activity.retired = true;
+            long count = activity.count.getAndSet(0);
+            if (count > 0) {
+                rows.add(new Object[]{tenantId, new Timestamp(activity.lastAccessMillis), count});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            logger.debug("Flushed activity for {} tenant(s)", rows.size());
+        } catch (Exception e) {
+            logger.warn("Failed to flush tenant activity for {} tenant(s), retrying next flush: {}", rows.size(), e.getMessage());
+            for (Object[] row : rows) {
+                merge((UUID) row[0], (Long) row[2], ((Timestamp) row[1]).getTime());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private void merge(UUID tenantId, long count, long lastAccessMillis) {
+        // Inside compute, so a flush cannot remove the counter between lookup and update
+        pending.compute(tenantId, (id, activity) -> {
+            Activity live = activity != null ? activity : new Activity();
+            live.count.addAndGet(count);
+            live.lastAccessMillis = Math.max(live.lastAccessMillis, lastAccessMillis);
+            return live;
+        });
+    }
+
+    private static final class Activity {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long lastAccessMillis;
+        // Set by flush before draining; a recorder that sees it re-merges its late increment
+        private volatile boolean retired;
+
+        private void record() {
+            lastAccessMillis = System.currentTimeMillis();
+            count.incrementAndGet();
+        }
+    }
+}
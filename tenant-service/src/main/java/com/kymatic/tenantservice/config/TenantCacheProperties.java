@@ -0,0 +1,109 @@
+package com.kymatic.tenantservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits for the Spring caches built by {@link CacheConfig}.
+ *
+ * Bound from the {@code tenant.cache} prefix in application.yml. Weights are counted in rows:
+ * a cached list weighs its size plus one, any other value weighs one.
+ */
+@ConfigurationProperties(prefix = "tenant.cache")
+public class TenantCacheProperties {
+
+    /**
+     * Limits used by every cache without an entry in {@link #caches}.
+     */
+    private Spec defaults = new Spec(50_000L, 5_000L, Duration.ofMinutes(5));
+
+    /**
+     * Per-cache overrides, keyed by cache name. Unset fields fall back to {@link #defaults}.
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * Effective limits for one cache: its override merged over the defaults.
+     */
+    public Spec specFor(String cacheName) {
+        Spec override = caches.get(cacheName);
+        if (override == null) {
+            return defaults;
+        }
+        return new Spec(
+            override.getMaxWeight() != null ? override.getMaxWeight() : defaults.getMaxWeight(),
+            override.getTenantQuota() != null ? override.getTenantQuota() : defaults.getTenantQuota(),
+            override.getTtl() != null ? override.getTtl() : defaults.getTtl());
+    }
+
+    public static class Spec {
+
+        /**
+         * Total weight the cache may hold across all tenants.
+         */
+        private Long maxWeight;
+
+        /**
+         * Weight a single tenant may hold in the cache; a tenant over quota evicts its own
+         * oldest entries instead of pushing out other tenants.
+         */
+        private Long tenantQuota;
+
+        /**
+         * Time after write before an entry expires.
+         */
+        private Duration ttl;
+
+        public Spec() {
+        }
+
+        public Spec(Long maxWeight, Long tenantQuota, Duration ttl) {
+            this.maxWeight = maxWeight;
+            this.tenantQuota = tenantQuota;
+            this.ttl = ttl;
+        }
+
+        public Long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(Long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public Long getTenantQuota() {
+            return tenantQuota;
+        }
+
+        public void setTenantQuota(Long tenantQuota) {
+            this.tenantQuota = tenantQuota;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
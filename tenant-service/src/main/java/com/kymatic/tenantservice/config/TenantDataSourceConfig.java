@@ -3,9 +3,11 @@ package com.kymatic.tenantservice.config;
 import com.kymatic.tenantservice.service.TenantDatabaseManager;
 import com.kymatic.tenantservice.service.TenantDatabaseResolver;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -21,8 +23,12 @@ import javax.sql.DataSource;
  * - Creates a routing datasource that switches databases based on tenant
  * - Routes tenant-specific queries to tenant databases automatically
  * - Falls back to master database for tenant management operations
+ * - Keeps tenant pools in a bounded registry sized by subscription tier, or serves all
+ *   tenants from one shared pool (tenant.datasource.mode)
+ * - Records per-tenant activity so startup warm-up can prioritise active tenants
  */
 @Configuration
+@EnableConfigurationProperties(TenantDataSourceProperties.class)
 public class TenantDataSourceConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(TenantDataSourceConfig.class);
@@ -48,13 +54,54 @@ public class TenantDataSourceConfig {
         return createMasterDataSource();
     }
 
+    /**
+     * Source of tenant connections, selected by tenant.datasource.mode:
+     * - database-per-tenant: bounded registry of per-tenant pools with idle eviction
+     * - shared-pool: one pool over a shared database, tenant schema selected per checkout
+     */
+    @Bean(destroyMethod = "close")
+    public TenantDataSourceProvider tenantDataSourceProvider(
+            TenantDatabaseManager tenantDatabaseManager,
+            TenantDataSourceProperties properties,
+            MeterRegistry meterRegistry) {
+        if (properties.isSharedPool()) {
+            logger.info("Tenant routing mode: shared pool (database {})", properties.getShared().getDatabase());
+            return new SharedTenantDataSourcePool(
+                tenantDatabaseManager,
+                properties,
+                username,
+                password,
+                driverClassName,
+                meterRegistry
+            );
+        }
+        logger.info("Tenant routing mode: database per tenant");
+        return new TenantDataSourceRegistry(
+            tenantDatabaseManager,
+            properties.getPool(),
+            username,
+            password,
+            driverClassName,
+            meterRegistry
+        );
+    }
+
+    /**
+     * Per-tenant activity counters, persisted to the master database and used to order
+     * startup pre-warming.
+     */
+    @Bean(destroyMethod = "close")
+    public TenantActivityTracker tenantActivityTracker(TenantDataSourceProperties properties) {
+        return new TenantActivityTracker(masterDataSource(), properties.getWarmup());
+    }
+
     /**
      * Primary routing datasource that dynamically routes to tenant databases.
      * 
      * This datasource will:
      * - Use master database for tenant management operations (when no tenant ID in context)
      * - Automatically route to tenant-specific database when tenant ID is present
-     * - Create tenant datasources on-demand and cache them
+     * - Obtain tenant connections on-demand from the configured TenantDataSourceProvider
      * 
      * @DependsOn ensures Flyway runs first (using masterDataSource), then repositories are initialized,
      * then this routing datasource is created.
@@ -65,7 +112,8 @@ public class TenantDataSourceConfig {
     @Primary
     public DataSource dataSource(
             @Lazy TenantDatabaseResolver tenantDatabaseResolver,
-            TenantDatabaseManager tenantDatabaseManager) {
+            TenantDataSourceProvider tenantDataSourceProvider,
+            TenantActivityTracker tenantActivityTracker) {
         
         // Create master datasource
         DataSource masterDataSource = masterDataSource();
@@ -73,11 +121,8 @@ public class TenantDataSourceConfig {
         // Create routing datasource
         TenantRoutingDataSource routingDataSource = new TenantRoutingDataSource(
             tenantDatabaseResolver,
-            tenantDatabaseManager,
-            masterDataSourceUrl,
-            username,
-            password,
-            driverClassName,
+            tenantDataSourceProvider,
+            tenantActivityTracker,
             masterDataSource
         );
         java.util.Map<Object, Object> targets = new java.util.concurrent.ConcurrentHashMap<>();
@@ -0,0 +1,322 @@
+package com.kymatic.tenantservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the per-tenant connection pools created by {@link TenantRoutingDataSource}.
+ *
+ * Bound from the {@code tenant.datasource} prefix in application.yml.
+ */
+@ConfigurationProperties(prefix = "tenant.datasource")
+public class TenantDataSourceProperties {
+
+    /**
+     * How tenant connections are pooled.
+     */
+    public enum Mode {
+        /**
+         * One database and one Hikari pool per tenant (default).
+         */
+        DATABASE_PER_TENANT,
+        /**
+         * One schema per tenant inside a shared database, served by a single pool;
+         * the tenant is selected per checkout via search_path.
+         */
+        SHARED_POOL
+    }
+
+    private Mode mode = Mode.DATABASE_PER_TENANT;
+
+    private Pool pool = new Pool();
+
+    private Shared shared = new Shared();
+
+    private Warmup warmup = new Warmup();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isSharedPool() {
+        return mode == Mode.SHARED_POOL;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
+
+    public Shared getShared() {
+        return shared;
+    }
+
+    public void setShared(Shared shared) {
+        this.shared = shared;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    /**
+     * Startup pre-warming of tenant pools, see {@link TenantDataSourceWarmer}.
+     */
+    public static class Warmup {
+        private boolean enabled = true;
+
+        /**
+         * Number of tenants warmed in parallel.
+         */
+        private int concurrency = 4;
+
+        /**
+         * Only the most recently active tenants are warmed; the rest are created on first use.
+         */
+        private int maxTenants = 100;
+
+        /**
+         * Report the tenantWarmup health indicator (and so readiness) as OUT_OF_SERVICE
+         * until warm-up has finished.
+         */
+        private boolean blockReadiness = true;
+
+        /**
+         * How often recorded tenant activity is written to the tenant_activity table.
+         */
+        private Duration activityFlushInterval = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxTenants() {
+            return maxTenants;
+        }
+
+        public void setMaxTenants(int maxTenants) {
+            this.maxTenants = maxTenants;
+        }
+
+        public boolean isBlockReadiness() {
+            return blockReadiness;
+        }
+
+        public void setBlockReadiness(boolean blockReadiness) {
+            this.blockReadiness = blockReadiness;
+        }
+
+        public Duration getActivityFlushInterval() {
+            return activityFlushInterval;
+        }
+
+        public void setActivityFlushInterval(Duration activityFlushInterval) {
+            this.activityFlushInterval = activityFlushInterval;
+        }
+    }
+
+    /**
+     * Settings for {@link Mode#SHARED_POOL}.
+     */
+    public static class Shared {
+        /**
+         * Database on the master Postgres server that holds one schema per tenant.
+         */
+        private String database = "kymatic_tenants";
+
+        private int maximumPoolSize = 50;
+
+        private int minimumIdle = 5;
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(String database) {
+            this.database = database;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+    }
+
+    public static class Pool {
+        /**
+         * Upper bound on the sum of maximum pool sizes across all tenant pools.
+         * Keep this comfortably below the Postgres max_connections setting.
+         */
+        private int maxTotalConnections = 200;
+
+        /**
+         * Pools that have not been used for this long (and have no active connections) are closed.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * How often the idle sweeper runs.
+         */
+        private Duration evictionInterval = Duration.ofMinutes(1);
+
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+
+        private Duration maxLifetime = Duration.ofMinutes(15);
+
+        /**
+         * Tier used when a tenant has no subscription tier or an unknown one.
+         */
+        private String defaultTier = "starter";
+
+        /**
+         * Pool sizing per subscription tier (keys are compared case-insensitively).
+         */
+        private Map<String, TierSize> tiers = defaultTiers();
+
+        public int getMaxTotalConnections() {
+            return maxTotalConnections;
+        }
+
+        public void setMaxTotalConnections(int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getMaxLifetime() {
+            return maxLifetime;
+        }
+
+        public void setMaxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+        }
+
+        public String getDefaultTier() {
+            return defaultTier;
+        }
+
+        public void setDefaultTier(String defaultTier) {
+            this.defaultTier = defaultTier;
+        }
+
+        public Map<String, TierSize> getTiers() {
+            return tiers;
+        }
+
+        public void setTiers(Map<String, TierSize> tiers) {
+            this.tiers = tiers;
+        }
+
+        /**
+         * Resolve the pool size for a subscription tier, falling back to the default tier.
+         */
+        public TierSize sizeFor(String subscriptionTier) {
+            if (subscriptionTier != null) {
+                for (Map.Entry<String, TierSize> entry : tiers.entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(subscriptionTier)) {
+                        return entry.getValue();
+                    }
+                }
+            }
+            TierSize fallback = tiers.get(defaultTier);
+            return fallback != null ? fallback : new TierSize(2, 0);
+        }
+
+        private static Map<String, TierSize> defaultTiers() {
+            Map<String, TierSize> tiers = new LinkedHashMap<>();
+            tiers.put("starter", new TierSize(2, 0));
+            tiers.put("standard", new TierSize(5, 1));
+            tiers.put("premium", new TierSize(10, 2));
+            tiers.put("enterprise", new TierSize(20, 2));
+            return tiers;
+        }
+    }
+
+    public static class TierSize {
+        private int maximumPoolSize;
+        private int minimumIdle;
+
+        public TierSize() {
+        }
+
+        public TierSize(int maximumPoolSize, int minimumIdle) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.minimumIdle = minimumIdle;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.kymatic.tenantservice.config;
+
+import javax.sql.DataSource;
+
+/**
+ * Supplies the DataSource that {@link TenantRoutingDataSource} routes a tenant's queries to.
+ *
+ * Implementations:
+ * - {@link TenantDataSourceRegistry}: one bounded Hikari pool per tenant database
+ * - {@link SharedTenantDataSourcePool}: one pool for all tenants, switching schema per checkout
+ */
+public interface TenantDataSourceProvider {
+
+    /**
+     * @param databaseName     tenant database name (schema name in shared-pool mode)
+     * @param subscriptionTier tenant subscription tier, may be null
+     */
+    DataSource getDataSource(String databaseName, String subscriptionTier);
+
+    /**
+     * Release what is held for a tenant database after its status or tier changed; the next
+     * {@link #getDataSource} call starts over with the current tier. Does nothing by default.
+     */
+    default void evict(String databaseName) {
+    }
+
+    /**
+     * Whether something is held for the tenant database, e.g. an open pool. True by default,
+     * when nothing per tenant is held, so there is nothing to {@link #evict}.
+     */
+    default boolean contains(String databaseName) {
+        return true;
+    }
+
+    /**
+     * Mark the calling thread's use of a tenant database as background work until the lease is
+     * closed. Closing the last lease on a database releases a pool that only leased work used
+     * since it was opened and that has no connection in use; a pool that a request used stays
+     * open. Does nothing by default.
+     */
+    default Lease lease(String databaseName) {
+        return () -> {
+        };
+    }
+
+    /**
+     * Background use of a tenant database, see {@link #lease}.
+     */
+    interface Lease extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
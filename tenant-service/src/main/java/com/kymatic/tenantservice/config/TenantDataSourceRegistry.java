@@ -0,0 +1,362 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.tenantservice.service.TenantDatabaseManager;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded registry of per-tenant Hikari pools used by {@link TenantRoutingDataSource}.
+ *
+ * This registry:
+ * - Sizes each pool from the tenant's subscription tier
+ * - Keeps the sum of all pool maximums under a global connection budget
+ * - Evicts least-recently-used pools when the budget is exhausted
+ * - Closes pools that have been idle longer than the configured idle timeout
+ * - Closes a pool opened by leased background work when the last lease ends, unless a request
+ *   used the pool meanwhile or a connection is still in use
+ * - Publishes hit/miss/eviction counters and pool creation latency to Micrometer
+ *
+ * Lookups are lock-free; creation and eviction are serialised on a single lock because
+ * they are rare and need a consistent view of the connection budget.
+ */
+public class TenantDataSourceRegistry implements TenantDataSourceProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantDataSourceRegistry.class);
+
+    private final TenantDatabaseManager tenantDatabaseManager;
+    private final TenantDataSourceProperties.Pool poolProperties;
+    private final String username;
+    private final String password;
+    private final String driverClassName;
+
+    private final Map<String, PoolEntry> pools = new ConcurrentHashMap<>();
+    private final Object creationLock = new Object();
+    private int allocatedConnections;
+    // Open leases per database, guarded by creationLock; the database leased by the calling thread
+    private final Map<String, Integer> leases = new HashMap<>();
+    private final ThreadLocal<String> leasedDatabase = new ThreadLocal<>();
+
+    private final ScheduledExecutorService sweeper;
+    private final ExecutorService closer;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter idleEvictions;
+    private final Counter budgetEvictions;
+    private final Counter explicitEvictions;
+    private final Counter leaseEvictions;
+    private final Timer creationTimer;
+
+    public TenantDataSourceRegistry(
+            TenantDatabaseManager tenantDatabaseManager,
+            TenantDataSourceProperties.Pool poolProperties,
+            String username,
+            String password,
+            String driverClassName,
+            MeterRegistry meterRegistry) {
+        this.tenantDatabaseManager = tenantDatabaseManager;
+        this.poolProperties = poolProperties;
+        this.username = username;
+        this.password = password;
+        this.driverClassName = driverClassName;
+
+        this.hits = Counter.builder("tenant.datasource.pool.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("tenant.datasource.pool.lookups").tag("result", "miss").register(meterRegistry);
+        this.idleEvictions = Counter.builder("tenant.datasource.pool.evictions").tag("reason", "idle").register(meterRegistry);
+        this.budgetEvictions = Counter.builder("tenant.datasource.pool.evictions").tag("reason", "budget").register(meterRegistry);
+        this.explicitEvictions = Counter.builder("tenant.datasource.pool.evictions").tag("reason", "explicit").register(meterRegistry);
+        this.leaseEvictions = Counter.builder("tenant.datasource.pool.evictions").tag("reason", "lease").register(meterRegistry);
+        this.creationTimer = Timer.builder("tenant.datasource.pool.creation").register(meterRegistry);
+        Gauge.builder("tenant.datasource.pool.count", pools, Map::size).register(meterRegistry);
+        Gauge.builder("tenant.datasource.pool.allocated.connections", this, TenantDataSourceRegistry::getAllocatedConnections)
+            .register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(daemonThread("tenant-pool-sweeper"));
+        this.closer = Executors.newSingleThreadExecutor(daemonThread("tenant-pool-closer"));
+        long intervalMs = poolProperties.getEvictionInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::evictIdlePools, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the pool for a tenant database, creating it (and making room for it) if needed.
+     *
+     * @param databaseName     tenant database name
+     * @param subscriptionTier tenant subscription tier, used to size a newly created pool
+     */
+    @Override
+    public HikariDataSource getDataSource(String databaseName, String subscriptionTier) {
+        PoolEntry entry = pools.get(databaseName);
+        if (entry != null) {
+            entry.touch(isLeased(databaseName));
+            hits.increment();
+            return entry.dataSource;
+        }
+        return createPool(databaseName, subscriptionTier);
+    }
+
+    /**
+     * Close and forget the pool for a tenant database, e.g. after the tenant was suspended or
+     * changed tier, or after a background job that opened it is done. Connections in use are
+     * closed when returned, within Hikari's shutdown grace.
+     */
+    @Override
+    public void evict(String databaseName) {
+        synchronized (creationLock) {
+            PoolEntry entry = pools.remove(databaseName);
+            if (entry != null) {
+                allocatedConnections -= entry.maximumPoolSize;
+                explicitEvictions.increment();
+                logger.debug("Closing pool for tenant database {} on request", databaseName);
+                closeAsync(entry);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(String databaseName) {
+        return pools.containsKey(databaseName);
+    }
+
+    /**
+     * Lease the tenant database for background work on the calling thread. Pool lookups for the
+     * database on this thread do not count as request use until the lease is closed.
+     */
+    @Override
+    public Lease lease(String databaseName) {
+        synchronized (creationLock) {
+            leases.merge(databaseName, 1, Integer::sum);
+        }
+        String previous = leasedDatabase.get();
+        leasedDatabase.set(databaseName);
+        return () -> {
+            if (previous != null) {
+                leasedDatabase.set(previous);
+            } else {
+                leasedDatabase.remove();
+            }
+            release(databaseName);
+        };
+    }
+
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    public int getAllocatedConnections() {
+        synchronized (creationLock) {
+            return allocatedConnections;
+        }
+    }
+
+    private HikariDataSource createPool(String databaseName, String subscriptionTier) {
+        synchronized (creationLock) {
+            boolean leased = isLeased(databaseName);
+            PoolEntry existing = pools.get(databaseName);
+            if (existing != null) {
+                existing.touch(leased);
+                hits.increment();
+                return existing.dataSource;
+            }
+            misses.increment();
+
+            TenantDataSourceProperties.TierSize size = poolProperties.sizeFor(subscriptionTier);
+            int maximumPoolSize = reserveConnections(databaseName, size.getMaximumPoolSize());
+            int minimumIdle = Math.min(size.getMinimumIdle(), maximumPoolSize);
+
+            long start = System.nanoTime();
+            HikariDataSource dataSource = new HikariDataSource(buildConfig(databaseName, maximumPoolSize, minimumIdle));
+            creationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            pools.put(databaseName, new PoolEntry(databaseName, dataSource, maximumPoolSize, !leased));
+            allocatedConnections += maximumPoolSize;
+            logger.info("Created datasource for tenant database: {} (tier: {}, maxPoolSize: {}, pools: {}, allocated connections: {}/{})",
+                databaseName, subscriptionTier, maximumPoolSize, pools.size(), allocatedConnections,
+                poolProperties.getMaxTotalConnections());
+            return dataSource;
+        }
+    }
+
+    /**
+     * Make room in the global budget for a new pool, evicting idle pools in LRU order.
+     * Returns the pool size that fits, which may be smaller than requested.
+     * Must be called while holding {@link #creationLock}.
+     */
+    private int reserveConnections(String databaseName, int requested) {
+        int budget = poolProperties.getMaxTotalConnections();
+        if (allocatedConnections + requested > budget) {
+            List<PoolEntry> candidates = new ArrayList<>(pools.values());
+            candidates.sort(Comparator.comparingLong(PoolEntry::lastAccessNanos));
+            for (PoolEntry candidate : candidates) {
+                if (allocatedConnections + requested <= budget) {
+                    break;
+                }
+                if (candidate.activeConnections() > 0) {
+                    continue;
+                }
+                pools.remove(candidate.databaseName);
+                allocatedConnections -= candidate.maximumPoolSize;
+                budgetEvictions.increment();
+                logger.info("Evicting least recently used tenant pool {} to make room for {}", candidate.databaseName, databaseName);
+                closeAsync(candidate);
+            }
+        }
+
+        int available = budget - allocatedConnections;
+        if (available <= 0) {
+            throw new IllegalStateException("Tenant connection budget exhausted (" + budget
+                + " connections allocated); cannot open pool for tenant database " + databaseName);
+        }
+        if (available < requested) {
+            logger.warn("Shrinking pool for tenant database {} from {} to {} connections to stay within budget",
+                databaseName, requested, available);
+            return available;
+        }
+        return requested;
+    }
+
+    private HikariConfig buildConfig(String databaseName, int maximumPoolSize, int minimumIdle) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tenant-" + databaseName);
+        config.setJdbcUrl(tenantDatabaseManager.buildTenantJdbcUrl(databaseName));
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(poolProperties.getConnectionTimeout().toMillis());
+        // Hikari's own idle timeout only trims connections above minimumIdle; whole-pool
+        // eviction is handled by the sweeper in this registry.
+        config.setIdleTimeout(Math.max(poolProperties.getIdleTimeout().toMillis(), 10000));
+        config.setMaxLifetime(poolProperties.getMaxLifetime().toMillis());
+        config.setKeepaliveTime(30000);
+        config.setInitializationFailTimeout(-1);
+        config.setConnectionTestQuery("SELECT 1");
+        config.setValidationTimeout(3000);
+        return config;
+    }
+
+    private void evictIdlePools() {
+        try {
+            long cutoff = System.nanoTime() - poolProperties.getIdleTimeout().toNanos();
+            synchronized (creationLock) {
+                for (PoolEntry entry : new ArrayList<>(pools.values())) {
+                    if (entry.lastAccessNanos() - cutoff < 0 && entry.activeConnections() == 0) {
+                        pools.remove(entry.databaseName);
+                        allocatedConnections -= entry.maximumPoolSize;
+                        idleEvictions.increment();
+                        logger.info("Closing idle pool for tenant database {}", entry.databaseName);
+                        closeAsync(entry);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Tenant pool idle sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean isLeased(String databaseName) {
+        return databaseName.equals(leasedDatabase.get());
+    }
+
+    /**
+     * End one lease on the database and, after the last one, close the pool if only leased work
+     * used it and it has no connection in use.
+     */
+    private void release(String databaseName) {
+        synchronized (creationLock) {
+            if (leases.merge(databaseName, -1, Integer::sum) > 0) {
+                return;
+            }
+            leases.remove(databaseName);
+            PoolEntry entry = pools.get(databaseName);
+            if (entry != null && !entry.requested && entry.activeConnections() == 0) {
+                pools.remove(databaseName);
+                allocatedConnections -= entry.maximumPoolSize;
+                leaseEvictions.increment();
+                logger.debug("Closing pool for tenant database {} after background use", databaseName);
+                closeAsync(entry);
+            }
+        }
+    }
+
+    private void closeAsync(PoolEntry entry) {
+        closer.execute(() -> {
+            try {
+                entry.dataSource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close pool for tenant database {}: {}", entry.databaseName, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        synchronized (creationLock) {
+            pools.values().forEach(entry -> entry.dataSource.close());
+            pools.clear();
+            allocatedConnections = 0;
+        }
+        closer.shutdown();
+    }
+
+    private static ThreadFactory daemonThread(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PoolEntry {
+        private final String databaseName;
+        private final HikariDataSource dataSource;
+        private final int maximumPoolSize;
+        private volatile long lastAccessNanos;
+        // Whether the pool was looked up outside a lease since it was opened
+        private volatile boolean requested;
+
+        private PoolEntry(String databaseName, HikariDataSource dataSource, int maximumPoolSize, boolean requested) {
+            this.databaseName = databaseName;
+            this.dataSource = dataSource;
+            this.maximumPoolSize = maximumPoolSize;
+            this.requested = requested;
+            this.lastAccessNanos = System.nanoTime();
+        }
+
+        private void touch(boolean leased) {
+            lastAccessNanos = System.nanoTime();
+            if (!leased && !requested) {
+                requested = true;
+            }
+        }
+
+        private long lastAccessNanos() {
+            return lastAccessNanos;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+    }
+}
@@ -1,77 +1,212 @@
 package com.kymatic.tenantservice.config;
 
+import com.kymatic.shared.multitenancy.TenantContext;
 import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
 import com.kymatic.tenantservice.persistence.repository.TenantRepository;
-import com.kymatic.tenantservice.service.TenantDatabaseManager;
+import com.kymatic.tenantservice.service.TenantIdentifierResolver;
+import com.kymatic.tenantservice.service.TenantRoutingHandle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Pre-warms tenant database connections on application startup.
+ * Pre-warms tenant connection pools on application startup.
  * This eliminates the cold-start delay on first API call to tenant databases.
+ *
+ * This warmer:
+ * - Creates the same pools {@link TenantRoutingDataSource} uses, via {@link TenantDataSourceProvider}
+ * - Warms the most recently active tenants first (tenant_activity), up to warmup.max-tenants
+ * - Warms tenants in parallel with warmup.concurrency worker threads
+ * - Seeds the tenant resolver cache and runs one JPA query per tenant entity in each tenant
+ *   database, so Hibernate's query plan cache and the Postgres catalog cache are populated
+ * - Publishes progress for the tenantwarmup actuator endpoint and readiness health group
  */
 @Component
 public class TenantDataSourceWarmer {
 
     private static final Logger logger = LoggerFactory.getLogger(TenantDataSourceWarmer.class);
 
+    /**
+     * Lifecycle of a warm-up run.
+     */
+    public enum State {
+        PENDING, RUNNING, COMPLETED, DISABLED
+    }
+
     private final TenantRepository tenantRepository;
-    private final TenantDatabaseManager tenantDatabaseManager;
-    private final String username;
-    private final String password;
+    private final TenantDataSourceProvider tenantDataSourceProvider;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TenantDataSourceProperties.Warmup warmup;
+
+    private volatile State state;
+    private volatile int totalTenants;
+    private final AtomicInteger warmedTenants = new AtomicInteger();
+    private final AtomicInteger failedTenants = new AtomicInteger();
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
 
     public TenantDataSourceWarmer(
             TenantRepository tenantRepository,
-            TenantDatabaseManager tenantDatabaseManager,
-            @org.springframework.beans.factory.annotation.Value("${spring.datasource.username}") String username,
-            @org.springframework.beans.factory.annotation.Value("${spring.datasource.password}") String password) {
+            TenantDataSourceProvider tenantDataSourceProvider,
+            TenantIdentifierResolver tenantIdentifierResolver,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            TenantDataSourceProperties properties) {
         this.tenantRepository = tenantRepository;
-        this.tenantDatabaseManager = tenantDatabaseManager;
-        this.username = username;
-        this.password = password;
+        this.tenantDataSourceProvider = tenantDataSourceProvider;
+        this.tenantIdentifierResolver = tenantIdentifierResolver;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.warmup = properties.getWarmup();
+        this.state = warmup.isEnabled() ? State.PENDING : State.DISABLED;
     }
 
     /**
-     * Pre-warm tenant database connections after application startup.
-     * Runs asynchronously to not block application startup.
+     * Pre-warm tenant pools after application startup.
+     * Runs on its own threads so startup is not blocked; readiness reflects progress instead.
      */
     @EventListener(ApplicationReadyEvent.class)
     public void warmUpTenantConnections() {
-        CompletableFuture.runAsync(() -> {
-            try {
-                logger.info("Starting tenant database connection pre-warming...");
-                List<TenantEntity> tenants = tenantRepository.findAll();
-                
-                int warmedUp = 0;
-                for (TenantEntity tenant : tenants) {
-                    try {
-                        String jdbcUrl = tenantDatabaseManager.buildTenantJdbcUrl(tenant.getDatabaseName());
-                        
-                        // Test connection to warm up the pool
-                        try (Connection conn = DriverManager.getConnection(jdbcUrl, username, password)) {
-                            conn.createStatement().execute("SELECT 1");
-                            warmedUp++;
-                            logger.debug("Pre-warmed connection for tenant: {} ({})", tenant.getSlug(), tenant.getDatabaseName());
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Failed to pre-warm connection for tenant {}: {}", tenant.getSlug(), e.getMessage());
-                    }
+        if (!warmup.isEnabled()) {
+            logger.info("Tenant pool pre-warming is disabled");
+            return;
+        }
+        Thread coordinator = new Thread(this::warmUp, "tenant-warmup");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    private void warmUp() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+        ExecutorService workers = null;
+        try {
+            List<TenantEntity> tenants = tenantRepository.findActiveOrderByRecentActivity(warmup.getMaxTenants());
+            totalTenants = tenants.size();
+            logger.info("Starting tenant pool pre-warming for {} tenant(s) with concurrency {}",
+                tenants.size(), warmup.getConcurrency());
+
+            List<String> warmupQueries = buildWarmupQueries();
+            AtomicInteger threadIndex = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(Math.max(1, warmup.getConcurrency()), runnable -> {
+                Thread thread = new Thread(runnable, "tenant-warmup-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Submitted in activity order, so the most active tenants are picked up first
+            for (TenantEntity tenant : tenants) {
+                workers.execute(() -> warmTenant(tenant, warmupQueries));
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+            logger.info("Completed tenant pool pre-warming in {} ms. Successfully warmed {} out of {} tenant(s).",
+                Duration.between(startedAt, Instant.now()).toMillis(), warmedTenants.get(), tenants.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Tenant pool pre-warming interrupted");
+        } catch (Exception e) {
+            logger.error("Error during tenant pool pre-warming", e);
+        } finally {
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            completedAt = Instant.now();
+            state = State.COMPLETED;
+        }
+    }
+
+    private void warmTenant(TenantEntity tenant, List<String> warmupQueries) {
+        String tenantId = tenant.getTenantId().toString();
+        try {
+            // Resolve while no tenant is set so the lookup goes to the master database
+            tenantIdentifierResolver.resolveTenantEntity(tenantId);
+
+            DataSource dataSource = tenantDataSourceProvider.getDataSource(
+                tenant.getDatabaseName(), tenant.getSubscriptionTier());
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+
+            TenantContext.setTenant(tenantId, TenantRoutingHandle.of(tenant));
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (String query : warmupQueries) {
+                    entityManager.createQuery(query).setMaxResults(1).getResultList();
                 }
-                
-                logger.info("Completed tenant database pre-warming. Successfully warmed {} out of {} tenant(s).", 
-                    warmedUp, tenants.size());
-            } catch (Exception e) {
-                logger.error("Error during tenant database pre-warming", e);
+            });
+            warmedTenants.incrementAndGet();
+            logger.debug("Pre-warmed pool for tenant: {} ({})", tenant.getSlug(), tenant.getDatabaseName());
+        } catch (Exception e) {
+            failedTenants.incrementAndGet();
+            logger.warn("Failed to pre-warm pool for tenant {}: {}", tenant.getSlug(), e.getMessage());
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * One minimal select per tenant-database entity.
+     */
+    private List<String> buildWarmupQueries() {
+        String tenantEntityPackage = UserEntity.class.getPackageName();
+        List<String> queries = new ArrayList<>();
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            if (entity.getJavaType().getPackageName().equals(tenantEntityPackage)) {
+                queries.add("select e from " + entity.getName() + " e");
             }
-        });
+        }
+        return queries;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isComplete() {
+        return state == State.COMPLETED || state == State.DISABLED;
     }
-}
 
+    /**
+     * Snapshot of warm-up progress for the actuator endpoint and health indicator.
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("totalTenants", totalTenants);
+        progress.put("warmedTenants", warmedTenants.get());
+        progress.put("failedTenants", failedTenants.get());
+        if (startedAt != null) {
+            progress.put("startedAt", startedAt.toString());
+        }
+        if (completedAt != null) {
+            progress.put("completedAt", completedAt.toString());
+            progress.put("durationMs", Duration.between(startedAt, completedAt).toMillis());
+        }
+        return progress;
+    }
+}
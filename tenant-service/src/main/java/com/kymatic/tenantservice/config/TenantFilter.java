@@ -2,6 +2,7 @@ package com.kymatic.tenantservice.config;
 
 import com.kymatic.shared.multitenancy.TenantContext;
 import com.kymatic.shared.multitenancy.TenantResolver;
+import com.kymatic.tenantservice.service.TenantDatabaseResolver;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -41,6 +42,9 @@ public class TenantFilter extends OncePerRequestFilter {
     @Autowired
     private TenantResolver tenantResolver;
 
+    @Autowired
+    private TenantDatabaseResolver tenantDatabaseResolver;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -59,7 +63,8 @@ public class TenantFilter extends OncePerRequestFilter {
             // For non-admin endpoints, extract tenant ID from headers
             String tenantId = tenantResolver.resolveTenantId(request);
             if (tenantId != null && !tenantId.isEmpty()) {
-                TenantContext.setTenantId(tenantId);
+                // Resolve routing once here; datasource checkouts in this request reuse it
+                tenantDatabaseResolver.bindTenant(tenantId);
                 logger.debug("TenantFilter: Tenant ID {} set from header for request: {}", tenantId, requestPath);
             }
             
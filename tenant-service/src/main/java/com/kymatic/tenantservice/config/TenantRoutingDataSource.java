@@ -1,25 +1,27 @@
 package com.kymatic.tenantservice.config;
 
 import com.kymatic.shared.multitenancy.TenantContext;
-import com.kymatic.tenantservice.service.TenantDatabaseManager;
 import com.kymatic.tenantservice.service.TenantDatabaseResolver;
+import com.kymatic.tenantservice.service.TenantRoutingHandle;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 import javax.sql.DataSource;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * Routing DataSource that dynamically selects the tenant database based on TenantContext.
  * 
  * This datasource:
  * - Gets tenant ID from TenantContext (set by JwtTenantResolver filter)
- * - Resolves tenant ID to database name using TenantDatabaseResolver
- * - Creates datasources dynamically for each tenant database
+ * - Uses the TenantRoutingHandle bound by the tenant filter, resolving via TenantDatabaseResolver
+ *   only when none is bound
+ * - Obtains the tenant's DataSource from TenantDataSourceProvider (per-tenant pool or shared pool)
  * - Routes all JPA queries to the tenant-specific database
+ * - Records each routed checkout with TenantActivityTracker
  * 
  * This enables dynamic database routing where each tenant's queries go to their own database.
  */
@@ -30,96 +32,95 @@ public class TenantRoutingDataSource extends AbstractRoutingDataSource {
     public static final String MASTER_DATABASE_KEY = "master";
     
     private final TenantDatabaseResolver tenantDatabaseResolver;
-    private final TenantDatabaseManager tenantDatabaseManager;
-    private final String masterDataSourceUrl;
-    private final String username;
-    private final String password;
-    private final String driverClassName;
-    
-    // Cache of tenant datasources to avoid recreating them
-    private final Map<String, DataSource> tenantDataSourceCache = new ConcurrentHashMap<>();
+    private final TenantDataSourceProvider tenantDataSourceProvider;
+    private final TenantActivityTracker tenantActivityTracker;
     
     private DataSource masterDataSource;
 
     public TenantRoutingDataSource(
             TenantDatabaseResolver tenantDatabaseResolver,
-            TenantDatabaseManager tenantDatabaseManager,
-            String masterDataSourceUrl,
-            String username,
-            String password,
-            String driverClassName,
+            TenantDataSourceProvider tenantDataSourceProvider,
+            TenantActivityTracker tenantActivityTracker,
             DataSource masterDataSource) {
         this.tenantDatabaseResolver = tenantDatabaseResolver;
-        this.tenantDatabaseManager = tenantDatabaseManager;
-        this.masterDataSourceUrl = masterDataSourceUrl;
-        this.username = username;
-        this.password = password;
-        this.driverClassName = driverClassName;
+        this.tenantDataSourceProvider = tenantDataSourceProvider;
+        this.tenantActivityTracker = tenantActivityTracker;
         this.masterDataSource = masterDataSource;
     }
 
     @Override
     protected Object determineCurrentLookupKey() {
+        TenantRoutingHandle handle = currentRoutingHandle();
+        return handle != null ? handle.databaseName() : MASTER_DATABASE_KEY;
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        TenantRoutingHandle handle = currentRoutingHandle();
+        if (handle == null) {
+            return masterDataSource;
+        }
+
+        tenantActivityTracker.recordAccess(handle.tenantId());
+
+        // Per-tenant pool or shared-pool schema view, depending on tenant.datasource.mode
+        return tenantDataSourceProvider.getDataSource(handle.databaseName(), handle.subscriptionTier());
+    }
+
+    /**
+     * Routing handle for the current tenant, or null to use the master database.
+     *
+     * The fast path is a single ThreadLocal read of the handle bound by the tenant filter.
+     * Only when no handle is bound (e.g. TenantContext.setTenantId outside a request) is the
+     * tenant resolved, after which the handle is bound for the rest of the request.
+     */
+    private TenantRoutingHandle currentRoutingHandle() {
+        if (TenantContext.getRoutingHandle() instanceof TenantRoutingHandle handle) {
+            return handle;
+        }
+
         String tenantId = TenantContext.getTenantId();
-        
         // If no tenant ID in context, use master database (for tenant management operations)
         if (tenantId == null || tenantId.isBlank()) {
-            logger.debug("No tenant ID in context, using master database");
-            return MASTER_DATABASE_KEY;
+            return null;
         }
 
         try {
-            // Resolve tenant ID to database name
-            String databaseName = tenantDatabaseResolver.getCurrentTenantDatabaseName();
-            logger.debug("Routing to tenant database: {} for tenant: {}", databaseName, tenantId);
-            return databaseName;
+            return tenantDatabaseResolver.getCurrentRoutingHandle();
         } catch (Exception e) {
             logger.error("Failed to resolve tenant database for tenant: {}", tenantId, e);
             // Fallback to master database on error
-            return MASTER_DATABASE_KEY;
+            return null;
         }
     }
 
+    /**
+     * A tenant pool can be closed by the registry between lookup and checkout (idle or budget
+     * eviction). In that case look the pool up again, which recreates it.
+     */
     @Override
-    protected DataSource determineTargetDataSource() {
-        Object lookupKey = determineCurrentLookupKey();
-        
-        if (MASTER_DATABASE_KEY.equals(lookupKey)) {
-            return masterDataSource;
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target instanceof HikariDataSource hikari && hikari.isClosed()) {
+                return determineTargetDataSource().getConnection();
+            }
+            throw e;
         }
-        
-        String databaseName = (String) lookupKey;
-        
-        // Get or create tenant datasource
-        return tenantDataSourceCache.computeIfAbsent(databaseName, dbName -> {
-            String tenantJdbcUrl = tenantDatabaseManager.buildTenantJdbcUrl(dbName);
-            logger.info("Creating datasource for tenant database: {} (URL: {})", dbName, tenantJdbcUrl);
-            return createTenantDataSource(tenantJdbcUrl, dbName);
-        });
     }
 
-    private DataSource createTenantDataSource(String jdbcUrl, String databaseKey) {
-        HikariDataSource dataSource = new HikariDataSource();
-        dataSource.setJdbcUrl(jdbcUrl);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        dataSource.setDriverClassName(driverClassName);
-        
-        // Optimized settings for faster connections
-        dataSource.setMaximumPoolSize(10);
-        dataSource.setMinimumIdle(2);
-        dataSource.setConnectionTimeout(5000);  // Reduced from 30000
-        dataSource.setIdleTimeout(300000);       // Reduced from 600000
-        dataSource.setMaxLifetime(900000);       // Reduced from 1800000
-        dataSource.setKeepaliveTime(30000);
-        dataSource.setInitializationFailTimeout(-1);
-        
-        // Pre-warm the connection pool
-        dataSource.setConnectionTestQuery("SELECT 1");
-        dataSource.setValidationTimeout(3000);
-        
-        logger.info("Created and initialized datasource for tenant database: {}", databaseKey);
-        return dataSource;
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            if (target instanceof HikariDataSource hikari && hikari.isClosed()) {
+                return determineTargetDataSource().getConnection(username, password);
+            }
+            throw e;
+        }
     }
 }
-
@@ -0,0 +1,26 @@
+package com.kymatic.tenantservice.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/tenantwarmup) reporting tenant pool pre-warming progress.
+ */
+@Component
+@Endpoint(id = "tenantwarmup")
+public class TenantWarmupEndpoint {
+
+    private final TenantDataSourceWarmer tenantDataSourceWarmer;
+
+    public TenantWarmupEndpoint(TenantDataSourceWarmer tenantDataSourceWarmer) {
+        this.tenantDataSourceWarmer = tenantDataSourceWarmer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return tenantDataSourceWarmer.getProgress();
+    }
+}
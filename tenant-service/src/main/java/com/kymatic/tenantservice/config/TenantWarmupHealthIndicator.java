@@ -0,0 +1,35 @@
+package com.kymatic.tenantservice.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator "tenantWarmup", included in the readiness group so traffic is only routed
+ * to an instance once its tenant pools have been pre-warmed.
+ *
+ * Reports OUT_OF_SERVICE while warm-up is pending or running (when warmup.block-readiness is
+ * set), and UP once it has completed. Tenants that failed to warm do not hold readiness back;
+ * their pools are created on first use.
+ */
+@Component("tenantWarmup")
+public class TenantWarmupHealthIndicator implements HealthIndicator {
+
+    private final TenantDataSourceWarmer tenantDataSourceWarmer;
+    private final boolean blockReadiness;
+
+    public TenantWarmupHealthIndicator(
+            TenantDataSourceWarmer tenantDataSourceWarmer,
+            TenantDataSourceProperties properties) {
+        this.tenantDataSourceWarmer = tenantDataSourceWarmer;
+        this.blockReadiness = properties.getWarmup().isBlockReadiness();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = tenantDataSourceWarmer.isComplete() || !blockReadiness
+            ? Health.up()
+            : Health.outOfService();
+        return builder.withDetails(tenantDataSourceWarmer.getProgress()).build();
+    }
+}
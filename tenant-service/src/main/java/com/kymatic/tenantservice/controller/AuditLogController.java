@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -43,15 +45,17 @@ public class AuditLogController {
 	@GetMapping("/tenant/{tenantId}")
 	public ResponseEntity<List<AuditLogResponse>> getAuditLogsByTenant(
 		@Parameter(description = "Tenant ID") @PathVariable UUID tenantId,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
 		@Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
 		@Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size
 	) {
 		if (size > 0) {
 			Pageable pageable = PageRequest.of(page, size);
-			Page<AuditLogResponse> response = auditLogService.getAuditLogsByTenant(tenantId, pageable);
+			Page<AuditLogResponse> response = auditLogService.getAuditLogsByTenant(tenantId, createdFrom, createdTo, pageable);
 			return ResponseEntity.ok(response.getContent());
 		} else {
-			List<AuditLogResponse> response = auditLogService.getAuditLogsByTenant(tenantId);
+			List<AuditLogResponse> response = auditLogService.getAuditLogsByTenant(tenantId, createdFrom, createdTo);
 			return ResponseEntity.ok(response);
 		}
 	}
@@ -60,9 +64,11 @@ public class AuditLogController {
 	@GetMapping("/tenant/{tenantId}/action/{action}")
 	public ResponseEntity<List<AuditLogResponse>> getAuditLogsByAction(
 		@Parameter(description = "Tenant ID") @PathVariable UUID tenantId,
-		@Parameter(description = "Action type") @PathVariable String action
+		@Parameter(description = "Action type") @PathVariable String action,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo
 	) {
-		List<AuditLogResponse> response = auditLogService.getAuditLogsByAction(tenantId, action);
+		List<AuditLogResponse> response = auditLogService.getAuditLogsByAction(tenantId, action, createdFrom, createdTo);
 		return ResponseEntity.ok(response);
 	}
 }
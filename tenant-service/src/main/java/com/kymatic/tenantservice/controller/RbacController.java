@@ -1,10 +1,15 @@
 package com.kymatic.tenantservice.controller;
 
 import com.kymatic.tenantservice.dto.rbac.AssignRoleRequest;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignRoleRequest;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentResponse;
+import com.kymatic.tenantservice.dto.rbac.BulkGrantSiteAccessRequest;
 import com.kymatic.tenantservice.dto.rbac.CreatePermissionRequest;
 import com.kymatic.tenantservice.dto.rbac.CreateRoleRequest;
 import com.kymatic.tenantservice.dto.rbac.CreateSiteRequest;
 import com.kymatic.tenantservice.dto.rbac.GrantSiteAccessRequest;
+import com.kymatic.tenantservice.dto.rbac.PermissionCheckRequest;
+import com.kymatic.tenantservice.dto.rbac.PermissionCheckResponse;
 import com.kymatic.tenantservice.dto.rbac.PermissionResponse;
 import com.kymatic.tenantservice.dto.rbac.RoleResponse;
 import com.kymatic.tenantservice.dto.rbac.SiteResponse;
@@ -100,6 +105,13 @@ public class RbacController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @Operation(summary = "Assign roles in bulk",
+        description = "Up to 5000 assignments, validated and upserted together; returns the outcome of each row")
+    @PostMapping(path = "/roles/assignments/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkAssignmentResponse> bulkAssignRoles(@Valid @RequestBody BulkAssignRoleRequest request) {
+        return ResponseEntity.ok(roleAssignmentService.bulkAssignRoles(request.assignments()));
+    }
+
     @Operation(summary = "Grant site access to user")
     @PostMapping(path = "/site-access", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Void> grantSiteAccess(@Valid @RequestBody GrantSiteAccessRequest request) {
@@ -107,6 +119,15 @@ public class RbacController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @Operation(summary = "Grant site access in bulk",
+        description = "Up to 5000 grants, validated and upserted together; returns the outcome of each row")
+    @PostMapping(path = "/site-access/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkAssignmentResponse> bulkGrantSiteAccess(
+        @Valid @RequestBody BulkGrantSiteAccessRequest request
+    ) {
+        return ResponseEntity.ok(roleAssignmentService.bulkGrantSiteAccess(request.grants()));
+    }
+
     @Operation(summary = "Get user permissions")
     @GetMapping("/users/{userId}/permissions")
     public ResponseEntity<UserPermissionsResponse> getUserPermissions(
@@ -115,5 +136,13 @@ public class RbacController {
     ) {
         return ResponseEntity.ok(roleAssignmentService.getUserPermissions(userId, siteId));
     }
-}
 
+    @Operation(summary = "Check permissions",
+        description = "Allow/deny for a batch of up to 1000 (userId, permissionKey, siteId) tuples, in request order")
+    @PostMapping(path = "/check", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PermissionCheckResponse> checkPermissions(
+        @Valid @RequestBody PermissionCheckRequest request
+    ) {
+        return ResponseEntity.ok(roleAssignmentService.checkPermissions(request.checks()));
+    }
+}
@@ -250,6 +250,21 @@ public class TenantController {
 		return ResponseEntity.status(HttpStatus.ACCEPTED).body(responses);
 	}
 
+	@Operation(
+		summary = "Evict cached tenant lookups",
+		description = "Drops cached tenant identifier resolution for a tenant whose record was written by another " +
+			"service (e.g. workflow-service). Pass the slug to also clear a cached negative lookup for it.",
+		responses = @ApiResponse(responseCode = "204", description = "Cache entries evicted")
+	)
+	@PostMapping("/{tenantId}/cache/evict")
+	public ResponseEntity<Void> evictTenantCache(
+		@PathVariable UUID tenantId,
+		@Parameter(description = "Tenant slug") @RequestParam(required = false) String slug
+	) {
+		tenantProvisioningService.evictTenantCache(tenantId, slug);
+		return ResponseEntity.noContent().build();
+	}
+
 	@Operation(
 		summary = "List tenant migrations",
 		description = "Returns migration history for a tenant."
@@ -1,13 +1,16 @@
 package com.kymatic.tenantservice.controller.tenant;
 
 import com.kymatic.tenantservice.dto.tenant.ActivityLogResponse;
+import com.kymatic.tenantservice.dto.tenant.ActivityLogStatsResponse;
 import com.kymatic.tenantservice.service.tenant.ActivityLogService;
+import com.kymatic.tenantservice.service.tenant.ActivityStatsGroup;
+import com.kymatic.tenantservice.service.tenant.ActivityStatsInterval;
+import com.kymatic.tenantservice.service.tenant.ExportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +19,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,20 +35,47 @@ public class ActivityLogController {
 		this.activityLogService = activityLogService;
 	}
 
-	@Operation(summary = "Get all activity logs")
+	@Operation(summary = "Get all activity logs", description = "Keyset-paginated, newest first. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping
 	public ResponseEntity<List<ActivityLogResponse>> getAllActivityLogs(
-		@Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-		@Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size
+		@Parameter(description = "Removed offset page number; only 0 is accepted, pass cursor instead") @RequestParam(defaultValue = "0") int page,
+		@Parameter(description = "Filter by user ID") @RequestParam(required = false) UUID userId,
+		@Parameter(description = "Filter by action") @RequestParam(required = false) String action,
+		@Parameter(description = "Filter by entity type") @RequestParam(required = false) String entityType,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
 	) {
-		if (size > 0) {
-			Pageable pageable = PageRequest.of(page, size);
-			Page<ActivityLogResponse> response = activityLogService.getActivityLogs(pageable);
-			return ResponseEntity.ok(response.getContent());
-		} else {
-			List<ActivityLogResponse> response = activityLogService.getAllActivityLogs();
-			return ResponseEntity.ok(response);
+		if (page > 0) {
+			// Offset pages could not include the archived months
+			throw new IllegalArgumentException("Offset paging is not supported; pass the X-Next-Cursor header back as cursor");
 		}
+		return CursorResponses.ok(activityLogService.listActivityLogs(userId, action, entityType, createdFrom, createdTo, cursor, size));
+	}
+
+	@Operation(summary = "Export all activity logs", description = "Streams every row as NDJSON or CSV with constant memory.")
+	@GetMapping(path = "/export", produces = {"application/x-ndjson", "text/csv"})
+	public void exportActivityLogs(
+		@Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+		@Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+		HttpServletResponse response
+	) throws IOException {
+		ExportFormat exportFormat = ExportFormat.from(format);
+		ExportResponses.stream(response, "activity_logs", exportFormat, gzip, out -> activityLogService.exportActivityLogs(exportFormat, out));
+	}
+
+	@Operation(summary = "Count activity logs", description = "Counts by action, entity type, user or site over a range, as one total or per hour or day. Served from hourly counters; the range is widened to whole hours.")
+	@GetMapping("/stats")
+	public ResponseEntity<ActivityLogStatsResponse> getActivityStats(
+		@Parameter(description = "Group by: action, entityType, user or site") @RequestParam(defaultValue = "action") String groupBy,
+		@Parameter(description = "Counts per: total, hour or day") @RequestParam(defaultValue = "total") String interval,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo
+	) {
+		ActivityLogStatsResponse response = activityLogService.getActivityStats(
+			ActivityStatsGroup.from(groupBy), ActivityStatsInterval.from(interval), createdFrom, createdTo);
+		return ResponseEntity.ok(response);
 	}
 
 	@Operation(summary = "Get activity log by ID")
@@ -55,32 +87,41 @@ public class ActivityLogController {
 		return ResponseEntity.ok(response);
 	}
 
-	@Operation(summary = "Get activity logs by user")
+	@Operation(summary = "Get activity logs by user", description = "Keyset-paginated, newest first, including archived months. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping("/user/{userId}")
 	public ResponseEntity<List<ActivityLogResponse>> getActivityLogsByUser(
-		@Parameter(description = "User ID") @PathVariable UUID userId
+		@Parameter(description = "User ID") @PathVariable UUID userId,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
 	) {
-		List<ActivityLogResponse> response = activityLogService.getActivityLogsByUser(userId);
-		return ResponseEntity.ok(response);
+		return CursorResponses.ok(activityLogService.getActivityLogsByUser(userId, createdFrom, createdTo, cursor, size));
 	}
 
-	@Operation(summary = "Get activity logs by action")
+	@Operation(summary = "Get activity logs by action", description = "Keyset-paginated, newest first, including archived months. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping("/action/{action}")
 	public ResponseEntity<List<ActivityLogResponse>> getActivityLogsByAction(
-		@Parameter(description = "Action type") @PathVariable String action
+		@Parameter(description = "Action type") @PathVariable String action,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
 	) {
-		List<ActivityLogResponse> response = activityLogService.getActivityLogsByAction(action);
-		return ResponseEntity.ok(response);
+		return CursorResponses.ok(activityLogService.getActivityLogsByAction(action, createdFrom, createdTo, cursor, size));
 	}
 
-	@Operation(summary = "Get activity logs by entity")
+	@Operation(summary = "Get activity logs by entity", description = "Keyset-paginated, newest first, including archived months. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping("/entity/{entityType}/{entityId}")
 	public ResponseEntity<List<ActivityLogResponse>> getActivityLogsByEntity(
 		@Parameter(description = "Entity type") @PathVariable String entityType,
-		@Parameter(description = "Entity ID") @PathVariable UUID entityId
+		@Parameter(description = "Entity ID") @PathVariable UUID entityId,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
 	) {
-		List<ActivityLogResponse> response = activityLogService.getActivityLogsByEntity(entityType, entityId);
-		return ResponseEntity.ok(response);
+		return CursorResponses.ok(activityLogService.getActivityLogsByEntity(entityType, entityId, createdFrom, createdTo, cursor, size));
 	}
 }
 
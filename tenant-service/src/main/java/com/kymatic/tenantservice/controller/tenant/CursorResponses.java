@@ -0,0 +1,28 @@
+package com.kymatic.tenantservice.controller.tenant;
+
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Renders keyset pages for the tenant list endpoints.
+ *
+ * The body stays a plain JSON array so existing clients keep working; the continuation token
+ * travels in the X-Next-Cursor response header and is absent on the last page.
+ */
+final class CursorResponses {
+
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private CursorResponses() {
+	}
+
+	static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.nextCursor() != null) {
+			builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+		}
+		return builder.body(page.items());
+	}
+}
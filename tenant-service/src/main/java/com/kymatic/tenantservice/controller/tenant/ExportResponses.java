@@ -0,0 +1,49 @@
+package com.kymatic.tenantservice.controller.tenant;
+
+import com.kymatic.tenantservice.service.tenant.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a tenant data export straight into the servlet response.
+ *
+ * The export runs on the request thread, so the bound tenant routes the read-only transaction
+ * as usual. With gzip the body is sent with Content-Encoding: gzip.
+ */
+final class ExportResponses {
+
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	@FunctionalInterface
+	interface Exporter {
+		long export(OutputStream out) throws IOException;
+	}
+
+	private ExportResponses() {
+	}
+
+	static void stream(
+		HttpServletResponse response,
+		String dataset,
+		ExportFormat format,
+		boolean gzip,
+		Exporter exporter
+	) throws IOException {
+		response.setContentType(format.getContentType());
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+			"attachment; filename=\"" + dataset + "." + format.getExtension() + "\"");
+		if (!gzip) {
+			exporter.export(response.getOutputStream());
+			return;
+		}
+		response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+		exporter.export(out);
+		out.finish();
+	}
+}
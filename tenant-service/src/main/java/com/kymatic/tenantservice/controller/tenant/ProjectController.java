@@ -2,12 +2,15 @@ package com.kymatic.tenantservice.controller.tenant;
 
 import com.kymatic.tenantservice.dto.tenant.ProjectRequest;
 import com.kymatic.tenantservice.dto.tenant.ProjectResponse;
+import com.kymatic.tenantservice.service.tenant.ExportFormat;
 import com.kymatic.tenantservice.service.tenant.ProjectService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +24,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -42,11 +47,28 @@ public class ProjectController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
 
-	@Operation(summary = "Get all projects")
+	@Operation(summary = "Get all projects", description = "Keyset-paginated, newest first. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping
-	public ResponseEntity<List<ProjectResponse>> getAllProjects() {
-		List<ProjectResponse> projects = projectService.getAllProjects();
-		return ResponseEntity.ok(projects);
+	public ResponseEntity<List<ProjectResponse>> getAllProjects(
+		@Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+		@Parameter(description = "Filter by owner ID") @RequestParam(required = false) UUID ownerId,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
+	) {
+		return CursorResponses.ok(projectService.listProjects(status, ownerId, createdFrom, createdTo, cursor, size));
+	}
+
+	@Operation(summary = "Export all projects", description = "Streams every row as NDJSON or CSV with constant memory.")
+	@GetMapping(path = "/export", produces = {"application/x-ndjson", "text/csv"})
+	public void exportProjects(
+		@Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+		@Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+		HttpServletResponse response
+	) throws IOException {
+		ExportFormat exportFormat = ExportFormat.from(format);
+		ExportResponses.stream(response, "projects", exportFormat, gzip, out -> projectService.exportProjects(exportFormat, out));
 	}
 
 	@Operation(summary = "Get project by ID")
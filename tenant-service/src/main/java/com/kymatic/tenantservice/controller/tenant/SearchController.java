@@ -0,0 +1,39 @@
+package com.kymatic.tenantservice.controller.tenant;
+
+import com.kymatic.tenantservice.dto.tenant.SearchResult;
+import com.kymatic.tenantservice.service.tenant.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/api/search", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Search", description = "Full-text search over tenant tasks, projects and users")
+public class SearchController {
+
+	private final SearchService searchService;
+
+	public SearchController(SearchService searchService) {
+		this.searchService = searchService;
+	}
+
+	@Operation(summary = "Search tasks, projects and users", description = "Ranked best first, with highlighted matches. Pass the X-Next-Cursor response header back as cursor, with the same query, to fetch the next page.")
+	@GetMapping
+	public ResponseEntity<List<SearchResult>> search(
+		@Parameter(description = "Search text; supports \"quoted phrases\", or and -excluded words unless prefix is set") @RequestParam String q,
+		@Parameter(description = "Restrict to task, project and/or user (default all)") @RequestParam(required = false) List<String> type,
+		@Parameter(description = "Match words as prefixes, for search-as-you-type") @RequestParam(defaultValue = "false") boolean prefix,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 20, max 100)") @RequestParam(required = false) Integer size
+	) {
+		return CursorResponses.ok(searchService.search(q, type, prefix, cursor, size));
+	}
+}
@@ -1,18 +1,26 @@
 package com.kymatic.tenantservice.controller.tenant;
 
+import com.kymatic.tenantservice.dto.tenant.TaskBatchCreateRequest;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchResponse;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchUpdateRequest;
 import com.kymatic.tenantservice.dto.tenant.TaskRequest;
 import com.kymatic.tenantservice.dto.tenant.TaskResponse;
+import com.kymatic.tenantservice.service.tenant.ExportFormat;
+import com.kymatic.tenantservice.service.tenant.TaskBatchService;
 import com.kymatic.tenantservice.service.tenant.TenantTaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -21,6 +29,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,9 +40,11 @@ import java.util.UUID;
 public class TaskController {
 
 	private final TenantTaskService taskService;
+	private final TaskBatchService taskBatchService;
 
-	public TaskController(TenantTaskService taskService) {
+	public TaskController(TenantTaskService taskService, TaskBatchService taskBatchService) {
 		this.taskService = taskService;
+		this.taskBatchService = taskBatchService;
 	}
 
 	@Operation(summary = "Create a new task")
@@ -42,11 +54,41 @@ public class TaskController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
 
-	@Operation(summary = "Get all tasks")
+	@Operation(summary = "Create tasks in batch", description = "Up to 5000 tasks, written in chunked transactions. Returns one result per task in request order; invalid tasks are rejected without failing the others.")
+	@PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<TaskBatchResponse> createTasks(@Valid @RequestBody TaskBatchCreateRequest request) {
+		return ResponseEntity.ok(taskBatchService.createTasks(request.tasks()));
+	}
+
+	@Operation(summary = "Update tasks in batch", description = "Partial updates of up to 5000 tasks; omitted fields are left unchanged. Returns one result per update in request order.")
+	@PatchMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<TaskBatchResponse> updateTasks(@Valid @RequestBody TaskBatchUpdateRequest request) {
+		return ResponseEntity.ok(taskBatchService.updateTasks(request.updates()));
+	}
+
+	@Operation(summary = "Get all tasks", description = "Keyset-paginated, newest first. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping
-	public ResponseEntity<List<TaskResponse>> getAllTasks() {
-		List<TaskResponse> tasks = taskService.getAllTasks();
-		return ResponseEntity.ok(tasks);
+	public ResponseEntity<List<TaskResponse>> getAllTasks(
+		@Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+		@Parameter(description = "Filter by assignee ID") @RequestParam(required = false) UUID assignedTo,
+		@Parameter(description = "Filter by project ID") @RequestParam(required = false) UUID projectId,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
+	) {
+		return CursorResponses.ok(taskService.listTasks(status, assignedTo, projectId, createdFrom, createdTo, cursor, size));
+	}
+
+	@Operation(summary = "Export all tasks", description = "Streams every row as NDJSON or CSV with constant memory.")
+	@GetMapping(path = "/export", produces = {"application/x-ndjson", "text/csv"})
+	public void exportTasks(
+		@Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+		@Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+		HttpServletResponse response
+	) throws IOException {
+		ExportFormat exportFormat = ExportFormat.from(format);
+		ExportResponses.stream(response, "tasks", exportFormat, gzip, out -> taskService.exportTasks(exportFormat, out));
 	}
 
 	@Operation(summary = "Get task by ID")
@@ -1,13 +1,19 @@
 package com.kymatic.tenantservice.controller.tenant;
 
+import com.kymatic.tenantservice.dto.tenant.UserImportResponse;
 import com.kymatic.tenantservice.dto.tenant.UserRequest;
 import com.kymatic.tenantservice.dto.tenant.UserResponse;
+import com.kymatic.tenantservice.service.tenant.ExportFormat;
+import com.kymatic.tenantservice.service.tenant.UserImportService;
 import com.kymatic.tenantservice.service.tenant.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +27,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,9 +38,11 @@ import java.util.UUID;
 public class UserController {
 
 	private final UserService userService;
+	private final UserImportService userImportService;
 
-	public UserController(UserService userService) {
+	public UserController(UserService userService, UserImportService userImportService) {
 		this.userService = userService;
+		this.userImportService = userImportService;
 	}
 
 	@Operation(summary = "Create a new user")
@@ -42,11 +52,49 @@ public class UserController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
 
-	@Operation(summary = "Get all users")
+	@Operation(summary = "Get all users", description = "Keyset-paginated, newest first. Pass the X-Next-Cursor response header back as cursor to fetch the next page.")
 	@GetMapping
-	public ResponseEntity<List<UserResponse>> getAllUsers() {
-		List<UserResponse> users = userService.getAllUsers();
-		return ResponseEntity.ok(users);
+	public ResponseEntity<List<UserResponse>> getAllUsers(
+		@Parameter(description = "Filter by active flag") @RequestParam(required = false) Boolean isActive,
+		@Parameter(description = "Created at or after (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+		@Parameter(description = "Created before (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+		@Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page") @RequestParam(required = false) String cursor,
+		@Parameter(description = "Page size (default 50, max 500)") @RequestParam(required = false) Integer size
+	) {
+		return CursorResponses.ok(userService.listUsers(isActive, createdFrom, createdTo, cursor, size));
+	}
+
+	@Operation(summary = "Export all users", description = "Streams every row as NDJSON or CSV with constant memory.")
+	@GetMapping(path = "/export", produces = {"application/x-ndjson", "text/csv"})
+	public void exportUsers(
+		@Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+		@Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false") boolean gzip,
+		HttpServletResponse response
+	) throws IOException {
+		ExportFormat exportFormat = ExportFormat.from(format);
+		ExportResponses.stream(response, "users", exportFormat, gzip, out -> userService.exportUsers(exportFormat, out));
+	}
+
+	@Operation(summary = "Import users", description = "Streams a CSV (header with email, firstName, lastName, isActive) or NDJSON (UserRequest per line) upload. Valid rows are created in one transaction; rejected rows are reported with their reason.")
+	@PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+	public ResponseEntity<UserImportResponse> importUsers(
+		@Parameter(description = "Upload format: ndjson or csv; defaults to the Content-Type") @RequestParam(required = false) String format,
+		@Parameter(description = "Optional id to poll progress with while the upload runs") @RequestParam(required = false) UUID importId,
+		HttpServletRequest request
+	) throws IOException {
+		ExportFormat importFormat = format != null ? ExportFormat.from(format)
+			: request.getContentType() != null && request.getContentType().startsWith("text/csv") ? ExportFormat.CSV
+			: ExportFormat.NDJSON;
+		UserImportResponse response = userImportService.importUsers(importId, importFormat, request.getInputStream());
+		return ResponseEntity.ok(response);
+	}
+
+	@Operation(summary = "Get user import progress")
+	@GetMapping("/import/{importId}")
+	public ResponseEntity<UserImportResponse> getImport(
+		@Parameter(description = "Import ID") @PathVariable UUID importId
+	) {
+		return ResponseEntity.ok(userImportService.getImport(importId));
 	}
 
 	@Operation(summary = "Get user by ID")
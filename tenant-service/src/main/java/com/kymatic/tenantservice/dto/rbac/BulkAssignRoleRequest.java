@@ -0,0 +1,11 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkAssignRoleRequest(
+    @NotEmpty @Size(max = 5000) List<@Valid AssignRoleRequest> assignments
+) {}
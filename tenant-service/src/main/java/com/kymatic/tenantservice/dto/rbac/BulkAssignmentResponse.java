@@ -0,0 +1,10 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import java.util.List;
+
+public record BulkAssignmentResponse(
+    int created,
+    int updated,
+    int rejected,
+    List<BulkAssignmentResult> results
+) {}
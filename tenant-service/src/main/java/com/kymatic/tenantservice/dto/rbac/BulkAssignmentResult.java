@@ -0,0 +1,13 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one row of a bulk request; index is the row's position in the request.
+ */
+public record BulkAssignmentResult(
+    int index,
+    UUID userId,
+    BulkAssignmentStatus status,
+    String error
+) {}
@@ -0,0 +1,7 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+public enum BulkAssignmentStatus {
+    CREATED,
+    UPDATED,
+    REJECTED
+}
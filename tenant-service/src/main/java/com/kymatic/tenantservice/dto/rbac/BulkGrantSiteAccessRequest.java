@@ -0,0 +1,11 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkGrantSiteAccessRequest(
+    @NotEmpty @Size(max = 5000) List<@Valid GrantSiteAccessRequest> grants
+) {}
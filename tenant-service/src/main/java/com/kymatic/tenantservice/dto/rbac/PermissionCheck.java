@@ -0,0 +1,12 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record PermissionCheck(
+    @NotNull UUID userId,
+    @NotBlank String permissionKey,
+    UUID siteId
+) {}
@@ -0,0 +1,7 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import java.util.List;
+
+public record PermissionCheckResponse(
+    List<PermissionDecision> decisions
+) {}
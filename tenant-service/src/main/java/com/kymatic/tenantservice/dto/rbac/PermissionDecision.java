@@ -0,0 +1,10 @@
+package com.kymatic.tenantservice.dto.rbac;
+
+import java.util.UUID;
+
+public record PermissionDecision(
+    UUID userId,
+    String permissionKey,
+    UUID siteId,
+    boolean allowed
+) {}
@@ -0,0 +1,15 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Number of activity log rows with one group key.
+ *
+ * @param period start of the hour or day counted, or null for a total over the range
+ * @param key    action, entity type, user ID or site ID; null counts the rows without one
+ */
+public record ActivityLogCount(
+	OffsetDateTime period,
+	String key,
+	long count
+) {}
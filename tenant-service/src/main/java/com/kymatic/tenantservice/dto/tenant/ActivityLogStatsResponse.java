@@ -0,0 +1,22 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Activity log counts over a range, from the hourly rollup.
+ *
+ * @param groupBy     action, entityType, user or site
+ * @param interval    total, hour or day
+ * @param createdFrom start of the first hour counted, or null when unbounded
+ * @param createdTo   end of the last hour counted (exclusive), or null when unbounded
+ * @param total       sum of the counts
+ */
+public record ActivityLogStatsResponse(
+	String groupBy,
+	String interval,
+	OffsetDateTime createdFrom,
+	OffsetDateTime createdTo,
+	long total,
+	List<ActivityLogCount> counts
+) {}
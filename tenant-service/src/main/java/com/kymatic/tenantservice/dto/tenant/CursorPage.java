@@ -0,0 +1,14 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.util.List;
+
+/**
+ * One keyset page of a list endpoint.
+ *
+ * @param items      rows of this page, newest first
+ * @param nextCursor opaque continuation token for the next page; null on the last page
+ */
+public record CursorPage<T>(
+	List<T> items,
+	String nextCursor
+) {}
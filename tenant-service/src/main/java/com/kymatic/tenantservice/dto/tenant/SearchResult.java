@@ -0,0 +1,23 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.util.UUID;
+
+/**
+ * One full-text search hit.
+ *
+ * @param type           task, project or user
+ * @param title          task title, project name or user full name
+ * @param text           task or project description, or user email
+ * @param titleHighlight HTML-escaped title with the matched words in &lt;mark&gt; tags
+ * @param textHighlight  HTML-escaped fragments of text with the matched words in &lt;mark&gt; tags
+ * @param rank           relevance; higher is better, comparable within one search only
+ */
+public record SearchResult(
+	String type,
+	UUID id,
+	String title,
+	String text,
+	String titleHighlight,
+	String textHighlight,
+	float rank
+) {}
@@ -0,0 +1,10 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TaskBatchCreateRequest(
+	@NotEmpty @Size(max = 5000) List<TaskRequest> tasks
+) {}
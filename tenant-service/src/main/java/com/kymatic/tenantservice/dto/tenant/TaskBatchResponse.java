@@ -0,0 +1,15 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch request, in request order.
+ *
+ * @param succeeded items created or updated
+ * @param failed    items not found, rejected by validation or in a chunk that failed to commit
+ */
+public record TaskBatchResponse(
+	int succeeded,
+	int failed,
+	List<TaskBatchResult> results
+) {}
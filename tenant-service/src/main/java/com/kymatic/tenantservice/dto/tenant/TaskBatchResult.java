@@ -0,0 +1,13 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch request; index is the item's position in the request.
+ */
+public record TaskBatchResult(
+	int index,
+	UUID taskId,
+	TaskBatchStatus status,
+	String error
+) {}
@@ -0,0 +1,9 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+public enum TaskBatchStatus {
+	CREATED,
+	UPDATED,
+	NOT_FOUND,
+	REJECTED,
+	FAILED
+}
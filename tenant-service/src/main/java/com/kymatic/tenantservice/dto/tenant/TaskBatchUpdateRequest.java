@@ -0,0 +1,10 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TaskBatchUpdateRequest(
+	@NotEmpty @Size(max = 5000) List<TaskUpdate> updates
+) {}
@@ -0,0 +1,26 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Partial update of one task; null fields are left unchanged.
+ */
+public record TaskUpdate(
+	@NotNull(message = "Task ID is required")
+	UUID taskId,
+
+	UUID projectId,
+
+	String title,
+
+	String description,
+
+	UUID assignedTo,
+
+	String status,
+
+	LocalDate dueDate
+) {}
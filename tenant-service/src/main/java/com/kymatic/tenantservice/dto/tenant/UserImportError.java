@@ -0,0 +1,14 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+/**
+ * A rejected row of a user import.
+ *
+ * @param row   1-based data row (the CSV header is not counted)
+ * @param email email of the row, when it could be read
+ * @param error reason the row was not imported
+ */
+public record UserImportError(
+	long row,
+	String email,
+	String error
+) {}
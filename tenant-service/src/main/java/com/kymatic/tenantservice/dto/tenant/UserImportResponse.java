@@ -0,0 +1,28 @@
+package com.kymatic.tenantservice.dto.tenant;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress or result of a user import.
+ *
+ * @param importId        id to poll GET /api/users/import/{importId} with
+ * @param status          RUNNING, MERGING, COMPLETED or FAILED
+ * @param rowsRead        data rows read so far
+ * @param rowsImported    users created; set once the rows are merged
+ * @param rowsRejected    rows rejected so far
+ * @param errors          rejected rows in row order, at most the first 10,000
+ * @param errorsTruncated whether more rows were rejected than reported
+ */
+public record UserImportResponse(
+	UUID importId,
+	String status,
+	long rowsRead,
+	long rowsImported,
+	long rowsRejected,
+	List<UserImportError> errors,
+	boolean errorsTruncated,
+	OffsetDateTime startedAt,
+	OffsetDateTime completedAt
+) {}
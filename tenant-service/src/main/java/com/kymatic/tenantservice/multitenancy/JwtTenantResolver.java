@@ -1,6 +1,7 @@
 package com.kymatic.tenantservice.multitenancy;
 
 import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.service.TenantDatabaseResolver;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +23,7 @@ import java.io.IOException;
  * - Runs after JWT authentication
  * - Extracts the 'tenant_id' claim from the validated JWT token
  * - Stores the tenant_id in TenantContext (ThreadLocal) for use throughout the request
+ * - Resolves the tenant's routing handle once, so connection checkouts skip resolution
  * - Cleans up TenantContext after request processing
  * 
  * The tenant_id claim is added to JWT tokens by Keycloak via a protocol mapper.
@@ -49,6 +51,12 @@ public class JwtTenantResolver extends OncePerRequestFilter {
         "/actuator"               // Spring Boot actuator endpoints
     };
 
+    private final TenantDatabaseResolver tenantDatabaseResolver;
+
+    public JwtTenantResolver(TenantDatabaseResolver tenantDatabaseResolver) {
+        this.tenantDatabaseResolver = tenantDatabaseResolver;
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -105,8 +113,9 @@ public class JwtTenantResolver extends OncePerRequestFilter {
             }
 
             if (tenantId != null && !tenantId.isEmpty()) {
-                // Store tenant_id in TenantContext for use throughout the request
-                TenantContext.setTenantId(tenantId);
+                // Store tenant_id in TenantContext for use throughout the request, together with
+                // its routing handle so datasource checkouts skip tenant resolution
+                tenantDatabaseResolver.bindTenant(tenantId);
             }
             
             // Continue with the filter chain
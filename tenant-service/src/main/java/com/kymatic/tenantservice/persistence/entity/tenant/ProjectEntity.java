@@ -2,6 +2,7 @@ package com.kymatic.tenantservice.persistence.entity.tenant;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -32,7 +33,7 @@ public class ProjectEntity {
 	@Column(name = "owner_id")
 	private UUID ownerId;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "owner_id", insertable = false, updatable = false)
 	private UserEntity owner;
 
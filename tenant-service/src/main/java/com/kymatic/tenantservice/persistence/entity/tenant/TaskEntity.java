@@ -2,6 +2,7 @@ package com.kymatic.tenantservice.persistence.entity.tenant;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -27,7 +28,7 @@ public class TaskEntity {
 	@Column(name = "project_id", nullable = false)
 	private UUID projectId;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "project_id", insertable = false, updatable = false)
 	private ProjectEntity project;
 
@@ -40,7 +41,7 @@ public class TaskEntity {
 	@Column(name = "assigned_to")
 	private UUID assignedTo;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "assigned_to", insertable = false, updatable = false)
 	private UserEntity assignedUser;
 
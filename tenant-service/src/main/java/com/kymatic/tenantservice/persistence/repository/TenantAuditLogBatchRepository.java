@@ -0,0 +1,61 @@
+package com.kymatic.tenantservice.persistence.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Multi-row inserts into tenant_audit_log.
+ *
+ * Each call writes a batch of rows with one INSERT ... SELECT FROM unnest(arrays) statement on the
+ * master database; the statement commits on its own, so the batch is written entirely or not at all.
+ */
+@Repository
+public class TenantAuditLogBatchRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO tenant_audit_log (tenant_id, action, performed_by, details, created_at)
+        SELECT a.tenant_id, a.action, a.performed_by, a.details::jsonb, a.created_at
+        FROM unnest(?::uuid[], ?::varchar[], ?::uuid[], ?::text[], ?::timestamp[])
+            AS a(tenant_id, action, performed_by, details, created_at)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TenantAuditLogBatchRepository(@Qualifier("masterDataSource") DataSource masterDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(masterDataSource);
+    }
+
+    /**
+     * One row to insert, with its details already serialized.
+     *
+     * @param details JSON text, or null
+     */
+    public record Row(UUID tenantId, String action, UUID performedBy, String details, OffsetDateTime createdAt) {
+    }
+
+    /**
+     * @return number of rows inserted
+     */
+    public int insert(List<Row> rows) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", rows.stream().map(Row::tenantId).toArray(UUID[]::new)));
+            statement.setArray(2, connection.createArrayOf("varchar", rows.stream().map(Row::action).toArray(String[]::new)));
+            statement.setArray(3, connection.createArrayOf("uuid", rows.stream().map(Row::performedBy).toArray(UUID[]::new)));
+            statement.setArray(4, connection.createArrayOf("text", rows.stream().map(Row::details).toArray(String[]::new)));
+            // Local timestamp in the JVM zone, the way Hibernate writes OffsetDateTime to TIMESTAMP columns
+            statement.setArray(5, connection.createArrayOf("timestamp", rows.stream()
+                .map(row -> row.createdAt() != null ? Timestamp.from(row.createdAt().toInstant()) : null)
+                .toArray(Timestamp[]::new)));
+            return statement;
+        });
+    }
+}
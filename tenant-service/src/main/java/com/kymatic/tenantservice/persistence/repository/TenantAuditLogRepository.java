@@ -1,18 +1,16 @@
 package com.kymatic.tenantservice.persistence.repository;
 
 import com.kymatic.tenantservice.persistence.entity.TenantAuditLogEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.UUID;
-
+/**
+ * tenant_audit_log is range-partitioned by month on created_at (db/migration/V3__partition_tenant_audit_log.sql);
+ * filter through {@link JpaSpecificationExecutor} with a created_at range so the query reads only the
+ * partitions it covers.
+ */
 @Repository
-public interface TenantAuditLogRepository extends JpaRepository<TenantAuditLogEntity, Long> {
-	List<TenantAuditLogEntity> findByTenantId(UUID tenantId);
-	Page<TenantAuditLogEntity> findByTenantId(UUID tenantId, Pageable pageable);
-	List<TenantAuditLogEntity> findByTenantIdAndAction(UUID tenantId, String action);
+public interface TenantAuditLogRepository extends JpaRepository<TenantAuditLogEntity, Long>, JpaSpecificationExecutor<TenantAuditLogEntity> {
 }
 
@@ -2,12 +2,26 @@ package com.kymatic.tenantservice.persistence.repository;
 
 import com.kymatic.tenantservice.persistence.entity.TenantEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TenantRepository extends JpaRepository<TenantEntity, UUID> {
 	Optional<TenantEntity> findBySlug(String slug);
-}
-
 
+	/**
+	 * Active tenants ordered by recorded activity (tenant_activity), most recent first.
+	 * Tenants without recorded activity follow, most recently updated first.
+	 */
+	@Query(value = """
+		SELECT t.* FROM tenants t
+		LEFT JOIN tenant_activity a ON a.tenant_id = t.tenant_id
+		WHERE t.status = 'active'
+		ORDER BY a.last_active_at DESC NULLS LAST, t.updated_at DESC NULLS LAST
+		LIMIT :limit
+		""", nativeQuery = true)
+	List<TenantEntity> findActiveOrderByRecentActivity(@Param("limit") int limit);
+}
@@ -0,0 +1,64 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import com.kymatic.tenantservice.activity.ActivityEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Multi-row inserts into activity_log.
+ *
+ * Each call writes all events of one tenant with one INSERT ... SELECT FROM unnest(arrays)
+ * statement on the current tenant connection; outside a transaction the statement commits
+ * on its own, so the batch is written entirely or not at all.
+ */
+@Repository
+public class ActivityLogBatchRepository {
+
+    // A user or site deleted since the event was queued is written as NULL, as ON DELETE SET NULL
+    // would have left it, instead of failing the tenant's whole batch on the foreign key
+    private static final String INSERT_SQL = """
+        INSERT INTO activity_log (tenant_id, user_id, site_id, action, entity_type, entity_id, entity_name, changes, created_at)
+        SELECT ?, u.user_id, s.site_id, a.action, a.entity_type, a.entity_id, a.entity_name, a.changes::jsonb, a.created_at
+        FROM unnest(?::uuid[], ?::uuid[], ?::varchar[], ?::varchar[], ?::uuid[], ?::varchar[], ?::text[], ?::timestamp[])
+            WITH ORDINALITY AS a(user_id, site_id, action, entity_type, entity_id, entity_name, changes, created_at, ord)
+        LEFT JOIN users u ON u.user_id = a.user_id
+        LEFT JOIN sites s ON s.site_id = a.site_id
+        ORDER BY a.ord
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ActivityLogBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert the events of one tenant.
+     *
+     * @return number of rows inserted
+     */
+    public int insert(String tenantId, List<ActivityEvent> events) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setString(1, tenantId);
+            statement.setArray(2, connection.createArrayOf("uuid", events.stream().map(ActivityEvent::userId).toArray(UUID[]::new)));
+            statement.setArray(3, connection.createArrayOf("uuid", events.stream().map(ActivityEvent::siteId).toArray(UUID[]::new)));
+            statement.setArray(4, connection.createArrayOf("varchar", events.stream().map(ActivityEvent::action).toArray(String[]::new)));
+            statement.setArray(5, connection.createArrayOf("varchar", events.stream().map(ActivityEvent::entityType).toArray(String[]::new)));
+            statement.setArray(6, connection.createArrayOf("uuid", events.stream().map(ActivityEvent::entityId).toArray(UUID[]::new)));
+            statement.setArray(7, connection.createArrayOf("varchar", events.stream().map(ActivityEvent::entityName).toArray(String[]::new)));
+            statement.setArray(8, connection.createArrayOf("text", events.stream().map(ActivityEvent::changes).toArray(String[]::new)));
+            // Local timestamp in the JVM zone, the way Hibernate writes OffsetDateTime to TIMESTAMP columns
+            statement.setArray(9, connection.createArrayOf("timestamp", events.stream()
+                .map(event -> event.createdAt() != null ? Timestamp.from(event.createdAt().toInstant()) : null)
+                .toArray(Timestamp[]::new)));
+            return statement;
+        });
+    }
+}
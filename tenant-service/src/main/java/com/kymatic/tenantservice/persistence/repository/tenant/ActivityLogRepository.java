@@ -1,19 +1,31 @@
 package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.ActivityLogEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * activity_log is range-partitioned by month on created_at (db/tenant/V6__partition_activity_log.sql);
+ * filter through {@link JpaSpecificationExecutor} with a created_at range so the query reads only the
+ * partitions it covers. A lookup by log_id alone probes every partition.
+ */
 @Repository
-public interface ActivityLogRepository extends JpaRepository<ActivityLogEntity, Long> {
-	List<ActivityLogEntity> findByUserId(UUID userId);
-	Page<ActivityLogEntity> findByUserId(UUID userId, Pageable pageable);
-	List<ActivityLogEntity> findByAction(String action);
-	List<ActivityLogEntity> findByEntityTypeAndEntityId(String entityType, UUID entityId);
+public interface ActivityLogRepository extends JpaRepository<ActivityLogEntity, Long>, JpaSpecificationExecutor<ActivityLogEntity> {
+	/**
+	 * All rows in creation order, read through a server-side cursor; call inside a read-only
+	 * transaction and close the stream.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select a from ActivityLogEntity a order by a.createdAt, a.logId")
+	Stream<ActivityLogEntity> streamAllForExport();
 }
-
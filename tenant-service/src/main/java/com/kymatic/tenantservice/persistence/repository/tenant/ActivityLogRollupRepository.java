@@ -0,0 +1,74 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads of activity_log_hourly, the per-hour activity counts kept up to date by a trigger on
+ * activity_log inserts (see db/tenant/V7__activity_log_hourly_rollup.sql).
+ *
+ * A query reads one row per hour and key in the range, whatever the number of activity_log rows.
+ */
+@Repository
+public class ActivityLogRollupRepository {
+
+    private static final Set<String> KEY_COLUMNS = Set.of("action", "entity_type", "user_id", "site_id");
+    private static final Set<String> TRUNCATE_UNITS = Set.of("hour", "day");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ActivityLogRollupRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Activity counts per value of keyColumn of the hours starting in [from, to), optionally per
+     * period. Ordered by period, then count descending.
+     *
+     * @param keyColumn action, entity_type, user_id or site_id
+     * @param unit      hour or day to count per period, or null for totals over the range
+     * @param from      start of the range, or null for no lower bound
+     * @param to        end of the range, or null for no upper bound
+     */
+    public List<Count> count(String keyColumn, String unit, Instant from, Instant to) {
+        if (!KEY_COLUMNS.contains(keyColumn)) {
+            throw new IllegalArgumentException("Unsupported activity count key: " + keyColumn);
+        }
+        if (unit != null && !TRUNCATE_UNITS.contains(unit)) {
+            throw new IllegalArgumentException("Unsupported activity count period: " + unit);
+        }
+        String period = unit != null ? "date_trunc('" + unit + "', bucket)" : "NULL::timestamp";
+        StringBuilder sql = new StringBuilder()
+            .append("SELECT ").append(period).append(" AS period, ").append(keyColumn).append("::text AS key, ")
+            .append("sum(activity_count) AS activity_count FROM activity_log_hourly WHERE TRUE");
+        List<Object> args = new ArrayList<>(2);
+        // Local timestamps in the JVM zone, like the created_at values the buckets are cut from
+        if (from != null) {
+            sql.append(" AND bucket >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND bucket < ?");
+            args.add(Timestamp.from(to));
+        }
+        sql.append(" GROUP BY 1, 2 ORDER BY 1, 3 DESC, 2");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Timestamp periodStart = rs.getTimestamp("period");
+            return new Count(periodStart != null ? periodStart.toInstant() : null, rs.getString("key"), rs.getLong("activity_count"));
+        }, args.toArray());
+    }
+
+    /**
+     * @param period start of the hour or day, or null for a total
+     * @param key    value of the key column as text; null counts the rows without one
+     */
+    public record Count(Instant period, String key, long count) {
+    }
+}
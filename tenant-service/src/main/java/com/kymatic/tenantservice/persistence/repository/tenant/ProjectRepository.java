@@ -1,15 +1,39 @@
 package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.ProjectEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<ProjectEntity, UUID> {
+public interface ProjectRepository extends JpaRepository<ProjectEntity, UUID>, JpaSpecificationExecutor<ProjectEntity> {
 	List<ProjectEntity> findByOwnerId(UUID ownerId);
 	List<ProjectEntity> findByStatus(String status);
-}
 
+	/**
+	 * All rows in creation order, read through a server-side cursor; call inside a read-only
+	 * transaction and close the stream.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select p from ProjectEntity p order by p.createdAt, p.projectId")
+	Stream<ProjectEntity> streamAllForExport();
+
+	/**
+	 * The ids among the given ones that exist, with one query.
+	 */
+	@Query("select p.projectId from ProjectEntity p where p.projectId in :ids")
+	List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,121 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based upserts of role assignments and site access.
+ *
+ * Each call writes all rows with one INSERT ... SELECT FROM unnest(arrays) ... ON CONFLICT
+ * statement on the current tenant connection, inside the caller's transaction, and reports
+ * per row whether it was inserted or updated. Rows must be validated and free of duplicate
+ * conflict keys; Postgres rejects a statement that updates the same row twice.
+ */
+@Repository
+public class RoleAssignmentBulkRepository {
+
+    private static final String UPSERT_USER_ROLES_SQL = """
+        INSERT INTO user_roles (tenant_id, user_id, role_id, site_id, assigned_at, expires_at, is_active)
+        SELECT ?, r.user_id, r.role_id, r.site_id, ?, r.expires_at, true
+        FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::timestamp[]) AS r(user_id, role_id, site_id, expires_at)
+        ON CONFLICT (user_id, role_id, (COALESCE(site_id, '00000000-0000-0000-0000-000000000000'::uuid))) DO UPDATE
+        SET assigned_at = EXCLUDED.assigned_at,
+            expires_at = EXCLUDED.expires_at,
+            is_active = true,
+            updated_at = CURRENT_TIMESTAMP
+        RETURNING user_id, role_id, site_id, (xmax = 0) AS inserted
+        """;
+
+    private static final String UPSERT_SITE_ACCESS_SQL = """
+        INSERT INTO user_site_access (tenant_id, user_id, site_id, access_level, granted_at, expires_at, is_active)
+        SELECT ?, a.user_id, a.site_id, a.access_level, ?, a.expires_at, true
+        FROM unnest(?::uuid[], ?::uuid[], ?::varchar[], ?::timestamp[]) AS a(user_id, site_id, access_level, expires_at)
+        ON CONFLICT (user_id, site_id) DO UPDATE
+        SET access_level = EXCLUDED.access_level,
+            granted_at = EXCLUDED.granted_at,
+            expires_at = EXCLUDED.expires_at,
+            is_active = true,
+            updated_at = CURRENT_TIMESTAMP
+        RETURNING user_id, site_id, (xmax = 0) AS inserted
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoleAssignmentBulkRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert or reactivate the role assignments; the conflict target is idx_user_roles_unique,
+     * (user_id, role_id, COALESCE(site_id, nil uuid)).
+     */
+    public List<UpsertResult> upsertUserRoles(String tenantId, List<RoleAssignmentRow> rows, OffsetDateTime assignedAt) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_USER_ROLES_SQL);
+            statement.setString(1, tenantId);
+            statement.setTimestamp(2, toTimestamp(assignedAt));
+            statement.setArray(3, connection.createArrayOf("uuid", rows.stream().map(RoleAssignmentRow::userId).toArray(UUID[]::new)));
+            statement.setArray(4, connection.createArrayOf("uuid", rows.stream().map(RoleAssignmentRow::roleId).toArray(UUID[]::new)));
+            statement.setArray(5, connection.createArrayOf("uuid", rows.stream().map(RoleAssignmentRow::siteId).toArray(UUID[]::new)));
+            statement.setArray(6, timestamps(connection, rows.stream().map(RoleAssignmentRow::expiresAt).toList()));
+            return statement;
+        }, (rs, rowNum) -> new UpsertResult(
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("role_id", UUID.class),
+            rs.getObject("site_id", UUID.class),
+            rs.getBoolean("inserted")));
+    }
+
+    /**
+     * Insert or reactivate the site access; the conflict target is UNIQUE(user_id, site_id).
+     */
+    public List<UpsertResult> upsertSiteAccess(String tenantId, List<SiteAccessGrantRow> rows, OffsetDateTime grantedAt) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SITE_ACCESS_SQL);
+            statement.setString(1, tenantId);
+            statement.setTimestamp(2, toTimestamp(grantedAt));
+            statement.setArray(3, connection.createArrayOf("uuid", rows.stream().map(SiteAccessGrantRow::userId).toArray(UUID[]::new)));
+            statement.setArray(4, connection.createArrayOf("uuid", rows.stream().map(SiteAccessGrantRow::siteId).toArray(UUID[]::new)));
+            statement.setArray(5, connection.createArrayOf("varchar", rows.stream().map(SiteAccessGrantRow::accessLevel).toArray(String[]::new)));
+            statement.setArray(6, timestamps(connection, rows.stream().map(SiteAccessGrantRow::expiresAt).toList()));
+            return statement;
+        }, (rs, rowNum) -> new UpsertResult(
+            rs.getObject("user_id", UUID.class),
+            null,
+            rs.getObject("site_id", UUID.class),
+            rs.getBoolean("inserted")));
+    }
+
+    private static Array timestamps(Connection connection, List<OffsetDateTime> values) throws SQLException {
+        return connection.createArrayOf("timestamp", values.stream().map(RoleAssignmentBulkRepository::toTimestamp).toArray(Timestamp[]::new));
+    }
+
+    /**
+     * Local timestamp in the JVM zone, the way Hibernate writes OffsetDateTime to TIMESTAMP columns.
+     */
+    private static Timestamp toTimestamp(OffsetDateTime value) {
+        return value != null ? Timestamp.from(value.toInstant()) : null;
+    }
+
+    public record RoleAssignmentRow(UUID userId, UUID roleId, UUID siteId, OffsetDateTime expiresAt) {
+    }
+
+    public record SiteAccessGrantRow(UUID userId, UUID siteId, String accessLevel, OffsetDateTime expiresAt) {
+    }
+
+    /**
+     * Upserted row; roleId is null for site access. inserted is false when an existing row was updated.
+     */
+    public record UpsertResult(UUID userId, UUID roleId, UUID siteId, boolean inserted) {
+    }
+}
@@ -2,7 +2,10 @@ package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,5 +14,25 @@ public interface RoleRepository extends JpaRepository<RoleEntity, UUID> {
     Optional<RoleEntity> findByTenantIdAndRoleKeyAndDeletedAtIsNull(String tenantId, String roleKey);
     boolean existsByTenantIdAndRoleKeyAndDeletedAtIsNull(String tenantId, String roleKey);
     List<RoleEntity> findByTenantIdAndDeletedAtIsNull(String tenantId);
-}
+    List<RoleEntity> findByTenantIdAndRoleKeyInAndDeletedAtIsNull(String tenantId, Collection<String> roleKeys);
+
+    /**
+     * The tenant's roles with their permission keys, one row per (role, permission) and one row
+     * with a null key for a role without permissions, ordered by role. Replaces a
+     * role_permissions query per role.
+     */
+    @Query("""
+        SELECT r AS role, p.permissionKey AS permissionKey
+        FROM RoleEntity r
+        LEFT JOIN RolePermissionEntity rp ON rp.roleId = r.roleId
+        LEFT JOIN PermissionEntity p ON p.permissionId = rp.permissionId AND p.tenantId = :tenantId
+        WHERE r.tenantId = :tenantId AND r.deletedAt IS NULL
+        ORDER BY r.createdAt, r.roleId
+        """)
+    List<RolePermissionKeyRow> findWithPermissionKeys(@Param("tenantId") String tenantId);
 
+    interface RolePermissionKeyRow {
+        RoleEntity getRole();
+        String getPermissionKey();
+    }
+}
@@ -0,0 +1,162 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search over the search_vector columns of tasks, projects and users
+ * (db/tenant/V5__full_text_search.sql).
+ *
+ * One statement matches every requested table through its GIN index, ranks the hits with
+ * ts_rank, and keeps one keyset page ordered by (rank, type, id) descending. Highlights are
+ * computed with ts_headline for the rows of the page only, since it re-parses the text.
+ */
+@Repository
+public class SearchRepository {
+
+    public static final String TASK = "task";
+    public static final String PROJECT = "project";
+    public static final String USER = "user";
+
+    // ts_headline marks matches with private-use characters, so the text can be HTML-escaped
+    // before they are turned into <mark> tags
+    private static final char START_SEL = '\uE000';
+    private static final char STOP_SEL = '\uE001';
+    private static final String HEADLINE_OPTIONS =
+        "StartSel=\"" + START_SEL + "\", StopSel=\"" + STOP_SEL + "\", MaxWords=35, MinWords=15, MaxFragments=2";
+
+    private static final String TASK_HITS = """
+        SELECT 'task' AS type, t.task_id AS id, t.title AS title, t.description AS text,
+               ts_rank(t.search_vector, q.query) AS rank
+        FROM tasks t, q
+        WHERE t.search_vector @@ q.query AND t.tenant_id = ?
+        """;
+
+    private static final String PROJECT_HITS = """
+        SELECT 'project' AS type, p.project_id AS id, p.name AS title, p.description AS text,
+               ts_rank(p.search_vector, q.query) AS rank
+        FROM projects p, q
+        WHERE p.search_vector @@ q.query AND p.tenant_id = ?
+        """;
+
+    private static final String USER_HITS = """
+        SELECT 'user' AS type, u.user_id AS id, concat_ws(' ', u.first_name, u.last_name) AS title, u.email AS text,
+               ts_rank(u.search_vector, q.query) AS rank
+        FROM users u, q
+        WHERE u.search_vector @@ q.query AND u.tenant_id = ? AND u.deleted_at IS NULL
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * One page of hits, best first.
+     *
+     * @param query  for a prefix search a to_tsquery expression (built from letters and digits
+     *               only), otherwise free text in websearch_to_tsquery syntax
+     * @param types  any of {@link #TASK}, {@link #PROJECT}, {@link #USER}; not empty
+     * @param after  last hit of the previous page, or null for the first page
+     */
+    public List<SearchHit> search(String tenantId, String query, boolean prefix, Set<String> types, SearchCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        StringBuilder sql = new StringBuilder("WITH q AS (SELECT ")
+            .append(prefix ? "to_tsquery" : "websearch_to_tsquery")
+            .append("('simple', ?) AS query),\nhits AS (\n");
+        List<String> branches = new ArrayList<>();
+        if (types.contains(TASK)) {
+            branches.add(TASK_HITS);
+        }
+        if (types.contains(PROJECT)) {
+            branches.add(PROJECT_HITS);
+        }
+        if (types.contains(USER)) {
+            branches.add(USER_HITS);
+        }
+        if (branches.isEmpty()) {
+            throw new IllegalArgumentException("At least one search type is required");
+        }
+        branches.forEach(branch -> args.add(tenantId));
+        sql.append(branches.stream().collect(Collectors.joining("UNION ALL\n")));
+        sql.append("),\npage AS (\n    SELECT * FROM hits\n");
+        if (after != null) {
+            sql.append("    WHERE (rank, type, id) < (?::real, ?, ?)\n");
+            args.add(after.rank());
+            args.add(after.type());
+            args.add(after.id());
+        }
+        sql.append("    ORDER BY rank DESC, type DESC, id DESC\n    LIMIT ?\n)\n");
+        args.add(limit);
+        sql.append("""
+            SELECT page.type, page.id, page.title, page.text, page.rank,
+                   ts_headline('simple', coalesce(page.title, ''), q.query, '%1$s') AS title_highlight,
+                   ts_headline('simple', coalesce(page.text, ''), q.query, '%1$s') AS text_highlight
+            FROM page, q
+            ORDER BY page.rank DESC, page.type DESC, page.id DESC
+            """.formatted(HEADLINE_OPTIONS));
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SearchHit(
+            rs.getString("type"),
+            rs.getObject("id", UUID.class),
+            rs.getString("title"),
+            rs.getString("text"),
+            highlight(rs.getString("title_highlight")),
+            highlight(rs.getString("text_highlight")),
+            rs.getFloat("rank")), args.toArray());
+    }
+
+    /**
+     * HTML-escaped headline with the matched words wrapped in &lt;mark&gt;.
+     */
+    static String highlight(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        StringBuilder html = new StringBuilder(headline.length() + 32);
+        for (int i = 0; i < headline.length(); i++) {
+            char c = headline.charAt(i);
+            switch (c) {
+                case START_SEL -> html.append("<mark>");
+                case STOP_SEL -> html.append("</mark>");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '&' -> html.append("&amp;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+        return html.toString();
+    }
+
+    /**
+     * A matching row; text is the description, or the email for a user. Highlights are HTML-escaped
+     * with the matched words in &lt;mark&gt;, and empty when the source text is.
+     */
+    public record SearchHit(
+        String type,
+        UUID id,
+        String title,
+        String text,
+        String titleHighlight,
+        String textHighlight,
+        float rank
+    ) {
+    }
+
+    /**
+     * Position of a hit in the (rank, type, id) descending order.
+     */
+    public record SearchCursor(float rank, String type, UUID id) {
+    }
+}
@@ -2,7 +2,10 @@ package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.SiteEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,5 +14,46 @@ public interface SiteRepository extends JpaRepository<SiteEntity, UUID> {
     Optional<SiteEntity> findByTenantIdAndSiteCode(String tenantId, String siteCode);
     List<SiteEntity> findByTenantIdAndDeletedAtIsNull(String tenantId);
     Optional<SiteEntity> findByTenantIdAndSiteId(String tenantId, UUID siteId);
+    List<SiteEntity> findByTenantIdAndSiteIdIn(String tenantId, Collection<UUID> siteIds);
+
+    /**
+     * (site, parent site) pairs implied by the department hierarchy: a live department at one site
+     * whose parent department is at another site.
+     */
+    @Query(value = """
+        SELECT DISTINCT d.site_id AS "siteId", p.site_id AS "parentSiteId"
+        FROM departments d
+        JOIN departments p ON p.department_id = d.parent_department_id
+        WHERE d.tenant_id = :tenantId AND p.tenant_id = :tenantId
+            AND d.deleted_at IS NULL AND p.deleted_at IS NULL
+            AND d.is_active = true AND p.is_active = true
+            AND d.site_id <> p.site_id
+        """, nativeQuery = true)
+    List<SiteLinkRow> findDepartmentSiteLinks(@Param("tenantId") String tenantId);
+
+    /**
+     * The site and every site above it through {@link #findDepartmentSiteLinks} links: the sites
+     * whose role and access grants apply at the site. Cycles end once every site is reached.
+     */
+    @Query(value = """
+        WITH RECURSIVE scope(site_id) AS (
+            SELECT CAST(:siteId AS uuid)
+            UNION
+            SELECT p.site_id
+            FROM scope s
+            JOIN departments d ON d.site_id = s.site_id
+            JOIN departments p ON p.department_id = d.parent_department_id
+            WHERE d.tenant_id = :tenantId AND p.tenant_id = :tenantId
+                AND d.deleted_at IS NULL AND p.deleted_at IS NULL
+                AND d.is_active = true AND p.is_active = true
+        )
+        SELECT site_id FROM scope
+        """, nativeQuery = true)
+    List<UUID> findSiteAndAncestorIds(@Param("tenantId") String tenantId, @Param("siteId") UUID siteId);
+
+    interface SiteLinkRow {
+        UUID getSiteId();
+        UUID getParentSiteId();
+    }
 }
 
@@ -0,0 +1,82 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based partial updates of tasks.
+ *
+ * Each call updates all rows with one UPDATE ... FROM unnest(arrays) statement joined on
+ * task_id, on the current tenant connection and inside the caller's transaction; there is no
+ * per-row select. A null field leaves the column unchanged. Rows must be free of duplicate
+ * task ids; Postgres applies only one of them.
+ */
+@Repository
+public class TaskBatchRepository {
+
+    private static final String UPDATE_TASKS_SQL = """
+        UPDATE tasks t
+        SET project_id = COALESCE(p.project_id, t.project_id),
+            title = COALESCE(p.title, t.title),
+            description = COALESCE(p.description, t.description),
+            assigned_to = COALESCE(p.assigned_to, t.assigned_to),
+            status = COALESCE(p.status, t.status),
+            due_date = COALESCE(p.due_date, t.due_date),
+            updated_at = CURRENT_TIMESTAMP
+        FROM unnest(?::uuid[], ?::uuid[], ?::varchar[], ?::text[], ?::uuid[], ?::varchar[], ?::date[])
+            AS p(task_id, project_id, title, description, assigned_to, status, due_date)
+        WHERE t.task_id = p.task_id
+        RETURNING t.task_id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Apply the patches to the tasks that exist.
+     *
+     * @return ids of the updated tasks; the other ids were not found
+     */
+    public Set<UUID> updateTasks(List<TaskPatch> rows) {
+        Set<UUID> updated = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPDATE_TASKS_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", rows.stream().map(TaskPatch::taskId).toArray(UUID[]::new)));
+            statement.setArray(2, connection.createArrayOf("uuid", rows.stream().map(TaskPatch::projectId).toArray(UUID[]::new)));
+            statement.setArray(3, connection.createArrayOf("varchar", rows.stream().map(TaskPatch::title).toArray(String[]::new)));
+            statement.setArray(4, connection.createArrayOf("text", rows.stream().map(TaskPatch::description).toArray(String[]::new)));
+            statement.setArray(5, connection.createArrayOf("uuid", rows.stream().map(TaskPatch::assignedTo).toArray(UUID[]::new)));
+            statement.setArray(6, connection.createArrayOf("varchar", rows.stream().map(TaskPatch::status).toArray(String[]::new)));
+            statement.setArray(7, connection.createArrayOf("date", rows.stream()
+                .map(row -> row.dueDate() != null ? Date.valueOf(row.dueDate()) : null)
+                .toArray(Date[]::new)));
+            return statement;
+        }, rs -> {
+            updated.add(rs.getObject("task_id", UUID.class));
+        });
+        return updated;
+    }
+
+    public record TaskPatch(
+        UUID taskId,
+        UUID projectId,
+        String title,
+        String description,
+        UUID assignedTo,
+        String status,
+        LocalDate dueDate
+    ) {
+    }
+}
@@ -1,16 +1,32 @@
 package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.TaskEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<TaskEntity, UUID> {
+public interface TaskRepository extends JpaRepository<TaskEntity, UUID>, JpaSpecificationExecutor<TaskEntity> {
 	List<TaskEntity> findByProjectId(UUID projectId);
 	List<TaskEntity> findByAssignedTo(UUID assignedTo);
 	List<TaskEntity> findByStatus(String status);
-}
 
+	/**
+	 * All rows in creation order, read through a server-side cursor; call inside a read-only
+	 * transaction and close the stream.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select t from TaskEntity t order by t.createdAt, t.taskId")
+	Stream<TaskEntity> streamAllForExport();
+}
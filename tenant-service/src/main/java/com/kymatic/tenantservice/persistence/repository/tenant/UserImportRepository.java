@@ -0,0 +1,136 @@
+package com.kymatic.tenantservice.persistence.repository.tenant;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk user import through a temporary staging table.
+ *
+ * Rows are streamed into the staging table with the COPY protocol as they are produced, then
+ * merged into users with one INSERT ... SELECT ... ON CONFLICT (email) DO NOTHING. Runs on the
+ * connection of the current transaction; the staging table is dropped on commit or rollback.
+ */
+@Repository
+public class UserImportRepository {
+
+    private static final String CREATE_STAGING_SQL = """
+        CREATE TEMP TABLE user_import_staging (
+            email VARCHAR(255) NOT NULL,
+            first_name VARCHAR(100),
+            last_name VARCHAR(100),
+            is_active BOOLEAN NOT NULL
+        ) ON COMMIT DROP
+        """;
+
+    private static final String COPY_SQL =
+        "COPY user_import_staging (email, first_name, last_name, is_active) FROM STDIN";
+
+    private static final String MERGE_SQL = """
+        INSERT INTO users (tenant_id, email, first_name, last_name, is_active)
+        SELECT ?, s.email, s.first_name, s.last_name, s.is_active
+        FROM user_import_staging s
+        ON CONFLICT (email) DO NOTHING
+        RETURNING email, user_id
+        """;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserImportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Stage every row and merge them into users. Emails must be unique among the rows; a row
+     * whose email already exists in users is skipped.
+     *
+     * @return ids of the inserted users by email
+     */
+    public Map<String, UUID> importUsers(String tenantId, Iterator<StagedUser> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, UUID>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            copy(connection.unwrap(PGConnection.class), rows);
+
+            Map<String, UUID> inserted = new LinkedHashMap<>();
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_SQL)) {
+                merge.setString(1, tenantId);
+                try (ResultSet rs = merge.executeQuery()) {
+                    while (rs.next()) {
+                        inserted.put(rs.getString(1), rs.getObject(2, UUID.class));
+                    }
+                }
+            }
+            return inserted;
+        });
+    }
+
+    private static void copy(PGConnection connection, Iterator<StagedUser> rows) throws SQLException {
+        CopyIn copy = connection.getCopyAPI().copyIn(COPY_SQL);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE + 1024);
+            StringBuilder line = new StringBuilder(256);
+            while (rows.hasNext()) {
+                StagedUser row = rows.next();
+                line.setLength(0);
+                appendText(line, row.email()).append('\t');
+                appendText(line, row.firstName()).append('\t');
+                appendText(line, row.lastName()).append('\t');
+                line.append(row.active() ? 't' : 'f').append('\n');
+                buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+                if (buffer.size() >= COPY_BUFFER_SIZE) {
+                    copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            if (buffer.size() > 0) {
+                copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * A value in COPY text format: \N for null, backslash escapes for the delimiters.
+     */
+    static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return line.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                default -> line.append(c);
+            }
+        }
+        return line;
+    }
+
+    public record StagedUser(String email, String firstName, String lastName, boolean active) {
+    }
+}
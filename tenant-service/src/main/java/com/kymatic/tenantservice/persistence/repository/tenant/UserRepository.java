@@ -1,18 +1,42 @@
 package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, UUID> {
+public interface UserRepository extends JpaRepository<UserEntity, UUID>, JpaSpecificationExecutor<UserEntity> {
 	Optional<UserEntity> findByEmail(String email);
 	// Note: Role is managed through RBAC system (user_roles table), not as a user property
 	// List<UserEntity> findByRole(String role);
 	List<UserEntity> findByIsActive(Boolean isActive);
-}
 
+	/**
+	 * All rows in creation order, read through a server-side cursor; call inside a read-only
+	 * transaction and close the stream.
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select u from UserEntity u order by u.createdAt, u.userId")
+	Stream<UserEntity> streamAllForExport();
+
+	/**
+	 * The ids among the given ones that exist, with one query.
+	 */
+	@Query("select u.userId from UserEntity u where u.userId in :ids")
+	List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+}
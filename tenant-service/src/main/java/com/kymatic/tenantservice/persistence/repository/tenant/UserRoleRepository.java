@@ -2,7 +2,12 @@ package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.UserRoleEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,5 +15,89 @@ import java.util.UUID;
 public interface UserRoleRepository extends JpaRepository<UserRoleEntity, UUID> {
     List<UserRoleEntity> findByTenantIdAndUserIdAndActiveTrue(String tenantId, UUID userId);
     Optional<UserRoleEntity> findByTenantIdAndUserIdAndRoleIdAndSiteId(String tenantId, UUID userId, UUID roleId, UUID siteId);
-}
 
+    /**
+     * Active, unexpired role assignments of every user of the tenant.
+     */
+    @Query("""
+        SELECT ur.userId AS userId, ur.roleId AS roleId, ur.siteId AS siteId, ur.expiresAt AS expiresAt
+        FROM UserRoleEntity ur
+        WHERE ur.tenantId = :tenantId AND ur.active = true
+            AND (ur.expiresAt IS NULL OR ur.expiresAt > :now)
+        """)
+    List<AssignmentRow> findActiveAssignments(@Param("tenantId") String tenantId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Deactivate the tenant's active role assignments whose expires_at has passed.
+     */
+    @Modifying
+    @Query("""
+        UPDATE UserRoleEntity ur SET ur.active = false
+        WHERE ur.tenantId = :tenantId AND ur.active = true AND ur.expiresAt <= :now
+        """)
+    int deactivateExpired(@Param("tenantId") String tenantId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Earliest expires_at among the tenant's active role assignments; null when none expire.
+     */
+    @Query("SELECT MIN(ur.expiresAt) FROM UserRoleEntity ur WHERE ur.tenantId = :tenantId AND ur.active = true")
+    OffsetDateTime findNextExpiry(@Param("tenantId") String tenantId);
+
+    /**
+     * Whether an active, unexpired assignment of an active role grants the permission globally
+     * or at one of siteIds (the site and the sites above it), the role's own permissions or those
+     * of a lower-level system role; the rules of the has_permission database function.
+     */
+    @Query("""
+        SELECT CASE WHEN COUNT(ur) > 0 THEN true ELSE false END
+        FROM UserRoleEntity ur
+        JOIN RoleEntity r ON r.roleId = ur.roleId
+        JOIN RoleEntity g ON g.tenantId = r.tenantId
+        JOIN RolePermissionEntity rp ON rp.roleId = g.roleId
+        JOIN PermissionEntity p ON p.permissionId = rp.permissionId AND p.tenantId = r.tenantId
+        WHERE ur.tenantId = :tenantId AND ur.userId = :userId AND p.permissionKey = :permissionKey
+            AND ur.active = true AND (ur.expiresAt IS NULL OR ur.expiresAt > :now)
+            AND (ur.siteId IS NULL OR ur.siteId IN :siteIds)
+            AND r.active = true AND r.deletedAt IS NULL
+            AND (g.roleId = r.roleId
+                OR (g.systemRole = true AND g.level < r.level AND g.active = true AND g.deletedAt IS NULL))
+        """)
+    boolean hasPermission(
+        @Param("tenantId") String tenantId,
+        @Param("userId") UUID userId,
+        @Param("siteIds") Collection<UUID> siteIds,
+        @Param("permissionKey") String permissionKey,
+        @Param("now") OffsetDateTime now);
+
+    /**
+     * Permission keys granted to the user globally or at one of siteIds, sorted; the rules of
+     * {@link #hasPermission} and the get_user_permissions database function.
+     */
+    @Query("""
+        SELECT DISTINCT p.permissionKey
+        FROM UserRoleEntity ur
+        JOIN RoleEntity r ON r.roleId = ur.roleId
+        JOIN RoleEntity g ON g.tenantId = r.tenantId
+        JOIN RolePermissionEntity rp ON rp.roleId = g.roleId
+        JOIN PermissionEntity p ON p.permissionId = rp.permissionId AND p.tenantId = r.tenantId
+        WHERE ur.tenantId = :tenantId AND ur.userId = :userId
+            AND ur.active = true AND (ur.expiresAt IS NULL OR ur.expiresAt > :now)
+            AND (ur.siteId IS NULL OR ur.siteId IN :siteIds)
+            AND r.active = true AND r.deletedAt IS NULL
+            AND (g.roleId = r.roleId
+                OR (g.systemRole = true AND g.level < r.level AND g.active = true AND g.deletedAt IS NULL))
+        ORDER BY p.permissionKey
+        """)
+    List<String> findPermissionKeys(
+        @Param("tenantId") String tenantId,
+        @Param("userId") UUID userId,
+        @Param("siteIds") Collection<UUID> siteIds,
+        @Param("now") OffsetDateTime now);
+
+    interface AssignmentRow {
+        UUID getUserId();
+        UUID getRoleId();
+        UUID getSiteId();
+        OffsetDateTime getExpiresAt();
+    }
+}
@@ -2,7 +2,12 @@ package com.kymatic.tenantservice.persistence.repository.tenant;
 
 import com.kymatic.tenantservice.persistence.entity.tenant.UserSiteAccessEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,5 +15,53 @@ import java.util.UUID;
 public interface UserSiteAccessRepository extends JpaRepository<UserSiteAccessEntity, UUID> {
     Optional<UserSiteAccessEntity> findByTenantIdAndUserIdAndSiteId(String tenantId, UUID userId, UUID siteId);
     List<UserSiteAccessEntity> findByTenantIdAndUserIdAndActiveTrue(String tenantId, UUID userId);
-}
 
+    /**
+     * Active, unexpired site access of every user of the tenant.
+     */
+    @Query("""
+        SELECT a.userId AS userId, a.siteId AS siteId, a.expiresAt AS expiresAt
+        FROM UserSiteAccessEntity a
+        WHERE a.tenantId = :tenantId AND a.active = true
+            AND (a.expiresAt IS NULL OR a.expiresAt > :now)
+        """)
+    List<SiteAccessRow> findActiveSiteAccess(@Param("tenantId") String tenantId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Deactivate the tenant's active site access grants whose expires_at has passed.
+     */
+    @Modifying
+    @Query("""
+        UPDATE UserSiteAccessEntity a SET a.active = false
+        WHERE a.tenantId = :tenantId AND a.active = true AND a.expiresAt <= :now
+        """)
+    int deactivateExpired(@Param("tenantId") String tenantId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Earliest expires_at among the tenant's active site access grants; null when none expire.
+     */
+    @Query("SELECT MIN(a.expiresAt) FROM UserSiteAccessEntity a WHERE a.tenantId = :tenantId AND a.active = true")
+    OffsetDateTime findNextExpiry(@Param("tenantId") String tenantId);
+
+    /**
+     * Whether the user has active, unexpired access to one of siteIds, e.g. a site and the sites
+     * above it.
+     */
+    @Query("""
+        SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END
+        FROM UserSiteAccessEntity a
+        WHERE a.tenantId = :tenantId AND a.userId = :userId AND a.siteId IN :siteIds
+            AND a.active = true AND (a.expiresAt IS NULL OR a.expiresAt > :now)
+        """)
+    boolean hasActiveAccess(
+        @Param("tenantId") String tenantId,
+        @Param("userId") UUID userId,
+        @Param("siteIds") Collection<UUID> siteIds,
+        @Param("now") OffsetDateTime now);
+
+    interface SiteAccessRow {
+        UUID getUserId();
+        UUID getSiteId();
+        OffsetDateTime getExpiresAt();
+    }
+}
@@ -1,13 +1,21 @@
 package com.kymatic.tenantservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.activity.AuditEvent;
+import com.kymatic.tenantservice.activity.AuditLogWriter;
 import com.kymatic.tenantservice.dto.AuditLogResponse;
 import com.kymatic.tenantservice.persistence.entity.TenantAuditLogEntity;
 import com.kymatic.tenantservice.persistence.repository.TenantAuditLogRepository;
+import com.kymatic.tenantservice.service.tenant.KeysetPagination;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -16,38 +24,59 @@ import java.util.stream.Collectors;
 public class AuditLogService {
 
 	private final TenantAuditLogRepository auditLogRepository;
+	private final AuditLogWriter auditLogWriter;
+	private final ObjectMapper objectMapper;
 
-	public AuditLogService(TenantAuditLogRepository auditLogRepository) {
+	public AuditLogService(TenantAuditLogRepository auditLogRepository, AuditLogWriter auditLogWriter, ObjectMapper objectMapper) {
 		this.auditLogRepository = auditLogRepository;
+		this.auditLogWriter = auditLogWriter;
+		this.objectMapper = objectMapper;
 	}
 
-	@Transactional
+	/**
+	 * Audit an action on a tenant, performed by the current principal when its name is a user ID.
+	 */
+	public void logAction(UUID tenantId, String action, Object details) {
+		logAction(tenantId, action, currentPrincipalId(), details);
+	}
+
+	/**
+	 * Audit an action on a tenant. The details are serialized to the details JSON and the row is
+	 * inserted by {@link AuditLogWriter} off the calling thread, after the caller's transaction
+	 * commits; details must not be changed afterwards. With the writer disabled, the row is written
+	 * before returning.
+	 */
 	public void logAction(UUID tenantId, String action, UUID performedBy, Object details) {
+		if (auditLogWriter.isEnabled()) {
+			auditLogWriter.record(new AuditEvent(tenantId, action, performedBy, details, OffsetDateTime.now()));
+			return;
+		}
 		TenantAuditLogEntity entity = new TenantAuditLogEntity();
 		entity.setTenantId(tenantId);
 		entity.setAction(action);
 		entity.setPerformedBy(performedBy);
-		// Convert details to JsonNode if needed
-		if (details != null) {
-			// This would need Jackson ObjectMapper to convert to JsonNode
-			// For now, we'll leave it as null and handle it in the controller
-		}
+		entity.setDetails(details != null ? objectMapper.valueToTree(details) : null);
 		auditLogRepository.save(entity);
 	}
 
-	public List<AuditLogResponse> getAuditLogsByTenant(UUID tenantId) {
-		return auditLogRepository.findByTenantId(tenantId).stream()
+	/**
+	 * Audit logs of one tenant, newest first. tenant_audit_log is partitioned by month on
+	 * created_at, so bounding the range limits the scan to the partitions it covers.
+	 */
+	public List<AuditLogResponse> getAuditLogsByTenant(UUID tenantId, OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+		return auditLogRepository.findAll(filter(tenantId, null, createdFrom, createdTo), KeysetPagination.sort("logId")).stream()
 			.map(this::toResponse)
 			.collect(Collectors.toList());
 	}
 
-	public Page<AuditLogResponse> getAuditLogsByTenant(UUID tenantId, Pageable pageable) {
-		return auditLogRepository.findByTenantId(tenantId, pageable)
+	public Page<AuditLogResponse> getAuditLogsByTenant(UUID tenantId, OffsetDateTime createdFrom, OffsetDateTime createdTo, Pageable pageable) {
+		Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), KeysetPagination.sort("logId"));
+		return auditLogRepository.findAll(filter(tenantId, null, createdFrom, createdTo), sorted)
 			.map(this::toResponse);
 	}
 
-	public List<AuditLogResponse> getAuditLogsByAction(UUID tenantId, String action) {
-		return auditLogRepository.findByTenantIdAndAction(tenantId, action).stream()
+	public List<AuditLogResponse> getAuditLogsByAction(UUID tenantId, String action, OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+		return auditLogRepository.findAll(filter(tenantId, action, createdFrom, createdTo), KeysetPagination.sort("logId")).stream()
 			.map(this::toResponse)
 			.collect(Collectors.toList());
 	}
@@ -58,6 +87,25 @@ public class AuditLogService {
 		return toResponse(entity);
 	}
 
+	private static Specification<TenantAuditLogEntity> filter(UUID tenantId, String action, OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+		return Specification.allOf(
+			KeysetPagination.equalTo("tenantId", tenantId),
+			KeysetPagination.equalTo("action", action),
+			KeysetPagination.createdBetween(createdFrom, createdTo));
+	}
+
+	private static UUID currentPrincipalId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || !authentication.isAuthenticated()) {
+			return null;
+		}
+		try {
+			return UUID.fromString(authentication.getName());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	private AuditLogResponse toResponse(TenantAuditLogEntity entity) {
 		return new AuditLogResponse(
 			entity.getLogId(),
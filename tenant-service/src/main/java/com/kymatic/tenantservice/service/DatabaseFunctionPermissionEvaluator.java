@@ -0,0 +1,42 @@
+package com.kymatic.tenantservice.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link PermissionEvaluator} calling the PL/pgSQL functions has_permission, can_access_site and
+ * get_user_permissions (db/tenant, with inheritance since V8) on the tenant's database.
+ *
+ * The functions see one tenant database or schema, so tenantId only selects the connection
+ * through the routing data source.
+ */
+public class DatabaseFunctionPermissionEvaluator implements PermissionEvaluator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseFunctionPermissionEvaluator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public boolean hasPermission(String tenantId, UUID userId, UUID siteId, String permissionKey) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT has_permission(?::uuid, ?::varchar, ?::uuid)", Boolean.class, userId, permissionKey, siteId));
+    }
+
+    @Override
+    public boolean canAccessSite(String tenantId, UUID userId, UUID siteId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT can_access_site(?::uuid, ?::uuid)", Boolean.class, userId, siteId));
+    }
+
+    @Override
+    public List<String> permissionKeys(String tenantId, UUID userId, UUID siteId) {
+        return jdbcTemplate.queryForList(
+            "SELECT permission_key FROM get_user_permissions(?::uuid, ?::uuid) ORDER BY permission_key",
+            String.class, userId, siteId);
+    }
+}
@@ -0,0 +1,599 @@
+package com.kymatic.tenantservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kymatic.tenantservice.cache.CacheInvalidationBus;
+import com.kymatic.tenantservice.cache.CacheInvalidationEvent;
+import com.kymatic.tenantservice.cache.CacheInvalidationHandler;
+import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository.RolePermissionKeyRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * In-memory index of the effective permissions and site access of every user, per tenant.
+ *
+ * This index:
+ * - Interns the tenant's permission keys to bit positions and keeps, per user, a bitset for the
+ *   global roles and one per site (global roles OR'ed in), so a check is two hash lookups and a
+ *   bit test
+ * - Materializes two inheritance closures: a role inherits the permissions of every active
+ *   system role with a lower roles.level, and a role or site access granted at a site also
+ *   applies at the sites below it in the department hierarchy (departments.parent_department_id)
+ * - Is built for a tenant on first use from four bulk queries (roles with their permission keys,
+ *   active assignments, site access and department site links) and rebuilt after
+ *   tenant.cache.permissions.ttl
+ * - Honours user_roles.expires_at and user_site_access.expires_at: each user's bitsets are valid
+ *   until the earliest expiry among their grants and are recomputed on the first check after it
+ * - Is updated in place after commit when roles are created or assigned and site access is
+ *   granted, and dropped on the other replicas through the {@link CacheInvalidationBus}
+ *
+ * Published bitsets are never modified; updates swap in new arrays, so readers need no locks.
+ */
+@Component
+public class EffectivePermissionIndex implements CacheInvalidationHandler {
+
+    public static final String CACHE_NAME = "effective-permissions";
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Cache<String, TenantIndex> indexes;
+    private final BiFunction<String, OffsetDateTime, Snapshot> loader;
+    private final CacheInvalidationBus invalidationBus;
+    private final Clock clock;
+
+    @Autowired
+    public EffectivePermissionIndex(
+        RoleRepository roleRepository,
+        UserRoleRepository userRoleRepository,
+        UserSiteAccessRepository userSiteAccessRepository,
+        SiteRepository siteRepository,
+        CacheInvalidationBus invalidationBus,
+        MeterRegistry meterRegistry,
+        @Value("${tenant.cache.permissions.maximum-tenants:1000}") long maximumTenants,
+        @Value("${tenant.cache.permissions.ttl:10m}") Duration ttl
+    ) {
+        this((tenantId, now) -> new Snapshot(
+                roleDefinitions(roleRepository.findWithPermissionKeys(tenantId)),
+                userRoleRepository.findActiveAssignments(tenantId, now).stream()
+                    .map(row -> new Assignment(row.getUserId(), row.getRoleId(), row.getSiteId(), row.getExpiresAt()))
+                    .toList(),
+                userSiteAccessRepository.findActiveSiteAccess(tenantId, now).stream()
+                    .map(row -> new SiteAccess(row.getUserId(), row.getSiteId(), row.getExpiresAt()))
+                    .toList(),
+                siteRepository.findDepartmentSiteLinks(tenantId).stream()
+                    .map(row -> new SiteLink(row.getSiteId(), row.getParentSiteId()))
+                    .toList()),
+            invalidationBus, meterRegistry, maximumTenants, ttl, Clock.systemUTC());
+    }
+
+    EffectivePermissionIndex(
+        BiFunction<String, OffsetDateTime, Snapshot> loader,
+        CacheInvalidationBus invalidationBus,
+        MeterRegistry meterRegistry,
+        long maximumTenants,
+        Duration ttl,
+        Clock clock
+    ) {
+        this.loader = loader;
+        this.invalidationBus = invalidationBus;
+        this.clock = clock;
+        this.indexes = Caffeine.newBuilder()
+            .maximumSize(maximumTenants)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, indexes, CACHE_NAME);
+        }
+    }
+
+    /**
+     * Whether one of the user's roles, directly or by inheritance, grants the permission globally
+     * or, when siteId is given, at that site. Builds the tenant's index on first use, so call it
+     * inside a tenant transaction.
+     */
+    public boolean hasPermission(String tenantId, UUID userId, UUID siteId, String permissionKey) {
+        return index(tenantId).hasPermission(userId, siteId, permissionKey, clock.millis());
+    }
+
+    /**
+     * Whether the user has active, unexpired access to the site or to a site above it.
+     */
+    public boolean canAccessSite(String tenantId, UUID userId, UUID siteId) {
+        return index(tenantId).canAccessSite(userId, siteId, clock.millis());
+    }
+
+    /**
+     * The user's effective permission keys, sorted.
+     */
+    public List<String> permissionKeys(String tenantId, UUID userId, UUID siteId) {
+        return index(tenantId).permissionKeys(userId, siteId, clock.millis());
+    }
+
+    /**
+     * Record a new role once the creating transaction commits. A new system role extends the
+     * closure of every higher-level role and the users holding them.
+     */
+    public void roleCreated(String tenantId, UUID roleId, int level, boolean systemRole, Collection<String> permissionKeys) {
+        RoleDefinition role = new RoleDefinition(roleId, level, systemRole, List.copyOf(permissionKeys));
+        afterCommit(tenantId, index -> {
+            index.defineRole(role, clock.millis());
+            return true;
+        });
+    }
+
+    /**
+     * Add a role to the user's bitsets once the assigning transaction commits. A role the index
+     * does not know (created on another replica since the build) drops the tenant's index instead.
+     */
+    public void roleAssigned(String tenantId, UUID userId, UUID roleId, UUID siteId, OffsetDateTime expiresAt) {
+        Grant grant = new Grant(roleId, siteId, toMillis(expiresAt));
+        afterCommit(tenantId, index -> index.grantRole(userId, grant, clock.millis()));
+    }
+
+    /**
+     * Record the user's access to a site once the granting transaction commits.
+     */
+    public void siteAccessGranted(String tenantId, UUID userId, UUID siteId, OffsetDateTime expiresAt) {
+        afterCommit(tenantId, index -> {
+            index.grantSiteAccess(userId, siteId, toMillis(expiresAt), clock.millis());
+            return true;
+        });
+    }
+
+    /**
+     * Drop the tenant's index after a change the index cannot apply incrementally, e.g. a bulk
+     * assignment. Repeated after commit, so a concurrent rebuild cannot keep pre-commit rows.
+     */
+    public void invalidate(String tenantId) {
+        indexes.invalidate(tenantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexes.invalidate(tenantId);
+                }
+            });
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publish(new CacheInvalidationEvent(CACHE_NAME, tenantId, null));
+        }
+    }
+
+    @Override
+    public void evict(CacheInvalidationEvent event) {
+        if (!CACHE_NAME.equals(event.cache())) {
+            return;
+        }
+        if (event.tenant() == null) {
+            indexes.invalidateAll();
+        } else {
+            indexes.invalidate(event.tenant());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        indexes.invalidateAll();
+    }
+
+    private TenantIndex index(String tenantId) {
+        return indexes.get(tenantId, id -> TenantIndex.build(loader.apply(id, OffsetDateTime.now(clock)), clock.millis()));
+    }
+
+    /**
+     * Apply an update to the tenant's index after commit; an index that is not loaded is left
+     * to be built from the committed rows. An update returning false drops the index.
+     */
+    private void afterCommit(String tenantId, Function<TenantIndex, Boolean> update) {
+        Runnable apply = () -> indexes.asMap().computeIfPresent(tenantId,
+            (id, index) -> update.apply(index) ? index : null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publish(new CacheInvalidationEvent(CACHE_NAME, tenantId, null));
+        }
+    }
+
+    /**
+     * Active roles with their permission keys, from one row per (role, permission key).
+     */
+    private static List<RoleDefinition> roleDefinitions(List<RolePermissionKeyRow> rows) {
+        Map<UUID, RoleEntity> roles = new LinkedHashMap<>();
+        Map<UUID, List<String>> keys = new HashMap<>();
+        for (RolePermissionKeyRow row : rows) {
+            RoleEntity role = row.getRole();
+            if (!Boolean.TRUE.equals(role.getActive())) {
+                continue;
+            }
+            roles.putIfAbsent(role.getRoleId(), role);
+            List<String> roleKeys = keys.computeIfAbsent(role.getRoleId(), id -> new ArrayList<>());
+            if (row.getPermissionKey() != null) {
+                roleKeys.add(row.getPermissionKey());
+            }
+        }
+        return roles.values().stream()
+            .map(role -> new RoleDefinition(role.getRoleId(), role.getLevel() != null ? role.getLevel() : 0,
+                Boolean.TRUE.equals(role.getSystemRole()), keys.get(role.getRoleId())))
+            .toList();
+    }
+
+    private static long toMillis(OffsetDateTime expiresAt) {
+        return expiresAt != null ? expiresAt.toInstant().toEpochMilli() : NEVER;
+    }
+
+    /**
+     * Rows an index is built from.
+     */
+    record Snapshot(
+        List<RoleDefinition> roles,
+        List<Assignment> assignments,
+        List<SiteAccess> siteAccess,
+        List<SiteLink> siteLinks
+    ) {
+    }
+
+    record RoleDefinition(UUID roleId, int level, boolean systemRole, List<String> permissionKeys) {
+    }
+
+    record Assignment(UUID userId, UUID roleId, UUID siteId, OffsetDateTime expiresAt) {
+    }
+
+    record SiteAccess(UUID userId, UUID siteId, OffsetDateTime expiresAt) {
+    }
+
+    /**
+     * Grants at parentSiteId also apply at siteId.
+     */
+    record SiteLink(UUID siteId, UUID parentSiteId) {
+    }
+
+    /**
+     * Effective permissions of one tenant.
+     */
+    static final class TenantIndex {
+
+        private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+        private volatile String[] keys = new String[0];
+        private final Map<UUID, RoleNode> roleNodes = new ConcurrentHashMap<>();
+        private final Map<UUID, long[]> roles = new ConcurrentHashMap<>();
+        private final Map<UUID, UserBits> users = new ConcurrentHashMap<>();
+        private final Map<UUID, Set<UUID>> sitesBelow;
+
+        private TenantIndex(Map<UUID, Set<UUID>> sitesBelow) {
+            this.sitesBelow = sitesBelow;
+        }
+
+        static TenantIndex build(Snapshot snapshot, long now) {
+            TenantIndex index = new TenantIndex(siteClosure(snapshot.siteLinks()));
+            for (RoleDefinition role : snapshot.roles()) {
+                index.roleNodes.put(role.roleId(), index.node(role));
+            }
+            index.closeRoles();
+
+            Map<UUID, List<Grant>> grants = new HashMap<>();
+            for (Assignment assignment : snapshot.assignments()) {
+                grants.computeIfAbsent(assignment.userId(), id -> new ArrayList<>())
+                    .add(new Grant(assignment.roleId(), assignment.siteId(), toMillis(assignment.expiresAt())));
+            }
+            Map<UUID, Map<UUID, Long>> siteAccess = new HashMap<>();
+            for (SiteAccess access : snapshot.siteAccess()) {
+                siteAccess.computeIfAbsent(access.userId(), id -> new HashMap<>())
+                    .put(access.siteId(), toMillis(access.expiresAt()));
+            }
+            Set<UUID> userIds = new HashSet<>(grants.keySet());
+            userIds.addAll(siteAccess.keySet());
+            for (UUID userId : userIds) {
+                index.users.put(userId, UserBits.compute(grants.getOrDefault(userId, List.of()),
+                    siteAccess.getOrDefault(userId, Map.of()), index, now));
+            }
+            return index;
+        }
+
+        boolean hasPermission(UUID userId, UUID siteId, String permissionKey, long now) {
+            Integer bit = bits.get(permissionKey);
+            if (bit == null) {
+                return false;
+            }
+            UserBits user = user(userId, now);
+            return user != null && test(user.bitsFor(siteId), bit);
+        }
+
+        boolean canAccessSite(UUID userId, UUID siteId, long now) {
+            UserBits user = user(userId, now);
+            return user != null && user.accessibleSites().contains(siteId);
+        }
+
+        List<String> permissionKeys(UUID userId, UUID siteId, long now) {
+            UserBits user = user(userId, now);
+            if (user == null) {
+                return List.of();
+            }
+            long[] userBits = user.bitsFor(siteId);
+            String[] names = keys;
+            List<String> result = new ArrayList<>();
+            for (int word = 0; word < userBits.length; word++) {
+                long remaining = userBits[word];
+                while (remaining != 0) {
+                    result.add(names[word * Long.SIZE + Long.numberOfTrailingZeros(remaining)]);
+                    remaining &= remaining - 1;
+                }
+            }
+            result.sort(null);
+            return result;
+        }
+
+        /**
+         * Add a role. A system role is inherited by the higher-level roles, so their closures
+         * and the bitsets of the users holding them are recomputed.
+         */
+        void defineRole(RoleDefinition role, long now) {
+            RoleNode node = node(role);
+            roleNodes.put(role.roleId(), node);
+            long[] closed = node.direct();
+            for (RoleNode other : roleNodes.values()) {
+                if (other.systemRole() && other.level() < node.level()) {
+                    closed = or(closed, other.direct());
+                }
+            }
+            roles.put(role.roleId(), closed);
+            if (!node.systemRole()) {
+                return;
+            }
+            Set<UUID> affected = new HashSet<>();
+            for (RoleNode other : roleNodes.values()) {
+                if (other.level() > node.level()) {
+                    roles.computeIfPresent(other.roleId(), (id, bits) -> or(bits, node.direct()));
+                    affected.add(other.roleId());
+                }
+            }
+            for (Map.Entry<UUID, UserBits> entry : users.entrySet()) {
+                if (entry.getValue().grants().stream().anyMatch(grant -> affected.contains(grant.roleId()))) {
+                    users.computeIfPresent(entry.getKey(), (id, current) ->
+                        UserBits.compute(current.grants(), current.siteAccess(), this, now));
+                }
+            }
+        }
+
+        boolean grantRole(UUID userId, Grant grant, long now) {
+            if (!roles.containsKey(grant.roleId())) {
+                return false;
+            }
+            users.compute(userId, (id, current) -> {
+                UserBits user = current != null ? current : UserBits.NONE;
+                List<Grant> grants = new ArrayList<>(user.grants());
+                grants.removeIf(existing -> existing.roleId().equals(grant.roleId())
+                    && Objects.equals(existing.siteId(), grant.siteId()));
+                grants.add(grant);
+                return UserBits.compute(grants, user.siteAccess(), this, now);
+            });
+            return true;
+        }
+
+        void grantSiteAccess(UUID userId, UUID siteId, long expiresAt, long now) {
+            users.compute(userId, (id, current) -> {
+                UserBits user = current != null ? current : UserBits.NONE;
+                Map<UUID, Long> siteAccess = new HashMap<>(user.siteAccess());
+                siteAccess.put(siteId, expiresAt);
+                return UserBits.compute(user.grants(), siteAccess, this, now);
+            });
+        }
+
+        /**
+         * The site and every site below it in the department hierarchy.
+         */
+        Set<UUID> siteScope(UUID siteId) {
+            return sitesBelow.getOrDefault(siteId, Set.of(siteId));
+        }
+
+        /**
+         * The user's bitsets, recomputed without the expired grants once one of them expired.
+         */
+        private UserBits user(UUID userId, long now) {
+            UserBits user = users.get(userId);
+            if (user != null && user.validUntil() <= now) {
+                user = users.computeIfPresent(userId, (id, current) -> current.validUntil() <= now
+                    ? UserBits.compute(current.grants(), current.siteAccess(), this, now)
+                    : current);
+            }
+            return user;
+        }
+
+        private RoleNode node(RoleDefinition role) {
+            long[] direct = UserBits.EMPTY;
+            for (String key : role.permissionKeys()) {
+                direct = set(direct, intern(key));
+            }
+            return new RoleNode(role.roleId(), role.level(), role.systemRole(), direct);
+        }
+
+        /**
+         * Closed bitset of every role: its own permissions plus those of the lower-level system roles.
+         */
+        private void closeRoles() {
+            List<RoleNode> systemRoles = roleNodes.values().stream()
+                .filter(RoleNode::systemRole)
+                .toList();
+            for (RoleNode role : roleNodes.values()) {
+                long[] closed = role.direct();
+                for (RoleNode systemRole : systemRoles) {
+                    if (systemRole.level() < role.level()) {
+                        closed = or(closed, systemRole.direct());
+                    }
+                }
+                roles.put(role.roleId(), closed);
+            }
+        }
+
+        /**
+         * For every site with sites below it, the site itself and all its descendants. The
+         * department hierarchy may link sites in a cycle; every site is visited once.
+         */
+        private static Map<UUID, Set<UUID>> siteClosure(List<SiteLink> links) {
+            Map<UUID, Set<UUID>> children = new HashMap<>();
+            for (SiteLink link : links) {
+                children.computeIfAbsent(link.parentSiteId(), id -> new HashSet<>()).add(link.siteId());
+            }
+            Map<UUID, Set<UUID>> closure = new HashMap<>();
+            for (UUID root : children.keySet()) {
+                Set<UUID> reached = new HashSet<>();
+                reached.add(root);
+                Deque<UUID> pending = new ArrayDeque<>(children.get(root));
+                while (!pending.isEmpty()) {
+                    UUID site = pending.pop();
+                    if (reached.add(site)) {
+                        pending.addAll(children.getOrDefault(site, Set.of()));
+                    }
+                }
+                closure.put(root, Set.copyOf(reached));
+            }
+            return closure;
+        }
+
+        private synchronized int intern(String key) {
+            Integer bit = bits.get(key);
+            if (bit != null) {
+                return bit;
+            }
+            String[] grown = Arrays.copyOf(keys, keys.length + 1);
+            grown[keys.length] = key;
+            keys = grown;
+            bits.put(key, keys.length - 1);
+            return keys.length - 1;
+        }
+    }
+
+    /**
+     * A role with its direct permission bits.
+     */
+    record RoleNode(UUID roleId, int level, boolean systemRole, long[] direct) {
+    }
+
+    /**
+     * A role assignment, global when siteId is null; expiresAt in epoch millis.
+     */
+    record Grant(UUID roleId, UUID siteId, long expiresAt) {
+    }
+
+    /**
+     * Bitsets of one user, computed from the unexpired grants and site access: global roles, and
+     * per site the global roles plus the roles granted at that site or a site above it.
+     * Valid until the earliest expiry.
+     */
+    record UserBits(
+        List<Grant> grants,
+        Map<UUID, Long> siteAccess,
+        long[] global,
+        Map<UUID, long[]> sites,
+        Set<UUID> accessibleSites,
+        long validUntil
+    ) {
+
+        static final long[] EMPTY = new long[0];
+        static final UserBits NONE = new UserBits(List.of(), Map.of(), EMPTY, Map.of(), Set.of(), NEVER);
+
+        static UserBits compute(List<Grant> grants, Map<UUID, Long> siteAccess, TenantIndex index, long now) {
+            long validUntil = NEVER;
+            List<Grant> live = new ArrayList<>(grants.size());
+            long[] global = EMPTY;
+            Map<UUID, long[]> sites = new HashMap<>();
+            for (Grant grant : grants) {
+                long[] roleBits = index.roles.get(grant.roleId());
+                if (grant.expiresAt() <= now || roleBits == null) {
+                    continue;
+                }
+                live.add(grant);
+                validUntil = Math.min(validUntil, grant.expiresAt());
+                if (grant.siteId() == null) {
+                    global = or(global, roleBits);
+                } else {
+                    for (UUID site : index.siteScope(grant.siteId())) {
+                        sites.merge(site, roleBits, EffectivePermissionIndex::or);
+                    }
+                }
+            }
+            long[] globalBits = global;
+            sites.replaceAll((siteId, siteBits) -> or(globalBits, siteBits));
+
+            Map<UUID, Long> liveAccess = new HashMap<>();
+            Set<UUID> accessible = new HashSet<>();
+            for (Map.Entry<UUID, Long> access : siteAccess.entrySet()) {
+                if (access.getValue() > now) {
+                    liveAccess.put(access.getKey(), access.getValue());
+                    accessible.addAll(index.siteScope(access.getKey()));
+                    validUntil = Math.min(validUntil, access.getValue());
+                }
+            }
+            return new UserBits(List.copyOf(live), Map.copyOf(liveAccess), global, Map.copyOf(sites),
+                Set.copyOf(accessible), validUntil);
+        }
+
+        long[] bitsFor(UUID siteId) {
+            if (siteId != null) {
+                long[] site = sites.get(siteId);
+                if (site != null) {
+                    return site;
+                }
+            }
+            return global;
+        }
+    }
+
+    static boolean test(long[] bitset, int bit) {
+        int word = bit >>> 6;
+        return word < bitset.length && (bitset[word] & (1L << bit)) != 0;
+    }
+
+    static long[] set(long[] bitset, int bit) {
+        long[] result = Arrays.copyOf(bitset, Math.max(bitset.length, (bit >>> 6) + 1));
+        result[bit >>> 6] |= 1L << bit;
+        return result;
+    }
+
+    static long[] or(long[] left, long[] right) {
+        long[] result = Arrays.copyOf(left.length >= right.length ? left : right, Math.max(left.length, right.length));
+        long[] shorter = left.length >= right.length ? right : left;
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] |= shorter[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,260 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.config.TenantDataSourceProvider;
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deactivates temporary role assignments and site access when their expires_at passes.
+ *
+ * This scheduler:
+ * - Keeps one deadline per tenant, the earliest expires_at among its active grants, in the delay
+ *   queue of a small scheduled pool; a tenant without temporary grants costs nothing
+ * - Learns deadlines from the grants written by this replica (after commit) and, once on startup,
+ *   from up to tenant.grants.expiry.startup-max-tenants active tenants, most recently active first,
+ *   with their first checks spread evenly over tenant.grants.expiry.startup-spread
+ * - At a deadline, sets is_active = false on the tenant's expired grants in one update per table,
+ *   drops the tenant's {@link EffectivePermissionIndex} and schedules the tenant's next expiry
+ * - Runs each check under a {@link TenantDataSourceProvider#lease}, so a pool the check had to open
+ *   is closed again unless a request started using it, and checks hold at most
+ *   tenant.grants.expiry.concurrency pools of the tenant connection budget
+ * - Retries a failed tenant after tenant.grants.expiry.retry-delay
+ *
+ * Deactivation is idempotent, so replicas scheduling the same tenant do not conflict. Permission
+ * checks filter on expires_at themselves and do not wait for the update.
+ */
+@Component
+public class GrantExpiryScheduler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrantExpiryScheduler.class);
+
+    private final UserRoleRepository userRoleRepository;
+    private final UserSiteAccessRepository userSiteAccessRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final TenantDataSourceProvider dataSourceProvider;
+    private final EffectivePermissionIndex permissionIndex;
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final int startupMaxTenants;
+    private final Duration startupSpread;
+    private final Duration retryDelay;
+    private final Clock clock;
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    @Autowired
+    public GrantExpiryScheduler(
+        UserRoleRepository userRoleRepository,
+        UserSiteAccessRepository userSiteAccessRepository,
+        TenantRepository tenantRepository,
+        TenantIdentifierResolver tenantIdentifierResolver,
+        TenantDataSourceProvider dataSourceProvider,
+        EffectivePermissionIndex permissionIndex,
+        PlatformTransactionManager transactionManager,
+        @Value("${tenant.grants.expiry.enabled:true}") boolean enabled,
+        @Value("${tenant.grants.expiry.concurrency:2}") int concurrency,
+        @Value("${tenant.grants.expiry.startup-max-tenants:10000}") int startupMaxTenants,
+        @Value("${tenant.grants.expiry.startup-spread:30m}") Duration startupSpread,
+        @Value("${tenant.grants.expiry.retry-delay:1m}") Duration retryDelay
+    ) {
+        this(userRoleRepository, userSiteAccessRepository, tenantRepository, tenantIdentifierResolver, dataSourceProvider,
+            permissionIndex, transactionManager, enabled, concurrency, startupMaxTenants, startupSpread, retryDelay,
+            Clock.systemUTC());
+    }
+
+    GrantExpiryScheduler(
+        UserRoleRepository userRoleRepository,
+        UserSiteAccessRepository userSiteAccessRepository,
+        TenantRepository tenantRepository,
+        TenantIdentifierResolver tenantIdentifierResolver,
+        TenantDataSourceProvider dataSourceProvider,
+        EffectivePermissionIndex permissionIndex,
+        PlatformTransactionManager transactionManager,
+        boolean enabled,
+        int concurrency,
+        int startupMaxTenants,
+        Duration startupSpread,
+        Duration retryDelay,
+        Clock clock
+    ) {
+        this.userRoleRepository = userRoleRepository;
+        this.userSiteAccessRepository = userSiteAccessRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantIdentifierResolver = tenantIdentifierResolver;
+        this.dataSourceProvider = dataSourceProvider;
+        this.permissionIndex = permissionIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.startupMaxTenants = startupMaxTenants;
+        this.startupSpread = startupSpread;
+        this.retryDelay = retryDelay;
+        this.clock = clock;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.timer = new ScheduledThreadPoolExecutor(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "grant-expiry-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Schedule the tenant's grant expiry check for expiresAt, unless an earlier one is pending.
+     * Inside a transaction the deadline is registered after commit, so the check sees the grant.
+     */
+    public void schedule(String tenantId, OffsetDateTime expiresAt) {
+        if (!enabled || expiresAt == null) {
+            return;
+        }
+        long dueAt = expiresAt.toInstant().toEpochMilli();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleAt(tenantId, dueAt);
+                }
+            });
+        } else {
+            scheduleAt(tenantId, dueAt);
+        }
+    }
+
+    /**
+     * Check every active tenant once after startup to pick up grants written before it. The
+     * checks are spread evenly over the startup spread instead of all falling due at once.
+     * Runs on the scheduler threads, so startup is not blocked.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleActiveTenants() {
+        if (!enabled) {
+            logger.info("Grant expiry scheduling is disabled");
+            return;
+        }
+        timer.execute(() -> {
+            try {
+                List<TenantEntity> tenants = tenantRepository.findActiveOrderByRecentActivity(startupMaxTenants);
+                logger.info("Checking grant expiry for {} tenant(s) over {}", tenants.size(), startupSpread);
+                long start = clock.millis();
+                long step = tenants.isEmpty() ? 0 : startupSpread.toMillis() / tenants.size();
+                for (int i = 0; i < tenants.size(); i++) {
+                    scheduleAt(tenants.get(i).getTenantId().toString(), start + i * step);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to load tenants for grant expiry", e);
+            }
+        });
+    }
+
+    /**
+     * Number of tenants with a pending expiry check.
+     */
+    public int pendingTenants() {
+        return deadlines.size();
+    }
+
+    /**
+     * Epoch millis of the tenant's pending expiry check, or null.
+     */
+    Long deadline(String tenantId) {
+        Deadline deadline = deadlines.get(tenantId);
+        return deadline != null ? deadline.dueAt() : null;
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    private void scheduleAt(String tenantId, long dueAt) {
+        deadlines.compute(tenantId, (id, current) -> {
+            if (current != null && current.dueAt() <= dueAt) {
+                return current;
+            }
+            if (current != null) {
+                current.task().cancel(false);
+            }
+            long delay = Math.max(0, dueAt - clock.millis());
+            return new Deadline(dueAt, timer.schedule(() -> expire(id, dueAt), delay, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    private void expire(String tenantId, long dueAt) {
+        deadlines.computeIfPresent(tenantId, (id, current) -> current.dueAt() == dueAt ? null : current);
+        OffsetDateTime next;
+        try {
+            next = deactivateExpired(tenantId);
+        } catch (Exception e) {
+            logger.warn("Failed to expire grants for tenant {}, retrying in {}: {}",
+                tenantId, retryDelay, e.getMessage());
+            scheduleAt(tenantId, clock.millis() + retryDelay.toMillis());
+            return;
+        }
+        if (next != null) {
+            scheduleAt(tenantId, next.toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * Deactivate the tenant's expired grants and return the next expiry, if any.
+     */
+    private OffsetDateTime deactivateExpired(String tenantId) {
+        // Resolve while no tenant is set so the lookup goes to the master database
+        TenantEntity tenant = tenantIdentifierResolver.resolveTenantEntity(tenantId);
+        TenantDataSourceProvider.Lease lease = dataSourceProvider.lease(tenant.getDatabaseName());
+        TenantContext.setTenant(tenantId, TenantRoutingHandle.of(tenant));
+        try {
+            return transaction.execute(status -> {
+                OffsetDateTime now = OffsetDateTime.now(clock);
+                int roles = userRoleRepository.deactivateExpired(tenantId, now);
+                int siteAccess = userSiteAccessRepository.deactivateExpired(tenantId, now);
+                if (roles + siteAccess > 0) {
+                    permissionIndex.invalidate(tenantId);
+                    logger.debug("Expired {} role assignment(s) and {} site access grant(s) for tenant {}",
+                        roles, siteAccess, tenantId);
+                }
+                return earliest(userRoleRepository.findNextExpiry(tenantId),
+                    userSiteAccessRepository.findNextExpiry(tenantId));
+            });
+        } finally {
+            TenantContext.clear();
+            lease.close();
+        }
+    }
+
+    private static OffsetDateTime earliest(OffsetDateTime left, OffsetDateTime right) {
+        if (left == null) {
+            return right;
+        }
+        return right == null || left.isBefore(right) ? left : right;
+    }
+
+    private record Deadline(long dueAt, ScheduledFuture<?> task) {
+    }
+}
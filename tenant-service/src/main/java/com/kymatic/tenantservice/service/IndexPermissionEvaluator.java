@@ -0,0 +1,31 @@
+package com.kymatic.tenantservice.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link PermissionEvaluator} served from the {@link EffectivePermissionIndex}.
+ */
+public class IndexPermissionEvaluator implements PermissionEvaluator {
+
+    private final EffectivePermissionIndex index;
+
+    public IndexPermissionEvaluator(EffectivePermissionIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public boolean hasPermission(String tenantId, UUID userId, UUID siteId, String permissionKey) {
+        return index.hasPermission(tenantId, userId, siteId, permissionKey);
+    }
+
+    @Override
+    public boolean canAccessSite(String tenantId, UUID userId, UUID siteId) {
+        return index.canAccessSite(tenantId, userId, siteId);
+    }
+
+    @Override
+    public List<String> permissionKeys(String tenantId, UUID userId, UUID siteId) {
+        return index.permissionKeys(tenantId, userId, siteId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link PermissionEvaluator} running one JPQL query per check over user_roles, roles,
+ * role_permissions, permissions and user_site_access; the same rules as the db/tenant functions.
+ *
+ * A site-scoped check first resolves the site and the sites above it in the department
+ * hierarchy (one recursive query), so grants at a parent site apply as in the index.
+ */
+public class JpaPermissionEvaluator implements PermissionEvaluator {
+
+    private final UserRoleRepository userRoleRepository;
+    private final UserSiteAccessRepository userSiteAccessRepository;
+    private final SiteRepository siteRepository;
+    private final Clock clock;
+
+    public JpaPermissionEvaluator(
+        UserRoleRepository userRoleRepository,
+        UserSiteAccessRepository userSiteAccessRepository,
+        SiteRepository siteRepository
+    ) {
+        this.userRoleRepository = userRoleRepository;
+        this.userSiteAccessRepository = userSiteAccessRepository;
+        this.siteRepository = siteRepository;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Override
+    public boolean hasPermission(String tenantId, UUID userId, UUID siteId, String permissionKey) {
+        return userRoleRepository.hasPermission(tenantId, userId, siteScope(tenantId, siteId), permissionKey,
+            OffsetDateTime.now(clock));
+    }
+
+    @Override
+    public boolean canAccessSite(String tenantId, UUID userId, UUID siteId) {
+        List<UUID> siteIds = siteScope(tenantId, siteId);
+        return !siteIds.isEmpty()
+            && userSiteAccessRepository.hasActiveAccess(tenantId, userId, siteIds, OffsetDateTime.now(clock));
+    }
+
+    @Override
+    public List<String> permissionKeys(String tenantId, UUID userId, UUID siteId) {
+        return userRoleRepository.findPermissionKeys(tenantId, userId, siteScope(tenantId, siteId),
+            OffsetDateTime.now(clock));
+    }
+
+    /**
+     * The site and the sites above it; none for a global check.
+     */
+    private List<UUID> siteScope(String tenantId, UUID siteId) {
+        return siteId != null ? siteRepository.findSiteAndAncestorIds(tenantId, siteId) : List.of();
+    }
+}
@@ -0,0 +1,427 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.activity.ActivityArchiveStore;
+import com.kymatic.tenantservice.activity.ArchivedActivity;
+import com.kymatic.tenantservice.config.LogPartitionProperties;
+import com.kymatic.tenantservice.config.TenantDataSourceProvider;
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of activity_log (every active tenant database) and
+ * tenant_audit_log (master database) created ahead and expired.
+ *
+ * This job:
+ * - Runs on one background thread shortly after startup and then every tenant.log-partitions.interval
+ * - Creates the partition of the current month and of the next create-ahead months that are missing,
+ *   as a standalone table attached with ATTACH PARTITION, which does not block reads or writes of
+ *   the parent table (unlike CREATE TABLE ... PARTITION OF)
+ * - Detaches partitions whose month ended more than the retention ago with
+ *   DETACH PARTITION ... CONCURRENTLY, then drops them or keeps them as standalone tables
+ *   (tenant.log-partitions.expiry); a detach interrupted half way is finalized on the next run
+ * - With tenant.log-partitions.archive.enabled, moves activity_log partitions older than
+ *   archive.after-months to {@link ActivityArchiveStore} (detach, export, drop) and deletes
+ *   archive files past the retention; a table detached but not yet archived is picked up again
+ * - Deletes the activity_log_hourly counts of hours before the oldest activity_log month kept
+ * - Uses the tenant's activity_log retention from {@link LogPartitionProperties}, and a single
+ *   retention for tenant_audit_log
+ * - Runs every statement with a short lock_timeout; a statement that cannot get its lock fails and
+ *   is retried on the next run, rather than making queries queue behind it
+ *
+ * Tenant databases are reached through {@link TenantDataSourceProvider} directly, so maintenance
+ * does not count as tenant activity, and under a {@link TenantDataSourceProvider#lease}, so a pool
+ * opened for maintenance is closed again afterwards unless a request started using it. Only partitions named {@code <table>_YYYY_MM} are managed,
+ * and a table that is not partitioned yet (migration pending) is skipped. Every step is
+ * idempotent, so replicas running the job at the same time only waste work.
+ */
+@Component
+@EnableConfigurationProperties(LogPartitionProperties.class)
+public class LogPartitionMaintenance implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPartitionMaintenance.class);
+
+    static final String ACTIVITY_LOG = "activity_log";
+    static final String TENANT_AUDIT_LOG = "tenant_audit_log";
+    static final String ACTIVITY_LOG_HOURLY = "activity_log_hourly";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Partitions of the table, and tables detached from it, in the table's schema
+    private static final String PARTITIONS_SQL = """
+        SELECT c.relname, i.inhrelid IS NOT NULL AS attached, COALESCE(i.inhdetachpending, false) AS detach_pending
+        FROM pg_class c
+        LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = to_regclass(?)
+        WHERE c.relkind = 'r'
+          AND c.relnamespace = (SELECT p.relnamespace FROM pg_class p WHERE p.oid = to_regclass(?))
+          AND starts_with(c.relname, ?)
+        """;
+
+    private static final int EXPORT_FETCH_SIZE = 5000;
+
+    private final DataSource masterDataSource;
+    private final TenantDataSourceProvider tenantDataSourceProvider;
+    private final TenantRepository tenantRepository;
+    private final ActivityArchiveStore archiveStore;
+    private final LogPartitionProperties properties;
+    private final Clock clock;
+    private final ScheduledExecutorService runner;
+    private final Counter created;
+    private final Counter expired;
+    private final Counter archived;
+    private final Counter failures;
+
+    public LogPartitionMaintenance(
+        @Qualifier("masterDataSource") DataSource masterDataSource,
+        TenantDataSourceProvider tenantDataSourceProvider,
+        TenantRepository tenantRepository,
+        ActivityArchiveStore archiveStore,
+        LogPartitionProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.masterDataSource = masterDataSource;
+        this.tenantDataSourceProvider = tenantDataSourceProvider;
+        this.tenantRepository = tenantRepository;
+        this.archiveStore = archiveStore;
+        this.properties = properties;
+        this.clock = Clock.systemUTC();
+        this.runner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.created = Counter.builder("tenant.log.partitions.created").register(meterRegistry);
+        this.expired = Counter.builder("tenant.log.partitions.expired").register(meterRegistry);
+        this.archived = Counter.builder("tenant.log.partitions.archived").register(meterRegistry);
+        this.failures = Counter.builder("tenant.log.partitions.failures").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Log partition maintenance is disabled");
+            return;
+        }
+        long intervalMs = properties.getInterval().toMillis();
+        runner.scheduleWithFixedDelay(this::maintainAll, TimeUnit.MINUTES.toMillis(1), intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One maintenance pass over the master database and every active tenant database.
+     */
+    public void maintainAll() {
+        YearMonth month = YearMonth.now(clock);
+        maintain("master", masterDataSource, TENANT_AUDIT_LOG, properties.getAuditLog().getRetentionMonths(), null, month);
+        List<TenantEntity> tenants;
+        try {
+            tenants = tenantRepository.findActiveOrderByRecentActivity(properties.getMaxTenants());
+        } catch (Exception e) {
+            failures.increment();
+            logger.error("Failed to load tenants for log partition maintenance", e);
+            return;
+        }
+        for (TenantEntity tenant : tenants) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int retention = properties.activityLogRetentionMonths(tenant.getSubscriptionTier(), tenant.getMetadata());
+            TenantDataSourceProvider.Lease lease = tenantDataSourceProvider.lease(tenant.getDatabaseName());
+            try {
+                DataSource dataSource;
+                try {
+                    dataSource = tenantDataSourceProvider.getDataSource(tenant.getDatabaseName(), tenant.getSubscriptionTier());
+                } catch (Exception e) {
+                    failures.increment();
+                    logger.warn("No data source for tenant {}, skipping log partition maintenance: {}",
+                        tenant.getTenantId(), e.getMessage());
+                    continue;
+                }
+                String tenantId = tenant.getTenantId().toString();
+                maintain(tenantId, dataSource, ACTIVITY_LOG, retention, tenantId, month);
+            } finally {
+                lease.close();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * @param archiveTenant tenant whose archive receives the old partitions, or null to never archive
+     */
+    private void maintain(String database, DataSource dataSource, String table, int retentionMonths, String archiveTenant,
+                          YearMonth month) {
+        try {
+            new JdbcTemplate(dataSource).execute((ConnectionCallback<Void>) connection -> {
+                maintain(connection, table, retentionMonths, archiveTenant, month);
+                return null;
+            });
+            if (archiveTenant != null && retentionMonths > 0) {
+                archiveStore.deleteBefore(archiveTenant, month.minusMonths(retentionMonths));
+            }
+        } catch (Exception e) {
+            failures.increment();
+            logger.warn("Log partition maintenance of {} in {} failed, retrying next run: {}",
+                table, database, e.getMessage());
+        }
+    }
+
+    private void maintain(Connection connection, String table, int retentionMonths, String archiveTenant, YearMonth month)
+        throws SQLException {
+        // DETACH ... CONCURRENTLY cannot run inside a transaction block
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET lock_timeout = " + Math.max(1, properties.getLockTimeout().toMillis()));
+            try {
+                Map<YearMonth, PartitionState> partitions = partitions(connection, table);
+                if (partitions == null) {
+                    logger.debug("{} is not partitioned, skipping", table);
+                    return;
+                }
+                int archiveAfter = archiveTenant != null && archiveStore.isEnabled()
+                    ? properties.getArchive().getAfterMonths()
+                    : 0;
+                Plan plan = plan(partitions.keySet(), month, properties.getCreateAhead(), retentionMonths, archiveAfter);
+                for (YearMonth missing : plan.create()) {
+                    createPartition(statement, table, missing);
+                }
+                for (YearMonth old : plan.expire()) {
+                    expirePartition(statement, table, old, partitions.get(old));
+                }
+                for (YearMonth cold : plan.archive()) {
+                    archivePartition(connection, statement, table, cold, partitions.get(cold), archiveTenant);
+                }
+                if (ACTIVITY_LOG.equals(table) && retentionMonths > 0) {
+                    expireHourlyCounts(statement, month.minusMonths(retentionMonths));
+                }
+            } finally {
+                statement.execute("RESET lock_timeout");
+            }
+        }
+    }
+
+    /**
+     * Monthly partitions of the table and tables detached from it, or null when the table is not
+     * partitioned.
+     */
+    private static Map<YearMonth, PartitionState> partitions(Connection connection, String table) throws SQLException {
+        try (PreparedStatement kind = connection.prepareStatement("SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass(?)")) {
+            kind.setString(1, table);
+            try (ResultSet rs = kind.executeQuery()) {
+                if (!rs.next() || !"p".equals(rs.getString(1))) {
+                    return null;
+                }
+            }
+        }
+        Pattern name = Pattern.compile(Pattern.quote(table) + "_(\\d{4})_(\\d{2})");
+        Map<YearMonth, PartitionState> partitions = new TreeMap<>();
+        try (PreparedStatement query = connection.prepareStatement(PARTITIONS_SQL)) {
+            query.setString(1, table);
+            query.setString(2, table);
+            query.setString(3, table + "_");
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    Matcher matcher = name.matcher(rs.getString(1));
+                    if (matcher.matches()) {
+                        PartitionState state = !rs.getBoolean(2) ? PartitionState.DETACHED
+                            : rs.getBoolean(3) ? PartitionState.DETACH_PENDING
+                            : PartitionState.ATTACHED;
+                        partitions.put(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), state);
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private void createPartition(Statement statement, String table, YearMonth month) throws SQLException {
+        String partition = partitionName(table, month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        // A standalone table takes no lock on the parent; attaching it takes SHARE UPDATE
+        // EXCLUSIVE, which lets reads and inserts continue. The table is empty, so the bound
+        // check is instant.
+        statement.execute("CREATE TABLE IF NOT EXISTS " + partition
+            + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        statement.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition
+            + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        created.increment();
+        logger.info("Created partition {}", partition);
+    }
+
+    private void expirePartition(Statement statement, String table, YearMonth month, PartitionState state) throws SQLException {
+        boolean drop = properties.getExpiry() == LogPartitionProperties.Expiry.DROP;
+        if (state == PartitionState.DETACHED && !drop) {
+            return;
+        }
+        String partition = partitionName(table, month);
+        detach(statement, table, partition, state);
+        if (drop) {
+            statement.execute("DROP TABLE IF EXISTS " + partition);
+            logger.info("Dropped expired partition {}", partition);
+        } else {
+            logger.info("Detached expired partition {}", partition);
+        }
+        expired.increment();
+    }
+
+    private void expireHourlyCounts(Statement statement, YearMonth oldestKept) throws SQLException {
+        int deleted = statement.executeUpdate("DELETE FROM " + ACTIVITY_LOG_HOURLY
+            + " WHERE bucket < '" + oldestKept.atDay(1) + "'");
+        if (deleted > 0) {
+            logger.info("Deleted {} expired {} row(s)", deleted, ACTIVITY_LOG_HOURLY);
+        }
+    }
+
+    /**
+     * Detach the partition, write its rows to the tenant's archive unless a previous run did, and
+     * drop it.
+     */
+    private void archivePartition(Connection connection, Statement statement, String table, YearMonth month,
+                                  PartitionState state, String tenantId) throws SQLException {
+        String partition = partitionName(table, month);
+        detach(statement, table, partition, state);
+        if (!archiveStore.contains(tenantId, month)) {
+            long rows = export(connection, partition, tenantId, month);
+            logger.info("Archived {} row(s) of partition {} for tenant {}", rows, partition, tenantId);
+        }
+        statement.execute("DROP TABLE IF EXISTS " + partition);
+        archived.increment();
+    }
+
+    private static void detach(Statement statement, String table, String partition, PartitionState state) throws SQLException {
+        switch (state) {
+            case ATTACHED -> statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition + " CONCURRENTLY");
+            case DETACH_PENDING -> statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition + " FINALIZE");
+            case DETACHED -> {
+            }
+        }
+    }
+
+    /**
+     * Stream the rows of a detached partition into its archive file.
+     */
+    private long export(Connection connection, String partition, String tenantId, YearMonth month) throws SQLException {
+        // The driver streams with a cursor only inside a transaction
+        connection.setAutoCommit(false);
+        try (ActivityArchiveStore.Archiving archive = archiveStore.begin(tenantId, month);
+             PreparedStatement query = connection.prepareStatement("""
+                 SELECT log_id, tenant_id, site_id, user_id, action, entity_type, entity_id, entity_name,
+                        changes::text AS changes, ip_address, user_agent, created_at
+                 FROM %s
+                 ORDER BY created_at, log_id
+                 """.formatted(partition))) {
+            query.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    archive.append(new ArchivedActivity(
+                        rs.getLong("log_id"),
+                        rs.getString("tenant_id"),
+                        rs.getObject("site_id", UUID.class),
+                        rs.getObject("user_id", UUID.class),
+                        rs.getString("action"),
+                        rs.getString("entity_type"),
+                        rs.getObject("entity_id", UUID.class),
+                        rs.getString("entity_name"),
+                        rs.getString("changes"),
+                        rs.getString("ip_address"),
+                        rs.getString("user_agent"),
+                        // Read in the JVM zone, the way Hibernate reads OffsetDateTime from TIMESTAMP columns
+                        rs.getTimestamp("created_at").toInstant()));
+                }
+            }
+            connection.commit();
+            return archive.commit();
+        } catch (IOException e) {
+            connection.rollback();
+            throw new UncheckedIOException("Failed to archive " + partition, e);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(SUFFIX);
+    }
+
+    /**
+     * Months to create (current and createAhead following, when missing), existing months to
+     * expire (ended more than retentionMonths months before the current one starts) and existing
+     * months to archive (older than archiveAfterMonths, not expired). A months value of 0 or less
+     * turns the step off.
+     */
+    static Plan plan(Iterable<YearMonth> existing, YearMonth current, int createAhead, int retentionMonths,
+                     int archiveAfterMonths) {
+        List<YearMonth> present = new ArrayList<>();
+        existing.forEach(present::add);
+        present.sort(null);
+        List<YearMonth> create = new ArrayList<>();
+        for (int ahead = 0; ahead <= Math.max(0, createAhead); ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            if (!present.contains(month)) {
+                create.add(month);
+            }
+        }
+        YearMonth oldestKept = retentionMonths > 0 ? current.minusMonths(retentionMonths) : null;
+        YearMonth oldestHot = archiveAfterMonths > 0 ? current.minusMonths(archiveAfterMonths) : null;
+        List<YearMonth> expire = new ArrayList<>();
+        List<YearMonth> archive = new ArrayList<>();
+        for (YearMonth month : present) {
+            if (oldestKept != null && month.isBefore(oldestKept)) {
+                expire.add(month);
+            } else if (oldestHot != null && month.isBefore(oldestHot)) {
+                archive.add(month);
+            }
+        }
+        return new Plan(create, expire, archive);
+    }
+
+    record Plan(List<YearMonth> create, List<YearMonth> expire, List<YearMonth> archive) {
+    }
+
+    private enum PartitionState {
+        ATTACHED,
+        DETACH_PENDING,
+        DETACHED
+    }
+}
@@ -0,0 +1,52 @@
+package com.kymatic.tenantservice.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Evaluates a user's permissions and site access for the current tenant.
+ *
+ * The implementation is selected by tenant.permissions.evaluator (see {@link Mode}). All modes
+ * honour is_active, expires_at and soft-deleted roles and resolve the same inheritance: a role
+ * also grants the permissions of the lower-level system roles, and a grant at a site also applies
+ * at the sites below it in the department hierarchy. Must be called inside a tenant transaction.
+ */
+public interface PermissionEvaluator {
+
+    /**
+     * Whether one of the user's roles grants the permission globally or, when siteId is given,
+     * at that site or a site above it.
+     */
+    boolean hasPermission(String tenantId, UUID userId, UUID siteId, String permissionKey);
+
+    /**
+     * Whether the user has active, unexpired access to the site or a site above it.
+     */
+    boolean canAccessSite(String tenantId, UUID userId, UUID siteId);
+
+    /**
+     * The user's effective permission keys, sorted.
+     */
+    List<String> permissionKeys(String tenantId, UUID userId, UUID siteId);
+
+    /**
+     * Evaluation modes:
+     * - index: in-memory bitsets of {@link EffectivePermissionIndex}, no query per check
+     * - database-function: the has_permission, can_access_site and get_user_permissions
+     *   functions of db/tenant, one round trip per check
+     * - jpa: one JPQL query per check over the RBAC entities
+     */
+    enum Mode {
+        INDEX, DATABASE_FUNCTION, JPA;
+
+        /**
+         * Parse a property value such as "database-function".
+         *
+         * @throws IllegalArgumentException for an unknown mode
+         */
+        public static Mode of(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+}
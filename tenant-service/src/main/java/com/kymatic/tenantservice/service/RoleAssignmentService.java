@@ -1,16 +1,25 @@
 package com.kymatic.tenantservice.service;
 
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
 import com.kymatic.tenantservice.dto.rbac.AssignRoleRequest;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentResponse;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentResult;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentStatus;
 import com.kymatic.tenantservice.dto.rbac.GrantSiteAccessRequest;
+import com.kymatic.tenantservice.dto.rbac.PermissionCheck;
+import com.kymatic.tenantservice.dto.rbac.PermissionCheckResponse;
+import com.kymatic.tenantservice.dto.rbac.PermissionDecision;
 import com.kymatic.tenantservice.dto.rbac.UserPermissionsResponse;
-import com.kymatic.tenantservice.persistence.entity.tenant.PermissionEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
-import com.kymatic.tenantservice.persistence.entity.tenant.RolePermissionEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.SiteEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.UserRoleEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.UserSiteAccessEntity;
-import com.kymatic.tenantservice.persistence.repository.tenant.RolePermissionRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.RoleAssignmentRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.SiteAccessGrantRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.UpsertResult;
 import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
 import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
 import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
@@ -18,23 +27,36 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class RoleAssignmentService {
 
+    static final int MAX_PERMISSION_CHECKS = 1_000;
+    static final int MAX_BULK_ROWS = 5_000;
+
+    private static final int MAX_ACCESS_LEVEL_LENGTH = 50;
+
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
     private final UserSiteAccessRepository userSiteAccessRepository;
     private final RoleService roleService;
     private final SiteService siteService;
-    private final RolePermissionRepository rolePermissionRepository;
-    private final PermissionService permissionService;
     private final TenantScopeService tenantScopeService;
+    private final TenantEntityCache entityCache;
+    private final EffectivePermissionIndex permissionIndex;
+    private final RoleAssignmentBulkRepository bulkRepository;
+    private final GrantExpiryScheduler expiryScheduler;
+    private final PermissionEvaluator permissionEvaluator;
+    private final ActivityLogWriter activityLog;
 
     public RoleAssignmentService(
         UserRepository userRepository,
@@ -42,24 +64,32 @@ public class RoleAssignmentService {
         UserSiteAccessRepository userSiteAccessRepository,
         RoleService roleService,
         SiteService siteService,
-        RolePermissionRepository rolePermissionRepository,
-        PermissionService permissionService,
-        TenantScopeService tenantScopeService
+        TenantScopeService tenantScopeService,
+        TenantEntityCache entityCache,
+        EffectivePermissionIndex permissionIndex,
+        RoleAssignmentBulkRepository bulkRepository,
+        GrantExpiryScheduler expiryScheduler,
+        PermissionEvaluator permissionEvaluator,
+        ActivityLogWriter activityLog
     ) {
         this.userRepository = userRepository;
         this.userRoleRepository = userRoleRepository;
         this.userSiteAccessRepository = userSiteAccessRepository;
         this.roleService = roleService;
         this.siteService = siteService;
-        this.rolePermissionRepository = rolePermissionRepository;
-        this.permissionService = permissionService;
         this.tenantScopeService = tenantScopeService;
+        this.entityCache = entityCache;
+        this.permissionIndex = permissionIndex;
+        this.bulkRepository = bulkRepository;
+        this.expiryScheduler = expiryScheduler;
+        this.permissionEvaluator = permissionEvaluator;
+        this.activityLog = activityLog;
     }
 
     @Transactional
     public void assignRole(AssignRoleRequest request) {
         String tenantId = tenantScopeService.requireTenantId();
-        UserEntity user = userRepository.findById(request.userId())
+        UserEntity user = entityCache.get(UserEntity.class, request.userId(), userRepository::findById)
             .orElseThrow(() -> new IllegalArgumentException("User not found: " + request.userId()));
         if (!tenantId.equals(user.getTenantId())) {
             throw new IllegalArgumentException("User does not belong to current tenant");
@@ -88,12 +118,15 @@ public class RoleAssignmentService {
         entity.setActive(true);
 
         userRoleRepository.save(entity);
+        permissionIndex.roleAssigned(tenantId, request.userId(), role.getRoleId(), siteId, request.expiresAt());
+        expiryScheduler.schedule(tenantId, request.expiresAt());
+        activityLog.record("role_assigned", "user", request.userId(), user.getEmail(), siteId, request);
     }
 
     @Transactional
     public void grantSiteAccess(GrantSiteAccessRequest request) {
         String tenantId = tenantScopeService.requireTenantId();
-        UserEntity user = userRepository.findById(request.userId())
+        UserEntity user = entityCache.get(UserEntity.class, request.userId(), userRepository::findById)
             .orElseThrow(() -> new IllegalArgumentException("User not found: " + request.userId()));
         if (!tenantId.equals(user.getTenantId())) {
             throw new IllegalArgumentException("User does not belong to current tenant");
@@ -117,35 +150,274 @@ public class RoleAssignmentService {
         entity.setActive(true);
 
         userSiteAccessRepository.save(entity);
+        permissionIndex.siteAccessGranted(tenantId, request.userId(), request.siteId(), request.expiresAt());
+        expiryScheduler.schedule(tenantId, request.expiresAt());
+        activityLog.record("site_access_granted", "user", request.userId(), user.getEmail(), request.siteId(), request);
+    }
+
+    /**
+     * Assign roles to many users at once. Users, roles and sites are validated with one query
+     * each; valid rows are written with a single upsert. Invalid and duplicate rows are
+     * reported as rejected without failing the others.
+     *
+     * @throws IllegalArgumentException if there are no rows or more than {@link #MAX_BULK_ROWS}
+     */
+    @Transactional
+    public BulkAssignmentResponse bulkAssignRoles(List<AssignRoleRequest> requests) {
+        checkBulkSize(requests);
+        String tenantId = tenantScopeService.requireTenantId();
+        List<AssignRoleRequest> present = requests.stream().filter(Objects::nonNull).toList();
+        Map<UUID, UserEntity> users = findUsers(present.stream().map(AssignRoleRequest::userId).toList());
+        Map<String, RoleEntity> roles = roleService.findRolesByKeys(tenantId,
+            present.stream().map(AssignRoleRequest::roleKey).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Map<UUID, SiteEntity> sites = siteService.findTenantSites(tenantId,
+            present.stream().map(AssignRoleRequest::siteId).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        BulkAssignmentResult[] results = new BulkAssignmentResult[requests.size()];
+        Map<AssignmentKey, Integer> accepted = new HashMap<>();
+        List<RoleAssignmentRow> rows = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AssignRoleRequest request = requests.get(i);
+            String error = validateRow(request);
+            if (error != null) {
+                results[i] = new BulkAssignmentResult(i, request != null ? request.userId() : null,
+                    BulkAssignmentStatus.REJECTED, error);
+                continue;
+            }
+            RoleEntity role = roles.get(request.roleKey());
+            error = validateUser(tenantId, users.get(request.userId()), request.userId());
+            if (error == null && role == null) {
+                error = "Role not found: " + request.roleKey();
+            }
+            if (error == null && request.siteId() != null) {
+                error = validateSite(sites.get(request.siteId()), request.siteId());
+            }
+            if (error == null) {
+                Integer first = accepted.putIfAbsent(
+                    new AssignmentKey(request.userId(), role.getRoleId(), request.siteId()), i);
+                error = first != null ? "Duplicate of row " + first : null;
+            }
+            if (error != null) {
+                results[i] = new BulkAssignmentResult(i, request.userId(), BulkAssignmentStatus.REJECTED, error);
+            } else {
+                rows.add(new RoleAssignmentRow(request.userId(), role.getRoleId(), request.siteId(), request.expiresAt()));
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            for (UpsertResult upserted : bulkRepository.upsertUserRoles(tenantId, rows, OffsetDateTime.now())) {
+                int index = accepted.get(new AssignmentKey(upserted.userId(), upserted.roleId(), upserted.siteId()));
+                results[index] = upsertedResult(index, upserted);
+                activityLog.record("role_assigned", "user", upserted.userId(), users.get(upserted.userId()).getEmail(), upserted.siteId(), requests.get(index));
+            }
+            permissionIndex.invalidate(tenantId);
+            expiryScheduler.schedule(tenantId, earliestExpiry(rows.stream().map(RoleAssignmentRow::expiresAt).toList()));
+        }
+        return toBulkResponse(results);
+    }
+
+    /**
+     * Grant site access to many users at once, validated and written like {@link #bulkAssignRoles}.
+     *
+     * @throws IllegalArgumentException if there are no rows or more than {@link #MAX_BULK_ROWS}
+     */
+    @Transactional
+    public BulkAssignmentResponse bulkGrantSiteAccess(List<GrantSiteAccessRequest> requests) {
+        checkBulkSize(requests);
+        String tenantId = tenantScopeService.requireTenantId();
+        List<GrantSiteAccessRequest> present = requests.stream().filter(Objects::nonNull).toList();
+        Map<UUID, UserEntity> users = findUsers(present.stream().map(GrantSiteAccessRequest::userId).toList());
+        Map<UUID, SiteEntity> sites = siteService.findTenantSites(tenantId,
+            present.stream().map(GrantSiteAccessRequest::siteId).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        BulkAssignmentResult[] results = new BulkAssignmentResult[requests.size()];
+        Map<AssignmentKey, Integer> accepted = new HashMap<>();
+        List<SiteAccessGrantRow> rows = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            GrantSiteAccessRequest request = requests.get(i);
+            String error = validateRow(request);
+            if (error != null) {
+                results[i] = new BulkAssignmentResult(i, request != null ? request.userId() : null,
+                    BulkAssignmentStatus.REJECTED, error);
+                continue;
+            }
+            error = validateUser(tenantId, users.get(request.userId()), request.userId());
+            if (error == null) {
+                error = validateSite(sites.get(request.siteId()), request.siteId());
+            }
+            if (error == null) {
+                Integer first = accepted.putIfAbsent(new AssignmentKey(request.userId(), null, request.siteId()), i);
+                error = first != null ? "Duplicate of row " + first : null;
+            }
+            if (error != null) {
+                results[i] = new BulkAssignmentResult(i, request.userId(), BulkAssignmentStatus.REJECTED, error);
+            } else {
+                rows.add(new SiteAccessGrantRow(request.userId(), request.siteId(), request.accessLevel(), request.expiresAt()));
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            for (UpsertResult upserted : bulkRepository.upsertSiteAccess(tenantId, rows, OffsetDateTime.now())) {
+                int index = accepted.get(new AssignmentKey(upserted.userId(), null, upserted.siteId()));
+                results[index] = upsertedResult(index, upserted);
+                activityLog.record("site_access_granted", "user", upserted.userId(), users.get(upserted.userId()).getEmail(), upserted.siteId(), requests.get(index));
+            }
+            permissionIndex.invalidate(tenantId);
+            expiryScheduler.schedule(tenantId, earliestExpiry(rows.stream().map(SiteAccessGrantRow::expiresAt).toList()));
+        }
+        return toBulkResponse(results);
     }
 
     @Transactional(readOnly = true)
     public UserPermissionsResponse getUserPermissions(UUID userId, UUID siteId) {
         String tenantId = tenantScopeService.requireTenantId();
-        UserEntity user = userRepository.findById(userId)
+        UserEntity user = entityCache.get(UserEntity.class, userId, userRepository::findById)
             .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
         if (!tenantId.equals(user.getTenantId())) {
             throw new IllegalArgumentException("User does not belong to current tenant");
         }
 
-        List<UserRoleEntity> roles = userRoleRepository.findByTenantIdAndUserIdAndActiveTrue(tenantId, userId);
-        Set<UUID> applicableRoleIds = roles.stream()
-            .filter(role -> role.getSiteId() == null || (siteId != null && role.getSiteId().equals(siteId)))
-            .map(UserRoleEntity::getRoleId)
-            .collect(Collectors.toSet());
-
-        Set<String> permissionKeys = new HashSet<>();
-        for (UUID roleId : applicableRoleIds) {
-            List<RolePermissionEntity> mappings = rolePermissionRepository.findByRoleId(roleId);
-            for (RolePermissionEntity mapping : mappings) {
-                PermissionEntity permission = permissionService.getPermissionById(mapping.getPermissionId());
-                if (permission != null && tenantId.equals(permission.getTenantId())) {
-                    permissionKeys.add(permission.getPermissionKey());
-                }
+        return new UserPermissionsResponse(userId, siteId, permissionEvaluator.permissionKeys(tenantId, userId, siteId));
+    }
+
+    /**
+     * Allow/deny for each (user, permission, site) tuple, in request order. A site-scoped check
+     * needs both the permission at that site and unexpired access to the site.
+     *
+     * @throws IllegalArgumentException if there are no checks, more than {@link #MAX_PERMISSION_CHECKS},
+     *                                  or a check without a user id or permission key
+     */
+    @Transactional(readOnly = true)
+    public PermissionCheckResponse checkPermissions(List<PermissionCheck> checks) {
+        validateChecks(checks);
+        String tenantId = tenantScopeService.requireTenantId();
+        List<PermissionDecision> decisions = checks.stream()
+            .map(check -> new PermissionDecision(
+                check.userId(),
+                check.permissionKey(),
+                check.siteId(),
+                isAllowed(tenantId, check.userId(), check.permissionKey(), check.siteId())))
+            .toList();
+        return new PermissionCheckResponse(decisions);
+    }
+
+    private static void validateChecks(List<PermissionCheck> checks) {
+        if (checks == null || checks.isEmpty()) {
+            throw new IllegalArgumentException("At least one permission check is required");
+        }
+        if (checks.size() > MAX_PERMISSION_CHECKS) {
+            throw new IllegalArgumentException("At most " + MAX_PERMISSION_CHECKS + " permission checks per request");
+        }
+        for (int i = 0; i < checks.size(); i++) {
+            PermissionCheck check = checks.get(i);
+            if (check == null || check.userId() == null) {
+                throw new IllegalArgumentException("Permission check " + i + " has no userId");
+            }
+            if (check.permissionKey() == null || check.permissionKey().isBlank()) {
+                throw new IllegalArgumentException("Permission check " + i + " has no permissionKey");
             }
         }
+    }
 
-        return new UserPermissionsResponse(userId, siteId, permissionKeys.stream().sorted().toList());
+    /**
+     * Single decision for the current tenant, with the same rules as {@link #checkPermissions}.
+     */
+    @Transactional(readOnly = true)
+    public boolean isAllowed(UUID userId, String permissionKey, UUID siteId) {
+        return isAllowed(tenantScopeService.requireTenantId(), userId, permissionKey, siteId);
+    }
+
+    private boolean isAllowed(String tenantId, UUID userId, String permissionKey, UUID siteId) {
+        return permissionEvaluator.hasPermission(tenantId, userId, siteId, permissionKey)
+            && (siteId == null || permissionEvaluator.canAccessSite(tenantId, userId, siteId));
+    }
+
+    private Map<UUID, UserEntity> findUsers(List<UUID> userIds) {
+        LinkedHashSet<UUID> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+        return entityCache.getAll(UserEntity.class, ids, userRepository::findAllById, UserEntity::getUserId);
+    }
+
+    private static void checkBulkSize(List<?> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one row is required");
+        }
+        if (requests.size() > MAX_BULK_ROWS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_ROWS + " rows per request");
+        }
+    }
+
+    private static String validateRow(AssignRoleRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        if (request.userId() == null) {
+            return "userId is required";
+        }
+        if (request.roleKey() == null || request.roleKey().isBlank()) {
+            return "roleKey is required";
+        }
+        return null;
     }
-}
 
+    private static String validateRow(GrantSiteAccessRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        if (request.userId() == null) {
+            return "userId is required";
+        }
+        if (request.siteId() == null) {
+            return "siteId is required";
+        }
+        if (request.accessLevel() == null || request.accessLevel().isBlank()) {
+            return "accessLevel is required";
+        }
+        if (request.accessLevel().length() > MAX_ACCESS_LEVEL_LENGTH) {
+            return "accessLevel must be at most " + MAX_ACCESS_LEVEL_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static String validateUser(String tenantId, UserEntity user, UUID userId) {
+        if (user == null) {
+            return "User not found: " + userId;
+        }
+        if (!tenantId.equals(user.getTenantId())) {
+            return "User does not belong to current tenant";
+        }
+        return null;
+    }
+
+    private static String validateSite(SiteEntity site, UUID siteId) {
+        if (site == null) {
+            return "Site not found: " + siteId;
+        }
+        if (Boolean.FALSE.equals(site.getActive())) {
+            return "Site is not active";
+        }
+        return null;
+    }
+
+    private static BulkAssignmentResult upsertedResult(int index, UpsertResult upserted) {
+        BulkAssignmentStatus status = upserted.inserted() ? BulkAssignmentStatus.CREATED : BulkAssignmentStatus.UPDATED;
+        return new BulkAssignmentResult(index, upserted.userId(), status, null);
+    }
+
+    private static OffsetDateTime earliestExpiry(List<OffsetDateTime> expiries) {
+        return expiries.stream().filter(Objects::nonNull).min(OffsetDateTime::compareTo).orElse(null);
+    }
+
+    private static BulkAssignmentResponse toBulkResponse(BulkAssignmentResult[] results) {
+        Map<BulkAssignmentStatus, Long> counts = Arrays.stream(results)
+            .collect(Collectors.groupingBy(BulkAssignmentResult::status, Collectors.counting()));
+        return new BulkAssignmentResponse(
+            counts.getOrDefault(BulkAssignmentStatus.CREATED, 0L).intValue(),
+            counts.getOrDefault(BulkAssignmentStatus.UPDATED, 0L).intValue(),
+            counts.getOrDefault(BulkAssignmentStatus.REJECTED, 0L).intValue(),
+            List.of(results));
+    }
+
+    private record AssignmentKey(UUID userId, UUID roleId, UUID siteId) {
+    }
+}
@@ -1,20 +1,26 @@
 package com.kymatic.tenantservice.service;
 
 import com.kymatic.tenantservice.dto.rbac.CreateRoleRequest;
-import com.kymatic.tenantservice.dto.rbac.PermissionResponse;
 import com.kymatic.tenantservice.dto.rbac.RoleResponse;
 import com.kymatic.tenantservice.persistence.entity.tenant.PermissionEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
 import com.kymatic.tenantservice.persistence.entity.tenant.RolePermissionEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.RolePermissionRepository;
 import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository.RolePermissionKeyRow;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class RoleService {
@@ -23,19 +29,23 @@ public class RoleService {
     private final RolePermissionRepository rolePermissionRepository;
     private final PermissionService permissionService;
     private final TenantScopeService tenantScopeService;
+    private final EffectivePermissionIndex permissionIndex;
 
     public RoleService(
         RoleRepository roleRepository,
         RolePermissionRepository rolePermissionRepository,
         PermissionService permissionService,
-        TenantScopeService tenantScopeService
+        TenantScopeService tenantScopeService,
+        EffectivePermissionIndex permissionIndex
     ) {
         this.roleRepository = roleRepository;
         this.rolePermissionRepository = rolePermissionRepository;
         this.permissionService = permissionService;
         this.tenantScopeService = tenantScopeService;
+        this.permissionIndex = permissionIndex;
     }
 
+    @CacheEvict(cacheNames = "roles", key = "'all'")
     @Transactional
     public RoleResponse createRole(CreateRoleRequest request) {
         String tenantId = tenantScopeService.requireTenantId();
@@ -67,25 +77,32 @@ public class RoleService {
             mapping.setPermissionId(permission.getPermissionId());
             rolePermissionRepository.save(mapping);
         }
+        permissionIndex.roleCreated(tenantId, saved.getRoleId(), saved.getLevel(), saved.getSystemRole(),
+            request.permissionKeys());
 
         return toResponse(saved, request.permissionKeys());
     }
 
+    /**
+     * The current tenant's roles with their permission keys, cached per tenant until one is created.
+     */
+    @Cacheable(cacheNames = "roles", key = "'all'")
     @Transactional(readOnly = true)
     public List<RoleResponse> listRoles() {
         String tenantId = tenantScopeService.requireTenantId();
-        var permissionsById = permissionService.listPermissions().stream()
-            .collect(Collectors.toMap(PermissionResponse::permissionId, PermissionResponse::permissionKey));
-
-        return roleRepository.findByTenantIdAndDeletedAtIsNull(tenantId).stream()
-            .map(role -> {
-                Set<String> permissionKeys = rolePermissionRepository.findByRoleId(role.getRoleId()).stream()
-                    .map(RolePermissionEntity::getPermissionId)
-                    .map(permissionsById::get)
-                    .filter(key -> key != null)
-                    .collect(Collectors.toSet());
-                return toResponse(role, permissionKeys);
-            })
+        Map<UUID, RoleEntity> roles = new LinkedHashMap<>();
+        Map<UUID, Set<String>> permissionKeys = new HashMap<>();
+        for (RolePermissionKeyRow row : roleRepository.findWithPermissionKeys(tenantId)) {
+            UUID roleId = row.getRole().getRoleId();
+            roles.putIfAbsent(roleId, row.getRole());
+            Set<String> keys = permissionKeys.computeIfAbsent(roleId, id -> new HashSet<>());
+            if (row.getPermissionKey() != null) {
+                keys.add(row.getPermissionKey());
+            }
+        }
+
+        return roles.values().stream()
+            .map(role -> toResponse(role, permissionKeys.get(role.getRoleId())))
             .toList();
     }
 
@@ -95,6 +112,18 @@ public class RoleService {
             .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleKey));
     }
 
+    /**
+     * The tenant's live roles with the given keys, by key; unknown keys are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, RoleEntity> findRolesByKeys(String tenantId, Collection<String> roleKeys) {
+        Map<String, RoleEntity> roles = new HashMap<>();
+        for (RoleEntity role : roleRepository.findByTenantIdAndRoleKeyInAndDeletedAtIsNull(tenantId, roleKeys)) {
+            roles.put(role.getRoleKey(), role);
+        }
+        return roles;
+    }
+
     private RoleResponse toResponse(RoleEntity role, Set<String> permissionKeys) {
         return new RoleResponse(
             role.getRoleId(),
@@ -110,7 +139,7 @@ public class RoleService {
         );
     }
 
-    private RoleResponse toResponse(RoleEntity role, java.util.Collection<String> permissionKeys) {
+    private RoleResponse toResponse(RoleEntity role, Collection<String> permissionKeys) {
         return toResponse(role, Set.copyOf(permissionKeys));
     }
 }
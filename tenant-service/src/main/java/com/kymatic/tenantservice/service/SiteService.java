@@ -4,10 +4,16 @@ import com.kymatic.tenantservice.dto.rbac.CreateSiteRequest;
 import com.kymatic.tenantservice.dto.rbac.SiteResponse;
 import com.kymatic.tenantservice.persistence.entity.tenant.SiteEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class SiteService {
@@ -20,6 +26,7 @@ public class SiteService {
         this.tenantScopeService = tenantScopeService;
     }
 
+    @CacheEvict(cacheNames = "sites", key = "'all'")
     @Transactional
     public SiteResponse createSite(CreateSiteRequest request) {
         String tenantId = tenantScopeService.requireTenantId();
@@ -45,6 +52,10 @@ public class SiteService {
         return toResponse(siteRepository.save(entity));
     }
 
+    /**
+     * The current tenant's live sites, cached per tenant until one is created.
+     */
+    @Cacheable(cacheNames = "sites", key = "'all'")
     @Transactional(readOnly = true)
     public List<SiteResponse> listSites() {
         String tenantId = tenantScopeService.requireTenantId();
@@ -59,6 +70,18 @@ public class SiteService {
             .orElseThrow(() -> new IllegalArgumentException("Site not found: " + siteId));
     }
 
+    /**
+     * The tenant's sites with the given ids, by id; unknown ids are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, SiteEntity> findTenantSites(String tenantId, Collection<UUID> siteIds) {
+        Map<UUID, SiteEntity> sites = new HashMap<>();
+        for (SiteEntity site : siteRepository.findByTenantIdAndSiteIdIn(tenantId, siteIds)) {
+            sites.put(site.getSiteId(), site);
+        }
+        return sites;
+    }
+
     private SiteResponse toResponse(SiteEntity entity) {
         return new SiteResponse(
             entity.getSiteId(),
@@ -1,7 +1,9 @@
 package com.kymatic.tenantservice.service;
 
+import com.kymatic.tenantservice.config.TenantDataSourceProperties;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
 import org.flywaydb.core.api.output.MigrateResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,13 @@ import java.sql.Statement;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Creates, migrates and connects to tenant storage.
+ *
+ * In the default database-per-tenant mode every tenant gets its own database. In shared-pool
+ * mode (tenant.datasource.mode=shared-pool) every tenant gets a schema named after its
+ * database name inside one shared database, so a single connection pool can serve all tenants.
+ */
 @Component
 public class TenantDatabaseManager {
 
@@ -21,18 +30,33 @@ public class TenantDatabaseManager {
 	private final String datasourceUrl;
 	private final String username;
 	private final String password;
+	private final TenantDataSourceProperties properties;
 
 	public TenantDatabaseManager(
 		@Value("${spring.datasource.url}") String datasourceUrl,
 		@Value("${spring.datasource.username}") String username,
-		@Value("${spring.datasource.password}") String password
+		@Value("${spring.datasource.password}") String password,
+		TenantDataSourceProperties properties
 	) {
 		this.datasourceUrl = datasourceUrl;
 		this.username = username;
 		this.password = password;
+		this.properties = properties;
+	}
+
+	public boolean isSharedPoolMode() {
+		return properties.isSharedPool();
 	}
 
 	public void createDatabaseIfNotExists(String databaseName) {
+		if (isSharedPoolMode()) {
+			createSchemaIfNotExists(databaseName);
+			return;
+		}
+		createPhysicalDatabaseIfNotExists(databaseName);
+	}
+
+	private void createPhysicalDatabaseIfNotExists(String databaseName) {
 		if (databaseExists(databaseName)) {
 			logger.info("Tenant database '{}' already exists. Skipping creation.", databaseName);
 			return;
@@ -47,17 +71,39 @@ public class TenantDatabaseManager {
 		}
 	}
 
+	/**
+	 * Create the tenant's schema inside the shared tenant database (shared-pool mode).
+	 */
+	private void createSchemaIfNotExists(String schemaName) {
+		createPhysicalDatabaseIfNotExists(getSharedDatabaseName());
+		logger.info("Creating tenant schema {} in shared database {}", schemaName, getSharedDatabaseName());
+		try (Connection connection = java.sql.DriverManager.getConnection(buildDatabaseJdbcUrl(getSharedDatabaseName()), username, password);
+			 Statement statement = connection.createStatement()) {
+			statement.execute("CREATE SCHEMA IF NOT EXISTS " + quoteIdentifier(schemaName));
+		} catch (Exception ex) {
+			throw new IllegalStateException("Failed to create tenant schema " + schemaName, ex);
+		}
+	}
+
 	public List<String> migrateTenantDatabase(String databaseName) {
 		String tenantJdbcUrl = buildTenantJdbcUrl(databaseName);
 		logger.info("Running tenant migrations for database {}", tenantJdbcUrl);
 
 		try {
-			Flyway flyway = Flyway.configure()
-				.dataSource(tenantJdbcUrl, username, password)
+			FluentConfiguration configuration = Flyway.configure()
 				.locations("classpath:db/tenant")
 				.baselineOnMigrate(true)
-				.validateOnMigrate(true)
-				.load();
+				.validateOnMigrate(true);
+			if (isSharedPoolMode()) {
+				// Migrate into the tenant's schema; Flyway keeps one history table per schema
+				configuration
+					.dataSource(buildDatabaseJdbcUrl(getSharedDatabaseName()), username, password)
+					.schemas(databaseName)
+					.defaultSchema(databaseName);
+			} else {
+				configuration.dataSource(tenantJdbcUrl, username, password);
+			}
+			Flyway flyway = configuration.load();
 
 			// Log discovered migrations
 			MigrationInfo[] discoveredMigrations = flyway.info().all();
@@ -133,7 +179,22 @@ public class TenantDatabaseManager {
 		return baseUrl + "postgres";
 	}
 
+	/**
+	 * JDBC URL that reaches the tenant's data. In shared-pool mode this points at the shared
+	 * database with the tenant schema selected via the driver's currentSchema parameter.
+	 */
 	public String buildTenantJdbcUrl(String databaseName) {
+		if (isSharedPoolMode()) {
+			String sharedUrl = buildDatabaseJdbcUrl(getSharedDatabaseName());
+			return sharedUrl + (sharedUrl.contains("?") ? "&" : "?") + "currentSchema=" + databaseName + ",public";
+		}
+		return buildDatabaseJdbcUrl(databaseName);
+	}
+
+	/**
+	 * JDBC URL of a database on the same server as the master database.
+	 */
+	public String buildDatabaseJdbcUrl(String databaseName) {
 		int idx = datasourceUrl.lastIndexOf('/');
 		if (idx < 0) {
 			throw new IllegalStateException("Unable to parse datasource URL: " + datasourceUrl);
@@ -141,6 +202,14 @@ public class TenantDatabaseManager {
 		return datasourceUrl.substring(0, idx + 1) + databaseName;
 	}
 
+	public String getSharedDatabaseName() {
+		return properties.getShared().getDatabase();
+	}
+
+	public static String quoteIdentifier(String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
 	/**
 	 * Execute SQL in tenant database using JDBC
 	 */
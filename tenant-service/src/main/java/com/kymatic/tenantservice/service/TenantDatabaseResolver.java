@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
  * - Gets tenant ID from TenantContext (set by JwtTenantResolver filter)
  * - Looks up tenant entity to get database name
  * - Returns database name for use in tenant-specific queries
+ * - Binds a pre-resolved {@link TenantRoutingHandle} to TenantContext for the routing datasource
  */
 @Service
 public class TenantDatabaseResolver {
@@ -58,5 +59,40 @@ public class TenantDatabaseResolver {
         }
         return tenantIdentifierResolver.resolveTenantEntity(tenantId);
     }
-}
 
+    /**
+     * Set the current tenant and resolve its routing handle up front, so connection checkouts
+     * later in the request skip tenant resolution. Called by the tenant filters.
+     *
+     * If the tenant cannot be resolved only the tenant ID is set; the routing datasource then
+     * resolves (and reports) the failure on first use, as before.
+     */
+    public void bindTenant(String tenantId) {
+        if (tenantId.equals(TenantContext.getTenantId()) && TenantContext.getRoutingHandle() instanceof TenantRoutingHandle) {
+            return;
+        }
+        // Resolve against the master database, not a previously bound tenant
+        TenantContext.clear();
+        try {
+            TenantContext.setTenant(tenantId, TenantRoutingHandle.of(tenantIdentifierResolver.resolveTenantEntity(tenantId)));
+        } catch (Exception e) {
+            logger.debug("Could not pre-resolve routing for tenant {}: {}", tenantId, e.getMessage());
+            TenantContext.setTenantId(tenantId);
+        }
+    }
+
+    /**
+     * Routing handle for the current tenant. Returns the handle bound to TenantContext, or
+     * resolves it and binds it so subsequent calls on this thread are a single ThreadLocal read.
+     *
+     * @throws IllegalStateException if tenant ID is not available in context
+     */
+    public TenantRoutingHandle getCurrentRoutingHandle() {
+        if (TenantContext.getRoutingHandle() instanceof TenantRoutingHandle handle) {
+            return handle;
+        }
+        TenantRoutingHandle handle = TenantRoutingHandle.of(getCurrentTenantEntity());
+        TenantContext.setRoutingHandle(handle);
+        return handle;
+    }
+}
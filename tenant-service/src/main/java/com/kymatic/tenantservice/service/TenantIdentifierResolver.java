@@ -1,12 +1,26 @@
 package com.kymatic.tenantservice.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kymatic.tenantservice.cache.CacheInvalidationBus;
+import com.kymatic.tenantservice.cache.CacheInvalidationEvent;
+import com.kymatic.tenantservice.cache.CacheInvalidationHandler;
 import com.kymatic.tenantservice.persistence.entity.TenantEntity;
 import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility service that resolves tenant identifiers provided by the frontend.
@@ -15,21 +29,63 @@ import java.util.concurrent.ConcurrentHashMap;
  * but the master database relies on tenant UUIDs. This helper accepts either a
  * UUID or a slug and always returns the canonical tenant UUID that can be used
  * when talking to repositories.
- * 
- * PERFORMANCE: This service uses a simple in-memory cache to avoid repeated 
- * database lookups. We use a manual cache instead of @Cacheable to avoid 
- * circular dependency issues with the routing datasource.
+ *
+ * PERFORMANCE: Lookups are served from a bounded Caffeine cache holding one canonical
+ * entry per tenant UUID, plus a slug -> UUID alias cache. Entries expire after
+ * tenant.resolver.cache.ttl and are reloaded in the background once older than
+ * tenant.resolver.cache.refresh-after, so hot tenants never block on a reload.
+ * Unknown identifiers are cached as negative entries for tenant.resolver.cache.negative-ttl.
+ * We use a manual cache instead of @Cacheable to avoid circular dependency issues
+ * with the routing datasource.
+ *
+ * Every write to the tenants table must call {@link #evictTenant(UUID, String)}, which also
+ * publishes the eviction to the other replicas through the {@link CacheInvalidationBus}.
  */
 @Service
-public class TenantIdentifierResolver {
+public class TenantIdentifierResolver implements CacheInvalidationHandler {
+
+	public static final String CACHE_NAME = "tenant-resolver";
+
+	private static final Logger logger = LoggerFactory.getLogger(TenantIdentifierResolver.class);
 
 	private final TenantRepository tenantRepository;
-	
-	// Manual cache to avoid circular dependency with Spring Cache + Routing DataSource
-	private final Map<String, TenantEntity> tenantCache = new ConcurrentHashMap<>();
+	private final CacheInvalidationBus cacheInvalidationBus;
 
-	public TenantIdentifierResolver(TenantRepository tenantRepository) {
+	private final LoadingCache<UUID, Optional<TenantEntity>> tenantsById;
+	private final LoadingCache<String, Optional<UUID>> tenantIdsBySlug;
+
+	@Autowired
+	public TenantIdentifierResolver(
+		TenantRepository tenantRepository,
+		CacheInvalidationBus cacheInvalidationBus,
+		MeterRegistry meterRegistry,
+		@Value("${tenant.resolver.cache.maximum-size:10000}") long maximumSize,
+		@Value("${tenant.resolver.cache.ttl:10m}") Duration ttl,
+		@Value("${tenant.resolver.cache.refresh-after:1m}") Duration refreshAfter,
+		@Value("${tenant.resolver.cache.negative-ttl:30s}") Duration negativeTtl
+	) {
 		this.tenantRepository = tenantRepository;
+		this.cacheInvalidationBus = cacheInvalidationBus;
+		this.tenantsById = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfter(new PositiveNegativeExpiry<UUID, TenantEntity>(ttl, negativeTtl))
+			.refreshAfterWrite(refreshAfter)
+			.recordStats()
+			.build(this::loadById);
+		this.tenantIdsBySlug = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfter(new PositiveNegativeExpiry<String, UUID>(ttl, negativeTtl))
+			.refreshAfterWrite(refreshAfter)
+			.recordStats()
+			.build(this::loadIdBySlug);
+		if (meterRegistry != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, tenantsById, "tenant.resolver.by-id");
+			CaffeineCacheMetrics.monitor(meterRegistry, tenantIdsBySlug, "tenant.resolver.by-slug");
+		}
+	}
+
+	public TenantIdentifierResolver(TenantRepository tenantRepository) {
+		this(tenantRepository, null, null, 10000, Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
 	}
 
     public UUID resolveTenantIdentifier(String tenantIdentifier) {
@@ -37,34 +93,130 @@ public class TenantIdentifierResolver {
     }
 
     public TenantEntity resolveTenantEntity(String tenantIdentifier) {
-        // Check cache first
-        TenantEntity cached = tenantCache.get(tenantIdentifier);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // Not in cache, query database and cache result
-        TenantEntity tenant = queryTenantEntity(tenantIdentifier);
-        tenantCache.put(tenantIdentifier, tenant);
-        return tenant;
-    }
-    
-    private TenantEntity queryTenantEntity(String tenantIdentifier) {
         if (tenantIdentifier == null || tenantIdentifier.isBlank()) {
             throw new IllegalArgumentException("Tenant identifier is required");
         }
 
-        try {
-            UUID tenantId = UUID.fromString(tenantIdentifier);
-            return tenantRepository.findById(tenantId)
+        UUID tenantId = looksLikeUuid(tenantIdentifier) ? parseUuid(tenantIdentifier) : null;
+        if (tenantId == null) {
+            // Slug: resolve the alias to the canonical UUID entry
+            tenantId = tenantIdsBySlug.get(tenantIdentifier)
                 .orElseThrow(() -> new IllegalArgumentException("Tenant not found: " + tenantIdentifier));
-        } catch (IllegalArgumentException ignored) {
-            // Not a UUID, fall through to slug lookup
         }
-
-        return tenantRepository.findBySlug(tenantIdentifier)
+        return tenantsById.get(tenantId)
             .orElseThrow(() -> new IllegalArgumentException("Tenant not found: " + tenantIdentifier));
     }
-}
 
+	/**
+	 * Drop cached entries for a tenant after it was created, updated or deleted.
+	 *
+	 * Evicts immediately and, when called inside a transaction, again after commit so that a
+	 * concurrent lookup cannot re-cache the pre-commit row.
+	 *
+	 * @param tenantId tenant UUID (may be null when only a slug is known)
+	 * @param slug     tenant slug (may be null); also clears a negative entry for a new slug
+	 */
+	public void evictTenant(UUID tenantId, String slug) {
+		evictNow(tenantId, slug);
+		if (cacheInvalidationBus != null) {
+			cacheInvalidationBus.publish(new CacheInvalidationEvent(
+				CACHE_NAME, tenantId != null ? tenantId.toString() : null, slug));
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictNow(tenantId, slug);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Apply an eviction published by another replica.
+	 */
+	@Override
+	public void evict(CacheInvalidationEvent event) {
+		if (!CACHE_NAME.equals(event.cache())) {
+			return;
+		}
+		evictNow(event.tenant() != null ? parseUuid(event.tenant()) : null, event.key());
+	}
+
+	@Override
+	public void evictAll() {
+		tenantsById.invalidateAll();
+		tenantIdsBySlug.invalidateAll();
+	}
+
+	private void evictNow(UUID tenantId, String slug) {
+		if (tenantId != null) {
+			// Also drop the alias of the cached slug, in case the slug itself changed
+			Optional<TenantEntity> cached = tenantsById.getIfPresent(tenantId);
+			if (cached != null) {
+				cached.ifPresent(tenant -> tenantIdsBySlug.invalidate(tenant.getSlug()));
+			}
+			tenantsById.invalidate(tenantId);
+		}
+		if (slug != null) {
+			tenantIdsBySlug.invalidate(slug);
+		}
+		logger.debug("Evicted tenant cache entries: tenantId={}, slug={}", tenantId, slug);
+	}
+
+	private Optional<TenantEntity> loadById(UUID tenantId) {
+		return tenantRepository.findById(tenantId);
+	}
+
+	private Optional<UUID> loadIdBySlug(String slug) {
+		Optional<TenantEntity> tenant = tenantRepository.findBySlug(slug);
+		// Seed the canonical entry so the following by-id lookup does not hit the database again
+		tenant.ifPresent(entity -> tenantsById.put(entity.getTenantId(), tenant));
+		return tenant.map(TenantEntity::getTenantId);
+	}
+
+	private static UUID parseUuid(String value) {
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
 
+	/**
+	 * Cheap shape check so slugs do not go through exception-driven UUID parsing.
+	 */
+	private static boolean looksLikeUuid(String value) {
+		return value.length() == 36
+			&& value.charAt(8) == '-' && value.charAt(13) == '-'
+			&& value.charAt(18) == '-' && value.charAt(23) == '-';
+	}
+
+	/**
+	 * Full TTL for found entries, short TTL for negative (empty) entries.
+	 */
+	private static final class PositiveNegativeExpiry<K, V> implements Expiry<K, Optional<V>> {
+		private final long ttlNanos;
+		private final long negativeTtlNanos;
+
+		private PositiveNegativeExpiry(Duration ttl, Duration negativeTtl) {
+			this.ttlNanos = ttl.toNanos();
+			this.negativeTtlNanos = negativeTtl.toNanos();
+		}
+
+		@Override
+		public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+			return value.isPresent() ? ttlNanos : negativeTtlNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
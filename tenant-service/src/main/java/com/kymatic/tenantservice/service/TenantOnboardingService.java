@@ -23,7 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -50,6 +52,8 @@ public class TenantOnboardingService {
 	private final TenantDatabaseManager tenantDatabaseManager;
 	private final KeycloakClientWrapper keycloakClientWrapper;
 	private final ObjectMapper objectMapper;
+	private final TenantIdentifierResolver tenantIdentifierResolver;
+	private final AuditLogService auditLogService;
 	
 	@Value("${keycloak.admin.organization-cleanup-enabled:false}")
 	private final boolean organizationCleanupEnabled;
@@ -60,6 +64,8 @@ public class TenantOnboardingService {
 		TenantDatabaseManager tenantDatabaseManager,
 		KeycloakClientWrapper keycloakClientWrapper,
 		ObjectMapper objectMapper,
+		TenantIdentifierResolver tenantIdentifierResolver,
+		AuditLogService auditLogService,
 		@Value("${keycloak.admin.organization-cleanup-enabled:false}") boolean organizationCleanupEnabled
 	) {
 		this.tenantRepository = tenantRepository;
@@ -67,6 +73,8 @@ public class TenantOnboardingService {
 		this.tenantDatabaseManager = tenantDatabaseManager;
 		this.keycloakClientWrapper = keycloakClientWrapper;
 		this.objectMapper = objectMapper;
+		this.tenantIdentifierResolver = tenantIdentifierResolver;
+		this.auditLogService = auditLogService;
 		this.organizationCleanupEnabled = organizationCleanupEnabled;
 	}
 
@@ -174,9 +182,21 @@ public class TenantOnboardingService {
 			tenantEntity.setStatus("active");
 
 			TenantEntity saved = tenantRepository.save(tenantEntity);
+			// Clears a cached "not found" for the new slug
+			tenantIdentifierResolver.evictTenant(saved.getTenantId(), saved.getSlug());
 			recordMigrations(saved.getTenantId(), appliedVersions, "success");
 			logger.info("Tenant record saved: id={}", saved.getTenantId());
 
+			Map<String, Object> auditDetails = new LinkedHashMap<>();
+			auditDetails.put("slug", saved.getSlug());
+			auditDetails.put("tenantName", saved.getTenantName());
+			auditDetails.put("subscriptionTier", saved.getSubscriptionTier());
+			auditDetails.put("databaseName", saved.getDatabaseName());
+			auditDetails.put("organizationId", keycloakOrgId);
+			auditDetails.put("adminUserId", adminUserId);
+			auditDetails.put("migrations", appliedVersions);
+			auditLogService.logAction(saved.getTenantId(), "tenant.onboarded", auditDetails);
+
 			// Note: User-organization assignment is handled by KeycloakClientWrapper with verification
 			// Do NOT report success here - let KeycloakClientWrapper report actual status
 			logger.info("🔄 User-organization assignment initiated (status will be reported by background processes)");
@@ -249,6 +269,7 @@ public class TenantOnboardingService {
 			try {
 				logger.info("Rollback: Deleting tenant record from database: tenantId={}", tenantEntity.getTenantId());
 				tenantRepository.delete(tenantEntity);
+				tenantIdentifierResolver.evictTenant(tenantEntity.getTenantId(), tenantEntity.getSlug());
 				logger.info("Rollback: Tenant record deleted");
 			} catch (Exception e) {
 				logger.error("Rollback: Failed to delete tenant record: tenantId={}", tenantEntity.getTenantId(), e);
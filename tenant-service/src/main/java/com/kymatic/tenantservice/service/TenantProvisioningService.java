@@ -2,6 +2,7 @@ package com.kymatic.tenantservice.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.config.TenantDataSourceProvider;
 import com.kymatic.tenantservice.dto.TenantRequest;
 import com.kymatic.tenantservice.dto.TenantUserRequest;
 import com.kymatic.tenantservice.persistence.entity.TenantEntity;
@@ -13,10 +14,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
@@ -32,19 +37,28 @@ public class TenantProvisioningService {
 	private final TenantDatabaseManager tenantDatabaseManager;
 	private final TenantUserService tenantUserService;
 	private final ObjectMapper objectMapper;
+	private final TenantIdentifierResolver tenantIdentifierResolver;
+	private final AuditLogService auditLogService;
+	private final TenantDataSourceProvider tenantDataSourceProvider;
 
 	public TenantProvisioningService(
 		TenantRepository tenantRepository,
 		TenantMigrationRepository tenantMigrationRepository,
 		TenantDatabaseManager tenantDatabaseManager,
 		TenantUserService tenantUserService,
-		ObjectMapper objectMapper
+		ObjectMapper objectMapper,
+		TenantIdentifierResolver tenantIdentifierResolver,
+		AuditLogService auditLogService,
+		TenantDataSourceProvider tenantDataSourceProvider
 	) {
 		this.tenantRepository = tenantRepository;
 		this.tenantMigrationRepository = tenantMigrationRepository;
 		this.tenantDatabaseManager = tenantDatabaseManager;
 		this.tenantUserService = tenantUserService;
 		this.objectMapper = objectMapper;
+		this.tenantIdentifierResolver = tenantIdentifierResolver;
+		this.auditLogService = auditLogService;
+		this.tenantDataSourceProvider = tenantDataSourceProvider;
 	}
 
 	@Transactional
@@ -72,9 +86,19 @@ public class TenantProvisioningService {
 		List<String> appliedVersions = tenantDatabaseManager.migrateTenantDatabase(databaseName);
 
 		TenantEntity saved = tenantRepository.save(tenant);
+		// Clears a cached "not found" for the new slug
+		tenantIdentifierResolver.evictTenant(saved.getTenantId(), saved.getSlug());
 		recordMigrations(saved.getTenantId(), appliedVersions, "success");
 		createDefaultTenantAdmin(saved, request.adminEmail());
 
+		Map<String, Object> auditDetails = new LinkedHashMap<>();
+		auditDetails.put("slug", saved.getSlug());
+		auditDetails.put("tenantName", saved.getTenantName());
+		auditDetails.put("subscriptionTier", saved.getSubscriptionTier());
+		auditDetails.put("databaseName", databaseName);
+		auditDetails.put("migrations", appliedVersions);
+		auditLogService.logAction(saved.getTenantId(), "tenant.created", auditDetails);
+
 		logger.info("Provisioned tenant {} with database {}", saved.getTenantId(), databaseName);
 		return saved;
 	}
@@ -191,8 +215,47 @@ public class TenantProvisioningService {
 	public TenantEntity updateStatus(UUID tenantId, String status) {
 		TenantEntity tenant = tenantRepository.findById(tenantId)
 			.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tenant not found: " + tenantId));
+		String previousStatus = tenant.getStatus();
 		tenant.setStatus(status);
-		return tenantRepository.save(tenant);
+		TenantEntity saved = tenantRepository.save(tenant);
+		tenantIdentifierResolver.evictTenant(tenantId, saved.getSlug());
+		evictPoolAfterCommit(saved.getDatabaseName());
+		Map<String, Object> auditDetails = new LinkedHashMap<>();
+		auditDetails.put("from", previousStatus);
+		auditDetails.put("to", status);
+		auditLogService.logAction(tenantId, "tenant.status_changed", auditDetails);
+		return saved;
+	}
+
+	/**
+	 * Drop cached lookups for a tenant whose record was changed outside this service
+	 * (e.g. by the workflow-service tenant record delegate).
+	 */
+	public void evictTenantCache(UUID tenantId, String slug) {
+		tenantIdentifierResolver.evictTenant(tenantId, slug);
+		// The record may carry a new tier or status; the pool is reopened sized for it on next use
+		tenantRepository.findById(tenantId)
+			.ifPresent(tenant -> tenantDataSourceProvider.evict(tenant.getDatabaseName()));
+	}
+
+	/**
+	 * Close the tenant's pool once the change is committed, so a request racing the commit
+	 * cannot reopen it from the old record.
+	 */
+	private void evictPoolAfterCommit(String databaseName) {
+		if (databaseName == null) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					tenantDataSourceProvider.evict(databaseName);
+				}
+			});
+		} else {
+			tenantDataSourceProvider.evict(databaseName);
+		}
 	}
 
 	@Transactional
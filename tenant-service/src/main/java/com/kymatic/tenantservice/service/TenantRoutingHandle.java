@@ -0,0 +1,18 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+
+import java.util.UUID;
+
+/**
+ * Routing information for one tenant, resolved once per request and carried in TenantContext.
+ *
+ * Holds only immutable values copied from {@link TenantEntity}, so a handle can be reused for
+ * every connection checkout in the request without touching the tenant cache again.
+ */
+public record TenantRoutingHandle(UUID tenantId, String databaseName, String subscriptionTier) {
+
+    public static TenantRoutingHandle of(TenantEntity tenant) {
+        return new TenantRoutingHandle(tenant.getTenantId(), tenant.getDatabaseName(), tenant.getSubscriptionTier());
+    }
+}
@@ -1,58 +1,327 @@
 package com.kymatic.tenantservice.service.tenant;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.activity.ActivityArchiveQuery;
+import com.kymatic.tenantservice.activity.ActivityArchiveStore;
+import com.kymatic.tenantservice.activity.ArchivedActivity;
+import com.kymatic.tenantservice.dto.tenant.ActivityLogCount;
 import com.kymatic.tenantservice.dto.tenant.ActivityLogResponse;
+import com.kymatic.tenantservice.dto.tenant.ActivityLogStatsResponse;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
 import com.kymatic.tenantservice.persistence.entity.tenant.ActivityLogEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRollupRepository;
+import com.kymatic.tenantservice.service.TenantDatabaseResolver;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class ActivityLogService {
 
+	private static final ActivityArchiveQuery ALL_ARCHIVED = new ActivityArchiveQuery(null, null, null, null, null, null);
+	private static final Comparator<ActivityLogResponse> NEWEST_FIRST = Comparator
+		.comparing(ActivityLogResponse::createdAt, OffsetDateTime.timeLineOrder())
+		.thenComparing(ActivityLogResponse::logId)
+		.reversed();
+
 	private final ActivityLogRepository activityLogRepository;
+	private final ActivityLogRollupRepository rollupRepository;
+	private final TenantExportWriter exportWriter;
+	private final ActivityArchiveStore archiveStore;
+	private final TenantDatabaseResolver tenantDatabaseResolver;
+	private final ObjectMapper objectMapper;
 
-	public ActivityLogService(ActivityLogRepository activityLogRepository) {
+	public ActivityLogService(
+		ActivityLogRepository activityLogRepository,
+		ActivityLogRollupRepository rollupRepository,
+		TenantExportWriter exportWriter,
+		ActivityArchiveStore archiveStore,
+		TenantDatabaseResolver tenantDatabaseResolver,
+		ObjectMapper objectMapper
+	) {
 		this.activityLogRepository = activityLogRepository;
+		this.rollupRepository = rollupRepository;
+		this.exportWriter = exportWriter;
+		this.archiveStore = archiveStore;
+		this.tenantDatabaseResolver = tenantDatabaseResolver;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * One keyset page of activity logs, newest first. Filters are optional and combined with AND.
+	 * Rows of months moved to the activity archive are merged in.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ActivityLogResponse> listActivityLogs(
+		UUID userId,
+		String action,
+		String entityType,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		return page(Specification.allOf(
+			KeysetPagination.equalTo("userId", userId),
+			KeysetPagination.equalTo("action", action),
+			KeysetPagination.equalTo("entityType", entityType),
+			KeysetPagination.createdBetween(createdFrom, createdTo)),
+			new ActivityArchiveQuery(instant(createdFrom), instant(createdTo), userId, action, entityType, null),
+			cursor, size);
 	}
 
-	public List<ActivityLogResponse> getAllActivityLogs() {
-		return activityLogRepository.findAll().stream()
+	/**
+	 * One activity log, from activity_log or else from the activity archive.
+	 */
+	@Transactional(readOnly = true)
+	public ActivityLogResponse getActivityLog(Long logId) {
+		return activityLogRepository.findById(logId)
 			.map(this::toResponse)
-			.collect(Collectors.toList());
+			.or(() -> readArchive(tenantId -> archiveStore.scanNewest(tenantId,
+					new ActivityArchiveQuery(null, null, null, null, null, null, logId), null, 1))
+				.stream()
+				.findFirst()
+				.map(this::toResponse))
+			.orElseThrow(() -> new IllegalArgumentException("Activity log not found: " + logId));
 	}
 
-	public Page<ActivityLogResponse> getActivityLogs(Pageable pageable) {
-		return activityLogRepository.findAll(pageable)
-			.map(this::toResponse);
+	/**
+	 * Activity of one user, newest first. activity_log is partitioned by month on created_at, so
+	 * bounding the range limits the scan to the partitions it covers. Rows of months moved to the
+	 * activity archive are read from the archive files the range covers and merged in. One keyset
+	 * page like {@link #listActivityLogs}.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ActivityLogResponse> getActivityLogsByUser(
+		UUID userId,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		return page(Specification.allOf(
+			KeysetPagination.equalTo("userId", userId),
+			KeysetPagination.createdBetween(createdFrom, createdTo)),
+			new ActivityArchiveQuery(instant(createdFrom), instant(createdTo), userId, null, null, null),
+			cursor, size);
 	}
 
-	public ActivityLogResponse getActivityLog(Long logId) {
-		ActivityLogEntity entity = activityLogRepository.findById(logId)
-			.orElseThrow(() -> new IllegalArgumentException("Activity log not found: " + logId));
-		return toResponse(entity);
+	@Transactional(readOnly = true)
+	public CursorPage<ActivityLogResponse> getActivityLogsByAction(
+		String action,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		return page(Specification.allOf(
+			KeysetPagination.equalTo("action", action),
+			KeysetPagination.createdBetween(createdFrom, createdTo)),
+			new ActivityArchiveQuery(instant(createdFrom), instant(createdTo), null, action, null, null),
+			cursor, size);
 	}
 
-	public List<ActivityLogResponse> getActivityLogsByUser(UUID userId) {
-		return activityLogRepository.findByUserId(userId).stream()
-			.map(this::toResponse)
-			.collect(Collectors.toList());
+	@Transactional(readOnly = true)
+	public CursorPage<ActivityLogResponse> getActivityLogsByEntity(
+		String entityType,
+		UUID entityId,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		return page(Specification.allOf(
+			KeysetPagination.equalTo("entityType", entityType),
+			KeysetPagination.equalTo("entityId", entityId),
+			KeysetPagination.createdBetween(createdFrom, createdTo)),
+			new ActivityArchiveQuery(instant(createdFrom), instant(createdTo), null, null, entityType, entityId),
+			cursor, size);
 	}
 
-	public List<ActivityLogResponse> getActivityLogsByAction(String action) {
-		return activityLogRepository.findByAction(action).stream()
-			.map(this::toResponse)
-			.collect(Collectors.toList());
+	/**
+	 * Activity counts per action, entity type, user or site, read from the hourly rollup rather
+	 * than counted over activity_log, so the cost grows with the hours in the range and not with
+	 * the rows. Counts are per whole hour of the JVM zone: createdFrom is rounded down and createdTo
+	 * up to the hour, and the response carries the rounded range that was counted. Archived and
+	 * expired months stay counted until their buckets pass the tenant's retention.
+	 */
+	public ActivityLogStatsResponse getActivityStats(
+		ActivityStatsGroup groupBy,
+		ActivityStatsInterval interval,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo
+	) {
+		ZoneId zone = ZoneId.systemDefault();
+		OffsetDateTime from = createdFrom != null
+			? createdFrom.atZoneSameInstant(zone).truncatedTo(ChronoUnit.HOURS).toOffsetDateTime()
+			: null;
+		if (from != null && createdTo != null && !createdTo.isAfter(from)) {
+			throw new IllegalArgumentException("createdTo must be after createdFrom");
+		}
+		OffsetDateTime to = createdTo != null ? hourCeiling(createdTo, zone) : null;
+		List<ActivityLogCount> counts = rollupRepository.count(groupBy.getColumn(), interval.getUnit(), instant(from), instant(to))
+			.stream()
+			.map(count -> new ActivityLogCount(
+				count.period() != null ? OffsetDateTime.ofInstant(count.period(), zone) : null,
+				count.key(),
+				count.count()))
+			.toList();
+		long total = counts.stream().mapToLong(ActivityLogCount::count).sum();
+		return new ActivityLogStatsResponse(groupBy.getParameter(), interval.name().toLowerCase(Locale.ROOT),
+			from, to, total, counts);
+	}
+
+	/**
+	 * The first hour boundary of the zone at or after the time.
+	 */
+	static OffsetDateTime hourCeiling(OffsetDateTime time, ZoneId zone) {
+		ZonedDateTime hour = time.atZoneSameInstant(zone).truncatedTo(ChronoUnit.HOURS);
+		return (hour.toInstant().equals(time.toInstant()) ? hour : hour.plusHours(1)).toOffsetDateTime();
+	}
+
+	/**
+	 * Stream every activity log row to the output in creation order, with constant memory: the
+	 * months moved to the activity archive first, one row group at a time, then activity_log.
+	 *
+	 * @return number of rows written
+	 */
+	@Transactional(readOnly = true)
+	public long exportActivityLogs(ExportFormat format, OutputStream out) throws IOException {
+		AtomicReference<ArchivedActivity> lastArchived = new AtomicReference<>();
+		try (Stream<ArchivedActivity> archived = archiveStore.isEnabled()
+				? archiveStore.stream(archiveTenantId(), ALL_ARCHIVED)
+				: Stream.empty();
+			 Stream<ActivityLogEntity> rows = activityLogRepository.streamAllForExport()) {
+			Stream<ActivityLogResponse> all = Stream.concat(
+				archived.peek(lastArchived::set).map(this::toResponse),
+				// Skips the rows of a month that is archived but not yet detached
+				rows.filter(row -> lastArchived.get() == null || isAfter(row, lastArchived.get())).map(this::toResponse));
+			return exportWriter.write("activity_logs", all, Function.identity(), ActivityLogResponse.class, format, out);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * One keyset page, newest first. activity_log and the archive are each read newest first up
+	 * to the page limit and merged, so a page costs at most two bounded reads.
+	 */
+	private CursorPage<ActivityLogResponse> page(
+		Specification<ActivityLogEntity> filter,
+		ActivityArchiveQuery archived,
+		String cursor,
+		Integer size
+	) {
+		int pageSize = KeysetPagination.pageSize(size);
+		KeysetPagination.Cursor<Long> after = KeysetPagination.decode(cursor, Long::valueOf);
+		List<ActivityLogResponse> rows = newest(
+			Specification.allOf(filter, KeysetPagination.after(cursor, "logId", Long::valueOf)),
+			archived,
+			after != null ? new ActivityArchiveQuery.Position(after.createdAt().toInstant(), after.id()) : null,
+			pageSize + 1);
+		return KeysetPagination.toPage(rows, pageSize, Function.identity(), ActivityLogResponse::createdAt, ActivityLogResponse::logId);
 	}
 
-	public List<ActivityLogResponse> getActivityLogsByEntity(String entityType, UUID entityId) {
-		return activityLogRepository.findByEntityTypeAndEntityId(entityType, entityId).stream()
+	private List<ActivityLogResponse> newest(
+		Specification<ActivityLogEntity> filter,
+		ActivityArchiveQuery archived,
+		ActivityArchiveQuery.Position after,
+		int limit
+	) {
+		List<ActivityLogEntity> rows = activityLogRepository.findBy(filter, query -> query
+			.sortBy(KeysetPagination.sort("logId"))
+			.limit(limit)
+			.all());
+		List<ActivityLogResponse> hot = rows.stream().map(this::toResponse).toList();
+		List<ActivityLogResponse> cold = readArchive(tenantId -> archiveStore.scanNewest(tenantId, archived, after, limit))
+			.stream()
 			.map(this::toResponse)
-			.collect(Collectors.toList());
+			.toList();
+		return mergeNewest(hot, cold, limit);
+	}
+
+	/**
+	 * Merge two newest-first lists into one of at most limit rows. A row in both, from a month
+	 * that is archived but not yet detached, is kept once.
+	 */
+	private static List<ActivityLogResponse> mergeNewest(List<ActivityLogResponse> hot, List<ActivityLogResponse> cold, int limit) {
+		if (cold.isEmpty()) {
+			return hot.size() > limit ? hot.subList(0, limit) : hot;
+		}
+		List<ActivityLogResponse> merged = new ArrayList<>(Math.min(limit, hot.size() + cold.size()));
+		int h = 0;
+		int c = 0;
+		while (merged.size() < limit && (h < hot.size() || c < cold.size())) {
+			int order = h == hot.size() ? 1 : c == cold.size() ? -1 : NEWEST_FIRST.compare(hot.get(h), cold.get(c));
+			if (order > 0) {
+				merged.add(cold.get(c++));
+			} else {
+				merged.add(hot.get(h++));
+				if (order == 0) {
+					c++;
+				}
+			}
+		}
+		return merged;
+	}
+
+	private List<ArchivedActivity> readArchive(ArchiveRead read) {
+		if (!archiveStore.isEnabled()) {
+			return List.of();
+		}
+		try {
+			return read.read(archiveTenantId());
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to read the activity archive", e);
+		}
+	}
+
+	private String archiveTenantId() {
+		return tenantDatabaseResolver.getCurrentRoutingHandle().tenantId().toString();
+	}
+
+	private static boolean isAfter(ActivityLogEntity row, ArchivedActivity archived) {
+		int byTime = row.getCreatedAt().toInstant().compareTo(archived.createdAt());
+		return byTime > 0 || (byTime == 0 && row.getLogId() > archived.logId());
+	}
+
+	private ActivityLogResponse toResponse(ArchivedActivity row) {
+		try {
+			return new ActivityLogResponse(
+				row.logId(),
+				row.userId(),
+				row.action(),
+				row.entityType(),
+				row.entityId(),
+				row.changes() != null ? objectMapper.readTree(row.changes()) : null,
+				OffsetDateTime.ofInstant(row.createdAt(), ZoneId.systemDefault())
+			);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Invalid changes in archived activity log " + row.logId(), e);
+		}
+	}
+
+	private static Instant instant(OffsetDateTime value) {
+		return value != null ? value.toInstant() : null;
 	}
 
 	private ActivityLogResponse toResponse(ActivityLogEntity entity) {
@@ -66,5 +335,9 @@ public class ActivityLogService {
 			entity.getCreatedAt()
 		);
 	}
-}
 
+	@FunctionalInterface
+	private interface ArchiveRead {
+		List<ArchivedActivity> read(String tenantId) throws IOException;
+	}
+}
@@ -0,0 +1,52 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import java.util.Locale;
+
+/**
+ * What the activity log counts are grouped by.
+ */
+public enum ActivityStatsGroup {
+	ACTION("action", "action"),
+	ENTITY_TYPE("entityType", "entity_type"),
+	USER("user", "user_id"),
+	SITE("site", "site_id");
+
+	private final String parameter;
+	private final String column;
+
+	ActivityStatsGroup(String parameter, String column) {
+		this.parameter = parameter;
+		this.column = column;
+	}
+
+	/**
+	 * Name of the grouping in requests and responses.
+	 */
+	public String getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * activity_log_hourly column holding the group key.
+	 */
+	public String getColumn() {
+		return column;
+	}
+
+	/**
+	 * Parse action, entityType, user or site (also accepted: entity_type, userId, siteId).
+	 */
+	public static ActivityStatsGroup from(String value) {
+		if (value == null || value.isBlank()) {
+			return ACTION;
+		}
+		return switch (value.trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+			case "action" -> ACTION;
+			case "entitytype" -> ENTITY_TYPE;
+			case "user", "userid" -> USER;
+			case "site", "siteid" -> SITE;
+			default -> throw new IllegalArgumentException(
+				"Unsupported activity stats grouping: " + value + " (expected action, entityType, user or site)");
+		};
+	}
+}
@@ -0,0 +1,36 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import java.util.Locale;
+
+/**
+ * Period of the activity log counts: one total over the range, or one count per hour or day.
+ */
+public enum ActivityStatsInterval {
+	TOTAL(null),
+	HOUR("hour"),
+	DAY("day");
+
+	private final String unit;
+
+	ActivityStatsInterval(String unit) {
+		this.unit = unit;
+	}
+
+	/**
+	 * date_trunc unit of the period, or null for a total.
+	 */
+	public String getUnit() {
+		return unit;
+	}
+
+	public static ActivityStatsInterval from(String value) {
+		if (value == null || value.isBlank()) {
+			return TOTAL;
+		}
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unsupported activity stats interval: " + value + " (expected total, hour or day)");
+		}
+	}
+}
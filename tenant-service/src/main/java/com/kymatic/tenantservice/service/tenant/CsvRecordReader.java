@@ -0,0 +1,96 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader: comma separated, fields optionally quoted with "" as the escaped
+ * quote, records ended by CRLF or LF outside quotes. Reads one record at a time.
+ */
+final class CsvRecordReader {
+
+	private final Reader reader;
+	private int pending = -2;
+
+	CsvRecordReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * The next non-empty record, or null at the end of the input.
+	 *
+	 * @throws IllegalArgumentException when a quoted field is not closed
+	 */
+	List<String> next() throws IOException {
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				return null;
+			}
+			if (c == '\r' || c == '\n') {
+				continue;
+			}
+			unread(c);
+			return readRecord();
+		}
+	}
+
+	private List<String> readRecord() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		while (true) {
+			int c = read();
+			if (quoted) {
+				if (c == -1) {
+					throw new IllegalArgumentException("Unterminated quoted CSV field");
+				}
+				if (c == '"') {
+					int following = read();
+					if (following == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						unread(following);
+					}
+				} else {
+					field.append((char) c);
+				}
+				continue;
+			}
+			if (c == -1 || c == '\n' || c == '\r') {
+				if (c == '\r') {
+					int following = read();
+					if (following != '\n') {
+						unread(following);
+					}
+				}
+				fields.add(field.toString());
+				return fields;
+			}
+			if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '"' && field.isEmpty()) {
+				quoted = true;
+			} else {
+				field.append((char) c);
+			}
+		}
+	}
+
+	private int read() throws IOException {
+		if (pending != -2) {
+			int c = pending;
+			pending = -2;
+			return c;
+		}
+		return reader.read();
+	}
+
+	private void unread(int c) {
+		pending = c;
+	}
+}
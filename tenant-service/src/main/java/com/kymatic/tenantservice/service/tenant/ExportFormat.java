@@ -0,0 +1,44 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import java.util.Locale;
+
+/**
+ * Formats of the streaming tenant data exports and imports.
+ */
+public enum ExportFormat {
+	/**
+	 * One JSON object per line.
+	 */
+	NDJSON("application/x-ndjson", "ndjson"),
+	/**
+	 * RFC 4180 CSV with a header row.
+	 */
+	CSV("text/csv", "csv");
+
+	private final String contentType;
+	private final String extension;
+
+	ExportFormat(String contentType, String extension) {
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public static ExportFormat from(String value) {
+		if (value == null || value.isBlank()) {
+			return NDJSON;
+		}
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unsupported export format: " + value + " (expected ndjson or csv)");
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination over (created_at, id), newest first.
+ *
+ * A page after a cursor is read with
+ * {@code created_at <= :c AND (created_at < :c OR (created_at = :c AND id < :id))}
+ * ordered by (created_at DESC, id DESC) and limited to size + 1 rows. The redundant
+ * {@code created_at <= :c} term is what lets PostgreSQL start a range scan on the
+ * (filter, created_at, id) indexes from db/tenant/V3__keyset_pagination_indexes.sql, so a page
+ * costs the same at any depth. The continuation token is the last row's (created_at, id) in
+ * base64url; clients must treat it as opaque and pass it back unchanged.
+ *
+ * Every list is paged: a request without a size gets DEFAULT_PAGE_SIZE rows, and clients that
+ * need everything follow the continuation tokens.
+ */
+public final class KeysetPagination {
+
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+
+	static final String CREATED_AT = "createdAt";
+
+	private static final char SEPARATOR = '|';
+
+	private KeysetPagination() {
+	}
+
+	/**
+	 * Requested page size clamped to [1, MAX_PAGE_SIZE]; DEFAULT_PAGE_SIZE when not given.
+	 */
+	public static int pageSize(Integer requested) {
+		if (requested == null || requested <= 0) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(requested, MAX_PAGE_SIZE);
+	}
+
+	public static Sort sort(String idProperty) {
+		return Sort.by(Sort.Direction.DESC, CREATED_AT, idProperty);
+	}
+
+	/**
+	 * Restriction to the rows after a continuation token; no restriction for the first page.
+	 *
+	 * @throws IllegalArgumentException when the token is malformed
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static <E> Specification<E> after(String cursor, String idProperty, Function<String, ? extends Comparable<?>> idParser) {
+		Cursor<? extends Comparable<?>> position = decode(cursor, idParser);
+		if (position == null) {
+			return null;
+		}
+		OffsetDateTime createdAt = position.createdAt();
+		Comparable lastId = position.id();
+		return (root, query, cb) -> {
+			Path<OffsetDateTime> created = root.get(CREATED_AT);
+			Path<Comparable> id = root.get(idProperty);
+			return cb.and(
+				cb.lessThanOrEqualTo(created, createdAt),
+				cb.or(
+					cb.lessThan(created, createdAt),
+					cb.and(cb.equal(created, createdAt), cb.lessThan(id, lastId))));
+		};
+	}
+
+	/**
+	 * The (created_at, id) position of a continuation token; null for the first page.
+	 *
+	 * @throws IllegalArgumentException when the token is malformed
+	 */
+	static <I> Cursor<I> decode(String cursor, Function<String, I> idParser) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = decoded.indexOf(SEPARATOR);
+			if (separator < 0) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+			return new Cursor<>(OffsetDateTime.parse(decoded.substring(0, separator)), idParser.apply(decoded.substring(separator + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor", e);
+		}
+	}
+
+	static String encode(OffsetDateTime createdAt, Object id) {
+		String raw = createdAt + String.valueOf(SEPARATOR) + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Map up to pageSize + 1 fetched rows to a page, with a token for the next page when the
+	 * extra row shows there is one.
+	 */
+	static <E, R> CursorPage<R> toPage(
+		List<E> rows,
+		int pageSize,
+		Function<E, R> mapper,
+		Function<E, OffsetDateTime> createdAt,
+		Function<E, ?> id
+	) {
+		List<E> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+		String nextCursor = null;
+		if (rows.size() > pageSize) {
+			E last = page.get(page.size() - 1);
+			nextCursor = encode(createdAt.apply(last), id.apply(last));
+		}
+		return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+	}
+
+	/**
+	 * Equality filter on an attribute; no restriction when the value is null.
+	 */
+	public static <E> Specification<E> equalTo(String attribute, Object value) {
+		if (value == null) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get(attribute), value);
+	}
+
+	/**
+	 * created_at in [from, to); either bound may be null.
+	 */
+	public static <E> Specification<E> createdBetween(OffsetDateTime from, OffsetDateTime to) {
+		if (from == null && to == null) {
+			return null;
+		}
+		return (root, query, cb) -> {
+			if (from == null) {
+				return cb.lessThan(root.get(CREATED_AT), to);
+			}
+			if (to == null) {
+				return cb.greaterThanOrEqualTo(root.get(CREATED_AT), from);
+			}
+			return cb.and(
+				cb.greaterThanOrEqualTo(root.get(CREATED_AT), from),
+				cb.lessThan(root.get(CREATED_AT), to));
+		};
+	}
+
+	record Cursor<I>(OffsetDateTime createdAt, I id) {
+	}
+}
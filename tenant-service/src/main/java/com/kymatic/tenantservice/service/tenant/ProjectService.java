@@ -1,24 +1,39 @@
 package com.kymatic.tenantservice.service.tenant;
 
 import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
 import com.kymatic.tenantservice.dto.tenant.ProjectRequest;
 import com.kymatic.tenantservice.dto.tenant.ProjectResponse;
 import com.kymatic.tenantservice.persistence.entity.tenant.ProjectEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.TaskEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.ProjectRepository;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProjectService {
 
 	private final ProjectRepository projectRepository;
+	private final TenantEntityCache entityCache;
+	private final TenantExportWriter exportWriter;
+	private final ActivityLogWriter activityLog;
 
-	public ProjectService(ProjectRepository projectRepository) {
+	public ProjectService(ProjectRepository projectRepository, TenantEntityCache entityCache, TenantExportWriter exportWriter, ActivityLogWriter activityLog) {
 		this.projectRepository = projectRepository;
+		this.entityCache = entityCache;
+		this.exportWriter = exportWriter;
+		this.activityLog = activityLog;
 	}
 
 	@Transactional
@@ -36,18 +51,37 @@ public class ProjectService {
 		entity.setStatus(request.status());
 
 		ProjectEntity saved = projectRepository.save(entity);
+		activityLog.record("created", "project", saved.getProjectId(), saved.getName(), request);
 		return toResponse(saved);
 	}
 
-	@org.springframework.cache.annotation.Cacheable(value = "projects", key = "'all-' + T(com.kymatic.shared.multitenancy.TenantContext).getTenantId()")
-	public List<ProjectResponse> getAllProjects() {
-		return projectRepository.findAll().stream()
-			.map(this::toResponse)
-			.collect(Collectors.toList());
+	/**
+	 * One keyset page of projects, newest first. Filters are optional and combined with AND.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<ProjectResponse> listProjects(
+		String status,
+		UUID ownerId,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		Specification<ProjectEntity> filter = Specification.allOf(
+			KeysetPagination.equalTo("status", status),
+			KeysetPagination.equalTo("ownerId", ownerId),
+			KeysetPagination.createdBetween(createdFrom, createdTo),
+			KeysetPagination.after(cursor, "projectId", UUID::fromString));
+		int pageSize = KeysetPagination.pageSize(size);
+		List<ProjectEntity> rows = projectRepository.findBy(filter, query -> query
+			.sortBy(KeysetPagination.sort("projectId"))
+			.limit(pageSize + 1)
+			.all());
+		return KeysetPagination.toPage(rows, pageSize, this::toResponse, ProjectEntity::getCreatedAt, ProjectEntity::getProjectId);
 	}
 
 	public ProjectResponse getProject(UUID projectId) {
-		ProjectEntity entity = projectRepository.findById(projectId)
+		ProjectEntity entity = entityCache.get(ProjectEntity.class, projectId, projectRepository::findById)
 			.orElseThrow(() -> new IllegalArgumentException("Project not found: " + projectId));
 		return toResponse(entity);
 	}
@@ -77,15 +111,33 @@ public class ProjectService {
 		}
 
 		ProjectEntity saved = projectRepository.save(entity);
+		entityCache.evict(ProjectEntity.class, projectId);
+		activityLog.record("updated", "project", projectId, saved.getName(), request);
 		return toResponse(saved);
 	}
 
+	// Deleting a project cascades to its tasks
 	@Transactional
 	public void deleteProject(UUID projectId) {
 		if (!projectRepository.existsById(projectId)) {
 			throw new IllegalArgumentException("Project not found: " + projectId);
 		}
 		projectRepository.deleteById(projectId);
+		entityCache.evict(ProjectEntity.class, projectId);
+		entityCache.evictAll(TaskEntity.class);
+		activityLog.record("deleted", "project", projectId, null, null);
+	}
+
+	/**
+	 * Stream every project row to the output in creation order, with constant memory.
+	 *
+	 * @return number of rows written
+	 */
+	@Transactional(readOnly = true)
+	public long exportProjects(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<ProjectEntity> rows = projectRepository.streamAllForExport()) {
+			return exportWriter.write("projects", rows, this::toResponse, ProjectResponse.class, format, out);
+		}
 	}
 
 	private ProjectResponse toResponse(ProjectEntity entity) {
@@ -0,0 +1,135 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import com.kymatic.tenantservice.dto.tenant.SearchResult;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository.SearchCursor;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository.SearchHit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Tenant-scoped full-text search over tasks, projects and users.
+ *
+ * Hits are ranked and paginated by keyset on (rank, type, id), like the list endpoints page on
+ * (created_at, id); the continuation token is opaque and only valid for the same query.
+ * A plain search accepts web-search syntax ("quoted phrases", or, -excluded); a prefix
+ * search matches every word of the query as a word prefix, for search-as-you-type.
+ */
+@Service
+public class SearchService {
+
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	public static final int MAX_PAGE_SIZE = 100;
+
+	static final int MAX_QUERY_LENGTH = 200;
+
+	private static final Set<String> ALL_TYPES = Set.of(SearchRepository.TASK, SearchRepository.PROJECT, SearchRepository.USER);
+	private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final char SEPARATOR = '|';
+
+	private final SearchRepository searchRepository;
+
+	public SearchService(SearchRepository searchRepository) {
+		this.searchRepository = searchRepository;
+	}
+
+	/**
+	 * One page of hits, best first.
+	 *
+	 * @param types  task, project and/or user; all when null or empty
+	 * @param prefix match the words of the query as prefixes
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<SearchResult> search(String query, List<String> types, boolean prefix, String cursor, Integer size) {
+		String tenantId = TenantContext.getTenantId();
+		if (tenantId == null) {
+			throw new IllegalStateException("Tenant ID is required");
+		}
+		if (query == null || query.isBlank()) {
+			throw new IllegalArgumentException("Search query is required");
+		}
+		if (query.length() > MAX_QUERY_LENGTH) {
+			throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+		}
+		String text = prefix ? prefixQuery(query) : query.trim();
+		int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+		List<SearchHit> hits = searchRepository.search(tenantId, text, prefix, searchTypes(types), decode(cursor), pageSize + 1);
+		List<SearchHit> page = hits.size() > pageSize ? hits.subList(0, pageSize) : hits;
+		String nextCursor = hits.size() > pageSize ? encode(page.get(page.size() - 1)) : null;
+		return new CursorPage<>(page.stream().map(SearchService::toResult).toList(), nextCursor);
+	}
+
+	/**
+	 * to_tsquery expression matching every word of the query as a prefix, e.g.
+	 * "ada love" -> "ada:* &amp; love:*". Only letters and digits reach the expression, so user
+	 * input cannot inject tsquery operators.
+	 */
+	static String prefixQuery(String query) {
+		String expression = Arrays.stream(NON_WORD.split(query.toLowerCase(Locale.ROOT)))
+			.filter(word -> !word.isEmpty())
+			.map(word -> word + ":*")
+			.collect(Collectors.joining(" & "));
+		if (expression.isEmpty()) {
+			throw new IllegalArgumentException("Search query must contain letters or digits");
+		}
+		return expression;
+	}
+
+	private static Set<String> searchTypes(List<String> types) {
+		if (types == null || types.isEmpty()) {
+			return ALL_TYPES;
+		}
+		Set<String> selected = new LinkedHashSet<>();
+		for (String type : types) {
+			String normalized = type.trim().toLowerCase(Locale.ROOT);
+			if (!ALL_TYPES.contains(normalized)) {
+				throw new IllegalArgumentException("Unsupported search type: " + type + " (expected task, project or user)");
+			}
+			selected.add(normalized);
+		}
+		return selected;
+	}
+
+	private static String encode(SearchHit hit) {
+		String raw = Float.toString(hit.rank()) + SEPARATOR + hit.type() + SEPARATOR + hit.id();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the token is malformed
+	 */
+	private static SearchCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+				.split(Pattern.quote(String.valueOf(SEPARATOR)), -1);
+			if (parts.length != 3 || !ALL_TYPES.contains(parts[1])) {
+				throw new IllegalArgumentException("Invalid cursor");
+			}
+			return new SearchCursor(Float.parseFloat(parts[0]), parts[1], UUID.fromString(parts[2]));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor", e);
+		}
+	}
+
+	private static SearchResult toResult(SearchHit hit) {
+		return new SearchResult(hit.type(), hit.id(), hit.title(), hit.text(),
+			hit.titleHighlight(), hit.textHighlight(), hit.rank());
+	}
+}
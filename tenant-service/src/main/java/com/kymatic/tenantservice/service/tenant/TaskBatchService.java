@@ -0,0 +1,295 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchResponse;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchResult;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchStatus;
+import com.kymatic.tenantservice.dto.tenant.TaskRequest;
+import com.kymatic.tenantservice.dto.tenant.TaskUpdate;
+import com.kymatic.tenantservice.persistence.entity.tenant.TaskEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.ProjectRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.TaskBatchRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.TaskBatchRepository.TaskPatch;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch task creates and partial updates.
+ *
+ * This service:
+ * - Validates every item up front, checking project and assignee ids with one query each, and
+ *   reports rejected items without writing them
+ * - Writes the valid items in chunks of tenant.tasks.batch.chunk-size, one transaction per chunk:
+ *   creates are persisted and flushed together so Hibernate sends them as JDBC batches, updates
+ *   are one set-based statement per chunk ({@link TaskBatchRepository})
+ * - Returns one result per item, in request order; a chunk that fails to commit marks its items
+ *   FAILED and the remaining chunks are still written
+ * - Logs one activity per created or updated task, queued when its chunk commits
+ */
+@Service
+public class TaskBatchService {
+
+	static final int MAX_BATCH_SIZE = 5_000;
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskBatchService.class);
+
+	private static final int MAX_TITLE_LENGTH = 255;
+	private static final int MAX_STATUS_LENGTH = 50;
+
+	private final EntityManager entityManager;
+	private final TaskBatchRepository taskBatchRepository;
+	private final ProjectRepository projectRepository;
+	private final UserRepository userRepository;
+	private final TenantEntityCache entityCache;
+	private final ActivityLogWriter activityLog;
+	private final TransactionTemplate transaction;
+	private final int chunkSize;
+
+	public TaskBatchService(
+		EntityManager entityManager,
+		TaskBatchRepository taskBatchRepository,
+		ProjectRepository projectRepository,
+		UserRepository userRepository,
+		TenantEntityCache entityCache,
+		ActivityLogWriter activityLog,
+		PlatformTransactionManager transactionManager,
+		@Value("${tenant.tasks.batch.chunk-size:500}") int chunkSize
+	) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("tenant.tasks.batch.chunk-size must be positive");
+		}
+		this.entityManager = entityManager;
+		this.taskBatchRepository = taskBatchRepository;
+		this.projectRepository = projectRepository;
+		this.userRepository = userRepository;
+		this.entityCache = entityCache;
+		this.activityLog = activityLog;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+	}
+
+	public TaskBatchResponse createTasks(List<TaskRequest> requests) {
+		String tenantId = requireTenant();
+		checkBatchSize(requests);
+
+		TaskBatchResult[] results = new TaskBatchResult[requests.size()];
+		Set<UUID> projects = existing(requests, TaskRequest::projectId, projectRepository::findExistingIds);
+		Set<UUID> users = existing(requests, TaskRequest::assignedTo, userRepository::findExistingIds);
+		List<Integer> valid = new ArrayList<>();
+		for (int i = 0; i < requests.size(); i++) {
+			TaskRequest request = requests.get(i);
+			String error = request == null ? "Task is required" : validateCreate(request, projects, users);
+			if (error != null) {
+				results[i] = new TaskBatchResult(i, null, TaskBatchStatus.REJECTED, error);
+			} else {
+				valid.add(i);
+			}
+		}
+
+		for (List<Integer> chunk : chunks(valid)) {
+			Map<Integer, UUID> created = new HashMap<>();
+			try {
+				transaction.executeWithoutResult(status -> {
+					for (int i : chunk) {
+						TaskEntity entity = toEntity(tenantId, requests.get(i));
+						entityManager.persist(entity);
+						created.put(i, entity.getTaskId());
+						activityLog.record("created", "task", entity.getTaskId(), entity.getTitle(), requests.get(i));
+					}
+					entityManager.flush();
+					entityManager.clear();
+				});
+				chunk.forEach(i -> results[i] = new TaskBatchResult(i, created.get(i), TaskBatchStatus.CREATED, null));
+			} catch (DataAccessException | PersistenceException | TransactionException e) {
+				logger.warn("Batch create of {} task(s) failed for tenant {}", chunk.size(), tenantId, e);
+				chunk.forEach(i -> results[i] = new TaskBatchResult(i, null, TaskBatchStatus.FAILED, failure(e)));
+			}
+		}
+		return toResponse(results);
+	}
+
+	public TaskBatchResponse updateTasks(List<TaskUpdate> updates) {
+		String tenantId = requireTenant();
+		checkBatchSize(updates);
+
+		TaskBatchResult[] results = new TaskBatchResult[updates.size()];
+		Set<UUID> projects = existing(updates, TaskUpdate::projectId, projectRepository::findExistingIds);
+		Set<UUID> users = existing(updates, TaskUpdate::assignedTo, userRepository::findExistingIds);
+		Map<UUID, Integer> indexByTaskId = new HashMap<>();
+		List<Integer> valid = new ArrayList<>();
+		for (int i = 0; i < updates.size(); i++) {
+			TaskUpdate update = updates.get(i);
+			String error = update == null ? "Update is required" : validateUpdate(update, projects, users);
+			if (error == null) {
+				Integer first = indexByTaskId.putIfAbsent(update.taskId(), i);
+				error = first != null ? "Duplicate of item " + first : null;
+			}
+			if (error != null) {
+				results[i] = new TaskBatchResult(i, update != null ? update.taskId() : null, TaskBatchStatus.REJECTED, error);
+			} else {
+				valid.add(i);
+			}
+		}
+
+		for (List<Integer> chunk : chunks(valid)) {
+			List<TaskPatch> patches = chunk.stream().map(i -> toPatch(updates.get(i))).toList();
+			try {
+				Set<UUID> updated = transaction.execute(status -> {
+					Set<UUID> updatedIds = taskBatchRepository.updateTasks(patches);
+					for (int i : chunk) {
+						TaskUpdate update = updates.get(i);
+						if (updatedIds.contains(update.taskId())) {
+							activityLog.record("updated", "task", update.taskId(), update.title(), update);
+						}
+					}
+					return updatedIds;
+				});
+				for (int i : chunk) {
+					UUID taskId = updates.get(i).taskId();
+					if (updated.contains(taskId)) {
+						entityCache.evict(TaskEntity.class, taskId);
+						results[i] = new TaskBatchResult(i, taskId, TaskBatchStatus.UPDATED, null);
+					} else {
+						results[i] = new TaskBatchResult(i, taskId, TaskBatchStatus.NOT_FOUND, "Task not found: " + taskId);
+					}
+				}
+			} catch (DataAccessException | PersistenceException | TransactionException e) {
+				logger.warn("Batch update of {} task(s) failed for tenant {}", chunk.size(), tenantId, e);
+				chunk.forEach(i -> results[i] = new TaskBatchResult(i, updates.get(i).taskId(), TaskBatchStatus.FAILED, failure(e)));
+			}
+		}
+		return toResponse(results);
+	}
+
+	/**
+	 * Reason the create is rejected, or null when it is valid; the constraints of
+	 * {@link TaskRequest} and the tasks columns.
+	 */
+	private static String validateCreate(TaskRequest request, Set<UUID> projects, Set<UUID> users) {
+		if (request.projectId() == null) {
+			return "Project ID is required";
+		}
+		if (request.title() == null || request.title().isBlank()) {
+			return "Title is required";
+		}
+		return validateFields(request.projectId(), request.title(), request.assignedTo(), request.status(), projects, users);
+	}
+
+	private static String validateUpdate(TaskUpdate update, Set<UUID> projects, Set<UUID> users) {
+		if (update.taskId() == null) {
+			return "Task ID is required";
+		}
+		if (update.title() != null && update.title().isBlank()) {
+			return "Title must not be blank";
+		}
+		return validateFields(update.projectId(), update.title(), update.assignedTo(), update.status(), projects, users);
+	}
+
+	private static String validateFields(UUID projectId, String title, UUID assignedTo, String status, Set<UUID> projects, Set<UUID> users) {
+		if (title != null && title.length() > MAX_TITLE_LENGTH) {
+			return "Title must be at most " + MAX_TITLE_LENGTH + " characters";
+		}
+		if (status != null && status.length() > MAX_STATUS_LENGTH) {
+			return "Status must be at most " + MAX_STATUS_LENGTH + " characters";
+		}
+		if (projectId != null && !projects.contains(projectId)) {
+			return "Project not found: " + projectId;
+		}
+		if (assignedTo != null && !users.contains(assignedTo)) {
+			return "User not found: " + assignedTo;
+		}
+		return null;
+	}
+
+	/**
+	 * The referenced ids that exist, with one query.
+	 */
+	private static <T> Set<UUID> existing(List<T> items, Function<T, UUID> id, Function<Collection<UUID>, List<UUID>> findExistingIds) {
+		Set<UUID> ids = items.stream()
+			.filter(Objects::nonNull)
+			.map(id)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toSet());
+		return ids.isEmpty() ? Set.of() : new HashSet<>(findExistingIds.apply(ids));
+	}
+
+	private List<List<Integer>> chunks(List<Integer> indexes) {
+		List<List<Integer>> chunks = new ArrayList<>();
+		for (int from = 0; from < indexes.size(); from += chunkSize) {
+			chunks.add(indexes.subList(from, Math.min(from + chunkSize, indexes.size())));
+		}
+		return chunks;
+	}
+
+	private static String requireTenant() {
+		String tenantId = TenantContext.getTenantId();
+		if (tenantId == null) {
+			throw new IllegalStateException("Tenant ID is required");
+		}
+		return tenantId;
+	}
+
+	private static void checkBatchSize(List<?> items) {
+		if (items == null || items.isEmpty()) {
+			throw new IllegalArgumentException("At least one task is required");
+		}
+		if (items.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " tasks per batch");
+		}
+	}
+
+	/**
+	 * Error of every item of a failed chunk; the cause is logged, not returned.
+	 */
+	private static String failure(RuntimeException e) {
+		return "Chunk rolled back (" + e.getClass().getSimpleName() + "); no item of it was written";
+	}
+
+	private static TaskEntity toEntity(String tenantId, TaskRequest request) {
+		TaskEntity entity = new TaskEntity();
+		entity.setTenantId(tenantId);
+		entity.setProjectId(request.projectId());
+		entity.setTitle(request.title());
+		entity.setDescription(request.description());
+		entity.setAssignedTo(request.assignedTo());
+		entity.setStatus(request.status());
+		entity.setDueDate(request.dueDate());
+		return entity;
+	}
+
+	private static TaskPatch toPatch(TaskUpdate update) {
+		return new TaskPatch(update.taskId(), update.projectId(), update.title(), update.description(),
+			update.assignedTo(), update.status(), update.dueDate());
+	}
+
+	private static TaskBatchResponse toResponse(TaskBatchResult[] results) {
+		int succeeded = (int) Arrays.stream(results)
+			.filter(result -> result.status() == TaskBatchStatus.CREATED || result.status() == TaskBatchStatus.UPDATED)
+			.count();
+		return new TaskBatchResponse(succeeded, results.length - succeeded, List.of(results));
+	}
+}
@@ -1,24 +1,38 @@
 package com.kymatic.tenantservice.service.tenant;
 
 import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
 import com.kymatic.tenantservice.dto.tenant.TaskRequest;
 import com.kymatic.tenantservice.dto.tenant.TaskResponse;
 import com.kymatic.tenantservice.persistence.entity.tenant.TaskEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.TaskRepository;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service("tenantTaskService")
 public class TenantTaskService {
 
 	private final TaskRepository taskRepository;
+	private final TenantEntityCache entityCache;
+	private final TenantExportWriter exportWriter;
+	private final ActivityLogWriter activityLog;
 
-	public TenantTaskService(TaskRepository taskRepository) {
+	public TenantTaskService(TaskRepository taskRepository, TenantEntityCache entityCache, TenantExportWriter exportWriter, ActivityLogWriter activityLog) {
 		this.taskRepository = taskRepository;
+		this.entityCache = entityCache;
+		this.exportWriter = exportWriter;
+		this.activityLog = activityLog;
 	}
 
 	@Transactional
@@ -38,18 +52,39 @@ public class TenantTaskService {
 		entity.setDueDate(request.dueDate());
 
 		TaskEntity saved = taskRepository.save(entity);
+		activityLog.record("created", "task", saved.getTaskId(), saved.getTitle(), request);
 		return toResponse(saved);
 	}
 
-	@org.springframework.cache.annotation.Cacheable(value = "tasks", key = "'all-' + T(com.kymatic.shared.multitenancy.TenantContext).getTenantId()")
-	public List<TaskResponse> getAllTasks() {
-		return taskRepository.findAll().stream()
-			.map(this::toResponse)
-			.collect(Collectors.toList());
+	/**
+	 * One keyset page of tasks, newest first. Filters are optional and combined with AND.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<TaskResponse> listTasks(
+		String status,
+		UUID assignedTo,
+		UUID projectId,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		Specification<TaskEntity> filter = Specification.allOf(
+			KeysetPagination.equalTo("status", status),
+			KeysetPagination.equalTo("assignedTo", assignedTo),
+			KeysetPagination.equalTo("projectId", projectId),
+			KeysetPagination.createdBetween(createdFrom, createdTo),
+			KeysetPagination.after(cursor, "taskId", UUID::fromString));
+		int pageSize = KeysetPagination.pageSize(size);
+		List<TaskEntity> rows = taskRepository.findBy(filter, query -> query
+			.sortBy(KeysetPagination.sort("taskId"))
+			.limit(pageSize + 1)
+			.all());
+		return KeysetPagination.toPage(rows, pageSize, this::toResponse, TaskEntity::getCreatedAt, TaskEntity::getTaskId);
 	}
 
 	public TaskResponse getTask(UUID taskId) {
-		TaskEntity entity = taskRepository.findById(taskId)
+		TaskEntity entity = entityCache.get(TaskEntity.class, taskId, taskRepository::findById)
 			.orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
 		return toResponse(entity);
 	}
@@ -91,6 +126,8 @@ public class TenantTaskService {
 		}
 
 		TaskEntity saved = taskRepository.save(entity);
+		entityCache.evict(TaskEntity.class, taskId);
+		activityLog.record("updated", "task", taskId, saved.getTitle(), request);
 		return toResponse(saved);
 	}
 
@@ -100,6 +137,20 @@ public class TenantTaskService {
 			throw new IllegalArgumentException("Task not found: " + taskId);
 		}
 		taskRepository.deleteById(taskId);
+		entityCache.evict(TaskEntity.class, taskId);
+		activityLog.record("deleted", "task", taskId, null, null);
+	}
+
+	/**
+	 * Stream every task row to the output in creation order, with constant memory.
+	 *
+	 * @return number of rows written
+	 */
+	@Transactional(readOnly = true)
+	public long exportTasks(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<TaskEntity> rows = taskRepository.streamAllForExport()) {
+			return exportWriter.write("tasks", rows, this::toResponse, TaskResponse.class, format, out);
+		}
 	}
 
 	private TaskResponse toResponse(TaskEntity entity) {
@@ -0,0 +1,356 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.dto.tenant.UserImportError;
+import com.kymatic.tenantservice.dto.tenant.UserImportResponse;
+import com.kymatic.tenantservice.dto.tenant.UserRequest;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserImportRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserImportRepository.StagedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user import from a streamed CSV or NDJSON upload.
+ *
+ * This service:
+ * - Parses and validates the upload in one streaming pass; only the emails seen so far are kept
+ *   in memory, to reject duplicates within the upload
+ * - Streams the valid rows into a staging table with COPY while parsing and merges them into
+ *   users with one set statement, which also skips emails that already exist
+ *   ({@link UserImportRepository})
+ * - Tracks progress per import for GET /api/users/import/{importId} and reports every rejected
+ *   row with its reason (the first {@link #MAX_REPORTED_ERRORS} in detail)
+ * - Logs one "created" activity per inserted user, tagged with the import id, after commit
+ *
+ * The import is all-or-nothing for the valid rows: they are committed together, or not at all
+ * when the upload fails midway.
+ */
+@Service
+public class UserImportService {
+
+	static final int MAX_REPORTED_ERRORS = 10_000;
+
+	private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_EMAIL_LENGTH = 255;
+	private static final int MAX_NAME_LENGTH = 100;
+	private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+
+	private final UserImportRepository userImportRepository;
+	private final ObjectMapper objectMapper;
+	private final ActivityLogWriter activityLog;
+	private final Cache<UUID, UserImport> imports = Caffeine.newBuilder()
+		.maximumSize(1_000)
+		.expireAfterWrite(Duration.ofHours(1))
+		.build();
+
+	public UserImportService(UserImportRepository userImportRepository, ObjectMapper objectMapper, ActivityLogWriter activityLog) {
+		this.userImportRepository = userImportRepository;
+		this.objectMapper = objectMapper;
+		this.activityLog = activityLog;
+	}
+
+	/**
+	 * Import every valid row of the upload and report the rejected ones.
+	 *
+	 * @param importId optional client-chosen id, to poll progress while the upload is running
+	 */
+	@Transactional
+	public UserImportResponse importUsers(UUID importId, ExportFormat format, InputStream in) throws IOException {
+		String tenantId = TenantContext.getTenantId();
+		if (tenantId == null) {
+			throw new IllegalStateException("Tenant ID is required");
+		}
+		UserImport userImport = new UserImport(importId != null ? importId : UUID.randomUUID(), tenantId);
+		if (imports.asMap().putIfAbsent(userImport.importId, userImport) != null) {
+			throw new IllegalArgumentException("Import already exists: " + importId);
+		}
+
+		long start = System.nanoTime();
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+			RowSource source = format == ExportFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+			ValidRows rows = new ValidRows(source, userImport);
+			Map<String, UUID> inserted = userImportRepository.importUsers(tenantId, rows);
+
+			Map<String, Object> changes = Map.of("importId", userImport.importId);
+			inserted.forEach((email, userId) -> activityLog.record("created", "user", userId, email, changes));
+			rows.rowsByEmail.forEach((email, row) -> {
+				if (!inserted.containsKey(email)) {
+					userImport.reject(row, email, "User with email already exists");
+				}
+			});
+			userImport.complete(inserted.size());
+			logger.info("Imported {} of {} user row(s) for tenant {} in {} ms ({} rejected)",
+				inserted.size(), userImport.rowsRead, tenantId,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), userImport.rowsRejected);
+			return userImport.toResponse();
+		} catch (UncheckedIOException e) {
+			userImport.fail();
+			throw e.getCause();
+		} catch (RuntimeException e) {
+			userImport.fail();
+			throw e;
+		}
+	}
+
+	/**
+	 * Progress of an import of the current tenant.
+	 */
+	public UserImportResponse getImport(UUID importId) {
+		UserImport userImport = imports.getIfPresent(importId);
+		if (userImport == null || !userImport.tenantId.equals(TenantContext.getTenantId())) {
+			throw new IllegalArgumentException("Import not found: " + importId);
+		}
+		return userImport.toResponse();
+	}
+
+	private RowSource csvRows(BufferedReader reader) throws IOException {
+		CsvRecordReader csv = new CsvRecordReader(reader);
+		List<String> header = csv.next();
+		if (header == null) {
+			return () -> null;
+		}
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			columns.putIfAbsent(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+		}
+		Integer email = columns.get("email");
+		if (email == null) {
+			throw new IllegalArgumentException("CSV header must contain an email column");
+		}
+		Integer firstName = columns.get("firstname");
+		Integer lastName = columns.get("lastname");
+		Integer isActive = columns.getOrDefault("isactive", columns.get("active"));
+		return () -> {
+			List<String> fields = csv.next();
+			if (fields == null) {
+				return null;
+			}
+			String active = field(fields, isActive);
+			Boolean activeValue = parseBoolean(active);
+			if (active != null && activeValue == null) {
+				return new ParsedRow(null, field(fields, email), "Invalid isActive value: " + active);
+			}
+			return new ParsedRow(new UserRequest(field(fields, email), field(fields, firstName),
+				field(fields, lastName), null, activeValue), null, null);
+		};
+	}
+
+	private RowSource ndjsonRows(BufferedReader reader) {
+		return () -> {
+			String line;
+			do {
+				line = reader.readLine();
+				if (line == null) {
+					return null;
+				}
+			} while (line.isBlank());
+			try {
+				return new ParsedRow(objectMapper.readValue(line, UserRequest.class), null, null);
+			} catch (JsonProcessingException e) {
+				return new ParsedRow(null, null, "Malformed JSON: " + e.getOriginalMessage());
+			}
+		};
+	}
+
+	/**
+	 * Reason the row cannot be imported, or null when it is valid; the constraints of
+	 * {@link UserRequest} and the users column sizes.
+	 */
+	private static String validate(UserRequest request) {
+		if (request.email() == null || request.email().isBlank()) {
+			return "Email is required";
+		}
+		if (!EMAIL.matcher(request.email()).matches()) {
+			return "Email must be valid";
+		}
+		if (request.email().length() > MAX_EMAIL_LENGTH) {
+			return "Email must be at most " + MAX_EMAIL_LENGTH + " characters";
+		}
+		if (length(request.firstName()) > MAX_NAME_LENGTH || length(request.lastName()) > MAX_NAME_LENGTH) {
+			return "Names must be at most " + MAX_NAME_LENGTH + " characters";
+		}
+		return null;
+	}
+
+	private static String field(List<String> fields, Integer column) {
+		if (column == null || column >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(column).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private static Boolean parseBoolean(String value) {
+		if (value == null) {
+			return null;
+		}
+		return switch (value.toLowerCase(Locale.ROOT)) {
+			case "true", "t", "yes", "1" -> Boolean.TRUE;
+			case "false", "f", "no", "0" -> Boolean.FALSE;
+			default -> null;
+		};
+	}
+
+	private static int length(String value) {
+		return value != null ? value.length() : 0;
+	}
+
+	@FunctionalInterface
+	private interface RowSource {
+		/**
+		 * The next data row, or null at the end of the upload.
+		 */
+		ParsedRow next() throws IOException;
+	}
+
+	/**
+	 * A parsed row, or the reason it could not be parsed.
+	 */
+	private record ParsedRow(UserRequest request, String email, String error) {
+	}
+
+	/**
+	 * The valid, first-seen rows of the upload, produced while the staging COPY pulls them.
+	 * Rejected rows are recorded on the import as they are read.
+	 */
+	private final class ValidRows implements Iterator<StagedUser> {
+
+		private final RowSource source;
+		private final UserImport userImport;
+		private final Map<String, Long> rowsByEmail = new HashMap<>();
+		private StagedUser next;
+		private long row;
+
+		private ValidRows(RowSource source, UserImport userImport) {
+			this.source = source;
+			this.userImport = userImport;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null) {
+				ParsedRow parsed;
+				try {
+					parsed = source.next();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				if (parsed == null) {
+					userImport.status = "MERGING";
+					return false;
+				}
+				row++;
+				userImport.rowsRead = row;
+				next = accept(parsed);
+			}
+			return true;
+		}
+
+		@Override
+		public StagedUser next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			StagedUser staged = next;
+			next = null;
+			return staged;
+		}
+
+		private StagedUser accept(ParsedRow parsed) {
+			if (parsed.error() != null) {
+				userImport.reject(row, parsed.email(), parsed.error());
+				return null;
+			}
+			UserRequest request = parsed.request();
+			if (request.email() != null) {
+				request = new UserRequest(request.email().trim(), request.firstName(), request.lastName(),
+					request.role(), request.isActive());
+			}
+			String error = validate(request);
+			if (error == null) {
+				Long first = rowsByEmail.putIfAbsent(request.email(), row);
+				error = first != null ? "Duplicate of row " + first : null;
+			}
+			if (error != null) {
+				userImport.reject(row, request.email(), error);
+				return null;
+			}
+			return new StagedUser(request.email(), request.firstName(), request.lastName(), request.isActive());
+		}
+	}
+
+	/**
+	 * Progress of one import; written by the importing request, read by progress requests.
+	 */
+	private static final class UserImport {
+
+		private final UUID importId;
+		private final String tenantId;
+		private final OffsetDateTime startedAt = OffsetDateTime.now();
+		private final List<UserImportError> errors = new ArrayList<>();
+		private volatile String status = "RUNNING";
+		private volatile long rowsRead;
+		private volatile long rowsImported;
+		private volatile long rowsRejected;
+		private volatile OffsetDateTime completedAt;
+
+		private UserImport(UUID importId, String tenantId) {
+			this.importId = importId;
+			this.tenantId = tenantId;
+		}
+
+		private synchronized void reject(long row, String email, String error) {
+			rowsRejected++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new UserImportError(row, email, error));
+			}
+		}
+
+		private synchronized void complete(long imported) {
+			errors.sort(Comparator.comparingLong(UserImportError::row));
+			rowsImported = imported;
+			completedAt = OffsetDateTime.now();
+			status = "COMPLETED";
+		}
+
+		private void fail() {
+			completedAt = OffsetDateTime.now();
+			status = "FAILED";
+		}
+
+		private synchronized UserImportResponse toResponse() {
+			return new UserImportResponse(importId, status, rowsRead, rowsImported, rowsRejected,
+				List.copyOf(errors), rowsRejected > errors.size(), startedAt, completedAt);
+		}
+	}
+}
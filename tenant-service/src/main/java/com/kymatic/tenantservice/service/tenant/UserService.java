@@ -1,24 +1,37 @@
 package com.kymatic.tenantservice.service.tenant;
 
 import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
 import com.kymatic.tenantservice.dto.tenant.UserRequest;
 import com.kymatic.tenantservice.dto.tenant.UserResponse;
 import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
 import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
 	private final UserRepository userRepository;
+	private final TenantEntityCache entityCache;
+	private final TenantExportWriter exportWriter;
+	private final ActivityLogWriter activityLog;
 
-	public UserService(UserRepository userRepository) {
+	public UserService(UserRepository userRepository, TenantEntityCache entityCache, TenantExportWriter exportWriter, ActivityLogWriter activityLog) {
 		this.userRepository = userRepository;
+		this.entityCache = entityCache;
+		this.exportWriter = exportWriter;
+		this.activityLog = activityLog;
 	}
 
 	@Transactional
@@ -43,18 +56,35 @@ public class UserService {
 	entity.setIsActive(request.isActive());
 
 		UserEntity saved = userRepository.save(entity);
+		activityLog.record("created", "user", saved.getUserId(), saved.getEmail(), request);
 		return toResponse(saved);
 	}
 
-	@org.springframework.cache.annotation.Cacheable(value = "users", key = "'all-' + T(com.kymatic.shared.multitenancy.TenantContext).getTenantId()")
-	public List<UserResponse> getAllUsers() {
-		return userRepository.findAll().stream()
-			.map(this::toResponse)
-			.collect(Collectors.toList());
+	/**
+	 * One keyset page of users, newest first. Filters are optional and combined with AND.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPage<UserResponse> listUsers(
+		Boolean isActive,
+		OffsetDateTime createdFrom,
+		OffsetDateTime createdTo,
+		String cursor,
+		Integer size
+	) {
+		Specification<UserEntity> filter = Specification.allOf(
+			KeysetPagination.equalTo("isActive", isActive),
+			KeysetPagination.createdBetween(createdFrom, createdTo),
+			KeysetPagination.after(cursor, "userId", UUID::fromString));
+		int pageSize = KeysetPagination.pageSize(size);
+		List<UserEntity> rows = userRepository.findBy(filter, query -> query
+			.sortBy(KeysetPagination.sort("userId"))
+			.limit(pageSize + 1)
+			.all());
+		return KeysetPagination.toPage(rows, pageSize, this::toResponse, UserEntity::getCreatedAt, UserEntity::getUserId);
 	}
 
 	public UserResponse getUser(UUID userId) {
-		UserEntity entity = userRepository.findById(userId)
+		UserEntity entity = entityCache.get(UserEntity.class, userId, userRepository::findById)
 			.orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
 		return toResponse(entity);
 	}
@@ -92,6 +122,8 @@ public class UserService {
 	}
 
 		UserEntity saved = userRepository.save(entity);
+		entityCache.evict(UserEntity.class, userId);
+		activityLog.record("updated", "user", userId, saved.getEmail(), request);
 		return toResponse(saved);
 	}
 
@@ -101,6 +133,20 @@ public class UserService {
 			throw new IllegalArgumentException("User not found: " + userId);
 		}
 		userRepository.deleteById(userId);
+		entityCache.evict(UserEntity.class, userId);
+		activityLog.record("deleted", "user", userId, null, null);
+	}
+
+	/**
+	 * Stream every user row to the output in creation order, with constant memory.
+	 *
+	 * @return number of rows written
+	 */
+	@Transactional(readOnly = true)
+	public long exportUsers(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<UserEntity> rows = userRepository.streamAllForExport()) {
+			return exportWriter.write("users", rows, this::toResponse, UserResponse.class, format, out);
+		}
 	}
 
 	private UserResponse toResponse(UserEntity entity) {
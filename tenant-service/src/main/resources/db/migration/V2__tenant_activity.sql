@@ -0,0 +1,9 @@
+-- Per-tenant request activity, flushed periodically by TenantActivityTracker.
+-- Used to warm the most recently active tenants' connection pools first on startup.
+CREATE TABLE IF NOT EXISTS tenant_activity (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    last_active_at TIMESTAMP NOT NULL,
+    request_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_tenant_activity_last_active ON tenant_activity(last_active_at DESC);
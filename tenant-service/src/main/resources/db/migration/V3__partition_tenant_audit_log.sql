@@ -0,0 +1,46 @@
+-- Monthly range partitioning of tenant_audit_log on created_at, like activity_log in the tenant
+-- databases (db/tenant/V6__partition_activity_log.sql). Partitions are named
+-- tenant_audit_log_YYYY_MM and are kept ahead and expired by LogPartitionMaintenance; since one
+-- partition holds every tenant's rows, the master table has a single retention.
+-- The primary key becomes (log_id, created_at) and created_at becomes NOT NULL. Existing rows
+-- are copied, which holds a lock on tenant_audit_log for the duration of the migration.
+
+ALTER TABLE tenant_audit_log RENAME TO tenant_audit_log_legacy;
+ALTER TABLE tenant_audit_log_legacy RENAME CONSTRAINT tenant_audit_log_pkey TO tenant_audit_log_legacy_pkey;
+
+CREATE TABLE tenant_audit_log (
+    log_id BIGINT NOT NULL DEFAULT nextval('tenant_audit_log_log_id_seq'),
+    tenant_id UUID REFERENCES tenants(tenant_id) ON DELETE CASCADE,
+    action VARCHAR(100) NOT NULL,
+    performed_by UUID,
+    details JSONB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (log_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE tenant_audit_log_log_id_seq OWNED BY tenant_audit_log.log_id;
+
+-- Audit log reads are per tenant, newest first; the index also serves the tenant_id foreign key
+CREATE INDEX idx_tenant_audit_log_tenant_created ON tenant_audit_log(tenant_id, created_at, log_id);
+
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', CURRENT_TIMESTAMP)::date;
+    v_last DATE := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT LEAST(v_month, date_trunc('month', MIN(created_at))::date),
+           GREATEST(v_last, date_trunc('month', MAX(created_at))::date)
+    INTO v_month, v_last
+    FROM tenant_audit_log_legacy;
+    WHILE v_month <= v_last LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF tenant_audit_log FOR VALUES FROM (%L) TO (%L)',
+            'tenant_audit_log_' || to_char(v_month, 'YYYY_MM'), v_month, (v_month + INTERVAL '1 month')::date);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO tenant_audit_log (log_id, tenant_id, action, performed_by, details, created_at)
+SELECT log_id, tenant_id, action, performed_by, details, COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM tenant_audit_log_legacy;
+
+DROP TABLE tenant_audit_log_legacy;
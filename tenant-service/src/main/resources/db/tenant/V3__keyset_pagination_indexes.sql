@@ -0,0 +1,33 @@
+-- Indexes backing keyset pagination of the list endpoints.
+-- Pages are ordered by (created_at DESC, id DESC) and read with a (created_at, id) < (?, ?)
+-- predicate; each optional equality filter gets its own (filter, created_at, id) index so a
+-- filtered page is also a single index range scan. B-tree indexes are scanned backwards for
+-- the DESC order.
+
+-- Tasks
+CREATE INDEX IF NOT EXISTS idx_tasks_created_keyset ON tasks(created_at, task_id);
+CREATE INDEX IF NOT EXISTS idx_tasks_status_created_keyset ON tasks(status, created_at, task_id);
+CREATE INDEX IF NOT EXISTS idx_tasks_assigned_created_keyset ON tasks(assigned_to, created_at, task_id);
+CREATE INDEX IF NOT EXISTS idx_tasks_project_created_keyset ON tasks(project_id, created_at, task_id);
+-- Superseded by the composite indexes above (same leading column)
+DROP INDEX IF EXISTS idx_tasks_assigned;
+DROP INDEX IF EXISTS idx_tasks_project;
+
+-- Projects
+CREATE INDEX IF NOT EXISTS idx_projects_created_keyset ON projects(created_at, project_id);
+CREATE INDEX IF NOT EXISTS idx_projects_status_created_keyset ON projects(status, created_at, project_id);
+CREATE INDEX IF NOT EXISTS idx_projects_owner_created_keyset ON projects(owner_id, created_at, project_id);
+DROP INDEX IF EXISTS idx_projects_owner;
+
+-- Users
+CREATE INDEX IF NOT EXISTS idx_users_created_keyset ON users(created_at, user_id);
+CREATE INDEX IF NOT EXISTS idx_users_active_created_keyset ON users(is_active, created_at, user_id);
+
+-- Activity log
+CREATE INDEX IF NOT EXISTS idx_activity_log_created_keyset ON activity_log(created_at, log_id);
+CREATE INDEX IF NOT EXISTS idx_activity_log_user_created_keyset ON activity_log(user_id, created_at, log_id);
+CREATE INDEX IF NOT EXISTS idx_activity_log_action_created_keyset ON activity_log(action, created_at, log_id);
+CREATE INDEX IF NOT EXISTS idx_activity_log_entity_type_created_keyset ON activity_log(entity_type, created_at, log_id);
+DROP INDEX IF EXISTS idx_activity_log_created;
+DROP INDEX IF EXISTS idx_activity_log_user;
+DROP INDEX IF EXISTS idx_activity_log_action;
@@ -0,0 +1,16 @@
+-- UserRoleEntity and UserSiteAccessEntity map a tenant_id column that V1 did not create.
+-- Add it, backfilled from the granted user, so the JPQL permission queries and the bulk
+-- upserts can filter and write it.
+ALTER TABLE IF EXISTS user_roles
+    ADD COLUMN IF NOT EXISTS tenant_id VARCHAR(255);
+UPDATE user_roles ur SET tenant_id = u.tenant_id
+FROM users u
+WHERE u.user_id = ur.user_id AND ur.tenant_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_user_roles_tenant_user ON user_roles(tenant_id, user_id);
+
+ALTER TABLE IF EXISTS user_site_access
+    ADD COLUMN IF NOT EXISTS tenant_id VARCHAR(255);
+UPDATE user_site_access usa SET tenant_id = u.tenant_id
+FROM users u
+WHERE u.user_id = usa.user_id AND usa.tenant_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_user_site_access_tenant_user ON user_site_access(tenant_id, user_id);
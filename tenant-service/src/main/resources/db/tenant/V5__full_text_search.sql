@@ -0,0 +1,33 @@
+-- Full-text search over tasks, projects and users (GET /api/search).
+-- Each table gets a stored tsvector column generated from its searchable text, weighted
+-- A for titles and names and B for descriptions and emails, and a GIN index on it. Adding a
+-- stored generated column rewrites the table, which computes the vector of every existing
+-- row; new and updated rows are kept in sync by Postgres without triggers.
+-- The 'simple' configuration (lower-casing, no stemming or stop words) suits names, emails
+-- and mixed-language text; SearchRepository must build its queries with the same configuration.
+
+-- Tasks
+ALTER TABLE tasks
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_tasks_search ON tasks USING GIN (search_vector);
+
+-- Projects
+ALTER TABLE projects
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_projects_search ON projects USING GIN (search_vector);
+
+-- Users: the email is indexed whole and split on '@' and '.', so a search for "example"
+-- or "ada" finds ada@example.com
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(first_name, '') || ' ' || coalesce(last_name, '')), 'A') ||
+        setweight(to_tsvector('simple', email), 'B') ||
+        setweight(to_tsvector('simple', translate(email, '@.', '  ')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_users_search ON users USING GIN (search_vector);
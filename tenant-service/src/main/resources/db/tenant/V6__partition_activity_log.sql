@@ -0,0 +1,70 @@
+-- Monthly range partitioning of activity_log on created_at.
+-- Partitions are named activity_log_YYYY_MM and hold [first of month, first of next month).
+-- This migration creates the partitions for the existing rows and the next three months;
+-- LogPartitionMaintenance then keeps partitions created ahead and detaches and drops (or keeps
+-- for archival) those past the tenant's retention. There is no default partition: it would be
+-- scanned whenever a partition is attached and rules out DETACH PARTITION ... CONCURRENTLY.
+-- The primary key must contain the partition key, so it becomes (log_id, created_at), and
+-- created_at becomes NOT NULL. Existing rows are copied, which holds a lock on activity_log
+-- for the duration of the migration.
+
+ALTER TABLE activity_log RENAME TO activity_log_legacy;
+ALTER TABLE activity_log_legacy RENAME CONSTRAINT activity_log_pkey TO activity_log_legacy_pkey;
+DROP INDEX IF EXISTS idx_activity_log_entity;
+DROP INDEX IF EXISTS idx_activity_log_site;
+DROP INDEX IF EXISTS idx_activity_log_tenant;
+DROP INDEX IF EXISTS idx_activity_log_created_keyset;
+DROP INDEX IF EXISTS idx_activity_log_user_created_keyset;
+DROP INDEX IF EXISTS idx_activity_log_action_created_keyset;
+DROP INDEX IF EXISTS idx_activity_log_entity_type_created_keyset;
+
+CREATE TABLE activity_log (
+    log_id BIGINT NOT NULL DEFAULT nextval('activity_log_log_id_seq'),
+    tenant_id VARCHAR(255) NOT NULL,
+    site_id UUID REFERENCES sites(site_id) ON DELETE SET NULL,
+    user_id UUID REFERENCES users(user_id) ON DELETE SET NULL,
+    action VARCHAR(100) NOT NULL,
+    entity_type VARCHAR(50),
+    entity_id UUID,
+    entity_name VARCHAR(255),
+    changes JSONB,
+    ip_address VARCHAR(45),
+    user_agent TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (log_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- The sequence moves to the new table so dropping the old one keeps it
+ALTER SEQUENCE activity_log_log_id_seq OWNED BY activity_log.log_id;
+
+-- Three secondary indexes instead of seven, each created on every partition:
+-- keyset pages (all, and per user) and the history of one entity. The tenant_id index is
+-- dropped (every row of a tenant database has the same tenant_id), as are the site, action
+-- and entity type ones; action and entity type filters walk the created_at index.
+CREATE INDEX idx_activity_log_created_keyset ON activity_log(created_at, log_id);
+CREATE INDEX idx_activity_log_user_created_keyset ON activity_log(user_id, created_at, log_id);
+CREATE INDEX idx_activity_log_entity_created ON activity_log(entity_type, entity_id, created_at);
+
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', CURRENT_TIMESTAMP)::date;
+    v_last DATE := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT LEAST(v_month, date_trunc('month', MIN(created_at))::date),
+           GREATEST(v_last, date_trunc('month', MAX(created_at))::date)
+    INTO v_month, v_last
+    FROM activity_log_legacy;
+    WHILE v_month <= v_last LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF activity_log FOR VALUES FROM (%L) TO (%L)',
+            'activity_log_' || to_char(v_month, 'YYYY_MM'), v_month, (v_month + INTERVAL '1 month')::date);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO activity_log (log_id, tenant_id, site_id, user_id, action, entity_type, entity_id,
+                          entity_name, changes, ip_address, user_agent, created_at)
+SELECT log_id, tenant_id, site_id, user_id, action, entity_type, entity_id,
+       entity_name, changes, ip_address, user_agent, COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM activity_log_legacy;
+
+DROP TABLE activity_log_legacy;
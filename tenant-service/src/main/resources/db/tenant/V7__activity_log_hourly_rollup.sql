@@ -0,0 +1,48 @@
+-- Hourly activity counts, maintained on every insert into activity_log so dashboards read one row
+-- per hour and dimension combination instead of counting activity_log rows.
+-- bucket is the created_at hour (local time, like created_at). The statement-level trigger folds
+-- all rows of one INSERT (a whole ActivityLogWriter batch, or one log_activity() call) into one
+-- upsert per key, inside the inserting transaction, so the counts commit and roll back with the rows.
+-- Rows are counted once: partitions detached, archived or dropped later keep their counts here until
+-- LogPartitionMaintenance deletes the buckets past the tenant's retention.
+
+CREATE TABLE IF NOT EXISTS activity_log_hourly (
+    bucket TIMESTAMP NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    entity_type VARCHAR(50),
+    user_id UUID,
+    site_id UUID,
+    activity_count BIGINT NOT NULL,
+    -- A NULL entity type, user or site is a key value of its own
+    CONSTRAINT activity_log_hourly_key UNIQUE NULLS NOT DISTINCT (bucket, action, entity_type, user_id, site_id)
+);
+
+-- No foreign keys: the counts of deleted users and sites stay, like their activity_log rows keep
+-- the history. The unique index serves range scans on bucket.
+
+CREATE OR REPLACE FUNCTION rollup_activity_log_hourly()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO activity_log_hourly AS h (bucket, action, entity_type, user_id, site_id, activity_count)
+    SELECT date_trunc('hour', created_at), action, entity_type, user_id, site_id, count(*)
+    FROM inserted_rows
+    GROUP BY 1, 2, 3, 4, 5
+    -- Same key order in every transaction, so concurrent batches cannot deadlock on the counters
+    ORDER BY 1, 2, 3, 4, 5
+    ON CONFLICT ON CONSTRAINT activity_log_hourly_key
+        DO UPDATE SET activity_count = h.activity_count + EXCLUDED.activity_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS rollup_activity_log_hourly ON activity_log;
+CREATE TRIGGER rollup_activity_log_hourly AFTER INSERT ON activity_log
+    REFERENCING NEW TABLE AS inserted_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION rollup_activity_log_hourly();
+
+-- Counts of the rows written before this migration
+INSERT INTO activity_log_hourly (bucket, action, entity_type, user_id, site_id, activity_count)
+SELECT date_trunc('hour', created_at), action, entity_type, user_id, site_id, count(*)
+FROM activity_log
+GROUP BY 1, 2, 3, 4, 5
+ON CONFLICT ON CONSTRAINT activity_log_hourly_key DO NOTHING;
@@ -0,0 +1,111 @@
+-- has_permission, can_access_site and get_user_permissions with the inheritance rules of the
+-- in-memory permission index (EffectivePermissionIndex), so every tenant.permissions.evaluator
+-- mode gives the same answer:
+-- - a role also grants the permissions of every active system role of its tenant with a lower level
+-- - a role or site access granted at a site also applies at the sites below it in the department
+--   hierarchy (a live department at one site whose parent department is at another site)
+
+-- Permissions of every active role: its own and those of the lower-level system roles
+CREATE OR REPLACE VIEW effective_role_permissions AS
+SELECT r.role_id, p.permission_id
+FROM roles r
+JOIN role_permissions rp ON rp.role_id = r.role_id
+JOIN permissions p ON p.permission_id = rp.permission_id AND p.tenant_id = r.tenant_id
+WHERE r.is_active = true AND r.deleted_at IS NULL
+UNION
+SELECT r.role_id, p.permission_id
+FROM roles r
+JOIN roles s ON s.tenant_id = r.tenant_id AND s.level < r.level
+JOIN role_permissions rp ON rp.role_id = s.role_id
+JOIN permissions p ON p.permission_id = rp.permission_id AND p.tenant_id = r.tenant_id
+WHERE r.is_active = true AND r.deleted_at IS NULL
+    AND s.is_system_role = true AND s.is_active = true AND s.deleted_at IS NULL;
+
+-- The site and every site above it in the department hierarchy: the sites whose grants apply at
+-- p_site_id. The hierarchy may link sites in a cycle; UNION visits every site once.
+CREATE OR REPLACE FUNCTION site_and_ancestors(
+    p_site_id UUID
+) RETURNS TABLE (
+    site_id UUID
+) AS $$
+    WITH RECURSIVE scope(site_id) AS (
+        SELECT p_site_id
+        UNION
+        SELECT p.site_id
+        FROM scope s
+        JOIN departments d ON d.site_id = s.site_id
+        JOIN departments p ON p.department_id = d.parent_department_id AND p.tenant_id = d.tenant_id
+        WHERE d.deleted_at IS NULL AND p.deleted_at IS NULL
+            AND d.is_active = true AND p.is_active = true
+    )
+    SELECT scope.site_id FROM scope WHERE scope.site_id IS NOT NULL;
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION get_user_permissions(
+    p_user_id UUID,
+    p_site_id UUID DEFAULT NULL
+) RETURNS TABLE (
+    permission_key VARCHAR,
+    permission_name VARCHAR,
+    category VARCHAR
+) AS $$
+BEGIN
+    RETURN QUERY
+    SELECT DISTINCT
+        p.permission_key,
+        p.permission_name,
+        p.category
+    FROM user_roles ur
+    JOIN effective_role_permissions erp ON erp.role_id = ur.role_id
+    JOIN permissions p ON p.permission_id = erp.permission_id
+    WHERE ur.user_id = p_user_id
+        AND ur.is_active = true
+        AND (ur.expires_at IS NULL OR ur.expires_at > CURRENT_TIMESTAMP)
+        AND (ur.site_id IS NULL OR ur.site_id IN (SELECT sa.site_id FROM site_and_ancestors(p_site_id) sa))
+    ORDER BY p.category, p.permission_key;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION has_permission(
+    p_user_id UUID,
+    p_permission_key VARCHAR,
+    p_site_id UUID DEFAULT NULL
+) RETURNS BOOLEAN AS $$
+DECLARE
+    v_has_permission BOOLEAN;
+BEGIN
+    SELECT EXISTS (
+        SELECT 1
+        FROM user_roles ur
+        JOIN effective_role_permissions erp ON erp.role_id = ur.role_id
+        JOIN permissions p ON p.permission_id = erp.permission_id
+        WHERE ur.user_id = p_user_id
+            AND p.permission_key = p_permission_key
+            AND ur.is_active = true
+            AND (ur.expires_at IS NULL OR ur.expires_at > CURRENT_TIMESTAMP)
+            AND (ur.site_id IS NULL OR ur.site_id IN (SELECT sa.site_id FROM site_and_ancestors(p_site_id) sa))
+    ) INTO v_has_permission;
+
+    RETURN COALESCE(v_has_permission, false);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION can_access_site(
+    p_user_id UUID,
+    p_site_id UUID
+) RETURNS BOOLEAN AS $$
+DECLARE
+    v_can_access BOOLEAN;
+BEGIN
+    SELECT EXISTS (
+        SELECT 1
+        FROM user_site_access usa
+        WHERE usa.user_id = p_user_id
+            AND usa.site_id IN (SELECT sa.site_id FROM site_and_ancestors(p_site_id) sa)
+            AND usa.is_active = true
+            AND (usa.expires_at IS NULL OR usa.expires_at > CURRENT_TIMESTAMP)
+    ) INTO v_can_access;
+
+    RETURN COALESCE(v_can_access, false);
+END;
+$$ LANGUAGE plpgsql;
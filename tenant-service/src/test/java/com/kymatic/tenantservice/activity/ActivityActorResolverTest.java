@@ -0,0 +1,70 @@
+package com.kymatic.tenantservice.activity;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActivityActorResolver principal-to-tenant-user mapping.
+ */
+class ActivityActorResolverTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ActivityActorResolver resolver = new ActivityActorResolver(userRepository, 100, Duration.ofMinutes(5));
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void jwtSubjectIsMappedToTheTenantUserByEmailOncePerTenant() {
+        UserEntity user = new UserEntity();
+        user.setUserId(UUID.randomUUID());
+        when(userRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(user));
+        authenticate("keycloak-subject", "ada@example.com");
+        TenantContext.setTenantId("tenant-a");
+
+        assertEquals(user.getUserId(), resolver.currentUserId());
+        assertEquals(user.getUserId(), resolver.currentUserId());
+        verify(userRepository, times(1)).findByEmail("ada@example.com");
+    }
+
+    @Test
+    void principalsWithoutATenantUserResolveToNull() {
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.empty());
+        TenantContext.setTenantId("tenant-a");
+        assertNull(resolver.currentUserId());
+
+        authenticate("platform-admin", "admin@example.com");
+        assertNull(resolver.currentUserId());
+        assertNull(resolver.currentUserId());
+        verify(userRepository, times(1)).findByEmail("admin@example.com");
+
+        TenantContext.clear();
+        assertNull(resolver.currentUserId());
+    }
+
+    private static void authenticate(String subject, String email) {
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .subject(subject)
+            .claim("email", email)
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, List.of()));
+    }
+}
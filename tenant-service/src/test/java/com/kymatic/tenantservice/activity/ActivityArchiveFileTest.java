@@ -0,0 +1,108 @@
+package com.kymatic.tenantservice.activity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ActivityArchiveFile columnar format: round trip, filters and group skipping.
+ */
+class ActivityArchiveFileTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T00:00:00Z");
+    private static final UUID USER = UUID.randomUUID();
+
+    @Test
+    void rowsRoundTripAndScansFilterByRangeAndColumns(@TempDir Path directory) throws IOException {
+        List<ArchivedActivity> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new ArchivedActivity(
+                10_000 + i,
+                "tenant-a",
+                i % 7 == 0 ? null : UUID.randomUUID(),
+                i % 2 == 0 ? USER : null,
+                i % 3 == 0 ? "created" : "updated",
+                "task",
+                UUID.randomUUID(),
+                i % 5 == 0 ? null : "Task " + i + " ✓",
+                "{\"status\":\"open\",\"n\":" + i + "}",
+                null,
+                "agent",
+                START.plusSeconds(i * 60L).plusNanos(123_000)));
+        }
+        Path file = directory.resolve("archive.kac");
+
+        assertEquals(1000, ActivityArchiveFile.write(file, rows.iterator(), 128));
+
+        try (ActivityArchiveFile archive = ActivityArchiveFile.open(file)) {
+            assertEquals(1000, archive.rowCount());
+            assertEquals(rows, archive.scan(new ActivityArchiveQuery(null, null, null, null, null, null)));
+
+            Instant from = START.plusSeconds(100 * 60L);
+            Instant to = START.plusSeconds(400 * 60L);
+            List<ArchivedActivity> expected = rows.stream()
+                .filter(row -> !row.createdAt().isBefore(from) && row.createdAt().isBefore(to))
+                .filter(row -> USER.equals(row.userId()) && row.action().equals("created"))
+                .toList();
+            List<ArchivedActivity> scanned = archive.scan(new ActivityArchiveQuery(from, to, USER, "created", null, null));
+            assertFalse(scanned.isEmpty());
+            assertEquals(expected, scanned);
+
+            assertTrue(archive.scan(new ActivityArchiveQuery(null, null, null, "deleted", null, null)).isEmpty());
+        }
+    }
+
+    @Test
+    void newestFirstScansStopAtTheLimitAndStreamsReadEveryGroup(@TempDir Path directory) throws IOException {
+        List<ArchivedActivity> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // Pairs of rows share a created_at, so the position tie-breaks on log_id
+            rows.add(row(i + 1, START.plusSeconds(i / 2)));
+        }
+        Path file = directory.resolve("archive.kac");
+        ActivityArchiveFile.write(file, rows.iterator(), 8);
+        ActivityArchiveQuery all = new ActivityArchiveQuery(null, null, null, null, null, null);
+
+        try (ActivityArchiveFile archive = ActivityArchiveFile.open(file)) {
+            assertEquals(List.of(rows.get(99), rows.get(98), rows.get(97)), archive.scanNewest(all, null, 3));
+
+            ArchivedActivity last = rows.get(50);
+            List<ArchivedActivity> page = archive.scanNewest(all,
+                new ActivityArchiveQuery.Position(last.createdAt(), last.logId()), 4);
+            assertEquals(List.of(rows.get(49), rows.get(48), rows.get(47), rows.get(46)), page);
+
+            assertEquals(List.of(rows.get(41)), archive.scan(new ActivityArchiveQuery(null, null, null, null, null, null, 42L)));
+            try (Stream<ArchivedActivity> streamed = archive.stream(all)) {
+                assertEquals(rows, streamed.toList());
+            }
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFilesAndOutOfOrderRows(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("archive.kac");
+        ActivityArchiveFile.write(file, List.of(row(1, START), row(2, START.plusSeconds(1))).iterator(), 16);
+        Path truncated = directory.resolve("truncated.kac");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> ActivityArchiveFile.open(truncated));
+        assertThrows(IllegalArgumentException.class, () -> ActivityArchiveFile.write(directory.resolve("unordered.kac"),
+            List.of(row(2, START.plusSeconds(1)), row(1, START)).iterator(), 16));
+    }
+
+    private static ArchivedActivity row(long logId, Instant createdAt) {
+        return new ArchivedActivity(logId, "tenant-a", null, null, "created", "task", null, null, null, null, null, createdAt);
+    }
+}
@@ -0,0 +1,115 @@
+package com.kymatic.tenantservice.activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActivityLogWriter batching per tenant, retries and spool replay.
+ */
+class ActivityLogWriterTest {
+
+    private final ActivityLogBatchRepository repository = mock(ActivityLogBatchRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<ActivityLogWriter> writers = new ArrayList<>();
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TenantContext.clear();
+        for (ActivityLogWriter writer : writers) {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    void eventsAreWrittenPerTenantAndRetriedAfterAFailure() throws Exception {
+        when(repository.insert(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+            .thenAnswer(invocation -> recordWrite(invocation.getArgument(0), invocation.getArgument(1)));
+        ActivityLogWriter writer = writer("memory", null, Duration.ofMillis(20));
+
+        TenantContext.setTenantId("tenant-a");
+        writer.record("created", "task", UUID.randomUUID(), "First", Map.of("status", "open"));
+        writer.record("updated", "task", UUID.randomUUID(), "Second", null);
+
+        awaitTrue(() -> written.size() == 2);
+        assertEquals(List.of("tenant-a:created", "tenant-a:updated"), written);
+        assertEquals(0, writer.queueDepth());
+        verify(repository, times(2)).insert(eq("tenant-a"), anyList());
+    }
+
+    @Test
+    void spooledEventsAreReplayedAfterARestart(@TempDir Path spoolDirectory) throws Exception {
+        when(repository.insert(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("database unavailable"));
+        ActivityLogWriter first = writer("spool", spoolDirectory, Duration.ofMinutes(1));
+        TenantContext.setTenantId("tenant-b");
+        first.record("deleted", "project", UUID.randomUUID(), null, null);
+        awaitTrue(() -> first.queueDepth() == 1 && mockingDetails(repository).getInvocations().size() > 0);
+        first.destroy();
+        writers.remove(first);
+
+        reset(repository);
+        when(repository.insert(anyString(), anyList()))
+            .thenAnswer(invocation -> recordWrite(invocation.getArgument(0), invocation.getArgument(1)));
+        ActivityLogWriter second = writer("spool", spoolDirectory, Duration.ofMillis(20));
+        second.record("created", "project", UUID.randomUUID(), null, null);
+
+        awaitTrue(() -> written.size() == 2);
+        assertEquals(List.of("tenant-b:deleted", "tenant-b:created"), written);
+        second.destroy();
+        writers.remove(second);
+        awaitTrue(() -> {
+            try (var files = Files.list(spoolDirectory)) {
+                return files.findAny().isEmpty();
+            } catch (Exception e) {
+                return false;
+            }
+        });
+    }
+
+    private ActivityLogWriter writer(String durability, Path spoolDirectory, Duration retryDelay) {
+        ActivityLogWriter writer = new ActivityLogWriter(repository, objectMapper, mock(ActivityActorResolver.class), new SimpleMeterRegistry(),
+            true, 1024, Duration.ofMillis(1), Duration.ofMillis(10), 100, 10, retryDelay,
+            durability, spoolDirectory != null ? spoolDirectory.toString() : "unused", 1024);
+        writer.start();
+        writers.add(writer);
+        return writer;
+    }
+
+    private int recordWrite(String tenantId, List<ActivityEvent> events) {
+        events.forEach(event -> written.add(tenantId + ":" + event.action()));
+        return events.size();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.kymatic.tenantservice.activity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.persistence.repository.TenantAuditLogBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditLogWriter serialization, batching and retries.
+ */
+class AuditLogWriterTest {
+
+    private final TenantAuditLogBatchRepository repository = mock(TenantAuditLogBatchRepository.class);
+    private final List<TenantAuditLogBatchRepository.Row> written = Collections.synchronizedList(new ArrayList<>());
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.destroy();
+    }
+
+    @Test
+    void detailsAreSerializedAndFailedBatchesRetriedInOrder() throws Exception {
+        when(repository.insert(anyList()))
+            .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+            .thenAnswer(invocation -> {
+                List<TenantAuditLogBatchRepository.Row> rows = invocation.getArgument(0);
+                written.addAll(rows);
+                return rows.size();
+            });
+        writer = new AuditLogWriter(repository, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(),
+            true, 1024, Duration.ofMillis(1), Duration.ofMillis(10), 100, 5, Duration.ofMillis(20));
+        writer.start();
+        UUID tenantId = UUID.randomUUID();
+
+        writer.record(new AuditEvent(tenantId, "tenant.created", null, Map.of("slug", "acme"), OffsetDateTime.now()));
+        writer.record(new AuditEvent(tenantId, "tenant.status_changed", null, null, OffsetDateTime.now()));
+
+        awaitTrue(() -> written.size() == 2);
+        assertEquals(List.of("tenant.created", "tenant.status_changed"),
+            written.stream().map(TenantAuditLogBatchRepository.Row::action).toList());
+        assertEquals("{\"slug\":\"acme\"}", written.get(0).details());
+        assertNull(written.get(1).details());
+        assertEquals(0, writer.queueDepth());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
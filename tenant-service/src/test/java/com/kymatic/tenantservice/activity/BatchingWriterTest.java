@@ -0,0 +1,85 @@
+package com.kymatic.tenantservice.activity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchingWriter wake-up, replay order and per-tenant retries.
+ */
+class BatchingWriterTest {
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+    private BatchingWriter<String> writer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.stop();
+    }
+
+    @Test
+    void idleWriterIsWokenByTheNextItem() throws Exception {
+        // With an hour between drains, only the wake-up on offer gets the item written
+        writer = writer(Duration.ofHours(1), items -> {
+            written.addAll(items);
+            return items.size();
+        });
+        writer.start();
+        awaitTrue(() -> writer.depth() == 0);
+        Thread.sleep(20);
+
+        assertTrue(writer.offer("a:first"));
+
+        awaitTrue(() -> written.size() == 1);
+        assertEquals(List.of("a:first"), completed);
+    }
+
+    @Test
+    void replayedItemsAreWrittenFirstAndFailedTenantsKeepTheirOrder() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        writer = writer(Duration.ofMillis(1), items -> {
+            if (items.get(0).startsWith("b:") && calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            written.addAll(items);
+            return items.size();
+        });
+        writer.replay(List.of("a:replayed", "b:replayed"));
+        writer.enqueue("b:queued");
+        writer.enqueue("a:queued");
+        writer.start();
+
+        awaitTrue(() -> written.size() == 4);
+        assertEquals(List.of("a:replayed", "a:queued"), written.stream().filter(item -> item.startsWith("a:")).toList());
+        assertEquals(List.of("b:replayed", "b:queued"), written.stream().filter(item -> item.startsWith("b:")).toList());
+        assertEquals(0, writer.depth());
+    }
+
+    private BatchingWriter<String> writer(Duration flushInterval, BatchingWriter.Sink<String> sink) {
+        return new BatchingWriter<>("test", "test", new SimpleMeterRegistry(),
+            new BatchingWriter.Settings(16, flushInterval, Duration.ofMillis(10), 100, 5, Duration.ofMillis(20)),
+            item -> item.substring(0, item.indexOf(':')),
+            sink,
+            completed::add);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.kymatic.tenantservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for CacheInvalidationBus payload packing and delivery to handlers.
+ */
+class CacheInvalidationBusTest {
+
+    private final RecordingHandler sender = new RecordingHandler();
+    private final RecordingHandler receiver = new RecordingHandler();
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationBus senderBus;
+    private CacheInvalidationBus receiverBus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        senderBus = newBus(sender);
+        receiverBus = newBus(receiver);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senderBus.stop();
+        receiverBus.stop();
+    }
+
+    @Test
+    void deliversEventsToOtherReplicas() {
+        List<CacheInvalidationEvent> events = List.of(
+            new CacheInvalidationEvent("users", "tenant-a", "all-tenant-a"),
+            new CacheInvalidationEvent("tenant-resolver", "1b4e28ba-2fa1-11d2-883f-0016d3cca427", null));
+
+        List<String> payloads = senderBus.encode(events, System.currentTimeMillis());
+
+        assertEquals(1, payloads.size());
+        assertEquals(2, receiverBus.receive(payloads.get(0)));
+        assertEquals(events, receiver.events);
+        assertEquals(1, meterRegistry.get("tenant.cache.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void ignoresOwnEvents() {
+        List<String> payloads = senderBus.encode(
+            List.of(new CacheInvalidationEvent("users", "tenant-a", null)), System.currentTimeMillis());
+
+        assertEquals(0, senderBus.receive(payloads.get(0)));
+        assertTrue(sender.events.isEmpty());
+    }
+
+    @Test
+    void splitsPayloadsAtNotifyLimit() {
+        List<CacheInvalidationEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(new CacheInvalidationEvent("tasks", "tenant-" + i, "all-tenant-" + i));
+        }
+
+        List<String> payloads = senderBus.encode(events, System.currentTimeMillis());
+
+        assertTrue(payloads.size() > 1);
+        int delivered = 0;
+        for (String payload : payloads) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length <= CacheInvalidationBus.MAX_PAYLOAD_BYTES);
+            delivered += receiverBus.receive(payload);
+        }
+        assertEquals(events.size(), delivered);
+    }
+
+    @Test
+    void widensEventWithOversizedKeyToTenantScope() {
+        CacheInvalidationEvent event = new CacheInvalidationEvent("projects", "tenant-a", "k".repeat(10000));
+
+        List<String> payloads = senderBus.encode(List.of(event), System.currentTimeMillis());
+        receiverBus.receive(payloads.get(0));
+
+        assertEquals(List.of(event.widen()), receiver.events);
+    }
+
+    private CacheInvalidationBus newBus(CacheInvalidationHandler handler) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("handler", handler));
+        return new CacheInvalidationBus(
+            mock(DataSource.class),
+            beanFactory.getBeanProvider(CacheInvalidationHandler.class),
+            new ObjectMapper(),
+            meterRegistry,
+            true,
+            "tenant_cache_invalidation",
+            Duration.ofMillis(20),
+            "jdbc:postgresql://localhost:1/postgres",
+            "user",
+            "secret");
+    }
+
+    private static final class RecordingHandler implements CacheInvalidationHandler {
+        private final List<CacheInvalidationEvent> events = new ArrayList<>();
+
+        @Override
+        public void evict(CacheInvalidationEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void evictAll() {
+            events.clear();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.kymatic.tenantservice.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TenantEntityCache read-through, batch loading and eviction.
+ */
+class TenantEntityCacheTest {
+
+    private String database;
+    private TenantEntityCache cache;
+    private final Map<UUID, String> rows = new HashMap<>();
+    private final List<Collection<UUID>> batchLoads = new ArrayList<>();
+    private int singleLoads;
+
+    @BeforeEach
+    void setUp() {
+        database = "tenant_a";
+        cache = new TenantEntityCache(null, null, 1000, Duration.ofMinutes(5), () -> database);
+    }
+
+    @Test
+    void readsThroughOnceAndIsolatesTenantDatabases() {
+        UUID id = UUID.randomUUID();
+        rows.put(id, "alice");
+
+        assertEquals(Optional.of("alice"), cache.get(String.class, id, this::load));
+        assertEquals(Optional.of("alice"), cache.get(String.class, id, this::load));
+        assertEquals(1, singleLoads);
+
+        database = "tenant_b";
+        rows.put(id, "bob");
+        assertEquals(Optional.of("bob"), cache.get(String.class, id, this::load));
+        assertEquals(2, singleLoads);
+    }
+
+    @Test
+    void getAllLoadsOnlyMissesInOneBatch() {
+        UUID cached = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        rows.put(cached, "alice");
+        rows.put(missing, "bob");
+        cache.get(String.class, cached, this::load);
+
+        Map<UUID, String> result = cache.getAll(String.class, List.of(cached, missing, unknown), this::loadAll, this::idOf);
+
+        assertEquals(List.of(cached, missing), new ArrayList<>(result.keySet()));
+        assertEquals(List.of(List.of(missing, unknown)), batchLoads.stream().map(ArrayList::new).toList());
+    }
+
+    @Test
+    void evictionReloadsUpdatedEntity() {
+        UUID id = UUID.randomUUID();
+        rows.put(id, "alice");
+        cache.get(String.class, id, this::load);
+
+        rows.put(id, "alice smith");
+        cache.evict(String.class, id);
+
+        assertEquals(Optional.of("alice smith"), cache.get(String.class, id, this::load));
+    }
+
+    @Test
+    void remoteEventEvictsWholeTypeForOneDatabase() {
+        UUID id = UUID.randomUUID();
+        rows.put(id, "alice");
+        cache.get(String.class, id, this::load);
+        database = "tenant_b";
+        cache.get(String.class, id, this::load);
+
+        cache.evict(new CacheInvalidationEvent(TenantEntityCache.CACHE_NAME, "tenant_a", "String"));
+
+        cache.get(String.class, id, this::load);
+        database = "tenant_a";
+        cache.get(String.class, id, this::load);
+        assertEquals(3, singleLoads);
+    }
+
+    private Optional<String> load(UUID id) {
+        singleLoads++;
+        return Optional.ofNullable(rows.get(id));
+    }
+
+    private UUID idOf(String row) {
+        return rows.entrySet().stream().filter(entry -> entry.getValue().equals(row)).findFirst().orElseThrow().getKey();
+    }
+
+    private List<String> loadAll(Collection<UUID> ids) {
+        batchLoads.add(ids);
+        return ids.stream().map(rows::get).filter(row -> row != null).toList();
+    }
+}
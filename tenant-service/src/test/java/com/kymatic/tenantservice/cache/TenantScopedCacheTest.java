@@ -0,0 +1,82 @@
+package com.kymatic.tenantservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TenantScopedCache: tenant isolation, per-tenant quotas and scoped eviction.
+ */
+class TenantScopedCacheTest {
+
+    private String tenant;
+    private SimpleMeterRegistry meterRegistry;
+    private TenantScopedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TenantScopedCache("users", 1000, 10, Duration.ofMinutes(5), () -> tenant, null, meterRegistry);
+    }
+
+    @Test
+    void keysAreScopedToTheCurrentTenant() {
+        tenant = "tenant-a";
+        cache.put("all", List.of("alice"));
+        tenant = "tenant-b";
+        cache.put("all", List.of("bob"));
+
+        assertEquals(List.of("bob"), cache.get("all").get());
+        tenant = "tenant-a";
+        assertEquals(List.of("alice"), cache.get("all").get());
+    }
+
+    @Test
+    void tenantOverQuotaEvictsOnlyItsOwnOldestEntries() {
+        tenant = "tenant-b";
+        cache.put("all", List.of("bob"));
+
+        tenant = "tenant-a";
+        cache.put("page-1", Collections.nCopies(5, "x"));
+        cache.put("page-2", Collections.nCopies(5, "x"));
+
+        assertNull(cache.get("page-1"));
+        assertNotNull(cache.get("page-2"));
+        assertTrue(cache.tenantWeight("tenant-a") <= 10);
+        assertEquals(1, meterRegistry.get("tenant.cache.quota.evictions").counter().count());
+
+        tenant = "tenant-b";
+        assertNotNull(cache.get("all"));
+    }
+
+    @Test
+    void valueLargerThanQuotaIsNotCached() {
+        tenant = "tenant-a";
+        cache.put("all", Collections.nCopies(20, "x"));
+
+        assertNull(cache.get("all"));
+        assertEquals(0, cache.tenantWeight("tenant-a"));
+        assertEquals(1, meterRegistry.get("tenant.cache.quota.rejections").counter().count());
+    }
+
+    @Test
+    void clearOnlyDropsTheCurrentTenant() {
+        tenant = "tenant-a";
+        cache.put("all", List.of("alice"));
+        tenant = "tenant-b";
+        cache.put("all", List.of("bob"));
+
+        cache.clear();
+
+        assertNull(cache.get("all"));
+        assertEquals(0, cache.tenantWeight("tenant-b"));
+        tenant = "tenant-a";
+        assertNotNull(cache.get("all"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityActorResolver;
+import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import com.kymatic.tenantservice.service.RoleAssignmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PermissionAuthorization request rules: principal-to-tenant-user mapping by
+ * email and the site lookup of site-scoped rules.
+ */
+class PermissionAuthorizationTest {
+
+    private static final UUID ADA = UUID.randomUUID();
+    private static final UUID SITE = UUID.randomUUID();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleAssignmentService roleAssignmentService = mock(RoleAssignmentService.class);
+    private final PermissionAuthorization permissions = new PermissionAuthorization(roleAssignmentService,
+        new ActivityActorResolver(userRepository, 100, Duration.ofMinutes(5)));
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void globalRuleChecksTheTenantUserMatchedByEmail() {
+        UserEntity user = new UserEntity();
+        user.setUserId(ADA);
+        when(userRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(user));
+        when(roleAssignmentService.isAllowed(ADA, "roles.assign", null)).thenReturn(true);
+        TenantContext.setTenantId("tenant-a");
+
+        assertTrue(permissions.require("roles.assign").check(() -> jwt("ada@example.com"), context(Map.of())).isGranted());
+        assertFalse(permissions.require("roles.delete").check(() -> jwt("ada@example.com"), context(Map.of())).isGranted());
+    }
+
+    @Test
+    void principalsWithoutATenantUserOrTenantAreDenied() {
+        when(userRepository.findByEmail(any())).thenReturn(Optional.empty());
+        TenantContext.setTenantId("tenant-a");
+
+        assertFalse(permissions.require("roles.assign").check(() -> jwt("admin@example.com"), context(Map.of())).isGranted());
+        assertFalse(permissions.require("roles.assign").check(() -> null, context(Map.of())).isGranted());
+        TestingAuthenticationToken anonymous = new TestingAuthenticationToken("ada@example.com", null);
+        anonymous.setAuthenticated(false);
+        assertFalse(permissions.require("roles.assign").check(() -> anonymous, context(Map.of())).isGranted());
+
+        TenantContext.clear();
+        assertFalse(permissions.require("roles.assign").check(() -> jwt("ada@example.com"), context(Map.of())).isGranted());
+        verify(roleAssignmentService, never()).isAllowed(any(), any(), any());
+    }
+
+    @Test
+    void siteRuleReadsTheSiteFromThePathOrParameter() {
+        UserEntity user = new UserEntity();
+        user.setUserId(ADA);
+        when(userRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(user));
+        when(roleAssignmentService.isAllowed(ADA, "tasks.update", SITE)).thenReturn(true);
+        TenantContext.setTenantId("tenant-a");
+        MockHttpServletRequest withParameter = new MockHttpServletRequest();
+        withParameter.setParameter("siteId", SITE.toString());
+
+        assertTrue(permissions.requireAtSite("tasks.update", "siteId")
+            .check(() -> jwt("ada@example.com"), context(Map.of("siteId", SITE.toString()))).isGranted());
+        assertTrue(permissions.requireAtSite("tasks.update", "siteId")
+            .check(() -> jwt("ada@example.com"), new RequestAuthorizationContext(withParameter, Map.of())).isGranted());
+        assertFalse(permissions.requireAtSite("tasks.update", "siteId")
+            .check(() -> jwt("ada@example.com"), context(Map.of("siteId", "not-a-site"))).isGranted());
+        assertFalse(permissions.requireAtSite("tasks.update", "siteId")
+            .check(() -> jwt("ada@example.com"), context(Map.of())).isGranted());
+    }
+
+    private static RequestAuthorizationContext context(Map<String, String> variables) {
+        return new RequestAuthorizationContext(new MockHttpServletRequest(), variables);
+    }
+
+    private static Authentication jwt(String email) {
+        Jwt jwt = new Jwt("token", Instant.now(), Instant.now().plusSeconds(60), Map.of("alg", "none"),
+            Map.of("sub", "keycloak-subject", "email", email));
+        return new JwtAuthenticationToken(jwt, List.of());
+    }
+}
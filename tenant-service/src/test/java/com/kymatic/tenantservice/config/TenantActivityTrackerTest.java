@@ -0,0 +1,109 @@
+package com.kymatic.tenantservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TenantActivityTracker counter swapping and failed flushes.
+ */
+class TenantActivityTrackerTest {
+
+    private static final UUID TENANT_A = UUID.randomUUID();
+    private static final UUID TENANT_B = UUID.randomUUID();
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Map<UUID, Long> flushed = new ConcurrentHashMap<>();
+    private final TenantActivityTracker tracker = new TenantActivityTracker(jdbcTemplate, Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        reset(jdbcTemplate);
+        tracker.close();
+    }
+
+    @Test
+    void flushWritesOneRowPerTenantWithItsCount() {
+        recordFlushes();
+        tracker.recordAccess(TENANT_A);
+        tracker.recordAccess(TENANT_A);
+        tracker.recordAccess(TENANT_B);
+
+        tracker.flush();
+        tracker.flush();
+
+        assertEquals(Map.of(TENANT_A, 2L, TENANT_B, 1L), flushed);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushKeepsTheCountsForTheNextOne() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+        tracker.recordAccess(TENANT_A);
+        tracker.recordAccess(TENANT_A);
+        tracker.flush();
+
+        reset(jdbcTemplate);
+        recordFlushes();
+        tracker.recordAccess(TENANT_A);
+        tracker.flush();
+
+        assertEquals(Map.of(TENANT_A, 3L), flushed);
+    }
+
+    @Test
+    void accessesRecordedDuringFlushesAreNotLost() throws Exception {
+        recordFlushes();
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean recording = new AtomicBoolean(true);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    tracker.recordAccess(TENANT_A);
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        Thread flusher = new Thread(() -> {
+            while (recording.get()) {
+                tracker.flush();
+            }
+        });
+        flusher.start();
+        done.await();
+        recording.set(false);
+        flusher.join();
+        tracker.flush();
+
+        assertEquals((long) threads * perThread, flushed.get(TENANT_A));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordFlushes() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                flushed.merge((UUID) row[0], (Long) row[2], Long::sum);
+            }
+            return new int[rows.size()];
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.tenantservice.service.TenantDatabaseManager;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TenantDataSourceRegistry budget accounting and eviction.
+ *
+ * Pools are created with minimum-idle 0 and initialization-fail-timeout -1, so no
+ * database is contacted.
+ */
+class TenantDataSourceRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TenantDataSourceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        TenantDataSourceProperties.Pool pool = new TenantDataSourceProperties.Pool();
+        pool.setMaxTotalConnections(10);
+        pool.setEvictionInterval(Duration.ofHours(1));
+        pool.setTiers(Map.of(
+            "starter", new TenantDataSourceProperties.TierSize(2, 0),
+            "premium", new TenantDataSourceProperties.TierSize(6, 0)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        TenantDatabaseManager databaseManager = new TenantDatabaseManager(
+            "jdbc:postgresql://localhost:1/postgres", "user", "secret", new TenantDataSourceProperties());
+        registry = new TenantDataSourceRegistry(databaseManager, pool, "user", "secret", "org.postgresql.Driver", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void sizesPoolsByTierAndReusesThem() {
+        HikariDataSource first = registry.getDataSource("tenant_a", "PREMIUM");
+        HikariDataSource second = registry.getDataSource("tenant_a", "premium");
+
+        assertSame(first, second);
+        assertEquals(6, first.getMaximumPoolSize());
+        assertEquals(6, registry.getAllocatedConnections());
+        assertEquals(1.0, meterRegistry.get("tenant.datasource.pool.lookups").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("tenant.datasource.pool.lookups").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void unknownTierFallsBackToDefaultTier() {
+        HikariDataSource dataSource = registry.getDataSource("tenant_a", "gold");
+
+        assertEquals(2, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPoolWhenBudgetIsExhausted() {
+        HikariDataSource oldest = registry.getDataSource("tenant_a", "starter");
+        registry.getDataSource("tenant_b", "starter");
+        registry.getDataSource("tenant_c", "starter");
+        registry.getDataSource("tenant_b", "starter");
+
+        registry.getDataSource("tenant_d", "premium");
+
+        assertFalse(registry.contains("tenant_a"));
+        assertTrue(registry.contains("tenant_b"));
+        assertTrue(registry.contains("tenant_d"));
+        assertTrue(registry.getAllocatedConnections() <= 10);
+        assertEquals(1.0, meterRegistry.get("tenant.datasource.pool.evictions").tag("reason", "budget").counter().count());
+        assertNotSame(oldest, registry.getDataSource("tenant_a", "starter"));
+    }
+
+    @Test
+    void explicitEvictionReleasesBudget() {
+        registry.getDataSource("tenant_a", "premium");
+
+        registry.evict("tenant_a");
+
+        assertEquals(0, registry.getAllocatedConnections());
+        assertEquals(0, registry.getPoolCount());
+    }
+
+    @Test
+    void poolReopenedAfterEvictionIsSizedForTheNewTier() {
+        HikariDataSource starter = registry.getDataSource("tenant_a", "starter");
+
+        registry.evict("tenant_a");
+        HikariDataSource premium = registry.getDataSource("tenant_a", "premium");
+
+        assertNotSame(starter, premium);
+        assertEquals(6, premium.getMaximumPoolSize());
+        assertEquals(6, registry.getAllocatedConnections());
+        assertEquals(1.0, meterRegistry.get("tenant.datasource.pool.evictions").tag("reason", "explicit").counter().count());
+    }
+
+    @Test
+    void poolOpenedUnderALeaseIsClosedWhenTheLastLeaseEnds() {
+        TenantDataSourceProvider.Lease outer = registry.lease("tenant_a");
+        HikariDataSource dataSource = registry.getDataSource("tenant_a", "starter");
+        TenantDataSourceProvider.Lease inner = registry.lease("tenant_a");
+        registry.getDataSource("tenant_a", "starter");
+
+        inner.close();
+        assertTrue(registry.contains("tenant_a"));
+        outer.close();
+
+        assertFalse(registry.contains("tenant_a"));
+        assertEquals(0, registry.getAllocatedConnections());
+        assertEquals(1.0, meterRegistry.get("tenant.datasource.pool.evictions").tag("reason", "lease").counter().count());
+        assertNotSame(dataSource, registry.getDataSource("tenant_a", "starter"));
+    }
+
+    @Test
+    void poolUsedByARequestDuringALeaseStaysOpen() throws InterruptedException {
+        TenantDataSourceProvider.Lease lease = registry.lease("tenant_a");
+        HikariDataSource dataSource = registry.getDataSource("tenant_a", "starter");
+        Thread request = new Thread(() -> registry.getDataSource("tenant_a", "starter"));
+        request.start();
+        request.join();
+
+        lease.close();
+
+        assertTrue(registry.contains("tenant_a"));
+        assertSame(dataSource, registry.getDataSource("tenant_a", "starter"));
+    }
+
+    @Test
+    void poolOpenBeforeALeaseStaysOpen() {
+        HikariDataSource dataSource = registry.getDataSource("tenant_a", "starter");
+
+        TenantDataSourceProvider.Lease lease = registry.lease("tenant_a");
+        registry.getDataSource("tenant_a", "starter");
+        lease.close();
+
+        assertSame(dataSource, registry.getDataSource("tenant_a", "starter"));
+        // A lease on another database does not hide requests for this one
+        TenantDataSourceProvider.Lease other = registry.lease("tenant_b");
+        registry.getDataSource("tenant_c", "starter");
+        other.close();
+        assertTrue(registry.contains("tenant_c"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.kymatic.tenantservice.config;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import com.kymatic.tenantservice.service.TenantDatabaseManager;
+import com.kymatic.tenantservice.service.TenantDatabaseResolver;
+import com.kymatic.tenantservice.service.TenantIdentifierResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the routing lookup key (tenant database) on a connection checkout.
+ *
+ * - resolvePerCheckout: previous behaviour, resolving the tenant identifier through
+ *   TenantDatabaseResolver / TenantIdentifierResolver on every checkout
+ * - boundRoutingHandle: current behaviour, reading the TenantRoutingHandle bound by the filter
+ *
+ * Both exclude logging; the previous path also logged at debug level on every checkout.
+ *
+ * Run with: ./gradlew :tenant-service:jmh -PjmhArgs="TenantRoutingBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TenantRoutingBenchmark {
+
+    /**
+     * Tenant identifier as sent by clients: canonical UUID or slug.
+     */
+    @Param({"uuid", "slug"})
+    public String identifierType;
+
+    private TenantDataSourceRegistry registry;
+    private TenantDatabaseResolver tenantDatabaseResolver;
+    private TenantRoutingDataSource routingDataSource;
+    private String tenantIdentifier;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TenantEntity tenant = new TenantEntity();
+        tenant.setTenantId(UUID.randomUUID());
+        tenant.setSlug("acme");
+        tenant.setDatabaseName("tenant_acme");
+        tenant.setSubscriptionTier("premium");
+        tenantIdentifier = "uuid".equals(identifierType) ? tenant.getTenantId().toString() : tenant.getSlug();
+
+        TenantDataSourceProperties properties = new TenantDataSourceProperties();
+        properties.getPool().setEvictionInterval(Duration.ofHours(1));
+        properties.getPool().getTiers().values().forEach(size -> size.setMinimumIdle(0));
+        properties.getWarmup().setActivityFlushInterval(Duration.ofHours(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantDatabaseManager databaseManager = new TenantDatabaseManager(
+            "jdbc:postgresql://localhost:1/postgres", "user", "secret", properties);
+        registry = new TenantDataSourceRegistry(
+            databaseManager, properties.getPool(), "user", "secret", "org.postgresql.Driver", meterRegistry);
+
+        tenantDatabaseResolver = new TenantDatabaseResolver(new TenantIdentifierResolver(singleTenantRepository(tenant)));
+        DataSource masterDataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:1/postgres");
+        routingDataSource = new TenantRoutingDataSource(
+            tenantDatabaseResolver,
+            registry,
+            new TenantActivityTracker(masterDataSource, properties.getWarmup()),
+            masterDataSource
+        );
+
+        // Same binding the tenant filters perform once per request
+        tenantDatabaseResolver.bindTenant(tenantIdentifier);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TenantContext.clear();
+        registry.close();
+    }
+
+    @Benchmark
+    public Object resolvePerCheckout() {
+        String tenantId = TenantContext.getTenantId();
+        if (tenantId == null || tenantId.isBlank()) {
+            return TenantRoutingDataSource.MASTER_DATABASE_KEY;
+        }
+        return tenantDatabaseResolver.getCurrentTenantEntity().getDatabaseName();
+    }
+
+    @Benchmark
+    public Object boundRoutingHandle() {
+        return routingDataSource.determineCurrentLookupKey();
+    }
+
+    private static TenantRepository singleTenantRepository(TenantEntity tenant) {
+        return (TenantRepository) Proxy.newProxyInstance(
+            TenantRepository.class.getClassLoader(),
+            new Class<?>[]{TenantRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findById" -> Optional.of(tenant).filter(t -> t.getTenantId().equals(args[0]));
+                case "findBySlug" -> Optional.of(tenant).filter(t -> t.getSlug().equals(args[0]));
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "TenantRepository(" + tenant.getSlug() + ")";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
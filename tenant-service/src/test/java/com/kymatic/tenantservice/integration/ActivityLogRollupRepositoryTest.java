@@ -0,0 +1,148 @@
+package com.kymatic.tenantservice.integration;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRollupRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRollupRepository.Count;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The activity_log_hourly rollup of db/tenant/V7 in a PostgreSQL container: the backfill of the
+ * rows written before V7, the statement-level trigger on later inserts, and the grouping and
+ * range bounds of {@link ActivityLogRollupRepository#count}. Skipped without Docker.
+ *
+ * Each test writes its rows on its own day of next month, inside the partitions V6 creates.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ActivityLogRollupRepositoryTest {
+
+    private static final String TENANT_ID = "rollup";
+    private static final LocalDateTime BACKFILL_DAY = LocalDate.now().plusMonths(1).withDayOfMonth(2).atStartOfDay();
+    private static final LocalDateTime TRIGGER_DAY = BACKFILL_DAY.plusDays(3);
+    private static final LocalDateTime GROUPING_DAY = BACKFILL_DAY.plusDays(6);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16"))
+            .withDatabaseName("tenant_rollup")
+            .withUsername("tenant")
+            .withPassword("tenant");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static ActivityLogRollupRepository repository;
+    private static UUID ada;
+    private static UUID bob;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        // Rows written before the rollup existed, for the V7 backfill
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").target("6").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ada = user();
+        bob = user();
+        insert(BACKFILL_DAY.plusMinutes(5), "imported", "task", ada);
+        insert(BACKFILL_DAY.plusMinutes(35), "imported", "task", ada);
+        insert(BACKFILL_DAY.plusMinutes(59), "imported", "task", null);
+        insert(BACKFILL_DAY.plusHours(1), "imported", "task", ada);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").load().migrate();
+        repository = new ActivityLogRollupRepository(dataSource);
+    }
+
+    @Test
+    void rowsWrittenBeforeTheRollupAreBackfilledOnceAndLaterRowsAdded() {
+        assertEquals(List.of(
+                new Count(at(BACKFILL_DAY), "imported", 3),
+                new Count(at(BACKFILL_DAY.plusHours(1)), "imported", 1)),
+            repository.count("action", "hour", at(BACKFILL_DAY), at(BACKFILL_DAY.plusHours(2))));
+
+        insert(BACKFILL_DAY.plusMinutes(10), "imported", "task", ada);
+
+        assertEquals(List.of(
+                new Count(null, ada.toString(), 3),
+                new Count(null, null, 1)),
+            repository.count("user_id", null, at(BACKFILL_DAY), at(BACKFILL_DAY.plusHours(1))));
+    }
+
+    @Test
+    void everyInsertStatementFoldsItsRowsIntoTheirHourBuckets() {
+        Timestamp first = Timestamp.valueOf(TRIGGER_DAY.plusMinutes(1));
+        Timestamp second = Timestamp.valueOf(TRIGGER_DAY.plusMinutes(2));
+        Timestamp nextHour = Timestamp.valueOf(TRIGGER_DAY.plusMinutes(61));
+        jdbcTemplate.update("""
+            INSERT INTO activity_log (tenant_id, user_id, action, entity_type, created_at)
+            VALUES (?, ?, 'created', 'task', ?), (?, ?, 'created', 'task', ?), (?, ?, 'created', NULL, ?),
+                   (?, ?, 'created', 'task', ?)
+            """, TENANT_ID, ada, first, TENANT_ID, ada, second, TENANT_ID, ada, second, TENANT_ID, ada, nextHour);
+        insert(TRIGGER_DAY.plusMinutes(30), "created", "task", ada);
+
+        assertEquals(List.of(3L, 1L, 1L), jdbcTemplate.queryForList("""
+            SELECT activity_count FROM activity_log_hourly
+            WHERE bucket >= ? AND bucket < ? AND action = 'created'
+            ORDER BY bucket, entity_type NULLS LAST
+            """, Long.class, Timestamp.valueOf(TRIGGER_DAY), Timestamp.valueOf(TRIGGER_DAY.plusHours(2))));
+        // A NULL entity type is counted as a key of its own
+        assertEquals(List.of(
+                new Count(null, "task", 4),
+                new Count(null, null, 1)),
+            repository.count("entity_type", null, at(TRIGGER_DAY), at(TRIGGER_DAY.plusHours(2))));
+    }
+
+    @Test
+    void countsAreGroupedPerPeriodAndKeyOverHalfOpenRanges() {
+        insert(GROUPING_DAY.plusHours(1), "updated", "task", ada);
+        insert(GROUPING_DAY.plusHours(1), "updated", "task", bob);
+        insert(GROUPING_DAY.plusHours(2), "deleted", "task", bob);
+        insert(GROUPING_DAY.plusHours(25), "updated", "project", ada);
+        insert(GROUPING_DAY.plusHours(48), "updated", "project", ada);
+
+        assertEquals(List.of(
+                new Count(at(GROUPING_DAY), "updated", 2),
+                new Count(at(GROUPING_DAY), "deleted", 1),
+                new Count(at(GROUPING_DAY.plusDays(1)), "updated", 1)),
+            repository.count("action", "day", at(GROUPING_DAY), at(GROUPING_DAY.plusHours(48))));
+        assertEquals(List.of(
+                new Count(at(GROUPING_DAY.plusHours(1)), "updated", 2),
+                new Count(at(GROUPING_DAY.plusHours(2)), "deleted", 1)),
+            repository.count("action", "hour", at(GROUPING_DAY.plusHours(1)), at(GROUPING_DAY.plusHours(3))));
+        // Equal counts are ordered by key
+        assertEquals(Stream.of(ada, bob).map(UUID::toString).sorted().map(key -> new Count(null, key, 2)).toList(),
+            repository.count("user_id", null, at(GROUPING_DAY), at(GROUPING_DAY.plusHours(48))));
+        assertThrows(IllegalArgumentException.class, () -> repository.count("changes", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> repository.count("action", "week", null, null));
+    }
+
+    private static Instant at(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static void insert(LocalDateTime createdAt, String action, String entityType, UUID userId) {
+        jdbcTemplate.update("INSERT INTO activity_log (tenant_id, user_id, action, entity_type, created_at) VALUES (?, ?, ?, ?, ?)",
+            TENANT_ID, userId, action, entityType, Timestamp.valueOf(createdAt));
+    }
+
+    private static UUID user() {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (user_id, tenant_id, email) VALUES (?, ?, ?)",
+            userId, TENANT_ID, userId + "@" + TENANT_ID + ".test");
+        return userId;
+    }
+}
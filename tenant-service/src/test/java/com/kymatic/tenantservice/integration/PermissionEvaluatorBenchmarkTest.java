@@ -0,0 +1,240 @@
+package com.kymatic.tenantservice.integration;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import com.kymatic.tenantservice.service.DatabaseFunctionPermissionEvaluator;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex;
+import com.kymatic.tenantservice.service.IndexPermissionEvaluator;
+import com.kymatic.tenantservice.service.JpaPermissionEvaluator;
+import com.kymatic.tenantservice.service.PermissionEvaluator;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Throughput and latency of the three {@link PermissionEvaluator} modes on one tenant with
+ * 50 roles of 20 permissions (out of 200), 3 roles per user (one global, two site-scoped),
+ * 10 sites with access to 2 of them per user, at 1,000 and 10,000 users.
+ *
+ * Runs against the tenant schema (db/tenant) in a PostgreSQL container, single-threaded, and
+ * prints checks per second and p50/p99 latency per mode. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PermissionEvaluatorBenchmarkTest {
+
+    private static final int ROLES = 50;
+    private static final int PERMISSIONS = 200;
+    private static final int PERMISSIONS_PER_ROLE = 20;
+    private static final int SITES = 10;
+    private static final int WARMUP_CHECKS = 2_000;
+    private static final int MEASURED_CHECKS = 10_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16"))
+            .withDatabaseName("tenant_bench")
+            .withUsername("tenant")
+            .withPassword("tenant");
+
+    private static DataSource dataSource;
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private static Map<String, PermissionEvaluator> evaluators;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").load().migrate();
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.kymatic.tenantservice.persistence.entity.tenant");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactoryBean.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        UserRoleRepository userRoleRepository = repositoryFactory.getRepository(UserRoleRepository.class);
+        UserSiteAccessRepository userSiteAccessRepository = repositoryFactory.getRepository(UserSiteAccessRepository.class);
+        SiteRepository siteRepository = repositoryFactory.getRepository(SiteRepository.class);
+        EffectivePermissionIndex index = new EffectivePermissionIndex(
+            repositoryFactory.getRepository(RoleRepository.class),
+            userRoleRepository,
+            userSiteAccessRepository,
+            siteRepository,
+            null, null, 10, Duration.ofHours(1));
+        evaluators = Map.of(
+            "index", new IndexPermissionEvaluator(index),
+            "database-function", new DatabaseFunctionPermissionEvaluator(dataSource),
+            "jpa", new JpaPermissionEvaluator(userRoleRepository, userSiteAccessRepository, siteRepository));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManagerFactoryBean != null) {
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    @ParameterizedTest(name = "{0} users")
+    @ValueSource(ints = {1_000, 10_000})
+    void compareEvaluators(int users) throws SQLException {
+        String tenantId = "bench-" + users;
+        Tenant tenant = seed(tenantId, users);
+
+        boolean[] expected = null;
+        for (String mode : new String[]{"index", "database-function", "jpa"}) {
+            PermissionEvaluator evaluator = evaluators.get(mode);
+            run(evaluator, tenant, 0, WARMUP_CHECKS, new long[WARMUP_CHECKS]);
+            long[] nanos = new long[MEASURED_CHECKS];
+            long start = System.nanoTime();
+            boolean[] decisions = run(evaluator, tenant, WARMUP_CHECKS, MEASURED_CHECKS, nanos);
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(nanos);
+            System.out.printf("%6d users | %-17s | %9.0f checks/s | p50 %8.1f us | p99 %8.1f us%n",
+                users, mode, MEASURED_CHECKS * 1_000_000_000d / elapsed,
+                nanos[MEASURED_CHECKS / 2] / 1_000d, nanos[MEASURED_CHECKS * 99 / 100] / 1_000d);
+            if (expected == null) {
+                expected = decisions;
+            } else {
+                assertArrayEquals(expected, decisions, mode + " disagrees with index");
+            }
+        }
+    }
+
+    /**
+     * A site-scoped check at one of every 2 calls, as a site-scoped POST /check does.
+     */
+    private static boolean[] run(PermissionEvaluator evaluator, Tenant tenant, int offset, int checks, long[] nanos) {
+        boolean[] decisions = new boolean[checks];
+        for (int i = 0; i < checks; i++) {
+            int n = offset + i;
+            UUID userId = tenant.users()[(n * 31) % tenant.users().length];
+            UUID siteId = n % 2 == 0 ? null : tenant.sites()[n % SITES];
+            String permissionKey = "resource" + (n * 7 % PERMISSIONS) + ".read";
+            long start = System.nanoTime();
+            decisions[i] = evaluator.hasPermission(tenant.tenantId(), userId, siteId, permissionKey)
+                && (siteId == null || evaluator.canAccessSite(tenant.tenantId(), userId, siteId));
+            nanos[i] = System.nanoTime() - start;
+        }
+        return decisions;
+    }
+
+    private static Tenant seed(String tenantId, int userCount) throws SQLException {
+        UUID[] permissions = randomIds(PERMISSIONS);
+        UUID[] roles = randomIds(ROLES);
+        UUID[] sites = randomIds(SITES);
+        UUID[] users = randomIds(userCount);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO permissions (permission_id, tenant_id, permission_key, permission_name) VALUES (?, ?, ?, ?)")) {
+                for (int p = 0; p < PERMISSIONS; p++) {
+                    insert.setObject(1, permissions[p]);
+                    insert.setString(2, tenantId);
+                    insert.setString(3, "resource" + p + ".read");
+                    insert.setString(4, "Permission " + p);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement role = connection.prepareStatement(
+                    "INSERT INTO roles (role_id, tenant_id, role_name, role_key, level) VALUES (?, ?, ?, ?, 10)");
+                 PreparedStatement mapping = connection.prepareStatement(
+                    "INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)")) {
+                for (int r = 0; r < ROLES; r++) {
+                    role.setObject(1, roles[r]);
+                    role.setString(2, tenantId);
+                    role.setString(3, "Role " + r);
+                    role.setString(4, "role_" + r);
+                    role.addBatch();
+                    for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                        mapping.setObject(1, roles[r]);
+                        mapping.setObject(2, permissions[(r * 13 + p) % PERMISSIONS]);
+                        mapping.addBatch();
+                    }
+                }
+                role.executeBatch();
+                mapping.executeBatch();
+            }
+            try (PreparedStatement site = connection.prepareStatement(
+                "INSERT INTO sites (site_id, tenant_id, site_name, site_code) VALUES (?, ?, ?, ?)")) {
+                for (int s = 0; s < SITES; s++) {
+                    site.setObject(1, sites[s]);
+                    site.setString(2, tenantId);
+                    site.setString(3, "Site " + s);
+                    site.setString(4, tenantId + "-" + s);
+                    site.addBatch();
+                }
+                site.executeBatch();
+            }
+            try (PreparedStatement user = connection.prepareStatement(
+                    "INSERT INTO users (user_id, tenant_id, email) VALUES (?, ?, ?)");
+                 PreparedStatement userRole = connection.prepareStatement(
+                    "INSERT INTO user_roles (tenant_id, user_id, role_id, site_id) VALUES (?, ?, ?, ?)");
+                 PreparedStatement access = connection.prepareStatement(
+                    "INSERT INTO user_site_access (tenant_id, user_id, site_id, access_level) VALUES (?, ?, ?, 'write')")) {
+                for (int u = 0; u < userCount; u++) {
+                    user.setObject(1, users[u]);
+                    user.setString(2, tenantId);
+                    user.setString(3, "user" + u + "@" + tenantId + ".test");
+                    user.addBatch();
+                    for (int r = 0; r < 3; r++) {
+                        userRole.setString(1, tenantId);
+                        userRole.setObject(2, users[u]);
+                        userRole.setObject(3, roles[(u + r * 17) % ROLES]);
+                        userRole.setObject(4, r == 0 ? null : sites[(u + r) % SITES]);
+                        userRole.addBatch();
+                    }
+                    for (int s = 1; s <= 2; s++) {
+                        access.setString(1, tenantId);
+                        access.setObject(2, users[u]);
+                        access.setObject(3, sites[(u + s) % SITES]);
+                        access.addBatch();
+                    }
+                }
+                user.executeBatch();
+                userRole.executeBatch();
+                access.executeBatch();
+            }
+            connection.commit();
+        }
+        return new Tenant(tenantId, users, sites);
+    }
+
+    private static UUID[] randomIds(int count) {
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        return ids;
+    }
+
+    private record Tenant(String tenantId, UUID[] users, UUID[] sites) {
+    }
+}
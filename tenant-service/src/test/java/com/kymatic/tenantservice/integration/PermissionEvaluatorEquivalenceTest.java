@@ -0,0 +1,258 @@
+package com.kymatic.tenantservice.integration;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import com.kymatic.tenantservice.service.DatabaseFunctionPermissionEvaluator;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex;
+import com.kymatic.tenantservice.service.IndexPermissionEvaluator;
+import com.kymatic.tenantservice.service.JpaPermissionEvaluator;
+import com.kymatic.tenantservice.service.PermissionEvaluator;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The three {@link PermissionEvaluator} modes give the same answers on a tenant exercising the
+ * inheritance rules: role-level inheritance of system roles (skipping inactive and deleted ones)
+ * and grants at a site applying at the sites below it in the department hierarchy, including a
+ * hierarchy cycle, an inactive department link and expired grants.
+ *
+ * Runs against the tenant schema (db/tenant) in a PostgreSQL container. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PermissionEvaluatorEquivalenceTest {
+
+    private static final String TENANT_ID = "equivalence";
+    private static final List<String> PERMISSION_KEYS =
+        List.of("base.read", "team.write", "admin.manage", "legacy.read", "other.read");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16"))
+            .withDatabaseName("tenant_equivalence")
+            .withUsername("tenant")
+            .withPassword("tenant");
+
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private static JdbcTemplate jdbcTemplate;
+    private static Map<String, PermissionEvaluator> evaluators;
+
+    private static final Map<String, UUID> permissions = new LinkedHashMap<>();
+    private static final Map<String, UUID> sites = new LinkedHashMap<>();
+    private static final Map<String, UUID> users = new LinkedHashMap<>();
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.kymatic.tenantservice.persistence.entity.tenant");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactoryBean.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        UserRoleRepository userRoleRepository = repositoryFactory.getRepository(UserRoleRepository.class);
+        UserSiteAccessRepository userSiteAccessRepository = repositoryFactory.getRepository(UserSiteAccessRepository.class);
+        SiteRepository siteRepository = repositoryFactory.getRepository(SiteRepository.class);
+        EffectivePermissionIndex index = new EffectivePermissionIndex(
+            repositoryFactory.getRepository(RoleRepository.class),
+            userRoleRepository,
+            userSiteAccessRepository,
+            siteRepository,
+            null, null, 10, Duration.ofHours(1));
+        evaluators = new LinkedHashMap<>();
+        evaluators.put("index", new IndexPermissionEvaluator(index));
+        evaluators.put("database-function", new DatabaseFunctionPermissionEvaluator(dataSource));
+        evaluators.put("jpa", new JpaPermissionEvaluator(userRoleRepository, userSiteAccessRepository, siteRepository));
+
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManagerFactoryBean != null) {
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    @Test
+    void everyModeResolvesRoleAndSiteInheritance() {
+        for (Map.Entry<String, PermissionEvaluator> entry : evaluators.entrySet()) {
+            String mode = entry.getKey();
+            PermissionEvaluator evaluator = entry.getValue();
+
+            // editor (level 50) inherits the active system role viewer (level 10) only
+            assertEquals(List.of("base.read", "team.write"),
+                evaluator.permissionKeys(TENANT_ID, users.get("globalEditor"), null), mode);
+
+            // admin granted at region applies at branch below it, not at hq above it
+            UUID regionalAdmin = users.get("regionalAdmin");
+            assertTrue(evaluator.hasPermission(TENANT_ID, regionalAdmin, sites.get("branch"), "admin.manage"), mode);
+            assertTrue(evaluator.hasPermission(TENANT_ID, regionalAdmin, sites.get("branch"), "base.read"), mode);
+            assertFalse(evaluator.hasPermission(TENANT_ID, regionalAdmin, sites.get("hq"), "admin.manage"), mode);
+            assertFalse(evaluator.hasPermission(TENANT_ID, regionalAdmin, null, "admin.manage"), mode);
+            assertFalse(evaluator.hasPermission(TENANT_ID, regionalAdmin, sites.get("island"), "admin.manage"), mode);
+            assertTrue(evaluator.canAccessSite(TENANT_ID, regionalAdmin, sites.get("branch")), mode);
+            assertFalse(evaluator.canAccessSite(TENANT_ID, regionalAdmin, sites.get("hq")), mode);
+            assertFalse(evaluator.canAccessSite(TENANT_ID, regionalAdmin, sites.get("island")), mode);
+
+            // editor granted at hq applies at region, not at island behind the inactive department
+            UUID branchViewer = users.get("branchViewer");
+            assertTrue(evaluator.hasPermission(TENANT_ID, branchViewer, sites.get("region"), "team.write"), mode);
+            assertFalse(evaluator.hasPermission(TENANT_ID, branchViewer, sites.get("island"), "team.write"), mode);
+
+            // loopA and loopB are each below the other
+            UUID loopEditor = users.get("loopEditor");
+            assertTrue(evaluator.hasPermission(TENANT_ID, loopEditor, sites.get("loopB"), "team.write"), mode);
+            assertTrue(evaluator.canAccessSite(TENANT_ID, loopEditor, sites.get("loopA")), mode);
+
+            assertEquals(List.of(), evaluator.permissionKeys(TENANT_ID, users.get("expired"), sites.get("hq")), mode);
+            assertFalse(evaluator.canAccessSite(TENANT_ID, users.get("expired"), sites.get("hq")), mode);
+        }
+    }
+
+    @Test
+    void everyModeAgreesOnEveryUserSiteAndPermission() {
+        List<UUID> scopes = new ArrayList<>();
+        scopes.add(null);
+        scopes.addAll(sites.values());
+        int compared = 0;
+        for (UUID userId : users.values()) {
+            for (UUID siteId : scopes) {
+                List<String> expectedKeys = evaluators.get("index").permissionKeys(TENANT_ID, userId, siteId);
+                boolean expectedAccess = siteId != null && evaluators.get("index").canAccessSite(TENANT_ID, userId, siteId);
+                boolean[] expected = decisions(evaluators.get("index"), userId, siteId);
+                for (String mode : List.of("database-function", "jpa")) {
+                    PermissionEvaluator evaluator = evaluators.get(mode);
+                    String context = mode + " disagrees with index for user " + userId + " at site " + siteId;
+                    assertArrayEquals(expected, decisions(evaluator, userId, siteId), context);
+                    assertEquals(expectedKeys, evaluator.permissionKeys(TENANT_ID, userId, siteId), context);
+                    if (siteId != null) {
+                        assertEquals(expectedAccess, evaluator.canAccessSite(TENANT_ID, userId, siteId), context);
+                    }
+                    compared++;
+                }
+            }
+        }
+        assertEquals(2 * users.size() * scopes.size(), compared);
+    }
+
+    private static boolean[] decisions(PermissionEvaluator evaluator, UUID userId, UUID siteId) {
+        boolean[] decisions = new boolean[PERMISSION_KEYS.size()];
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] = evaluator.hasPermission(TENANT_ID, userId, siteId, PERMISSION_KEYS.get(i));
+        }
+        return decisions;
+    }
+
+    private static void seed() {
+        for (String key : PERMISSION_KEYS) {
+            UUID permissionId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO permissions (permission_id, tenant_id, permission_key, permission_name) VALUES (?, ?, ?, ?)",
+                permissionId, TENANT_ID, key, key);
+            permissions.put(key, permissionId);
+        }
+        UUID viewer = role("viewer", 10, true, true, false, "base.read");
+        role("retired", 5, true, false, false, "legacy.read");
+        role("removed", 1, true, true, true, "other.read");
+        UUID editor = role("editor", 50, false, true, false, "team.write");
+        UUID admin = role("admin", 90, true, true, false, "admin.manage");
+
+        for (String site : List.of("hq", "region", "branch", "island", "loopA", "loopB")) {
+            UUID siteId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO sites (site_id, tenant_id, site_name, site_code) VALUES (?, ?, ?, ?)",
+                siteId, TENANT_ID, site, site);
+            sites.put(site, siteId);
+        }
+        // hq > region > branch; island below hq through an inactive department; loopA <> loopB
+        UUID hq = department("hq", null, true);
+        UUID region = department("region", hq, true);
+        department("branch", region, true);
+        department("island", hq, false);
+        UUID loopA = department("loopA", null, true);
+        UUID loopB = department("loopB", loopA, true);
+        jdbcTemplate.update("UPDATE departments SET parent_department_id = ? WHERE department_id = ?", loopB, loopA);
+
+        for (String user : List.of("globalEditor", "regionalAdmin", "branchViewer", "loopEditor", "expired", "nobody")) {
+            UUID userId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO users (user_id, tenant_id, email) VALUES (?, ?, ?)",
+                userId, TENANT_ID, user + "@" + TENANT_ID + ".test");
+            users.put(user, userId);
+        }
+        assign("globalEditor", editor, null, false);
+        assign("regionalAdmin", admin, "region", false);
+        grantAccess("regionalAdmin", "region", false);
+        assign("branchViewer", viewer, "branch", false);
+        assign("branchViewer", editor, "hq", false);
+        grantAccess("branchViewer", "branch", false);
+        assign("loopEditor", editor, "loopA", false);
+        grantAccess("loopEditor", "loopB", false);
+        assign("expired", admin, null, true);
+        assign("expired", editor, "hq", true);
+        grantAccess("expired", "hq", true);
+    }
+
+    private static UUID role(String key, int level, boolean systemRole, boolean active, boolean deleted, String... permissionKeys) {
+        UUID roleId = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO roles (role_id, tenant_id, role_name, role_key, level, is_system_role, is_active, deleted_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, CASE WHEN ? THEN CURRENT_TIMESTAMP END)
+            """, roleId, TENANT_ID, key, key, level, systemRole, active, deleted);
+        Arrays.stream(permissionKeys).forEach(permissionKey -> jdbcTemplate.update(
+            "INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)", roleId, permissions.get(permissionKey)));
+        return roleId;
+    }
+
+    private static UUID department(String site, UUID parentDepartmentId, boolean active) {
+        UUID departmentId = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO departments (department_id, tenant_id, site_id, department_name, parent_department_id, is_active)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """, departmentId, TENANT_ID, sites.get(site), site, parentDepartmentId, active);
+        return departmentId;
+    }
+
+    private static void assign(String user, UUID roleId, String site, boolean expired) {
+        jdbcTemplate.update("""
+            INSERT INTO user_roles (tenant_id, user_id, role_id, site_id, expires_at)
+            VALUES (?, ?, ?, ?, CASE WHEN ? THEN CURRENT_TIMESTAMP - INTERVAL '1 day' END)
+            """, TENANT_ID, users.get(user), roleId, site != null ? sites.get(site) : null, expired);
+    }
+
+    private static void grantAccess(String user, String site, boolean expired) {
+        jdbcTemplate.update("""
+            INSERT INTO user_site_access (tenant_id, user_id, site_id, access_level, expires_at)
+            VALUES (?, ?, ?, 'read', CASE WHEN ? THEN CURRENT_TIMESTAMP - INTERVAL '1 day' END)
+            """, TENANT_ID, users.get(user), sites.get(site), expired);
+    }
+}
@@ -0,0 +1,120 @@
+package com.kymatic.tenantservice.integration;
+
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.RoleAssignmentRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.SiteAccessGrantRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.UpsertResult;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The RETURNING rows of {@link RoleAssignmentBulkRepository} upserts against the tenant schema
+ * (db/tenant) in a PostgreSQL container: one row per written row, carrying its conflict key
+ * and whether it was inserted or updated. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RoleAssignmentBulkRepositoryTest {
+
+    private static final String TENANT_ID = "bulk-upsert";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16"))
+            .withDatabaseName("tenant_bulk")
+            .withUsername("tenant")
+            .withPassword("tenant");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static RoleAssignmentBulkRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new RoleAssignmentBulkRepository(dataSource);
+    }
+
+    @Test
+    void userRoleUpsertReportsInsertedAndUpdatedRowsByConflictKey() {
+        UUID first = user();
+        UUID second = user();
+        UUID role = role();
+        UUID site = site();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<UpsertResult> created = repository.upsertUserRoles(TENANT_ID, List.of(
+            new RoleAssignmentRow(first, role, null, null),
+            new RoleAssignmentRow(second, role, site, now.plusDays(1))), now);
+        assertEquals(Set.of(
+            new UpsertResult(first, role, null, true),
+            new UpsertResult(second, role, site, true)), Set.copyOf(created));
+
+        // The global assignment conflicts through COALESCE(site_id, nil uuid); the site one is new
+        List<UpsertResult> upserted = repository.upsertUserRoles(TENANT_ID, List.of(
+            new RoleAssignmentRow(first, role, null, now.plusDays(2)),
+            new RoleAssignmentRow(first, role, site, null)), now);
+        assertEquals(Set.of(
+            new UpsertResult(first, role, null, false),
+            new UpsertResult(first, role, site, true)), Set.copyOf(upserted));
+        assertEquals(3, jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM user_roles WHERE role_id = ?", Integer.class, role));
+    }
+
+    @Test
+    void siteAccessUpsertReportsInsertedAndUpdatedRowsAndKeepsTheLatestLevel() {
+        UUID userId = user();
+        UUID first = site();
+        UUID second = site();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        repository.upsertSiteAccess(TENANT_ID, List.of(new SiteAccessGrantRow(userId, first, "read", null)), now);
+        List<UpsertResult> upserted = repository.upsertSiteAccess(TENANT_ID, List.of(
+            new SiteAccessGrantRow(userId, first, "admin", null),
+            new SiteAccessGrantRow(userId, second, "write", null)), now);
+
+        assertEquals(Set.of(
+            new UpsertResult(userId, null, first, false),
+            new UpsertResult(userId, null, second, true)), Set.copyOf(upserted));
+        assertEquals(Set.of("admin", "write"), jdbcTemplate.queryForList(
+                "SELECT access_level FROM user_site_access WHERE user_id = ?", String.class, userId)
+            .stream().collect(Collectors.toSet()));
+    }
+
+    private static UUID user() {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (user_id, tenant_id, email) VALUES (?, ?, ?)",
+            userId, TENANT_ID, userId + "@" + TENANT_ID + ".test");
+        return userId;
+    }
+
+    private static UUID role() {
+        UUID roleId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO roles (role_id, tenant_id, role_name, role_key, level) VALUES (?, ?, ?, ?, 10)",
+            roleId, TENANT_ID, "Role " + roleId, "role_" + roleId);
+        return roleId;
+    }
+
+    private static UUID site() {
+        UUID siteId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO sites (site_id, tenant_id, site_name, site_code) VALUES (?, ?, ?, ?)",
+            siteId, TENANT_ID, "Site " + siteId, siteId.toString());
+        return siteId;
+    }
+}
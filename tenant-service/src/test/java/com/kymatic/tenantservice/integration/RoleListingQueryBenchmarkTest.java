@@ -0,0 +1,205 @@
+package com.kymatic.tenantservice.integration;
+
+import com.kymatic.tenantservice.persistence.entity.tenant.PermissionEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.RolePermissionEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.PermissionRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RolePermissionRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository.RolePermissionKeyRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JPA-level comparison of the role listing queries at 10, 100 and 1,000 roles per tenant.
+ *
+ * - perRole: previous RoleService.listRoles, loading the permissions and then role_permissions
+ *   once per role
+ * - singleQuery: current RoleService.listRoles, one join over roles, role_permissions and
+ *   permissions (RoleRepository.findWithPermissionKeys)
+ *
+ * Runs against the tenant schema (db/tenant) in a PostgreSQL container with plain Hibernate and
+ * Spring Data repositories, and prints statement counts and median latency. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RoleListingQueryBenchmarkTest {
+
+    private static final int PERMISSIONS = 50;
+    private static final int PERMISSIONS_PER_ROLE = 10;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16"))
+            .withDatabaseName("tenant_bench")
+            .withUsername("tenant")
+            .withPassword("tenant");
+
+    private static DataSource dataSource;
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private static Statistics statistics;
+    private static RoleRepository roleRepository;
+    private static RolePermissionRepository rolePermissionRepository;
+    private static PermissionRepository permissionRepository;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/tenant").load().migrate();
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.kymatic.tenantservice.persistence.entity.tenant");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+            "hibernate.hbm2ddl.auto", "none",
+            "hibernate.generate_statistics", "true"));
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        roleRepository = repositoryFactory.getRepository(RoleRepository.class);
+        rolePermissionRepository = repositoryFactory.getRepository(RolePermissionRepository.class);
+        permissionRepository = repositoryFactory.getRepository(PermissionRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManagerFactoryBean != null) {
+            entityManagerFactoryBean.destroy();
+        }
+    }
+
+    @ParameterizedTest(name = "{0} roles")
+    @ValueSource(ints = {10, 100, 1000})
+    void compareRoleListing(int roles) throws SQLException {
+        String tenantId = "bench-" + roles;
+        seed(tenantId, roles);
+
+        Measurement perRole = measure(() -> listPerRole(tenantId));
+        Measurement singleQuery = measure(() -> listSingleQuery(tenantId));
+
+        System.out.printf("%5d roles | perRole: %5d statements, %8.2f ms | singleQuery: %d statements, %8.2f ms%n",
+            roles, perRole.statements(), perRole.medianMillis(), singleQuery.statements(), singleQuery.medianMillis());
+        assertEquals(perRole.result(), singleQuery.result());
+        assertEquals(roles + 2, perRole.statements());
+        assertEquals(1, singleQuery.statements());
+    }
+
+    private static Map<UUID, Set<String>> listPerRole(String tenantId) {
+        Map<UUID, String> permissionsById = permissionRepository.findByTenantId(tenantId).stream()
+            .collect(Collectors.toMap(PermissionEntity::getPermissionId, PermissionEntity::getPermissionKey));
+        return roleRepository.findByTenantIdAndDeletedAtIsNull(tenantId).stream()
+            .collect(Collectors.toMap(RoleEntity::getRoleId, role -> rolePermissionRepository.findByRoleId(role.getRoleId())
+                .stream()
+                .map(RolePermissionEntity::getPermissionId)
+                .map(permissionsById::get)
+                .collect(Collectors.toSet())));
+    }
+
+    private static Map<UUID, Set<String>> listSingleQuery(String tenantId) {
+        return roleRepository.findWithPermissionKeys(tenantId).stream()
+            .collect(Collectors.groupingBy(row -> row.getRole().getRoleId(),
+                Collectors.mapping(RolePermissionKeyRow::getPermissionKey, Collectors.toSet())));
+    }
+
+    private static Measurement measure(Supplier<Map<UUID, Set<String>>> listing) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            listing.get();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        Map<UUID, Set<String>> result = null;
+        statistics.clear();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            result = listing.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long statements = statistics.getPrepareStatementCount() / MEASURED_RUNS;
+        Arrays.sort(nanos);
+        return new Measurement(statements, nanos[MEASURED_RUNS / 2] / 1_000_000d, result);
+    }
+
+    private static void seed(String tenantId, int roles) throws SQLException {
+        List<UUID> permissionIds = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO permissions (permission_id, tenant_id, permission_key, permission_name) VALUES (?, ?, ?, ?)")) {
+                for (int p = 0; p < PERMISSIONS; p++) {
+                    UUID id = UUID.randomUUID();
+                    permissionIds.add(id);
+                    insert.setObject(1, id);
+                    insert.setString(2, tenantId);
+                    insert.setString(3, "resource" + p + ".read");
+                    insert.setString(4, "Permission " + p);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement role = connection.prepareStatement(
+                    "INSERT INTO roles (role_id, tenant_id, role_name, role_key, level) VALUES (?, ?, ?, ?, 10)");
+                 PreparedStatement mapping = connection.prepareStatement(
+                    "INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)")) {
+                for (int r = 0; r < roles; r++) {
+                    UUID roleId = UUID.randomUUID();
+                    role.setObject(1, roleId);
+                    role.setString(2, tenantId);
+                    role.setString(3, "Role " + r);
+                    role.setString(4, "role_" + r);
+                    role.addBatch();
+                    Set<Integer> picked = new HashSet<>();
+                    for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                        picked.add((r * 7 + p * 3) % PERMISSIONS);
+                    }
+                    for (int p : picked) {
+                        mapping.setObject(1, roleId);
+                        mapping.setObject(2, permissionIds.get(p));
+                        mapping.addBatch();
+                    }
+                }
+                role.executeBatch();
+                mapping.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private record Measurement(long statements, double medianMillis, Map<UUID, Set<String>> result) {
+    }
+}
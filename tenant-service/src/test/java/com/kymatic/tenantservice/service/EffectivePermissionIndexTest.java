@@ -0,0 +1,170 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.service.EffectivePermissionIndex.Assignment;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex.RoleDefinition;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex.SiteAccess;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex.SiteLink;
+import com.kymatic.tenantservice.service.EffectivePermissionIndex.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EffectivePermissionIndex: bulk build, site scoping, inheritance, expiry and
+ * incremental updates.
+ */
+class EffectivePermissionIndexTest {
+
+    private static final String TENANT = "tenant-a";
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final UUID viewer = UUID.randomUUID();
+    private final UUID editor = UUID.randomUUID();
+    private final UUID user = UUID.randomUUID();
+    private final UUID site = UUID.randomUUID();
+    private final List<RoleDefinition> roles = new ArrayList<>();
+    private final List<Assignment> assignments = new ArrayList<>();
+    private final List<SiteAccess> siteAccess = new ArrayList<>();
+    private final List<SiteLink> siteLinks = new ArrayList<>();
+    private final MutableClock clock = new MutableClock();
+    private int loads;
+    private EffectivePermissionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        roles.add(new RoleDefinition(viewer, 10, false, List.of("tasks.read")));
+        roles.add(new RoleDefinition(editor, 10, false, List.of("tasks.update", "tasks.read")));
+        assignments.add(new Assignment(user, viewer, null, null));
+        assignments.add(new Assignment(user, editor, site, null));
+        index = new EffectivePermissionIndex((tenant, now) -> {
+            loads++;
+            return new Snapshot(roles, assignments, siteAccess, siteLinks);
+        }, null, null, 10, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void siteRolesOnlyApplyAtTheirSite() {
+        assertEquals(List.of("tasks.read"), index.permissionKeys(TENANT, user, null));
+        assertEquals(List.of("tasks.read", "tasks.update"), index.permissionKeys(TENANT, user, site));
+        assertFalse(index.hasPermission(TENANT, user, UUID.randomUUID(), "tasks.update"));
+        assertTrue(index.hasPermission(TENANT, user, site, "tasks.update"));
+        assertFalse(index.hasPermission(TENANT, UUID.randomUUID(), null, "tasks.read"));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void assignedGlobalRoleIsAddedToEverySite() {
+        index.permissionKeys(TENANT, user, null);
+        UUID admin = UUID.randomUUID();
+
+        index.roleCreated(TENANT, admin, 10, false, List.of("users.manage"));
+        index.roleAssigned(TENANT, user, admin, null, null);
+
+        assertTrue(index.hasPermission(TENANT, user, null, "users.manage"));
+        assertTrue(index.hasPermission(TENANT, user, site, "users.manage"));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void expiredGrantsStopApplyingWithoutARebuild() {
+        UUID temporary = UUID.randomUUID();
+        siteAccess.add(new SiteAccess(user, site, at(Duration.ofMinutes(5))));
+        index.permissionKeys(TENANT, user, null);
+        index.roleCreated(TENANT, temporary, 10, false, List.of("reports.export"));
+        index.roleAssigned(TENANT, user, temporary, null, at(Duration.ofMinutes(1)));
+
+        assertTrue(index.hasPermission(TENANT, user, null, "reports.export"));
+        assertTrue(index.canAccessSite(TENANT, user, site));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertFalse(index.hasPermission(TENANT, user, null, "reports.export"));
+        assertTrue(index.hasPermission(TENANT, user, null, "tasks.read"));
+        assertTrue(index.canAccessSite(TENANT, user, site));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertFalse(index.canAccessSite(TENANT, user, site));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void rolesInheritLowerLevelSystemRoles() {
+        UUID member = UUID.randomUUID();
+        UUID manager = UUID.randomUUID();
+        UUID manager2 = UUID.randomUUID();
+        roles.add(new RoleDefinition(member, 5, true, List.of("profile.read")));
+        roles.add(new RoleDefinition(manager, 20, false, List.of("reports.read")));
+        assignments.add(new Assignment(manager2, manager, null, null));
+
+        assertTrue(index.hasPermission(TENANT, user, null, "profile.read"));
+        assertEquals(List.of("profile.read", "reports.read"), index.permissionKeys(TENANT, manager2, null));
+
+        index.roleCreated(TENANT, UUID.randomUUID(), 15, true, List.of("tasks.assign"));
+        assertTrue(index.hasPermission(TENANT, manager2, null, "tasks.assign"));
+        assertFalse(index.hasPermission(TENANT, user, null, "tasks.assign"));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void siteGrantsApplyToSitesBelowInTheDepartmentHierarchy() {
+        UUID child = UUID.randomUUID();
+        UUID grandchild = UUID.randomUUID();
+        siteLinks.add(new SiteLink(child, site));
+        siteLinks.add(new SiteLink(grandchild, child));
+        siteLinks.add(new SiteLink(site, grandchild));
+        siteAccess.add(new SiteAccess(user, child, null));
+
+        assertTrue(index.hasPermission(TENANT, user, grandchild, "tasks.update"));
+        assertTrue(index.canAccessSite(TENANT, user, grandchild));
+        assertTrue(index.canAccessSite(TENANT, user, site));
+        assertFalse(index.canAccessSite(TENANT, user, UUID.randomUUID()));
+    }
+
+    @Test
+    void assigningAnUnknownRoleRebuildsTheIndex() {
+        index.permissionKeys(TENANT, user, null);
+
+        index.roleAssigned(TENANT, user, UUID.randomUUID(), null, null);
+        index.permissionKeys(TENANT, user, null);
+
+        assertEquals(2, loads);
+    }
+
+    private OffsetDateTime at(Duration fromNow) {
+        return OffsetDateTime.ofInstant(clock.instant().plus(fromNow), ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
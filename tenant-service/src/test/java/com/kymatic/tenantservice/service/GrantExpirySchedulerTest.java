@@ -0,0 +1,153 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.config.TenantDataSourceProvider;
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GrantExpiryScheduler deadlines, startup spread, retries and pool release, on a
+ * fixed clock: a deadline at or before the clock runs at once, a later one stays pending.
+ */
+class GrantExpirySchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+    private final UserSiteAccessRepository userSiteAccessRepository = mock(UserSiteAccessRepository.class);
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+    private final TenantIdentifierResolver tenantIdentifierResolver = mock(TenantIdentifierResolver.class);
+    private final TenantDataSourceProvider dataSourceProvider = mock(TenantDataSourceProvider.class);
+    private final EffectivePermissionIndex permissionIndex = mock(EffectivePermissionIndex.class);
+    private final TenantDataSourceProvider.Lease lease = mock(TenantDataSourceProvider.Lease.class);
+    private GrantExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(dataSourceProvider.lease(any())).thenReturn(lease);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void startupChecksAreSpreadOverTheStartupSpread() throws InterruptedException {
+        List<TenantEntity> tenants = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tenants.add(tenant());
+        }
+        when(tenantRepository.findActiveOrderByRecentActivity(10)).thenReturn(tenants);
+        scheduler = scheduler(Duration.ofHours(1), Duration.ofMinutes(1));
+
+        scheduler.scheduleActiveTenants();
+
+        awaitTrue(() -> scheduler.pendingTenants() == 3);
+        String first = tenants.get(0).getTenantId().toString();
+        verify(userRoleRepository, timeout(5000)).deactivateExpired(eq(first), any());
+        for (int i = 1; i < 4; i++) {
+            assertEquals(NOW.plus(Duration.ofMinutes(15L * i)).toEpochMilli(),
+                scheduler.deadline(tenants.get(i).getTenantId().toString()));
+        }
+        verify(userRoleRepository, times(1)).deactivateExpired(any(), any());
+    }
+
+    @Test
+    void theEarliestDeadlineWinsAndTheNextExpiryIsScheduledAfterACheck() throws InterruptedException {
+        TenantEntity tenant = tenant();
+        String tenantId = tenant.getTenantId().toString();
+        when(userRoleRepository.deactivateExpired(eq(tenantId), any())).thenReturn(1);
+        when(userRoleRepository.findNextExpiry(tenantId)).thenReturn(at(NOW.plus(Duration.ofHours(2))));
+        scheduler = scheduler(Duration.ZERO, Duration.ofMinutes(1));
+
+        scheduler.schedule(tenantId, at(NOW));
+
+        awaitTrue(() -> Long.valueOf(NOW.plus(Duration.ofHours(2)).toEpochMilli()).equals(scheduler.deadline(tenantId)));
+        verify(permissionIndex).invalidate(tenantId);
+
+        scheduler.schedule(tenantId, at(NOW.plus(Duration.ofHours(3))));
+        assertEquals(NOW.plus(Duration.ofHours(2)).toEpochMilli(), scheduler.deadline(tenantId));
+        scheduler.schedule(tenantId, at(NOW.plus(Duration.ofHours(1))));
+        assertEquals(NOW.plus(Duration.ofHours(1)).toEpochMilli(), scheduler.deadline(tenantId));
+        assertEquals(1, scheduler.pendingTenants());
+    }
+
+    @Test
+    void everyCheckRunsUnderALeaseOnTheTenantDatabase() throws InterruptedException {
+        TenantEntity tenant = tenant();
+        when(userRoleRepository.deactivateExpired(eq(tenant.getTenantId().toString()), any()))
+            .thenThrow(new IllegalStateException("tenant database unavailable"));
+        scheduler = scheduler(Duration.ZERO, Duration.ofMinutes(1));
+
+        scheduler.schedule(tenant.getTenantId().toString(), at(NOW));
+
+        verify(lease, timeout(5000)).close();
+        verify(dataSourceProvider).lease(tenant.getDatabaseName());
+        verify(dataSourceProvider, never()).evict(any());
+    }
+
+    @Test
+    void failedChecksAreRetriedAfterTheRetryDelay() throws InterruptedException {
+        TenantEntity tenant = tenant();
+        String tenantId = tenant.getTenantId().toString();
+        when(userRoleRepository.deactivateExpired(eq(tenantId), any()))
+            .thenThrow(new IllegalStateException("tenant database unavailable"))
+            .thenReturn(0);
+        scheduler = scheduler(Duration.ZERO, Duration.ofMillis(100));
+
+        scheduler.schedule(tenantId, at(NOW));
+
+        verify(userRoleRepository, timeout(5000).times(2)).deactivateExpired(eq(tenantId), any());
+        awaitTrue(() -> scheduler.pendingTenants() == 0);
+    }
+
+    private GrantExpiryScheduler scheduler(Duration startupSpread, Duration retryDelay) {
+        return new GrantExpiryScheduler(userRoleRepository, userSiteAccessRepository, tenantRepository,
+            tenantIdentifierResolver, dataSourceProvider, permissionIndex, mock(PlatformTransactionManager.class),
+            true, 2, 10, startupSpread, retryDelay, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private TenantEntity tenant() {
+        TenantEntity tenant = new TenantEntity();
+        tenant.setTenantId(UUID.randomUUID());
+        tenant.setDatabaseName("tenant_" + tenant.getTenantId().toString().replace('-', '_'));
+        tenant.setSubscriptionTier("starter");
+        when(tenantIdentifierResolver.resolveTenantEntity(tenant.getTenantId().toString())).thenReturn(tenant);
+        return tenant;
+    }
+
+    private static OffsetDateTime at(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneId.of("UTC"));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
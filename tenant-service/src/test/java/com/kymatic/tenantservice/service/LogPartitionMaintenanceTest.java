@@ -0,0 +1,111 @@
+package com.kymatic.tenantservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.activity.ActivityArchiveStore;
+import com.kymatic.tenantservice.config.LogPartitionProperties;
+import com.kymatic.tenantservice.config.TenantDataSourceProvider;
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the partition plan of LogPartitionMaintenance, the retention lookup and the
+ * lease held on each tenant database.
+ */
+class LogPartitionMaintenanceTest {
+
+    private static final YearMonth OCTOBER = YearMonth.of(2026, 10);
+
+    @Test
+    void createsMissingMonthsAheadAndExpiresMonthsPastRetention() {
+        List<YearMonth> existing = List.of(
+            YearMonth.of(2026, 5), YearMonth.of(2026, 6), YearMonth.of(2026, 7),
+            YearMonth.of(2026, 8), YearMonth.of(2026, 9), OCTOBER, YearMonth.of(2026, 11));
+
+        LogPartitionMaintenance.Plan plan = LogPartitionMaintenance.plan(existing, OCTOBER, 3, 3, 0);
+
+        assertEquals(List.of(YearMonth.of(2026, 12), YearMonth.of(2027, 1)), plan.create());
+        assertEquals(List.of(YearMonth.of(2026, 5), YearMonth.of(2026, 6)), plan.expire());
+        assertEquals("activity_log_2026_05", LogPartitionMaintenance.partitionName("activity_log", YearMonth.of(2026, 5)));
+    }
+
+    @Test
+    void keepsEverythingWithoutRetention() {
+        LogPartitionMaintenance.Plan plan = LogPartitionMaintenance.plan(List.of(YearMonth.of(2001, 1)), OCTOBER, 0, 0, 0);
+
+        assertEquals(List.of(OCTOBER), plan.create());
+        assertTrue(plan.expire().isEmpty());
+        assertTrue(plan.archive().isEmpty());
+    }
+
+    @Test
+    void archivesMonthsPastTheHotWindowThatAreNotExpired() {
+        List<YearMonth> existing = List.of(
+            YearMonth.of(2025, 9), YearMonth.of(2025, 10), YearMonth.of(2026, 7), YearMonth.of(2026, 8), OCTOBER);
+
+        LogPartitionMaintenance.Plan plan = LogPartitionMaintenance.plan(existing, OCTOBER, 0, 12, 2);
+
+        assertEquals(List.of(YearMonth.of(2025, 9)), plan.expire());
+        assertEquals(List.of(YearMonth.of(2025, 10), YearMonth.of(2026, 7)), plan.archive());
+    }
+
+    @Test
+    void retentionComesFromMetadataThenTierThenDefault() {
+        LogPartitionProperties properties = new LogPartitionProperties();
+        properties.getActivityLog().setTiers(Map.of("premium", 24));
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertEquals(6, properties.activityLogRetentionMonths("premium",
+            mapper.createObjectNode().put(LogPartitionProperties.RETENTION_METADATA_KEY, 6)));
+        assertEquals(24, properties.activityLogRetentionMonths("Premium", mapper.createObjectNode()));
+        assertEquals(12, properties.activityLogRetentionMonths(null, null));
+    }
+
+    @Test
+    void everyTenantDatabaseIsMaintainedUnderALease() throws Exception {
+        TenantEntity reachable = tenant("tenant_a");
+        TenantEntity unreachable = tenant("tenant_b");
+        TenantRepository tenantRepository = mock(TenantRepository.class);
+        when(tenantRepository.findActiveOrderByRecentActivity(anyInt())).thenReturn(List.of(reachable, unreachable));
+        TenantDataSourceProvider provider = mock(TenantDataSourceProvider.class);
+        TenantDataSourceProvider.Lease reachableLease = mock(TenantDataSourceProvider.Lease.class);
+        TenantDataSourceProvider.Lease unreachableLease = mock(TenantDataSourceProvider.Lease.class);
+        when(provider.lease("tenant_a")).thenReturn(reachableLease);
+        when(provider.lease("tenant_b")).thenReturn(unreachableLease);
+        DataSource dataSource = mock(DataSource.class);
+        when(provider.getDataSource(eq("tenant_a"), any())).thenReturn(dataSource);
+        when(provider.getDataSource(eq("tenant_b"), any())).thenThrow(new IllegalStateException("budget exhausted"));
+        LogPartitionProperties properties = new LogPartitionProperties();
+        LogPartitionMaintenance maintenance = new LogPartitionMaintenance(mock(DataSource.class), provider, tenantRepository,
+            new ActivityArchiveStore(properties), properties, new SimpleMeterRegistry());
+
+        maintenance.maintainAll();
+
+        InOrder inOrder = inOrder(provider, dataSource, reachableLease);
+        inOrder.verify(provider).lease("tenant_a");
+        inOrder.verify(dataSource).getConnection();
+        inOrder.verify(reachableLease).close();
+        verify(unreachableLease).close();
+        maintenance.destroy();
+    }
+
+    private static TenantEntity tenant(String databaseName) {
+        TenantEntity tenant = new TenantEntity();
+        tenant.setTenantId(UUID.randomUUID());
+        tenant.setDatabaseName(databaseName);
+        tenant.setSubscriptionTier("starter");
+        return tenant;
+    }
+}
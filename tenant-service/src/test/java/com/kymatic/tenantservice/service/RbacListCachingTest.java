@@ -0,0 +1,123 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.cache.TenantScopedCache;
+import com.kymatic.tenantservice.dto.rbac.CreateRoleRequest;
+import com.kymatic.tenantservice.dto.rbac.CreateSiteRequest;
+import com.kymatic.tenantservice.persistence.entity.tenant.PermissionEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.RolePermissionRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.SiteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The site and role lists of SiteService and RoleService behind the "sites" and "roles"
+ * {@link TenantScopedCache}s: cached per tenant and evicted when the tenant creates a site or role.
+ */
+class RbacListCachingTest {
+
+    private static final SiteRepository siteRepository = mock(SiteRepository.class);
+    private static final RoleRepository roleRepository = mock(RoleRepository.class);
+    private static final PermissionService permissionService = mock(PermissionService.class);
+
+    private AnnotationConfigApplicationContext context;
+    private SiteService siteService;
+    private RoleService roleService;
+
+    @BeforeEach
+    void setUp() {
+        reset(siteRepository, roleRepository, permissionService);
+        when(siteRepository.findByTenantIdAndSiteCode(any(), any())).thenReturn(Optional.empty());
+        when(siteRepository.save(any())).then(returnsFirstArg());
+        when(roleRepository.save(any())).then(returnsFirstArg());
+        when(permissionService.findPermissionsByKeys(any(), eq(List.of("tasks.read")))).thenReturn(List.of(new PermissionEntity()));
+        context = new AnnotationConfigApplicationContext(CachingConfig.class);
+        siteService = context.getBean(SiteService.class);
+        roleService = context.getBean(RoleService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        context.close();
+    }
+
+    @Test
+    void siteListIsCachedPerTenantUntilTheTenantCreatesASite() {
+        TenantContext.setTenantId("tenant-a");
+        siteService.listSites();
+        siteService.listSites();
+        TenantContext.setTenantId("tenant-b");
+        siteService.listSites();
+
+        verify(siteRepository, times(1)).findByTenantIdAndDeletedAtIsNull("tenant-a");
+        verify(siteRepository, times(1)).findByTenantIdAndDeletedAtIsNull("tenant-b");
+
+        TenantContext.setTenantId("tenant-a");
+        siteService.createSite(new CreateSiteRequest("Depot", "DEP", null, null, null, null, null, null, null, false));
+        siteService.listSites();
+        TenantContext.setTenantId("tenant-b");
+        siteService.listSites();
+
+        verify(siteRepository, times(2)).findByTenantIdAndDeletedAtIsNull("tenant-a");
+        verify(siteRepository, times(1)).findByTenantIdAndDeletedAtIsNull("tenant-b");
+    }
+
+    @Test
+    void roleListIsCachedUntilTheTenantCreatesARole() {
+        TenantContext.setTenantId("tenant-a");
+        roleService.listRoles();
+        roleService.listRoles();
+
+        verify(roleRepository, times(1)).findWithPermissionKeys("tenant-a");
+
+        roleService.createRole(new CreateRoleRequest("Reader", "reader", null, 10, false, Set.of("tasks.read")));
+        roleService.listRoles();
+
+        verify(roleRepository, times(2)).findWithPermissionKeys("tenant-a");
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            SimpleCacheManager cacheManager = new SimpleCacheManager();
+            cacheManager.setCaches(List.of(cache("sites"), cache("roles")));
+            return cacheManager;
+        }
+
+        @Bean
+        SiteService siteService() {
+            return new SiteService(siteRepository, new TenantScopeService());
+        }
+
+        @Bean
+        RoleService roleService() {
+            return new RoleService(roleRepository, mock(RolePermissionRepository.class), permissionService,
+                new TenantScopeService(), mock(EffectivePermissionIndex.class));
+        }
+
+        private static TenantScopedCache cache(String name) {
+            return new TenantScopedCache(name, 1000, 100, Duration.ofMinutes(5), TenantContext::getTenantId, null, null);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.rbac.AssignRoleRequest;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentResponse;
+import com.kymatic.tenantservice.dto.rbac.BulkAssignmentResult;
+import com.kymatic.tenantservice.dto.rbac.GrantSiteAccessRequest;
+import com.kymatic.tenantservice.dto.rbac.PermissionCheck;
+import com.kymatic.tenantservice.dto.rbac.PermissionDecision;
+import com.kymatic.tenantservice.persistence.entity.tenant.RoleEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.SiteEntity;
+import com.kymatic.tenantservice.persistence.entity.tenant.UserEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.RoleAssignmentRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.SiteAccessGrantRow;
+import com.kymatic.tenantservice.persistence.repository.tenant.RoleAssignmentBulkRepository.UpsertResult;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRoleRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserSiteAccessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.kymatic.tenantservice.dto.rbac.BulkAssignmentStatus.CREATED;
+import static com.kymatic.tenantservice.dto.rbac.BulkAssignmentStatus.REJECTED;
+import static com.kymatic.tenantservice.dto.rbac.BulkAssignmentStatus.UPDATED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RoleAssignmentService request validation and bulk result mapping.
+ */
+class RoleAssignmentServiceTest {
+
+    private static final String TENANT_ID = "tenant-a";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleService roleService = mock(RoleService.class);
+    private final SiteService siteService = mock(SiteService.class);
+    private final TenantScopeService tenantScopeService = mock(TenantScopeService.class);
+    private final TenantEntityCache entityCache = mock(TenantEntityCache.class);
+    private final EffectivePermissionIndex permissionIndex = mock(EffectivePermissionIndex.class);
+    private final RoleAssignmentBulkRepository bulkRepository = mock(RoleAssignmentBulkRepository.class);
+    private final GrantExpiryScheduler expiryScheduler = mock(GrantExpiryScheduler.class);
+    private final PermissionEvaluator permissionEvaluator = mock(PermissionEvaluator.class);
+    private final ActivityLogWriter activityLog = mock(ActivityLogWriter.class);
+
+    private RoleAssignmentService service;
+
+    @BeforeEach
+    void setUp() {
+        when(tenantScopeService.requireTenantId()).thenReturn(TENANT_ID);
+        service = new RoleAssignmentService(userRepository, mock(UserRoleRepository.class),
+            mock(UserSiteAccessRepository.class), roleService, siteService, tenantScopeService, entityCache,
+            permissionIndex, bulkRepository, expiryScheduler, permissionEvaluator, activityLog);
+    }
+
+    @Test
+    void permissionChecksAreDecidedInRequestOrder() {
+        UUID userId = UUID.randomUUID();
+        UUID siteId = UUID.randomUUID();
+        when(permissionEvaluator.hasPermission(TENANT_ID, userId, null, "tasks.read")).thenReturn(true);
+        when(permissionEvaluator.hasPermission(TENANT_ID, userId, siteId, "tasks.read")).thenReturn(true);
+
+        List<PermissionDecision> decisions = service.checkPermissions(List.of(
+            new PermissionCheck(userId, "tasks.read", null),
+            new PermissionCheck(userId, "tasks.read", siteId))).decisions();
+
+        assertTrue(decisions.get(0).allowed());
+        assertFalse(decisions.get(1).allowed(), "site access is required for a site-scoped check");
+    }
+
+    @Test
+    void invalidPermissionChecksAreRejectedBeforeEvaluation() {
+        UUID userId = UUID.randomUUID();
+        PermissionCheck valid = new PermissionCheck(userId, "tasks.read", null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(null));
+        assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(
+            Collections.nCopies(RoleAssignmentService.MAX_PERMISSION_CHECKS + 1, valid)));
+        IllegalArgumentException noUser = assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(
+            List.of(valid, new PermissionCheck(null, "tasks.read", null))));
+        assertEquals("Permission check 1 has no userId", noUser.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(
+            List.of(new PermissionCheck(userId, " ", null))));
+        assertThrows(IllegalArgumentException.class, () -> service.checkPermissions(
+            Collections.singletonList(null)));
+        verifyNoInteractions(permissionEvaluator);
+    }
+
+    @Test
+    void upsertedRowsAreMappedBackToTheirRequestIndexes() {
+        UserEntity ada = user();
+        UserEntity bob = user();
+        RoleEntity editor = role("editor");
+        SiteEntity site = site();
+        stubLookups(List.of(ada, bob), List.of(editor), List.of(site));
+        // RETURNING order is not the VALUES order
+        when(bulkRepository.upsertUserRoles(eq(TENANT_ID), anyList(), any())).thenReturn(List.of(
+            new UpsertResult(bob.getUserId(), editor.getRoleId(), site.getSiteId(), false),
+            new UpsertResult(ada.getUserId(), editor.getRoleId(), null, true)));
+
+        BulkAssignmentResponse response = service.bulkAssignRoles(List.of(
+            new AssignRoleRequest(ada.getUserId(), "editor", null, null),
+            new AssignRoleRequest(ada.getUserId(), "missing", null, null),
+            new AssignRoleRequest(bob.getUserId(), "editor", site.getSiteId(), null),
+            new AssignRoleRequest(ada.getUserId(), "editor", null, null)));
+
+        assertEquals(List.of(CREATED, REJECTED, UPDATED, REJECTED),
+            response.results().stream().map(BulkAssignmentResult::status).toList());
+        assertEquals(List.of(0, 1, 2, 3), response.results().stream().map(BulkAssignmentResult::index).toList());
+        assertEquals(bob.getUserId(), response.results().get(2).userId());
+        assertEquals("Role not found: missing", response.results().get(1).error());
+        assertEquals("Duplicate of row 0", response.results().get(3).error());
+        assertEquals(1, response.created());
+        assertEquals(1, response.updated());
+        assertEquals(2, response.rejected());
+        verify(bulkRepository).upsertUserRoles(eq(TENANT_ID), eq(List.of(
+            new RoleAssignmentRow(ada.getUserId(), editor.getRoleId(), null, null),
+            new RoleAssignmentRow(bob.getUserId(), editor.getRoleId(), site.getSiteId(), null))), any());
+        verify(permissionIndex).invalidate(TENANT_ID);
+    }
+
+    @Test
+    void incompleteBulkRowsAreRejectedWithoutFailingTheOthers() {
+        UserEntity ada = user();
+        SiteEntity site = site();
+        stubLookups(List.of(ada), List.of(), List.of(site));
+        when(bulkRepository.upsertSiteAccess(eq(TENANT_ID), anyList(), any())).thenReturn(List.of(
+            new UpsertResult(ada.getUserId(), null, site.getSiteId(), true)));
+
+        BulkAssignmentResponse response = service.bulkGrantSiteAccess(Arrays.asList(
+            null,
+            new GrantSiteAccessRequest(null, site.getSiteId(), "read", null),
+            new GrantSiteAccessRequest(ada.getUserId(), null, "read", null),
+            new GrantSiteAccessRequest(ada.getUserId(), site.getSiteId(), " ", null),
+            new GrantSiteAccessRequest(ada.getUserId(), site.getSiteId(), "read", null)));
+
+        assertEquals(Arrays.asList("Row is empty", "userId is required", "siteId is required",
+                "accessLevel is required", null),
+            response.results().stream().map(BulkAssignmentResult::error).toList());
+        assertEquals(CREATED, response.results().get(4).status());
+        verify(bulkRepository).upsertSiteAccess(eq(TENANT_ID), eq(List.of(
+            new SiteAccessGrantRow(ada.getUserId(), site.getSiteId(), "read", null))), any());
+
+        BulkAssignmentResponse roles = service.bulkAssignRoles(Arrays.asList(
+            new AssignRoleRequest(null, "editor", null, null),
+            new AssignRoleRequest(ada.getUserId(), null, null, null)));
+        assertEquals(List.of("userId is required", "roleKey is required"),
+            roles.results().stream().map(BulkAssignmentResult::error).toList());
+        verify(bulkRepository, never()).upsertUserRoles(any(), any(), any());
+    }
+
+    @Test
+    void bulkRequestsOutsideTheRowLimitsAreRejected() {
+        AssignRoleRequest row = new AssignRoleRequest(UUID.randomUUID(), "editor", null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.bulkAssignRoles(null));
+        assertThrows(IllegalArgumentException.class, () -> service.bulkAssignRoles(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.bulkAssignRoles(
+            Collections.nCopies(RoleAssignmentService.MAX_BULK_ROWS + 1, row)));
+        assertThrows(IllegalArgumentException.class, () -> service.bulkGrantSiteAccess(List.of()));
+        verifyNoInteractions(bulkRepository, entityCache);
+    }
+
+    private void stubLookups(List<UserEntity> users, List<RoleEntity> roles, List<SiteEntity> sites) {
+        when(entityCache.getAll(eq(UserEntity.class), any(), any(), any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(1);
+            assertFalse(ids.contains(null), "null ids must not reach the users query");
+            return users.stream().filter(user -> ids.contains(user.getUserId()))
+                .collect(Collectors.toMap(UserEntity::getUserId, user -> user));
+        });
+        when(roleService.findRolesByKeys(eq(TENANT_ID), any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(1);
+            assertFalse(keys.contains(null), "null keys must not reach the roles query");
+            return roles.stream().filter(role -> keys.contains(role.getRoleKey()))
+                .collect(Collectors.toMap(RoleEntity::getRoleKey, role -> role));
+        });
+        when(siteService.findTenantSites(eq(TENANT_ID), any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(1);
+            assertFalse(ids.contains(null), "null ids must not reach the sites query");
+            return sites.stream().filter(site -> ids.contains(site.getSiteId()))
+                .collect(Collectors.toMap(SiteEntity::getSiteId, site -> site));
+        });
+    }
+
+    private static UserEntity user() {
+        UserEntity user = new UserEntity();
+        user.setUserId(UUID.randomUUID());
+        user.setTenantId(TENANT_ID);
+        user.setEmail(user.getUserId() + "@example.com");
+        return user;
+    }
+
+    private static RoleEntity role(String roleKey) {
+        RoleEntity role = new RoleEntity();
+        role.setRoleId(UUID.randomUUID());
+        role.setRoleKey(roleKey);
+        return role;
+    }
+
+    private static SiteEntity site() {
+        SiteEntity site = new SiteEntity();
+        site.setSiteId(UUID.randomUUID());
+        site.setActive(true);
+        return site;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kymatic.tenantservice.service;
+
+import com.kymatic.tenantservice.persistence.entity.TenantEntity;
+import com.kymatic.tenantservice.persistence.repository.TenantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TenantIdentifierResolver caching: slug aliases, negative entries and eviction.
+ */
+class TenantIdentifierResolverTest {
+
+    private TenantRepository tenantRepository;
+    private TenantIdentifierResolver resolver;
+    private TenantEntity tenant;
+
+    @BeforeEach
+    void setUp() {
+        tenant = new TenantEntity();
+        tenant.setTenantId(UUID.randomUUID());
+        tenant.setSlug("acme");
+        tenant.setStatus("active");
+        tenant.setDatabaseName("acme");
+
+        tenantRepository = mock(TenantRepository.class);
+        when(tenantRepository.findById(tenant.getTenantId())).thenReturn(Optional.of(tenant));
+        when(tenantRepository.findBySlug("acme")).thenReturn(Optional.of(tenant));
+        when(tenantRepository.findBySlug("unknown")).thenReturn(Optional.empty());
+        resolver = new TenantIdentifierResolver(tenantRepository);
+    }
+
+    @Test
+    void slugLookupSeedsCanonicalEntry() {
+        assertSame(tenant, resolver.resolveTenantEntity("acme"));
+        assertSame(tenant, resolver.resolveTenantEntity(tenant.getTenantId().toString()));
+        assertSame(tenant, resolver.resolveTenantEntity("acme"));
+
+        verify(tenantRepository, times(1)).findBySlug("acme");
+        verify(tenantRepository, never()).findById(any());
+    }
+
+    @Test
+    void unknownSlugIsCachedAsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveTenantEntity("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveTenantEntity("unknown"));
+
+        verify(tenantRepository, times(1)).findBySlug("unknown");
+    }
+
+    @Test
+    void evictionClearsNegativeEntryForNewSlug() {
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveTenantEntity("unknown"));
+
+        TenantEntity created = new TenantEntity();
+        created.setTenantId(UUID.randomUUID());
+        created.setSlug("unknown");
+        when(tenantRepository.findBySlug("unknown")).thenReturn(Optional.of(created));
+        resolver.evictTenant(created.getTenantId(), "unknown");
+
+        assertSame(created, resolver.resolveTenantEntity("unknown"));
+    }
+
+    @Test
+    void evictionReloadsUpdatedTenant() {
+        resolver.resolveTenantEntity(tenant.getTenantId().toString());
+
+        TenantEntity suspended = new TenantEntity();
+        suspended.setTenantId(tenant.getTenantId());
+        suspended.setSlug("acme");
+        suspended.setStatus("suspended");
+        when(tenantRepository.findById(tenant.getTenantId())).thenReturn(Optional.of(suspended));
+        when(tenantRepository.findBySlug("acme")).thenReturn(Optional.of(suspended));
+        resolver.evictTenant(tenant.getTenantId(), null);
+
+        assertEquals("suspended", resolver.resolveTenantEntity(tenant.getTenantId().toString()).getStatus());
+        // The slug alias was dropped together with the canonical entry
+        assertEquals("suspended", resolver.resolveTenantEntity("acme").getStatus());
+    }
+}
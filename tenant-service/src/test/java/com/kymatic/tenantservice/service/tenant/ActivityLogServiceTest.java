@@ -0,0 +1,176 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.tenantservice.activity.ActivityArchiveStore;
+import com.kymatic.tenantservice.activity.ArchivedActivity;
+import com.kymatic.tenantservice.config.LogPartitionProperties;
+import com.kymatic.tenantservice.dto.tenant.ActivityLogResponse;
+import com.kymatic.tenantservice.dto.tenant.ActivityLogStatsResponse;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import com.kymatic.tenantservice.persistence.entity.tenant.ActivityLogEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.ActivityLogRollupRepository;
+import com.kymatic.tenantservice.service.TenantDatabaseResolver;
+import com.kymatic.tenantservice.service.TenantRoutingHandle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActivityLogService reads that merge activity_log with the activity archive, and
+ * the hour rounding of activity stats ranges.
+ *
+ * Log ids 1-10 are archived (January), 10-13 are in activity_log (10 still attached while its
+ * month is being archived).
+ */
+class ActivityLogServiceTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+    private static final UUID USER = UUID.randomUUID();
+    private static final Instant ARCHIVED_START = Instant.parse("2024-01-15T12:00:00Z");
+    private static final Instant HOT_START = Instant.parse("2024-02-15T12:00:00Z");
+
+    private final ActivityLogRepository repository = mock(ActivityLogRepository.class);
+    private final TenantExportWriter exportWriter = mock(TenantExportWriter.class);
+    private final TenantDatabaseResolver tenantDatabaseResolver = mock(TenantDatabaseResolver.class);
+    private final ActivityLogRollupRepository rollupRepository = mock(ActivityLogRollupRepository.class);
+    private ActivityLogService service;
+
+    @BeforeEach
+    void setUp(@TempDir Path directory) throws IOException {
+        LogPartitionProperties properties = new LogPartitionProperties();
+        properties.getArchive().setEnabled(true);
+        properties.getArchive().setDirectory(directory.toString());
+        properties.getArchive().setGroupSize(3);
+        ActivityArchiveStore archiveStore = new ActivityArchiveStore(properties);
+        try (ActivityArchiveStore.Archiving archiving = archiveStore.begin(TENANT.toString(),
+            YearMonth.from(ARCHIVED_START.atZone(ZoneId.systemDefault())))) {
+            for (long logId = 1; logId <= 10; logId++) {
+                archiving.append(new ArchivedActivity(logId, "tenant-a", null, USER, "created", "task", null, null,
+                    null, null, null, archivedAt(logId)));
+            }
+            archiving.commit();
+        }
+        when(tenantDatabaseResolver.getCurrentRoutingHandle()).thenReturn(new TenantRoutingHandle(TENANT, "tenant_a", "basic"));
+        service = new ActivityLogService(repository, rollupRepository, exportWriter, archiveStore,
+            tenantDatabaseResolver, new ObjectMapper());
+    }
+
+    @Test
+    void keysetPagesMergeArchivedRowsUpToThePageSize() {
+        when(repository.<ActivityLogEntity, List<ActivityLogEntity>>findBy(anySpecification(), any()))
+            .thenReturn(hot(13, 12, 11, 10))
+            .thenReturn(List.of());
+
+        CursorPage<ActivityLogResponse> first = service.listActivityLogs(USER, null, null, null, null, null, 5);
+        assertEquals(List.of(13L, 12L, 11L, 10L, 9L), logIds(first.items()));
+        assertNotNull(first.nextCursor());
+
+        CursorPage<ActivityLogResponse> second = service.listActivityLogs(USER, null, null, null, null, first.nextCursor(), 5);
+        assertEquals(List.of(8L, 7L, 6L, 5L, 4L), logIds(second.items()));
+
+        CursorPage<ActivityLogResponse> last = service.listActivityLogs(USER, null, null, null, null, second.nextCursor(), 5);
+        assertEquals(List.of(3L, 2L, 1L), logIds(last.items()));
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void listsWithoutCursorOrSizeReturnTheDefaultPageNewestFirstOnce() {
+        when(repository.<ActivityLogEntity, List<ActivityLogEntity>>findBy(anySpecification(), any()))
+            .thenReturn(hot(13, 12, 11, 10));
+
+        CursorPage<ActivityLogResponse> all = service.getActivityLogsByUser(USER, null, null, null, null);
+
+        assertEquals(LongStream.iterate(13, id -> id >= 1, id -> id - 1).boxed().toList(), logIds(all.items()));
+        assertNull(all.nextCursor());
+    }
+
+    @Test
+    void singleLogsAreFoundInTheArchive() {
+        assertEquals(archivedAt(3), service.getActivityLog(3L).createdAt().toInstant());
+        assertThrows(IllegalArgumentException.class, () -> service.getActivityLog(99L));
+    }
+
+    @Test
+    void exportWritesArchivedRowsBeforeActivityLogInCreationOrder() throws IOException {
+        when(repository.streamAllForExport()).thenReturn(hot(10, 11, 12, 13).stream());
+        List<Long> exported = new ArrayList<>();
+        when(exportWriter.write(eq("activity_logs"), any(), any(), eq(ActivityLogResponse.class), eq(ExportFormat.NDJSON), any()))
+            .thenAnswer(invocation -> {
+                Stream<ActivityLogResponse> rows = invocation.getArgument(1);
+                Function<ActivityLogResponse, ActivityLogResponse> mapper = invocation.getArgument(2);
+                rows.map(mapper).forEach(row -> exported.add(row.logId()));
+                return (long) exported.size();
+            });
+
+        assertEquals(13, service.exportActivityLogs(ExportFormat.NDJSON, new ByteArrayOutputStream()));
+        assertEquals(LongStream.rangeClosed(1, 13).boxed().toList(), exported);
+    }
+
+    @Test
+    void statsRangesAreRoundedOutToWholeHours() {
+        ZoneId zone = ZoneId.systemDefault();
+        OffsetDateTime from = ZonedDateTime.of(2024, 3, 5, 10, 30, 0, 0, zone).toOffsetDateTime();
+        OffsetDateTime to = ZonedDateTime.of(2024, 3, 5, 12, 15, 0, 0, zone).toOffsetDateTime();
+        Instant fromHour = ZonedDateTime.of(2024, 3, 5, 10, 0, 0, 0, zone).toInstant();
+        Instant toHour = ZonedDateTime.of(2024, 3, 5, 13, 0, 0, 0, zone).toInstant();
+        when(rollupRepository.count("action", null, fromHour, toHour))
+            .thenReturn(List.of(new ActivityLogRollupRepository.Count(null, "created", 7)));
+
+        ActivityLogStatsResponse stats = service.getActivityStats(ActivityStatsGroup.ACTION, ActivityStatsInterval.TOTAL, from, to);
+
+        assertEquals(fromHour, stats.createdFrom().toInstant());
+        assertEquals(toHour, stats.createdTo().toInstant());
+        assertEquals(7, stats.total());
+        OffsetDateTime onTheHour = ZonedDateTime.of(2024, 3, 5, 12, 0, 0, 0, zone).toOffsetDateTime();
+        assertEquals(onTheHour, ActivityLogService.hourCeiling(onTheHour, zone));
+    }
+
+    private static Specification<ActivityLogEntity> anySpecification() {
+        return ArgumentMatchers.any();
+    }
+
+    private static Instant archivedAt(long logId) {
+        return ARCHIVED_START.plusSeconds(logId * 60);
+    }
+
+    private static List<ActivityLogEntity> hot(long... logIds) {
+        List<ActivityLogEntity> rows = new ArrayList<>();
+        for (long logId : logIds) {
+            ActivityLogEntity row = new ActivityLogEntity();
+            row.setLogId(logId);
+            row.setUserId(USER);
+            row.setAction("created");
+            row.setEntityType("task");
+            Instant createdAt = logId == 10 ? archivedAt(10) : HOT_START.plusSeconds(logId * 60);
+            row.setCreatedAt(OffsetDateTime.ofInstant(createdAt, ZoneId.systemDefault()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Long> logIds(List<ActivityLogResponse> rows) {
+        return rows.stream().map(ActivityLogResponse::logId).toList();
+    }
+}
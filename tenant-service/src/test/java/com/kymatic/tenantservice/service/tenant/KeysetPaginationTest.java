@@ -0,0 +1,58 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KeysetPagination page sizing and continuation tokens.
+ */
+class KeysetPaginationTest {
+
+    private record Row(OffsetDateTime createdAt, UUID id) {
+    }
+
+    @Test
+    void pageSizeIsClampedToTheHardCap() {
+        assertEquals(KeysetPagination.DEFAULT_PAGE_SIZE, KeysetPagination.pageSize(null));
+        assertEquals(KeysetPagination.DEFAULT_PAGE_SIZE, KeysetPagination.pageSize(0));
+        assertEquals(10, KeysetPagination.pageSize(10));
+        assertEquals(KeysetPagination.MAX_PAGE_SIZE, KeysetPagination.pageSize(100_000));
+    }
+
+    @Test
+    void extraRowProducesCursorOfLastReturnedRow() {
+        OffsetDateTime now = OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000, ZoneOffset.UTC);
+        List<Row> rows = List.of(
+            new Row(now, UUID.randomUUID()),
+            new Row(now.minusSeconds(1), UUID.randomUUID()),
+            new Row(now.minusSeconds(2), UUID.randomUUID()));
+
+        CursorPage<UUID> page = KeysetPagination.toPage(rows, 2, Row::id, Row::createdAt, Row::id);
+
+        assertEquals(List.of(rows.get(0).id(), rows.get(1).id()), page.items());
+        assertEquals(KeysetPagination.encode(rows.get(1).createdAt(), rows.get(1).id()), page.nextCursor());
+        assertNotNull(KeysetPagination.after(page.nextCursor(), "taskId", UUID::fromString));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Row> rows = List.of(new Row(OffsetDateTime.now(), UUID.randomUUID()));
+
+        assertNull(KeysetPagination.toPage(rows, 2, Row::id, Row::createdAt, Row::id).nextCursor());
+        assertNull(KeysetPagination.after(null, "taskId", UUID::fromString));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.after("not a cursor", "taskId", UUID::fromString));
+        String badId = KeysetPagination.encode(OffsetDateTime.now(), "nope");
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.after(badId, "taskId", UUID::fromString));
+    }
+}
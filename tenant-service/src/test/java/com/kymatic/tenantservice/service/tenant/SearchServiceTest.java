@@ -0,0 +1,74 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.dto.tenant.CursorPage;
+import com.kymatic.tenantservice.dto.tenant.SearchResult;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository.SearchCursor;
+import com.kymatic.tenantservice.persistence.repository.tenant.SearchRepository.SearchHit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SearchService query building, type selection and keyset cursors.
+ */
+class SearchServiceTest {
+
+    private final SearchRepository repository = mock(SearchRepository.class);
+    private final SearchService service = new SearchService(repository);
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void prefixQueriesKeepOnlyWords() {
+        assertEquals("ada:* & love:*", SearchService.prefixQuery("  Ada & LOVE:* "));
+        assertEquals("o:* & brien:*", SearchService.prefixQuery("O'Brien"));
+        assertThrows(IllegalArgumentException.class, () -> SearchService.prefixQuery("!:*&|"));
+    }
+
+    @Test
+    void nextPageStartsAfterTheLastHitOfThePage() {
+        SearchHit first = hit("task", 0.9f);
+        SearchHit second = hit("user", 0.5f);
+        when(repository.search(eq("tenant-a"), eq("report"), eq(false), eq(Set.of("task", "user")), isNull(), eq(3)))
+            .thenReturn(List.of(first, second, hit("task", 0.1f)));
+
+        CursorPage<SearchResult> page = service.search("report", List.of("Task", "user"), false, null, 2);
+
+        assertEquals(List.of(first.id(), second.id()), page.items().stream().map(SearchResult::id).toList());
+        assertNotNull(page.nextCursor());
+
+        when(repository.search(anyString(), anyString(), anyBoolean(), any(), any(), anyInt())).thenReturn(List.of());
+        service.search("report", null, false, page.nextCursor(), 2);
+        verify(repository).search("tenant-a", "report", false, Set.of("task", "project", "user"),
+            new SearchCursor(0.5f, "user", second.id()), 3);
+        assertThrows(IllegalArgumentException.class, () -> service.search("report", List.of("site"), false, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.search("report", null, false, "bm90LWEtY3Vyc29y", null));
+    }
+
+    private static SearchHit hit(String type, float rank) {
+        return new SearchHit(type, UUID.randomUUID(), "Report", null, "<mark>Report</mark>", "", rank);
+    }
+}
@@ -0,0 +1,134 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.cache.TenantEntityCache;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchResponse;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchResult;
+import com.kymatic.tenantservice.dto.tenant.TaskBatchStatus;
+import com.kymatic.tenantservice.dto.tenant.TaskRequest;
+import com.kymatic.tenantservice.dto.tenant.TaskUpdate;
+import com.kymatic.tenantservice.persistence.entity.tenant.TaskEntity;
+import com.kymatic.tenantservice.persistence.repository.tenant.ProjectRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.TaskBatchRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.TaskBatchRepository.TaskPatch;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TaskBatchService validation, chunking and per-item results.
+ */
+class TaskBatchServiceTest {
+
+    private static final UUID PROJECT = UUID.randomUUID();
+    private static final UUID USER = UUID.randomUUID();
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final TaskBatchRepository taskBatchRepository = mock(TaskBatchRepository.class);
+    private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TenantEntityCache entityCache = mock(TenantEntityCache.class);
+    private final ActivityLogWriter activityLog = mock(ActivityLogWriter.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private TaskBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId("tenant-a");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(projectRepository.findExistingIds(any())).thenReturn(List.of(PROJECT));
+        when(userRepository.findExistingIds(any())).thenReturn(List.of(USER));
+        service = new TaskBatchService(entityManager, taskBatchRepository, projectRepository, userRepository,
+            entityCache, activityLog, transactionManager, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void createsValidTasksInChunksAndIsolatesFailedChunks() {
+        UUID unknownProject = UUID.randomUUID();
+        List<TaskRequest> requests = List.of(
+            task(PROJECT, "First", USER),
+            task(unknownProject, "Unknown project", null),
+            task(PROJECT, " ", null),
+            task(PROJECT, "Second", null),
+            task(PROJECT, "Third", UUID.randomUUID()),
+            task(PROJECT, "Fails", null));
+        List<String> persisted = new ArrayList<>();
+        doAnswer(invocation -> {
+            TaskEntity entity = invocation.getArgument(0);
+            if (entity.getTitle().equals("Fails")) {
+                throw new PersistenceException("constraint violation");
+            }
+            persisted.add(entity.getTitle());
+            return null;
+        }).when(entityManager).persist(any(TaskEntity.class));
+
+        TaskBatchResponse response = service.createTasks(requests);
+
+        assertEquals(List.of(TaskBatchStatus.CREATED, TaskBatchStatus.REJECTED, TaskBatchStatus.REJECTED,
+            TaskBatchStatus.CREATED, TaskBatchStatus.REJECTED, TaskBatchStatus.FAILED), statuses(response));
+        assertEquals("Project not found: " + unknownProject, response.results().get(1).error());
+        assertEquals("Title is required", response.results().get(2).error());
+        assertTrue(response.results().get(4).error().startsWith("User not found"));
+        assertEquals(List.of("First", "Second"), persisted);
+        assertNotNull(response.results().get(0).taskId());
+        assertEquals(2, response.succeeded());
+        assertEquals(4, response.failed());
+        verify(transactionManager).commit(any());
+        verify(transactionManager).rollback(any());
+        verify(activityLog).record(eq("created"), eq("task"), eq(response.results().get(0).taskId()), eq("First"), any());
+        verify(activityLog).record(eq("created"), eq("task"), eq(response.results().get(3).taskId()), eq("Second"), any());
+        verifyNoMoreInteractions(activityLog);
+    }
+
+    @Test
+    void updatesAreSetBasedAndReportMissingAndDuplicateTasks() {
+        UUID existing = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(taskBatchRepository.updateTasks(any())).thenReturn(Set.of(existing));
+
+        TaskBatchResponse response = service.updateTasks(List.of(
+            new TaskUpdate(existing, null, "Renamed", null, USER, "done", null),
+            new TaskUpdate(missing, null, null, null, null, "done", null),
+            new TaskUpdate(existing, null, null, null, null, "open", null)));
+
+        assertEquals(List.of(TaskBatchStatus.UPDATED, TaskBatchStatus.NOT_FOUND, TaskBatchStatus.REJECTED),
+            statuses(response));
+        assertEquals("Duplicate of item 0", response.results().get(2).error());
+        verify(taskBatchRepository).updateTasks(List.of(
+            new TaskPatch(existing, null, "Renamed", null, USER, "done", null),
+            new TaskPatch(missing, null, null, null, null, "done", null)));
+        verify(entityCache).evict(TaskEntity.class, existing);
+        verify(entityCache, never()).evict(TaskEntity.class, missing);
+        verify(activityLog).record(eq("updated"), eq("task"), eq(existing), eq("Renamed"), any());
+        verifyNoMoreInteractions(activityLog);
+    }
+
+    private static TaskRequest task(UUID projectId, String title, UUID assignedTo) {
+        return new TaskRequest(projectId, title, null, assignedTo, "open", null);
+    }
+
+    private static List<TaskBatchStatus> statuses(TaskBatchResponse response) {
+        return response.results().stream().map(TaskBatchResult::status).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TenantExportWriter output formats and persistence context clearing.
+ */
+class TenantExportWriterTest {
+
+    private record Row(int id, String title) {
+    }
+
+    private EntityManager entityManager;
+    private SimpleMeterRegistry meterRegistry;
+    private TenantExportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new TenantExportWriter(new ObjectMapper(), entityManager, meterRegistry);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write("tasks", Stream.of(new Row(1, "a"), new Row(2, "b")),
+            Function.identity(), Row.class, ExportFormat.NDJSON, out);
+
+        assertEquals(2, count);
+        assertEquals("{\"id\":1,\"title\":\"a\"}\n{\"id\":2,\"title\":\"b\"}\n", out.toString(StandardCharsets.UTF_8));
+        assertEquals(2, meterRegistry.get("tenant.export.rows").counter().count());
+    }
+
+    @Test
+    void writesCsvWithHeaderAndQuoting() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.write("tasks", Stream.of(new Row(1, "plain"), new Row(2, "say \"hi\", then\nleave"), new Row(3, null)),
+            Function.identity(), Row.class, ExportFormat.CSV, out);
+
+        assertEquals("id,title\r\n1,plain\r\n2,\"say \"\"hi\"\", then\nleave\"\r\n3,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void clearsPersistenceContextWhileStreaming() throws Exception {
+        Stream<Row> rows = IntStream.range(0, TenantExportWriter.FETCH_SIZE * 2 + 1).mapToObj(i -> new Row(i, "t"));
+
+        writer.write("tasks", rows, Function.identity(), Row.class, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        verify(entityManager, times(2)).clear();
+    }
+}
@@ -0,0 +1,117 @@
+package com.kymatic.tenantservice.service.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kymatic.shared.multitenancy.TenantContext;
+import com.kymatic.tenantservice.activity.ActivityLogWriter;
+import com.kymatic.tenantservice.dto.tenant.UserImportError;
+import com.kymatic.tenantservice.dto.tenant.UserImportResponse;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserImportRepository;
+import com.kymatic.tenantservice.persistence.repository.tenant.UserImportRepository.StagedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserImportService parsing, validation, deduplication and the error report.
+ */
+class UserImportServiceTest {
+
+    private static final String TENANT = "tenant-a";
+
+    private final UserImportRepository repository = mock(UserImportRepository.class);
+    private final ActivityLogWriter activityLog = mock(ActivityLogWriter.class);
+    private final Map<String, UUID> insertedIds = new LinkedHashMap<>();
+    private final List<StagedUser> staged = new ArrayList<>();
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT);
+        service = new UserImportService(repository, new ObjectMapper(), activityLog);
+        // Drain the rows like the COPY does; existing@example.com is already in users
+        when(repository.importUsers(eq(TENANT), any())).thenAnswer(invocation -> {
+            Iterator<StagedUser> rows = invocation.getArgument(1);
+            rows.forEachRemaining(row -> {
+                staged.add(row);
+                if (!row.email().equals("existing@example.com")) {
+                    insertedIds.put(row.email(), UUID.randomUUID());
+                }
+            });
+            return insertedIds;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void csvRowsAreValidatedDedupedAndReported() throws Exception {
+        String csv = """
+            email,first_name,last_name,is_active
+            ada@example.com,Ada,"Lovelace, Countess",true
+            not-an-email,Bad,Row,true
+            ada@example.com,Ada,Again,true
+            existing@example.com,Old,User,false
+            grace@example.com,Grace,"Hopper \"\"Amazing\"\"",no
+            """;
+
+        UserImportResponse response = service.importUsers(null, ExportFormat.CSV, stream(csv));
+
+        assertEquals("COMPLETED", response.status());
+        assertEquals(5, response.rowsRead());
+        assertEquals(2, response.rowsImported());
+        assertEquals(3, response.rowsRejected());
+        assertEquals(List.of(2L, 3L, 4L), response.errors().stream().map(UserImportError::row).toList());
+        assertEquals("Duplicate of row 1", response.errors().get(1).error());
+        assertEquals("User with email already exists", response.errors().get(2).error());
+        assertEquals(new StagedUser("ada@example.com", "Ada", "Lovelace, Countess", true), staged.get(0));
+        assertEquals(new StagedUser("grace@example.com", "Grace", "Hopper \"Amazing\"", false), staged.get(2));
+        assertEquals(response, service.getImport(response.importId()));
+        Map<String, Object> changes = Map.of("importId", response.importId());
+        verify(activityLog).record("created", "user", insertedIds.get("ada@example.com"), "ada@example.com", changes);
+        verify(activityLog).record("created", "user", insertedIds.get("grace@example.com"), "grace@example.com", changes);
+        verifyNoMoreInteractions(activityLog);
+    }
+
+    @Test
+    void malformedNdjsonLinesAreRejectedWithoutStoppingTheImport() throws Exception {
+        String ndjson = """
+            {"email":"ada@example.com","firstName":"Ada"}
+            {"email":
+
+            {"email":"grace@example.com","isActive":false}
+            """;
+        UUID importId = UUID.randomUUID();
+
+        UserImportResponse response = service.importUsers(importId, ExportFormat.NDJSON, stream(ndjson));
+
+        assertEquals(importId, response.importId());
+        assertEquals(3, response.rowsRead());
+        assertEquals(2, response.rowsImported());
+        assertEquals(1, response.rowsRejected());
+        assertTrue(response.errors().get(0).error().startsWith("Malformed JSON"));
+        assertFalse(staged.get(1).active());
+        assertThrows(IllegalArgumentException.class,
+            () -> service.importUsers(importId, ExportFormat.NDJSON, stream("")));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,13 +4,17 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kymatic.workflow.persistence.entity.TenantEntity;
 import com.kymatic.workflow.persistence.repository.TenantRepository;
+import com.kymatic.workflow.service.TenantServiceClient;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
@@ -39,10 +43,13 @@ public class TenantRecordDelegate implements JavaDelegate {
 
 	private final TenantRepository tenantRepository;
 	private final ObjectMapper objectMapper;
+	private final TenantServiceClient tenantServiceClient;
 
-	public TenantRecordDelegate(TenantRepository tenantRepository, ObjectMapper objectMapper) {
+	public TenantRecordDelegate(TenantRepository tenantRepository, ObjectMapper objectMapper,
+			TenantServiceClient tenantServiceClient) {
 		this.tenantRepository = tenantRepository;
 		this.objectMapper = objectMapper;
+		this.tenantServiceClient = tenantServiceClient;
 	}
 
 	@Override
@@ -103,6 +110,7 @@ public class TenantRecordDelegate implements JavaDelegate {
 
 		// Save tenant record
 		TenantEntity saved = tenantRepository.save(tenant);
+		evictTenantServiceCacheAfterCommit(saved.getTenantId(), slug);
 
 		// Set workflow variables
 		execution.setVariable("tenantId", saved.getTenantId().toString());
@@ -110,4 +118,29 @@ public class TenantRecordDelegate implements JavaDelegate {
 
 		logger.info("Tenant record saved successfully: tenantId={}, slug={}", saved.getTenantId(), slug);
 	}
+
+	/**
+	 * tenant-service caches tenant lookups, including "not found" for unknown slugs.
+	 * Evict once the record is committed so the new tenant is visible there immediately.
+	 * Failure only delays visibility until the cache entry expires, so it does not fail the workflow.
+	 */
+	private void evictTenantServiceCacheAfterCommit(UUID tenantId, String slug) {
+		Runnable evict = () -> {
+			try {
+				tenantServiceClient.evictTenantCache(tenantId, slug);
+			} catch (Exception e) {
+				logger.warn("Could not evict tenant-service cache for tenant {}: {}", tenantId, e.getMessage());
+			}
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict.run();
+				}
+			});
+		} else {
+			evict.run();
+		}
+	}
 }
@@ -40,6 +40,20 @@ public class TenantServiceClient {
         post(url, request, Void.class);
     }
 
+    /**
+     * Ask tenant-service to drop cached lookups for a tenant record written by this service.
+     */
+    public void evictTenantCache(UUID tenantId, String slug) {
+        String url = properties.getTenantService().getBaseUrl() + "/api/tenants/" + tenantId + "/cache/evict?slug={slug}";
+        logger.debug("Calling tenant-service to evict cached lookups for tenant {}", tenantId);
+        try {
+            restTemplate.postForLocation(url, null, slug);
+        } catch (RestClientException ex) {
+            logger.error("Call to tenant-service failed: {}", ex.getMessage(), ex);
+            throw ex;
+        }
+    }
+
     private <T> T post(String url, Object body, Class<T> responseType) {
         try {
             HttpHeaders headers = new HttpHeaders();